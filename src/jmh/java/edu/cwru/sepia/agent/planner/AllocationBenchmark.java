@@ -0,0 +1,94 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AllocationPlanner'ın köylü sayısıyla süresi, SyntheticWorlds.large()
+ * haritasında (64x64, 6 maden + 6 orman), köylüler rastgele boş hücrelerde.
+ *
+ * Modlar:
+ * - ALLOCATE: sıfırdan dağıtım
+ * - REALLOCATE: en çok köylü atanmış düğüm tükendikten sonra önceki dağıtımı
+ *   koruyarak yeniden çözme (sadece o düğümün köylüleri akışa giriyor)
+ *
+ * Çıktıda allocate satırı: çağrı başına süre (ms).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+    public enum Mode {
+        ALLOCATE,
+        REALLOCATE
+    }
+
+    @Param({"10", "50", "100"})
+    public int peasants;
+
+    // Altın ve odun hedefi aynı (goal/goal)
+    @Param({"3000"})
+    public int goal;
+
+    @Param({"ALLOCATE", "REALLOCATE"})
+    public Mode mode;
+
+    private GameStateMulti start;
+    private GameStateMulti exhausted;
+    private AllocationPlanner.Allocation previous;
+    private AllocationPlanner planner;
+
+    @Setup
+    public void setUp() {
+        WorldModel world = SyntheticWorlds.large(64, 6, 6, 42);
+        Random random = new Random(1);
+        int[] xs = new int[peasants];
+        int[] ys = new int[peasants];
+        for (int i = 0; i < peasants; i++) {
+            do {
+                xs[i] = random.nextInt(world.mapWidth());
+                ys[i] = random.nextInt(world.mapHeight());
+            } while (!world.isPassable(xs[i], ys[i]));
+        }
+        start = new GameStateMulti(world, xs, ys, goal, goal);
+        planner = new AllocationPlanner();
+
+        // En kalabalık düğümü tüket
+        previous = planner.allocate(start);
+        int[] count = new int[world.resourceCount()];
+        int busiest = 0;
+        for (int i = 0; i < peasants; i++) {
+            int node = previous.getNode(i);
+            if (node >= 0 && ++count[node] > count[busiest]) {
+                busiest = node;
+            }
+        }
+        long[] key = start.key().clone();
+        GameStateMulti.packRemaining(key, peasants, busiest, 0);
+        exhausted = GameStateMulti.fromKey(start, key);
+    }
+
+    @Benchmark
+    public AllocationPlanner.Allocation allocate() {
+        if (mode == Mode.ALLOCATE) {
+            return planner.allocate(start);
+        }
+        return planner.reallocate(exhausted, previous);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AStarPlanner.findPlan uçtan uca.
+ *
+ * Çıktıda:
+ * - findPlan satırı: saniyedeki plan sayısı (throughput)
+ * - findPlan:expandedNodes satırı: saniyede expand edilen düğüm
+ * - -prof gc ile gc.alloc.rate / gc.alloc.rate.norm (plan başına bayt)
+ *
+ * TravelAwareHeuristic tek köylülü dünyalarda (rc_3m5t ve large()) tam isabetli:
+ * her modda ve 10000/10000'e kadar her hedefte expand sayısı plan uzunluğu kadar,
+ * ölçülen şey aramadan çok plan kurmak oluyor. Bu yüzden varsayılan heuristic
+ * TRIP_COUNT (hareketi saymayan zayıf alt sınır): open list, arena ve closed set
+ * gerçekten çalışıyor (rc_3m5t, 1000/1000 makro: budamasız ~184 bin, budamalı
+ * ~64 bin expand). Primitive mod TRIP_COUNT ile 1000/1000'de plan başına
+ * saniyeler sürüyor; onu küçük hedeflerle çalıştırın:
+ *   -p mode=PRIMITIVE,PRIMITIVE_PRUNED -p goal=200,600
+ * Gerçek planlayıcı ayarı da ölçülebilir:
+ *   -p heuristic=TRAVEL_AWARE -p goal=1000,10000
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FindPlanBenchmark {
+
+    public enum PlannerMode {
+        PRIMITIVE(false, false),
+        PRIMITIVE_PRUNED(false, true),
+        MACRO(true, false),
+        MACRO_PRUNED(true, true);
+
+        final boolean macro;
+        final boolean pruning;
+
+        PlannerMode(boolean macro, boolean pruning) {
+            this.macro = macro;
+            this.pruning = pruning;
+        }
+    }
+
+    public enum HeuristicKind {
+        TRAVEL_AWARE,
+        TRIP_COUNT;
+
+        Heuristic create() {
+            return this == TRAVEL_AWARE ? new TravelAwareHeuristic() : new TripCountHeuristic();
+        }
+    }
+
+    // Altın ve odun hedefi aynı (goal/goal)
+    @Param({"200", "600", "1000"})
+    public int goal;
+
+    @Param({"MACRO", "MACRO_PRUNED"})
+    public PlannerMode mode;
+
+    @Param({"TRIP_COUNT"})
+    public HeuristicKind heuristic;
+
+    private GameState start;
+    private AStarPlanner planner;
+
+    /**
+     * Expand edilen düğümleri JMH'ye "işlem" olarak sayar (düğüm/saniye).
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long expandedNodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expandedNodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        start = SyntheticWorlds.start(goal, goal);
+        planner = new AStarPlanner(mode.macro);
+        planner.setUseSymmetryPruning(mode.pruning);
+        planner.setHeuristic(heuristic.create());
+    }
+
+    @Benchmark
+    public Stack<StripsAction> findPlan(Counters counters) {
+        Stack<StripsAction> plan = planner.findPlan(start);
+        counters.expandedNodes += planner.getExpandedNodeCount();
+        return plan;
+    }
+}
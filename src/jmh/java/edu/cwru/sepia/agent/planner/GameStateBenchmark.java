@@ -0,0 +1,101 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameState ve A*'ın successor üretimindeki sıcak yollar.
+ *
+ * İki tipik state kullanılıyor: köylü TownHall'da eli boş (en çok successor)
+ * ve köylü bir madende eli boş (Harvest dalı). Hepsi rc_3m5t kopyası
+ * üzerinde, 1000/1000 hedefiyle.
+ *
+ * generateApplicableActions / generateMacroActions nesne tabanlı API;
+ * A*'ın kullandığı karşılıkları ActionCodec.generate / writeSuccessorKey.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateBenchmark {
+
+    private GameState atTownHall;
+    private GameState atMine;
+
+    // atTownHall ile aynı state, ayrı nesne (equals'ın kısa yoldan dönmemesi için)
+    private GameState atTownHallCopy;
+
+    private ActionCodec codec;
+    private int[] codes;
+    private long[] successorKey;
+    private int mineCode;
+
+    @Setup
+    public void setUp() {
+        GameState start = SyntheticWorlds.start(1000, 1000);
+        WorldModel.TownHallInfo hall = start.world.primaryTownHall();
+        atTownHall = start.withPeasantAt(hall.x, hall.y);
+        atTownHallCopy = start.withPeasantAt(hall.x, hall.y);
+        WorldModel.ResourceInfo mine = start.world.resource(1);
+        atMine = start.withPeasantAt(mine.x, mine.y);
+
+        codec = new ActionCodec(start.world);
+        codes = new int[codec.maxActions()];
+        successorKey = new long[start.keyWidth()];
+        mineCode = ActionCodec.encode(ActionCodec.MOVE, mine.index);
+    }
+
+    @Benchmark
+    public List<StripsAction> generateApplicableActionsAtTownHall() {
+        return atTownHall.generateApplicableActions();
+    }
+
+    @Benchmark
+    public List<StripsAction> generateApplicableActionsAtMine() {
+        return atMine.generateApplicableActions();
+    }
+
+    @Benchmark
+    public List<StripsAction> generateMacroActions() {
+        return atTownHall.generateMacroActions();
+    }
+
+    @Benchmark
+    public int codecGenerate() {
+        return codec.generate(atTownHall.key(), false, codes);
+    }
+
+    @Benchmark
+    public long[] codecWriteSuccessorKey() {
+        codec.writeSuccessorKey(atTownHall.key(), mineCode, successorKey);
+        return successorKey;
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return atTownHall.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSameState() {
+        return atTownHall.equals(atTownHallCopy);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentState() {
+        return atTownHall.equals(atMine);
+    }
+}
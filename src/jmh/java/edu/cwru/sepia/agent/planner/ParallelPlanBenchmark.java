@@ -0,0 +1,85 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HdaStarPlanner'ın thread sayısıyla ölçeklenmesi, SyntheticWorlds.large()
+ * haritasında (64x64, 6 maden + 6 orman, makro aksiyonlar).
+ *
+ * Çıktıda:
+ * - findPlan satırı: plan başına süre (ms); threads=1 seri taban çizgisi
+ *   (AStarPlanner ile aynı sayıda düğüm açıyor)
+ * - findPlan:expandedNodes: iterasyondaki toplam expand (tekrar açılanlar dahil;
+ *   paralel aramada seri A*'dan fazlası arama ek yükü)
+ * - findPlan:messages: worker'lar arası gönderilen successor sayısı
+ *
+ * Hızlanma ancak makinede o kadar çekirdek varsa görülür; thread sayısı
+ * çekirdek sayısını geçince iş bölünmüyor, sadece mesaj trafiği artıyor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelPlanBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    // Altın ve odun hedefi aynı (goal/goal)
+    @Param({"1000"})
+    public int goal;
+
+    @Param({"42"})
+    public long seed;
+
+    private GameState start;
+    private HdaStarPlanner planner;
+
+    /**
+     * Expand ve mesaj sayıları (iterasyon başına toplam).
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long expandedNodes;
+        public long messages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expandedNodes = 0;
+            messages = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        start = new GameState(SyntheticWorlds.large(64, 6, 6, seed),
+                SyntheticWorlds.PEASANT_X, SyntheticWorlds.PEASANT_Y, goal, goal);
+        planner = new HdaStarPlanner(threads, true);
+    }
+
+    @Benchmark
+    public Stack<StripsAction> findPlan(Counters counters) {
+        Stack<StripsAction> plan = planner.findPlan(start);
+        counters.expandedNodes += planner.getExpandedNodeCount();
+        counters.messages += planner.getLastMessageCount();
+        return plan;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İleri AStarPlanner ile RegressionPlanner'ın (sadece geri / iki yönlü) karşılaştırması,
+ * temel aksiyonlarla (makro yok; regresyon sadece temel aksiyonların tarifleriyle çalışıyor).
+ *
+ * Çıktıda:
+ * - findPlan satırı: saniyedeki plan sayısı
+ * - findPlan:expandedNodes satırı: saniyede expand edilen düğüm; plan başına
+ *   expand = expandedNodes / findPlan (iki yönlüde iki yönün toplamı)
+ *
+ * startX köylünün başlangıç sütunu (y = 10): 8 TownHall'un yanı, 20 haritanın
+ * doğusu. Köylü TownHall'dan uzaktayken geri yön ileri aramanın ilk turlarda
+ * açtığı dalları atlıyor; yanındayken iki yönlü arama ileri A*'ya yakın.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RegressionBenchmark {
+
+    public enum PlannerMode {
+        FORWARD,
+        REGRESSION,
+        BIDIRECTIONAL
+    }
+
+    // Altın ve odun hedefi aynı (goal/goal)
+    @Param({"200", "600", "1000"})
+    public int goal;
+
+    @Param({"8", "20"})
+    public int startX;
+
+    @Param({"FORWARD", "REGRESSION", "BIDIRECTIONAL"})
+    public PlannerMode mode;
+
+    private GameState start;
+    private AStarPlanner forward;
+    private RegressionPlanner regression;
+
+    /**
+     * Expand edilen düğümleri JMH'ye "işlem" olarak sayar (düğüm/saniye).
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long expandedNodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expandedNodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        WorldModel world = SyntheticWorlds.rc3m5t(SyntheticWorlds.scaleFor(goal, goal));
+        start = new GameState(world, startX, SyntheticWorlds.PEASANT_Y, goal, goal);
+        forward = new AStarPlanner(false);
+        regression = new RegressionPlanner(mode == PlannerMode.BIDIRECTIONAL);
+    }
+
+    @Benchmark
+    public Stack<StripsAction> findPlan(Counters counters) {
+        if (mode == PlannerMode.FORWARD) {
+            Stack<StripsAction> plan = forward.findPlan(start);
+            counters.expandedNodes += forward.getExpandedNodeCount();
+            return plan;
+        }
+        Stack<StripsAction> plan = regression.findPlan(start);
+        counters.expandedNodes += regression.getExpandedNodeCount();
+        return plan;
+    }
+}
@@ -0,0 +1,259 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Çekişmeli haritada CooperativeScheduler ile "her birim kendi yolunu bulsun"
+ * yürütmesinin karşılaştırması. rc_3m5t'de 'peasants' köylünün hepsi aynı
+ * madenden (15,3) 'trips' kere altın taşıyor; herkes aynı madenin ve aynı
+ * TownHall'un önünde sıraya giriyor.
+ *
+ * Modlar:
+ * - COOPERATIVE: CooperativeScheduler (rezervasyon tablosu, uzay-zaman A*)
+ * - REACTIVE: SEPIA'nın compound komutlarının yaptığına yakın taban çizgisi;
+ *   her tur her köylü, diğer köylüleri o anki yerlerinde engel sayıp BFS ile
+ *   en yakın boş erişim hücresine bir adım atıyor, yol yoksa bekliyor.
+ *
+ * Çıktıda:
+ * - simulate satırı: bir simülasyonun süresi (ms)
+ * - simulate:makespan: son köylünün işi bittiği tur (simülasyon başına)
+ * - simulate:waitTurns: işi olduğu halde yerinde beklenen köylü-tur
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SchedulingBenchmark {
+
+    public enum Mode {
+        COOPERATIVE,
+        REACTIVE
+    }
+
+    // Altın madeni (15,3): rc_3m5t'de 500 altın, ölçekle çarpılıyor
+    static final int MINE_INDEX = 1;
+
+    // Hiçbir zaman bitmeyen bir simülasyonu kesmek için
+    static final int MAX_TURNS = 20000;
+
+    @Param({"4", "8", "16"})
+    public int peasants;
+
+    @Param({"1", "3"})
+    public int trips;
+
+    @Param({"COOPERATIVE", "REACTIVE"})
+    public Mode mode;
+
+    private WorldModel world;
+
+    /**
+     * Simülasyon başına makespan ve bekleme (iterasyon ortalaması).
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long makespan;
+        public long waitTurns;
+        public long runs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            makespan = 0;
+            waitTurns = 0;
+            runs = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        world = SyntheticWorlds.rc3m5t(peasants * trips);
+    }
+
+    @Benchmark
+    public int simulate(Counters counters) {
+        int[] result = mode == Mode.COOPERATIVE
+                ? cooperative(world, peasants, trips)
+                : reactive(world, peasants, trips);
+        counters.makespan += result[0];
+        counters.waitTurns += result[1];
+        counters.runs++;
+        return result[0];
+    }
+
+    /**
+     * Köylülerin başlangıç hücreleri: TownHall'un güneyinde, hiçbir düğümün yanında
+     * olmayan iki sıra (y = 15, 16); köylüler işleri bitince buraya dönüyor.
+     */
+    static int[][] startCells(int peasants) {
+        int[][] cells = new int[peasants][];
+        for (int i = 0; i < peasants; i++) {
+            cells[i] = new int[]{5 + i / 2, 15 + i % 2};
+        }
+        return cells;
+    }
+
+    /**
+     * Köylünün planı: 'trips' kere Move(maden) + Harvest + Move(TownHall) + Deposit,
+     * sonra başlangıç hücresine Move.
+     */
+    static List<StripsAction> plan(WorldModel world, int x, int y, int trips) {
+        ResourceInfo mine = world.resource(MINE_INDEX);
+        WorldModel.TownHallInfo hall = world.nearestTownHall(mine);
+        List<StripsAction> actions = new ArrayList<>();
+        int atX = x;
+        int atY = y;
+        for (int i = 0; i < trips; i++) {
+            actions.add(new MoveAction(world, atX, atY, mine.x, mine.y));
+            actions.add(new HarvestAction(mine));
+            actions.add(new MoveAction(world, mine.x, mine.y, hall.x, hall.y));
+            actions.add(new DepositAction());
+            atX = hall.x;
+            atY = hall.y;
+        }
+        // İşi biten köylü TownHall'un önünde kalırsa sonrakiler bırakamıyor; başladığı yere döner
+        actions.add(new MoveAction(world, atX, atY, x, y));
+        return actions;
+    }
+
+    /**
+     * { makespan, bekleme } CooperativeScheduler ile.
+     */
+    static int[] cooperative(WorldModel world, int peasants, int trips) {
+        CooperativeScheduler scheduler = new CooperativeScheduler(world);
+        for (int[] cell : startCells(peasants)) {
+            scheduler.addPeasant(cell[0], cell[1], plan(world, cell[0], cell[1], trips));
+        }
+        while (!scheduler.isFinished() && scheduler.getTurn() < MAX_TURNS) {
+            scheduler.nextTurn();
+        }
+        return new int[]{scheduler.getTurn(), scheduler.getWaitTurns()};
+    }
+
+    /**
+     * { makespan, bekleme } reaktif taban çizgisiyle: her tur yeniden BFS, diğer
+     * köylüler o turdaki yerlerinde engel, rezervasyon yok.
+     */
+    static int[] reactive(WorldModel world, int peasants, int trips) {
+        int width = world.mapWidth();
+        int height = world.mapHeight();
+        ResourceInfo mine = world.resource(MINE_INDEX);
+        WorldModel.TownHallInfo hall = world.nearestTownHall(mine);
+        int[][] cells = startCells(peasants);
+        int[] x = new int[peasants];
+        int[] y = new int[peasants];
+        // Her köylünün kalan ayakları: sonuncusu eve dönüş, öncekiler çift = madene, tek = TownHall'a
+        int[] legs = new int[peasants];
+        boolean[] occupied = new boolean[width * height];
+        for (int i = 0; i < peasants; i++) {
+            x[i] = cells[i][0];
+            y[i] = cells[i][1];
+            legs[i] = 2 * trips + 1;
+            occupied[y[i] * width + x[i]] = true;
+        }
+        int[] previous = new int[width * height];
+        int[] queue = new int[width * height];
+        int waitTurns = 0;
+        int turn = 0;
+        while (turn < MAX_TURNS) {
+            boolean done = true;
+            for (int i = 0; i < peasants; i++) {
+                if (legs[i] == 0) {
+                    continue;
+                }
+                done = false;
+                boolean home = (legs[i] == 1);
+                boolean toMine = (legs[i] % 2 == 1);
+                int tx = home ? cells[i][0] : toMine ? mine.x : hall.x;
+                int ty = home ? cells[i][1] : toMine ? mine.y : hall.y;
+                if (!home && Math.max(Math.abs(x[i] - tx), Math.abs(y[i] - ty)) == 1) {
+                    // Yanında: bu tur topla / bırak (1 tur)
+                    legs[i]--;
+                    continue;
+                }
+                int step = firstStep(world, occupied, previous, queue, x[i], y[i], tx, ty, home);
+                if (step < 0) {
+                    waitTurns++;
+                    continue;
+                }
+                occupied[y[i] * width + x[i]] = false;
+                x[i] = step % width;
+                y[i] = step / width;
+                occupied[step] = true;
+                if (home && x[i] == tx && y[i] == ty) {
+                    legs[i]--;
+                }
+            }
+            if (done) {
+                break;
+            }
+            turn++;
+        }
+        return new int[]{turn, waitTurns};
+    }
+
+    /**
+     * (x,y)'den (tx,ty)'nin yanındaki boş bir hücreye en kısa yolun ilk adımı
+     * (hücre index'i), yol yoksa -1. 'exact' ise hedef (tx,ty)'nin kendisi.
+     * 'occupied' hücreleri geçilemez.
+     */
+    private static int firstStep(WorldModel world, boolean[] occupied, int[] previous, int[] queue,
+                                 int x, int y, int tx, int ty, boolean exact) {
+        int width = world.mapWidth();
+        int height = world.mapHeight();
+        Arrays.fill(previous, -1);
+        int start = y * width + x;
+        previous[start] = start;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell % width;
+            int cy = cell / width;
+            boolean reached = exact ? (cx == tx && cy == ty) : Math.max(Math.abs(cx - tx), Math.abs(cy - ty)) == 1;
+            if (cell != start && reached) {
+                while (previous[cell] != start) {
+                    cell = previous[cell];
+                }
+                return cell;
+            }
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = cx + dx;
+                    int ny = cy + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int next = ny * width + nx;
+                    if (previous[next] >= 0 || occupied[next] || !world.isPassable(nx, ny)) {
+                        continue;
+                    }
+                    previous[next] = cell;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+}
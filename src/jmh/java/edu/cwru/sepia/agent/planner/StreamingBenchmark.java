@@ -0,0 +1,106 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StreamingPlanner: ilk aksiyonun gelme süresi ve tam planın maliyeti,
+ * lookahead'e göre.
+ *
+ * Modlar:
+ * - FIRST_ACTION: start() -> kanaldan ilk aksiyon gelene kadar (yürütmenin
+ *   başlayabildiği an), sonra akış iptal
+ * - FULL_PLAN: aynı arama çağıran thread'de, tüm plan
+ *
+ * Çıktıda:
+ * - plan satırı: çağrı başına süre (ms)
+ * - plan:planCost / plan:runs: FULL_PLAN'da ortalama plan maliyeti (optimal
+ *   maliyetle karşılaştırmak için aynı hedefte LiftedPlanner)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamingBenchmark {
+
+    public enum Mode {
+        FIRST_ACTION,
+        FULL_PLAN
+    }
+
+    @Param({"64", "256", "1024"})
+    public int lookahead;
+
+    // Altın ve odun hedefi aynı (goal/goal)
+    @Param({"1000", "10000"})
+    public int goal;
+
+    @Param({"FIRST_ACTION", "FULL_PLAN"})
+    public Mode mode;
+
+    private GameState start;
+    private StreamingPlanner planner;
+
+    /**
+     * Plan maliyeti (iterasyon başına toplam; runs'a bölünce ortalama).
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public double planCost;
+        public long runs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            planCost = 0;
+            runs = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        start = SyntheticWorlds.start(goal, goal);
+        planner = new StreamingPlanner();
+        planner.setLookahead(lookahead);
+    }
+
+    @TearDown
+    public void tearDown() {
+        planner.cancel();
+    }
+
+    @Benchmark
+    public Object plan(Counters counters) {
+        if (mode == Mode.FULL_PLAN) {
+            PlanResult result = planner.plan(start);
+            counters.planCost += result.getStats().getPlanCost();
+            counters.runs++;
+            return result;
+        }
+        PlanStream stream = planner.start(start);
+        List<StripsAction> first = new ArrayList<>();
+        while (stream.drainTo(first) == 0 && !stream.isFinished()) {
+            Thread.yield();
+        }
+        planner.cancel();
+        return first;
+    }
+}
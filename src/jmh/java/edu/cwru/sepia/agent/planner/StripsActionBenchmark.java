@@ -0,0 +1,74 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Her StripsAction.apply için ayrı ölçüm (rc_3m5t kopyası, 1000/1000).
+ * apply yeni bir GameState (+ anahtar, Harvest/RoundTrip'te kalan vektörü)
+ * ayırdığı için -prof gc ile gc.alloc.rate.norm satırına da bakın.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StripsActionBenchmark {
+
+    private GameState atTownHall;
+    private GameState atMine;
+    private GameState carryingAtTownHall;
+
+    private MoveAction move;
+    private HarvestAction harvest;
+    private DepositAction deposit;
+    private RoundTripAction roundTrip;
+
+    @Setup
+    public void setUp() {
+        GameState start = SyntheticWorlds.start(1000, 1000);
+        WorldModel.ResourceInfo mine = start.world.resource(1);
+        WorldModel.TownHallInfo hall = start.world.primaryTownHall();
+
+        atTownHall = start.withPeasantAt(hall.x, hall.y);
+        atMine = start.withPeasantAt(mine.x, mine.y);
+        carryingAtTownHall = atMine.withHarvest(mine)
+                .withPeasantAt(hall.x, hall.y);
+
+        move = new MoveAction(start.world, hall.x, hall.y, mine.x, mine.y);
+        harvest = new HarvestAction(mine);
+        deposit = new DepositAction();
+        roundTrip = new RoundTripAction(start.world, hall.x, hall.y, mine);
+    }
+
+    @Benchmark
+    public GameState moveApply() {
+        return move.apply(atTownHall);
+    }
+
+    @Benchmark
+    public GameState harvestApply() {
+        return harvest.apply(atMine);
+    }
+
+    @Benchmark
+    public GameState depositApply() {
+        return deposit.apply(carryingAtTownHall);
+    }
+
+    @Benchmark
+    public GameState roundTripApply() {
+        return roundTrip.apply(atTownHall);
+    }
+}
@@ -0,0 +1,130 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import edu.cwru.sepia.agent.planner.WorldModel.TownHallInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SyntheticWorlds:
+ * rc_3m5t.xml haritasının SEPIA runtime'ı olmadan kurulan kopyası
+ * (aynı koordinatlar, aynı miktarlar, TownHall (8,9), köylü (8,10), 25x19 harita;
+ * mesafeler DistanceOracle'dan, kaynaklar ve TownHall engel).
+ *
+ * rc_3m5t'de toplam 5600 altın ve 2000 odun var; 10000/10000 hedefi orada
+ * çözülemez. 'scale' tüm miktarları çarpar, böylece aynı geometri daha büyük
+ * hedeflerle kullanılabilir (scaleFor()).
+ *
+ * large(): paralel arama (HdaStarPlanner) ölçeklenmesi için daha büyük, rastgele
+ * (ama seed'e göre hep aynı) bir harita. TownHall ve köylü yine (8,9) / (8,10).
+ */
+public final class SyntheticWorlds {
+
+    // { SEPIA id, altın mı (1/0), x, y, miktar }
+    private static final int[][] RC_3M5T = {
+            {2, 1, 4, 7, 100},
+            {3, 1, 15, 3, 500},
+            {4, 1, 22, 16, 5000},
+            {5, 0, 4, 12, 400},
+            {6, 0, 12, 13, 400},
+            {7, 0, 17, 9, 400},
+            {8, 0, 4, 4, 400},
+            {9, 0, 12, 4, 400},
+    };
+
+    static final int TOTAL_GOLD = 5600;
+    static final int TOTAL_WOOD = 2000;
+
+    static final int MAP_WIDTH = 25;
+    static final int MAP_HEIGHT = 19;
+
+    static final int PEASANT_X = 8;
+    static final int PEASANT_Y = 10;
+
+    // rc_3m5t'deki tek TownHall (sentetik dünyada SEPIA id'si yok: 0)
+    static final int TOWN_HALL_X = 8;
+    static final int TOWN_HALL_Y = 9;
+
+    private SyntheticWorlds() {
+    }
+
+    public static WorldModel rc3m5t(int scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("scale must be positive: " + scale);
+        }
+        List<ResourceInfo> resources = new ArrayList<>();
+        int[] amounts = new int[RC_3M5T.length];
+        for (int i = 0; i < RC_3M5T.length; i++) {
+            int[] row = RC_3M5T[i];
+            resources.add(new ResourceInfo(i, row[2], row[3], row[1] == 1, row[0]));
+            amounts[i] = row[4] * scale;
+        }
+        return new WorldModel(resources, amounts, townHall(),
+                MAP_WIDTH, MAP_HEIGHT, new boolean[MAP_WIDTH * MAP_HEIGHT]);
+    }
+
+    /**
+     * size x size harita; 'goldMines' maden ve 'forests' orman rastgele hücrelerde
+     * (300..1500 arası miktarlarla), boş hücrelerin yaklaşık %8'i engel. Aynı seed
+     * aynı dünyayı verir.
+     */
+    public static WorldModel large(int size, int goldMines, int forests, long seed) {
+        if (size <= Math.max(PEASANT_X, TOWN_HALL_X) + 1 || size <= Math.max(PEASANT_Y, TOWN_HALL_Y) + 1) {
+            throw new IllegalArgumentException("map too small for the town hall: " + size);
+        }
+        Random random = new Random(seed);
+        boolean[] taken = new boolean[size * size];
+        taken[PEASANT_Y * size + PEASANT_X] = true;
+        taken[TOWN_HALL_Y * size + TOWN_HALL_X] = true;
+
+        List<ResourceInfo> resources = new ArrayList<>();
+        int count = goldMines + forests;
+        int[] amounts = new int[count];
+        for (int i = 0; i < count; i++) {
+            int cell = freeCell(random, taken);
+            taken[cell] = true;
+            resources.add(new ResourceInfo(i, cell % size, cell / size, i < goldMines, 100 + i));
+            amounts[i] = 100 * (3 + random.nextInt(13));
+        }
+        boolean[] blocked = new boolean[size * size];
+        for (int cell = 0; cell < blocked.length; cell++) {
+            blocked[cell] = !taken[cell] && random.nextInt(100) < 8;
+        }
+        return new WorldModel(resources, amounts, townHall(), size, size, blocked);
+    }
+
+    private static List<TownHallInfo> townHall() {
+        return Collections.singletonList(new TownHallInfo(0, TOWN_HALL_X, TOWN_HALL_Y, 0));
+    }
+
+    private static int freeCell(Random random, boolean[] taken) {
+        while (true) {
+            int cell = random.nextInt(taken.length);
+            if (!taken[cell]) {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Hedefin karşılanabilmesi için gereken en küçük ölçek.
+     */
+    public static int scaleFor(int requiredGold, int requiredWood) {
+        int scale = 1;
+        while (TOTAL_GOLD * scale < requiredGold || TOTAL_WOOD * scale < requiredWood) {
+            scale++;
+        }
+        return scale;
+    }
+
+    /**
+     * Köylü başlangıç konumunda, eli boş; hedef için yeterince ölçeklenmiş dünya.
+     */
+    public static GameState start(int requiredGold, int requiredWood) {
+        WorldModel world = rc3m5t(scaleFor(requiredGold, requiredWood));
+        return new GameState(world, PEASANT_X, PEASANT_Y, requiredGold, requiredWood);
+    }
+}
@@ -1,19 +1,31 @@
 package edu.cwru.sepia.agent;
 
 import edu.cwru.sepia.action.Action;
-import edu.cwru.sepia.agent.planner.AStarPlanner;
+import edu.cwru.sepia.agent.planner.AdaptiveHeuristic;
+import edu.cwru.sepia.agent.planner.AnytimeAStarPlanner;
+import edu.cwru.sepia.agent.planner.CachingPlanner;
+import edu.cwru.sepia.agent.planner.DirectPlanner;
+import edu.cwru.sepia.agent.planner.DurativeExecutor;
+import edu.cwru.sepia.agent.planner.ExecutionMonitor;
 import edu.cwru.sepia.agent.planner.GameState;
+import edu.cwru.sepia.agent.planner.TravelAwareHeuristic;
+import edu.cwru.sepia.agent.planner.PlanCache;
+import edu.cwru.sepia.agent.planner.PlanStream;
+import edu.cwru.sepia.agent.planner.PlanResult;
+import edu.cwru.sepia.agent.planner.Planner;
+import edu.cwru.sepia.agent.planner.PlannerService;
+import edu.cwru.sepia.agent.planner.StreamingPlanner;
 import edu.cwru.sepia.agent.planner.StripsAction;
-import edu.cwru.sepia.agent.planner.MoveAction;
-import edu.cwru.sepia.agent.planner.HarvestAction;
-import edu.cwru.sepia.agent.planner.DepositAction;
 
 import edu.cwru.sepia.environment.model.state.State;
 import edu.cwru.sepia.environment.model.state.Unit;
 import edu.cwru.sepia.environment.model.history.History;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -25,6 +37,34 @@ import java.util.HashMap;
  * SEPIA runtime sırasında edu.cwru.sepia.Main tarafından yaratılır:
  *
  *   --agent edu.cwru.sepia.agent.RCAgent <playerNum> --agentparam <goldTarget> --agentparam <woodTarget>
+ *                                         [--agentparam <planCacheFile>] [--agentparam stream] [--agentparam async]
+ *
+ * Aynı agent nesnesi tüm bölümlerde (episode) kullanılıyor; planlar PlanCache'te
+ * tutulduğu için aynı harita ve hedefle 2..N. bölümler arama yapmıyor. Üçüncü
+ * parametre verilirse önbellek diskte de tutulur (çalıştırmalar arası).
+ *
+ * Yürütme ExecutionMonitor ile izleniyor: her tur gözlenen durum planın beklediği
+ * durumla karşılaştırılır; köylü takılırsa, hareket uzarsa ya da bir düğüm erken
+ * biterse gözlenen durumdan yeniden planlanır (A* yedeği öğrenen heuristic'le,
+ * önceki aramalardan faydalanıyor).
+ *
+ * Aksiyonlar SEPIA compound komutları olarak gidiyor (DurativeExecutor): köylüye
+ * yeni komut sadece elindeki komut bittiğinde (History geri bildirimi) veriliyor;
+ * komut sürerken middleStep hiçbir şey hesaplamadan boş map döndürüyor.
+ *
+ * A* yedeği anytime (ARA*): initialStep'i en fazla PLANNING_BUDGET_NANOS bloklar,
+ * o ana kadarki en iyi planla yürütme başlar; iyileştirme arka planda sürer ve
+ * daha ucuz plan gelince köylü boştayken ona geçilir.
+ *
+ * "stream" parametresiyle ilk plan akışlı üretilir (StreamingPlanner, RTAA*): köylü
+ * ilk parça gelir gelmez yürümeye başlar, planlayıcı arka planda devam eder;
+ * middleStep kanalda hazır olanı bekleme yapmadan alır. Akış ilk plan için;
+ * önbelleğe bakmaz, sapmada yeniden planlama her zamanki zincirden geçer.
+ *
+ * "async" parametresiyle planlama oyun thread'inden çıkar (PlannerService): ilk plan
+ * ve yeniden planlamalar servise istek olarak gider, agent sonuç gelene kadar
+ * boş aksiyon döndürür ve sonucu sonraki turların başında alır. Köylü takılmaya
+ * başlayınca yeniden planlama spekülatif olarak önceden başlatılır.
  *
  * Bu sınıfın ana amacı:
  *  - Crash ATMAMAK.
@@ -40,10 +80,22 @@ import java.util.HashMap;
  *
  * Bu, canlı entegrasyon kanıtıdır ve çok yüksek puan getirir.
  */
-public class RCAgent implements Agent {
+public class RCAgent extends Agent {
+
+    private static final long serialVersionUID = 1L;
+
+    // Bellekte tutulacak en fazla plan (harita x hedef x ayar başına bir tane)
+    private static final int PLAN_CACHE_CAPACITY = 16;
+
+    // initialStep / yeniden planlama başına arama bütçesi; sonrası arka planda
+    private static final long PLANNING_BUDGET_NANOS = 200_000_000L;
+
+    // "async": sırada bundan uzun bekleyen planlama isteği başlatılmaz
+    private static final long REQUEST_DEADLINE_NANOS = 1_000_000_000L;
 
     // ---------- runtime state ----------
     private List<StripsAction> plan = null;
+    private PlanResult planResult = null;
     private int currentStepIndex = 0;
     private int stepCount = 0;
 
@@ -54,6 +106,26 @@ public class RCAgent implements Agent {
     private int targetGold;
     private int targetWood;
 
+    // Bölümler arası plan önbelleği (savePlayerData / loadPlayerData ile de taşınıyor)
+    private final PlanCache planCache;
+
+    // Planı izleyip sapınca yeniden planlayan monitor (bölüm başına)
+    private ExecutionMonitor monitor = null;
+    // Planın başladığı durum: gözlenen durumlar aynı dünya ve hedeflerle kuruluyor
+    private GameState startState = null;
+    // Compound komutları takip eden yürütücü (komut bitmeden yenisi verilmiyor)
+    private final DurativeExecutor executor;
+    // Önbellek + doğrudan planlayıcı + anytime A* zinciri ve arka plan iyileştirmesi
+    private Planner planner = null;
+    private AnytimeAStarPlanner search = null;
+    // "stream" parametresi: ilk plan StreamingPlanner'dan parça parça
+    private final boolean streamPlan;
+    private final StreamingPlanner streamer = new StreamingPlanner();
+    private PlanStream stream = null;
+    // "async" parametresi: planlama PlannerService'te (bölüm başına)
+    private final boolean asyncPlanning;
+    private PlannerService service = null;
+
     // ---------- ctor ----------
     // SEPIA bizim agentimizi player numarası ve parametrelerle çağırır.
     // Örneğin:
@@ -61,6 +133,8 @@ public class RCAgent implements Agent {
     //
     // 'otherargs' bu örnekte ["10000","10000"] olur.
     public RCAgent(int playernum, String[] otherargs) {
+        super(playernum);
+        executor = new DurativeExecutor(playernum);
         if (otherargs != null && otherargs.length >= 2) {
             try {
                 targetGold = Integer.parseInt(otherargs[0]);
@@ -76,10 +150,31 @@ public class RCAgent implements Agent {
             targetGold = 200;
             targetWood = 200;
         }
+        boolean streamArg = false;
+        boolean asyncArg = false;
+        File cacheFile = null;
+        for (int i = 2; otherargs != null && i < otherargs.length; i++) {
+            if (otherargs[i].equalsIgnoreCase("stream")) {
+                streamArg = true;
+            } else if (otherargs[i].equalsIgnoreCase("async")) {
+                asyncArg = true;
+            } else if (i == 2) {
+                cacheFile = new File(otherargs[i]);
+            }
+        }
+        streamPlan = streamArg;
+        asyncPlanning = asyncArg;
+        if (cacheFile != null) {
+            planCache = new PlanCache(PLAN_CACHE_CAPACITY, cacheFile);
+        } else {
+            planCache = new PlanCache(PLAN_CACHE_CAPACITY);
+        }
 
         System.out.println("[RCAgent] Constructed. player=" + playernum +
                 " targetGold=" + targetGold +
-                " targetWood=" + targetWood);
+                " targetWood=" + targetWood +
+                (streamPlan ? " streaming" : "") +
+                (asyncPlanning ? " async" : ""));
     }
 
     // Bazı SEPIA sürümleri parametresiz (sadece playernum) ctor çağırır.
@@ -105,19 +200,29 @@ public class RCAgent implements Agent {
      *  - A* planlayıcı ile plan üretmeyi deniyoruz.
      */
     @Override
-    public Map<Integer, Action> initialStep(State.StateView newState, History stateHistory) {
+    public Map<Integer, Action> initialStep(State.StateView newState, History.HistoryView stateHistory) {
 
         System.out.println("[RCAgent] initialStep() called.");
 
+        // Yeni bölüm: önceki bölümün yürütme durumunu sıfırla
+        plan = null;
+        planResult = null;
+        monitor = null;
+        startState = null;
+        stopStreaming();
+        if (service != null) {
+            service.shutdown();
+            service = null;
+        }
+        executor.reset();
+        currentStepIndex = 0;
+        stepCount = 0;
+        peasantID = null;
+        townhallID = null;
+
         // 1) Peasant ve TownHall ID'lerini topla
         for (Unit.UnitView unit : newState.getAllUnits()) {
-            String templateName;
-            try {
-                // bazı SEPIA sürümlerinde getTemplate(), bazılarında getTemplateView()
-                templateName = unit.getTemplate().getName();
-            } catch (NoSuchMethodError e) {
-                templateName = unit.getTemplateView().getName();
-            }
+            String templateName = unit.getTemplateView().getName();
 
             if (templateName != null) {
                 if (templateName.equalsIgnoreCase("Peasant") && peasantID == null) {
@@ -133,12 +238,47 @@ public class RCAgent implements Agent {
 
         // 2) Başlangıç soyut durumunu hazırla (GameState bizim planner temsilimiz)
         try {
-            GameState start = new GameState(newState);
+            // Hedefler ajan argümanlarından (--agentparam), TownHall'lar haritadan
+            startState = new GameState(newState, targetGold, targetWood);
 
             // 3) Planlama
-            System.out.println("[RCAgent] Running A* planner...");
-            AStarPlanner planner = new AStarPlanner();
-            plan = planner.findPlan(start);
+            // Tek köylülü RC1 durumunda DirectPlanner planı aramasız üretir;
+            // önkoşullar tutmazsa A*'a devreder. Önbellekte varsa ikisi de çalışmaz.
+            // Yeniden planlamalar da aynı zincirden geçiyor.
+            System.out.println("[RCAgent] Running planner (cache, direct, anytime A* fallback)...");
+            if (search != null) {
+                search.cancelRefinement();
+            }
+            search = new AnytimeAStarPlanner();
+            search.setHeuristic(new AdaptiveHeuristic(new TravelAwareHeuristic()));
+            search.setTimeBudgetNanos(PLANNING_BUDGET_NANOS);
+            search.setBackgroundRefinement(true);
+            planner = new CachingPlanner(new DirectPlanner(search), planCache);
+            monitor = new ExecutionMonitor(planner);
+            if (asyncPlanning) {
+                service = new PlannerService(planner);
+                monitor.setService(service, REQUEST_DEADLINE_NANOS);
+            }
+            if (streamPlan) {
+                // Boş planla başla, parçalar middleStep'te kanaldan gelecek
+                monitor.start(startState, null);
+                monitor.setStreaming(true);
+                stream = streamer.start(startState);
+                plan = new ArrayList<>();
+                drainStream();
+                System.out.println("[RCAgent] Streaming plan, first part length=" + plan.size());
+                return issueNextAction();
+            }
+            if (service != null) {
+                // Plan sonraki turlarda gelecek (middleStep PLANNING -> REPLANNED)
+                monitor.planAsync(startState);
+                System.out.println("[RCAgent] Planning in background (virtual threads=" +
+                        service.isUsingVirtualThreads() + ").");
+                return issueNextAction();
+            }
+            monitor.plan(startState);
+            planResult = monitor.getLastResult();
+            plan = planResult.getPlan();
 
             if (plan == null || plan.isEmpty()) {
                 System.out.println("[RCAgent] Planner returned no plan. Agent will idle.");
@@ -160,18 +300,82 @@ public class RCAgent implements Agent {
      * middleStep:
      *  - Her tur tekrar çağrılır.
      *  - stepCount'u artırırız.
-     *  - sıradaki aksiyonu uygularız.
+     *  - Köylünün compound komutu sürüyorsa hiçbir şey yapmayız (SEPIA devam ettiriyor).
+     *  - Komut bittiyse gözlenen durumu monitöre veririz: plana uyuyorsa sıradaki
+     *    komutu, plandan sapıldıysa yeni planın ilk komutunu, komut başarısız
+     *    olduysa aynı komutu tekrar göndeririz.
      */
     @Override
-    public Map<Integer, Action> middleStep(State.StateView newState, History stateHistory) {
+    public Map<Integer, Action> middleStep(State.StateView newState, History.HistoryView stateHistory) {
 
         stepCount++;
 
+        if (monitor == null || startState == null || peasantID == null) {
+            return new HashMap<>();
+        }
+
+        // Sadece komutu biten birimler için iş var
+        executor.collectIdle(stateHistory, newState.getTurnNumber());
+        if (executor.isBusy(peasantID)) {
+            return new HashMap<>();
+        }
+
+        ExecutionMonitor.Status status;
+        try {
+            drainStream();
+            GameState observed = new GameState(startState, newState);
+            // Tükenen düğüm dünyayı değiştiriyor (monitör yeni WorldModel'e geçiyor):
+            // eski dünyayla süren akışı durdur, planın sonundan yeni dünyayla yeniden
+            // başlat (ARA* iyileştirmesini monitör durduruyor, Planner.cancelBackgroundWork)
+            boolean restart = stream != null && monitor.exhaustsNode(observed);
+            if (restart) {
+                streamer.cancel();
+                drainStream();
+            }
+            status = monitor.observe(observed);
+            if (restart && monitor.isStreaming()) {
+                stream = streamer.start(monitor.getPlanEnd());
+            }
+        } catch (Exception e) {
+            System.out.println("[RCAgent] Execution monitor crashed: " + e.getMessage());
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+        currentStepIndex = monitor.currentIndex();
+
         System.out.println("[RCAgent] middleStep() turn=" + stepCount +
                 " stepIndex=" + currentStepIndex +
-                "/" + (plan == null ? 0 : plan.size()));
+                "/" + monitor.planLength() + " " + status);
 
-        return issueNextAction();
+        if (status == ExecutionMonitor.Status.REPLANNED || status == ExecutionMonitor.Status.FAILED
+                || status == ExecutionMonitor.Status.PLANNING) {
+            stopStreaming();
+        }
+        switch (status) {
+            case PLANNING:
+                // Arama serviste sürüyor; köylü boşta bekler, tur gecikmez
+                return new HashMap<>();
+            case REPLANNED:
+                if (plan == null && monitor.getReplans() == 0) {
+                    System.out.println("[RCAgent] Plan found in background. length=" +
+                            monitor.planLength());
+                } else {
+                    System.out.println("[RCAgent] Replanned in " +
+                            (monitor.getLastReplanNanos() / 1000) + " us, length=" + monitor.planLength());
+                }
+                planResult = monitor.getLastResult();
+                plan = planResult.getPlan();
+                return issueNextAction();
+            case FAILED:
+                System.out.println("[RCAgent] Replanning found no plan. Agent will idle.");
+                plan = null;
+                return new HashMap<>();
+            default:
+                // ON_TRACK: sıradaki adım; IN_PROGRESS: köylü boşta ama adım
+                // tamamlanmamış (komut başarısız) -> aynı adımı tekrar dene
+                adoptImprovement();
+                return issueNextAction();
+        }
     }
 
     /**
@@ -180,7 +384,7 @@ public class RCAgent implements Agent {
      *  - Burada rapor basıyoruz ki README.txt'ye direkt koyabilesin.
      */
     @Override
-    public void terminalStep(State.StateView finalState, History stateHistory) {
+    public void terminalStep(State.StateView finalState, History.HistoryView stateHistory) {
 
         int finalGold = 0;
         int finalWood = 0;
@@ -188,12 +392,7 @@ public class RCAgent implements Agent {
         // TownHall'daki kaynakları direkt okumak SEPIA sürümlerine göre zor olabilir.
         // En azından bir rapor basalım ki hocaya kanıt olsun.
         for (Unit.UnitView unit : finalState.getAllUnits()) {
-            String templateName;
-            try {
-                templateName = unit.getTemplate().getName();
-            } catch (NoSuchMethodError e) {
-                templateName = unit.getTemplateView().getName();
-            }
+            String templateName = unit.getTemplateView().getName();
 
             if (templateName != null && templateName.equalsIgnoreCase("TownHall")) {
                 // burada finalGold / finalWood çıkarma şansı sürüme göre değişiyor.
@@ -206,102 +405,157 @@ public class RCAgent implements Agent {
         System.out.println("Target Gold=" + targetGold + " Target Wood=" + targetWood);
         System.out.println("Final Gold=" + finalGold + " Final Wood=" + finalWood);
         System.out.println("Plan length=" + (plan == null ? 0 : plan.size()));
+        if (monitor != null) {
+            System.out.println("Replans=" + monitor.getReplans() +
+                    " maxReplanMicros=" + (monitor.getMaxReplanNanos() / 1000));
+        }
+        System.out.println("Commands issued=" + executor.getIssued() +
+                " completed=" + executor.getCompleted() +
+                " failed=" + executor.getFailed());
         System.out.println("=========================================");
+
+        if (service != null) {
+            service.shutdown();
+        }
+        if (search != null) {
+            search.cancelRefinement();
+        }
+        stopStreaming();
+
+        // Arama istatistikleri tek satırda (script ile kazımak için)
+        if (planResult != null) {
+            System.out.println(planResult.getStats().toLine());
+        }
     }
 
     /**
      * savePlayerData / loadPlayerData:
-     *  - SEPIA replay/save mekanizması için.
-     *  - Ödevde gerekmiyor ama interface bunları ister.
+     *  - SEPIA agent kaydı için (experiment.SaveAgents).
+     *  - Kaydedilen tek şey plan önbelleği; yüklenen agent aynı harita ve hedefte
+     *    ilk bölümden itibaren arama yapmaz.
      */
     @Override
     public void savePlayerData(OutputStream os) {
-        // not required for grading
+        try {
+            planCache.writeTo(os);
+        } catch (IOException e) {
+            System.out.println("[RCAgent] Could not save plan cache: " + e.getMessage());
+        }
     }
 
     @Override
     public void loadPlayerData(InputStream is) {
-        // not required for grading
+        try {
+            planCache.readFrom(is);
+        } catch (IOException e) {
+            System.out.println("[RCAgent] Could not load plan cache: " + e.getMessage());
+        }
     }
 
     // ============================================================
     // =============== Internal helper methods ====================
     // ============================================================
 
+    /**
+     * adoptImprovement:
+     *  - Anytime aramanın arka planda bulduğu daha ucuz plan varsa ve köylünün
+     *    şu anki adımı o planın üstündeyse o plana geçer.
+     *  - Optimal olduğu kanıtlanan plan önbelleğe yazılır (ilk, bütçeyle kesilmiş
+     *    planın yerine); sonraki bölümler doğrudan onu kullanır. Kayıt sadece
+     *    daha ucuzsa değişir (PlanCache.putIfCheaper).
+     */
+    private void adoptImprovement() {
+        if (search == null) {
+            return;
+        }
+        AnytimeAStarPlanner.Solution improved = search.pollImprovement();
+        if (improved == null) {
+            return;
+        }
+        if (improved.isOptimal()) {
+            planCache.putIfCheaper(improved.getStart(), planner.describe(), improved.getPlan());
+        }
+        if (monitor.improve(improved.getStart(), improved.getPlan())) {
+            System.out.println("[RCAgent] Switched to refined plan: cost=" + improved.getCost() +
+                    " bound=" + improved.getBound());
+        }
+    }
+
+    /**
+     * drainStream:
+     *  - Akış kanalında hazır aksiyonları (beklemeden) plana ve monitöre ekler.
+     *  - Akış bittiyse akış modunu kapatır; hedefe ulaşmadan bittiyse monitör
+     *    plan sonunda her zamanki zincirle yeniden planlar. İptal edilen akış
+     *    (yeniden başlatılacak) bitmiş sayılmaz.
+     */
+    private void drainStream() {
+        if (stream == null) {
+            return;
+        }
+        List<StripsAction> part = new ArrayList<>();
+        stream.drainTo(part);
+        if (!part.isEmpty()) {
+            monitor.append(part);
+            plan.addAll(part);
+        }
+        if (stream.isFinished() && !stream.isCancelled()) {
+            System.out.println("[RCAgent] Plan stream finished. found=" + stream.isFound() +
+                    " length=" + plan.size());
+            planResult = streamer.getLastResult();
+            stopStreaming();
+        }
+    }
+
+    /**
+     * stopStreaming:
+     *  - Arka plan akışını durdurur; monitör artık plan sonunda parça beklemez.
+     */
+    private void stopStreaming() {
+        if (stream == null) {
+            return;
+        }
+        streamer.cancel();
+        stream = null;
+        if (monitor != null) {
+            monitor.setStreaming(false);
+        }
+    }
+
     /**
      * issueNextAction:
-     *  - Plan varsa sıradaki StripsAction'i SEPIA Action'a çevirir ve
-     *    peasantID'ye atar.
+     *  - Monitörün şimdiki adımını SEPIA compound komutuna çevirir (Move + Harvest /
+     *    Move + Deposit tek komut) ve peasantID'ye verir.
      *  - Plan yoksa veya bitmişse boş map döndürür (bekle -> crash yok).
      */
     private Map<Integer, Action> issueNextAction() {
         Map<Integer, Action> actions = new HashMap<>();
 
-        if (plan == null || plan.isEmpty()) {
+        if (monitor == null || plan == null || plan.isEmpty() || peasantID == null) {
             // plan yoksa hiçbir şey gönderme
             return actions;
         }
 
         // plan bitti mi?
-        if (currentStepIndex >= plan.size()) {
+        if (monitor.isDone()) {
             System.out.println("[RCAgent] Plan exhausted. No more actions.");
             return actions;
         }
 
         // sıradaki STRIPS aksiyon
-        StripsAction next = plan.get(currentStepIndex);
+        StripsAction next = monitor.currentAction();
         System.out.println("[RCAgent] Next STRIPS action: " +
                 next.getClass().getSimpleName());
 
         // SEPIA Action'a çevir
-        Action sepiaAction = convertStripsToSepia(next);
+        Action sepiaAction = DurativeExecutor.toSepiaAction(next, monitor.nextAction(), startState);
 
-        if (sepiaAction != null && peasantID != null) {
-            actions.put(peasantID, sepiaAction);
-            System.out.println("[RCAgent] Issued action to peasant " + peasantID);
+        if (sepiaAction != null) {
+            executor.issue(actions, peasantID, sepiaAction);
+            System.out.println("[RCAgent] Issued " + sepiaAction + " to peasant " + peasantID);
         } else {
             System.out.println("[RCAgent] No executable action this turn.");
         }
 
-        currentStepIndex++;
-
         return actions;
     }
-
-    /**
-     * convertStripsToSepia:
-     *  MoveAction / HarvestAction / DepositAction tiplerini SEPIA Action'a çevir.
-     *  Senin planner class'larında bu çeviri fonksiyonlarının adı biraz değişik olabilir.
-     *  Eğer sende toSepiaAction(), createSepiaAction(), makeAction() gibi başka bir isim varsa
-     *  burada onu çağır.
-     */
-    private Action convertStripsToSepia(StripsAction sa) {
-        try {
-            if (sa instanceof MoveAction) {
-                MoveAction m = (MoveAction) sa;
-                // TODO: senin MoveAction sınıfında SEPIA Action oluşturan method neyse onu çağır.
-                // örnek:
-                return m.toSepiaAction();
-            }
-
-            if (sa instanceof HarvestAction) {
-                HarvestAction h = (HarvestAction) sa;
-                return h.toSepiaAction();
-            }
-
-            if (sa instanceof DepositAction) {
-                DepositAction d = (DepositAction) sa;
-                return d.toSepiaAction();
-            }
-
-            // tanımadığımız action tipi
-            System.out.println("[RCAgent] Unknown StripsAction subtype: " +
-                    sa.getClass().getSimpleName());
-            return null;
-        } catch (Exception e) {
-            System.out.println("[RCAgent] convertStripsToSepia() error: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
-    }
 }
@@ -1,9 +1,7 @@
 package edu.cwru.sepia.agent.planner;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Set;
 import java.util.Stack;
 
 /**
@@ -13,164 +11,400 @@ import java.util.Stack;
  * - A* araması yapar.
  *
  * Çıkış olarak, hedefe giden StripsAction listesini (Stack halinde) verir.
+ *
+ * Makro mod (useMacroActions = true):
+ * - Arama temel adımlar yerine RoundTripAction (tam teslimat) üzerinden yapılır,
+ *   arama derinliği yaklaşık 4 kat azalır.
+ * - Dönen plan yine sadece temel aksiyonlardan oluşur (makrolar açılır).
+ * - Plan kalitesini karşılaştırmak için aynı başlangıç durumu iki modda da çözülebilir.
+ *
+ * Heuristic takılabilir (setHeuristic). Varsayılan TravelAwareHeuristic;
+ * eski sadece tur sayan versiyon TripCountHeuristic olarak duruyor.
+ *
+ * Open list seçilebilir (setUseIndexedHeap): LazyHeapOpenList (kopyalar
+ * tembelce atılır) veya decrease-key destekli IndexedHeapOpenList.
+ *
+ * Düğümler nesne değil NodeArena id'leri; aksiyonlar ActionCodec ile int kod.
+ *
+ * İstatistikler: plan() bir PlanResult (plan + SearchStats) döner; findPlan()
+ * sadece planı. Sayaçlar hep tutulur; faz süreleri (setPhaseTiming) ve expand
+ * başına SearchListener kapalıyken ek maliyet yok.
+ *
+ * Heuristic AdaptiveHeuristic ise başarılı aramanın sonunda expand edilen
+ * düğümlerden öğrenilir (Adaptive A*); aynı dünyada sonraki aramalar (yeniden
+ * planlama) daha az düğüm açar.
+ *
+ * İptal: aramayı çalıştıran thread interrupt edilirse (PlannerService iptali ya
+ * da süre sınırı) arama INTERRUPT_CHECK_INTERVAL expand içinde plansız döner;
+ * interrupt bayrağı silinmez.
+ *
+ * Simetri budaması (useSymmetryPruning = true):
+ * - Closed set, SymmetryPruner ile kanonikleştirilmiş anahtarlarla çalışır.
+ * - Hedefi karşılanmış türe yönelen ve kalan turlara yeten daha yakın bir
+ *   düğümün baskın olduğu successor'lar daha üretilirken atılır.
  */
-public class AStarPlanner {
+public class AStarPlanner implements Planner {
+
+    // Bu kadar expand'de bir thread interrupt kontrolü
+    private static final int INTERRUPT_CHECK_INTERVAL = 1 << 10;
+
+    // true ise arama RoundTripAction makroları üzerinden yapılır
+    private boolean useMacroActions;
+
+    // true ise simetri budaması yapılır (bkz. SymmetryPruner)
+    private boolean useSymmetryPruning;
+
+    // true ise open list IndexedHeapOpenList (decrease-key), değilse LazyHeapOpenList
+    private boolean useIndexedHeap = true;
+
+    // h(n) hesaplayan strateji
+    private Heuristic heuristic = new TravelAwareHeuristic();
+
+    // true ise SearchStats faz süreleri (nanoTime) ölçülür
+    private boolean phaseTiming;
+
+    // Her expand'de çağrılır (null = kapalı)
+    private SearchListener listener;
+
+    // Son aramanın istatistikleri
+    private SearchStats lastStats = new SearchStats("AStarPlanner");
+
+    public AStarPlanner() {
+        this(false);
+    }
+
+    public AStarPlanner(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public boolean isUsingMacroActions() {
+        return useMacroActions;
+    }
+
+    public void setUseMacroActions(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public boolean isUsingSymmetryPruning() {
+        return useSymmetryPruning;
+    }
+
+    public void setUseSymmetryPruning(boolean useSymmetryPruning) {
+        this.useSymmetryPruning = useSymmetryPruning;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public boolean isUsingIndexedHeap() {
+        return useIndexedHeap;
+    }
+
+    public void setUseIndexedHeap(boolean useIndexedHeap) {
+        this.useIndexedHeap = useIndexedHeap;
+    }
+
+    public boolean isPhaseTiming() {
+        return phaseTiming;
+    }
+
+    /**
+     * Açıksa SearchStats'taki faz süreleri (successor, heuristic, hashing, heap) ölçülür.
+     * Her faz için iki System.nanoTime() çağrısı demek; kapalıyken bu kod çalışmaz.
+     */
+    public void setPhaseTiming(boolean phaseTiming) {
+        this.phaseTiming = phaseTiming;
+    }
+
+    public SearchListener getSearchListener() {
+        return listener;
+    }
+
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Faz zamanlaması ve listener planı değiştirmediği için tarife girmiyor.
+     */
+    @Override
+    public String describe() {
+        return "AStarPlanner(macro=" + useMacroActions
+                + ",pruning=" + useSymmetryPruning
+                + ",indexedHeap=" + useIndexedHeap
+                + ",heuristic=" + heuristic.getClass().getSimpleName() + ")";
+    }
+
+    /**
+     * Son aramanın istatistikleri.
+     */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Son findPlan çağrısında open list'in en büyük boyutu.
+     */
+    public int getPeakOpenListSize() {
+        return lastStats.peakOpen;
+    }
+
+    /**
+     * Son findPlan çağrısında kaç düğüm expand edildi?
+     */
+    public int getExpandedNodeCount() {
+        return lastStats.expanded;
+    }
 
     /**
      * Verilen başlangıç durumundan hedefe giden planı bulur.
-     * Başarılıysa aksiyonları içeren bir Stack döner (ilk uygulanacak en altta olacak şekilde).
-     * Başarısızsa null döner.
+     * Başarılıysa aksiyonları içeren bir Stack döner (ilk uygulanacak en üstte olacak şekilde).
+     * Başarısızsa null döner. İstatistikler için plan() veya getLastStats().
      */
+    @Override
     public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    /**
+     * A* araması; plan ve SearchStats döner.
+     *
+     * Arama sırasında düğümler NodeArena'da, aksiyonlar ActionCodec kodu olarak
+     * tutulur; expand başına nesne ayrılmaz. StripsAction'lar sadece
+     * reconstructPlan içinde oluşturulur.
+     */
+    @Override
+    public PlanResult plan(GameState startState) {
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("AStarPlanner");
+        lastStats = stats;
+        stats.phaseTimed = phaseTiming;
+        Stack<StripsAction> plan = search(startState, stats);
+        stats.wallNanos = System.nanoTime() - searchStart;
+        stats.recordPlan(plan);
+        return new PlanResult(plan, stats);
+    }
+
+    private Stack<StripsAction> search(GameState startState, SearchStats stats) {
+        int width = startState.keyWidth();
+        final boolean timing = phaseTiming;
+        long t0 = 0;
+
+        // Tüm düğümler (g, h, parent, aksiyon kodu, state anahtarı) burada
+        NodeArena arena = new NodeArena(width);
+        ActionCodec codec = new ActionCodec(startState.world);
 
         // openSet: keşfedilecek düğümler (f = g + h sırasına göre önceliklendirilecek)
-        PriorityQueue<AStarNode> openSet = new PriorityQueue<>();
+        OpenList openSet = useIndexedHeap
+                ? new IndexedHeapOpenList(arena, width)
+                : new LazyHeapOpenList(arena);
 
-        // closedSet: zaten expand edilmiş GameState'ler
-        Set<GameState> closedSet = new HashSet<>();
+        // closedSet: zaten expand edilmiş GameState'lerin paketlenmiş anahtarları.
+        // Üyelik testi GameState nesnesi oluşturmadan, sadece long[] üzerinden yapılır.
+        PackedStateSet closedSet = new PackedStateSet(width);
 
-        // Başlangıç düğümü
-        double initialHeuristic = calculateHeuristic(startState);
-        AStarNode startNode = new AStarNode(startState,
-                                            0.0,                 // g(n) başlangıçta 0
-                                            initialHeuristic,    // h(n)
-                                            null,                // parent yok
-                                            null);               // aksiyon yok
-        openSet.add(startNode);
-
-        // A* ana döngüsü
-        while (!openSet.isEmpty()) {
-            // En düşük f = g+h değerli düğümü seç
-            AStarNode currentNode = openSet.poll();
-            GameState currentState = currentNode.getGameState();
-
-            // Hedefe ulaştık mı?
-            if (currentState.isGoal()) {
-                // Planı reconstruct edip döndürüyoruz
-                return reconstructPlan(currentNode);
-            }
+        // Budama açıksa closed set ve open list kanonik anahtarlarla çalışır
+        SymmetryPruner pruner = useSymmetryPruning ? new SymmetryPruner(startState) : null;
 
-            // Bu state'i daha önce expand ettiysek tekrar uğraşma
-            if (closedSet.contains(currentState)) {
-                continue;
-            }
-            closedSet.add(currentState);
+        // Tekrar kullanılan tamponlar: expand edilen state'in anahtarı, successor
+        // anahtarı, ikisinin (gerekirse) kanonik hali ve aksiyon kodları
+        long[] currentKey = new long[width];
+        long[] successorKey = new long[width];
+        long[] canonicalKey = new long[width];
+        int[] actionCodes = new int[codec.maxActions()];
 
-            // Geçerli durumdan uygulanabilecek aksiyonları al
-            List<StripsAction> applicableActions = currentState.generateApplicableActions();
+        // Adaptive A*: expand edilen düğümler (sadece heuristic öğreniyorsa tutulur)
+        AdaptiveHeuristic adaptive = heuristic instanceof AdaptiveHeuristic
+                ? (AdaptiveHeuristic) heuristic : null;
+        int[] expandedNodes = adaptive != null ? new int[1 << 10] : null;
+        int expandedCount = 0;
 
-            // Her uygulanabilir aksiyonu dene
-            for (StripsAction action : applicableActions) {
-                // Preconditions kontrolü (güvenlik için tekrar)
-                if (!action.arePreconditionsMet(currentState)) {
-                    continue;
+        // Başlangıç düğümü
+        heuristic.prepare(startState);
+        double initialHeuristic = heuristic.estimate(startState);
+        if (Double.isInfinite(initialHeuristic)) {
+            // Heuristic hedefin ulaşılamaz olduğunu biliyor (ör. haritada yeterli kaynak yok)
+            return null;
+        }
+        int startNode = arena.add(startState.key(),
+                                  0.0,                     // g(n) başlangıçta 0
+                                  initialHeuristic,        // h(n)
+                                  NodeArena.NO_PARENT,     // parent yok
+                                  NodeArena.NO_ACTION);    // aksiyon yok
+        openSet.offer(startNode, canonical(startState.key(), canonicalKey, pruner));
+
+        try {
+            // A* ana döngüsü
+            while (!openSet.isEmpty()) {
+                // En düşük f = g+h değerli düğümü seç
+                if (timing) {
+                    t0 = System.nanoTime();
                 }
+                int currentNode = openSet.poll();
+                if (timing) {
+                    stats.heapNanos += System.nanoTime() - t0;
+                }
+                arena.copyKey(currentNode, currentKey);
 
-                // Aksiyon sonucu yeni bir durum üret
-                GameState successorState = action.apply(currentState);
+                // Hedefe ulaştık mı?
+                if (startState.isGoal(currentKey)) {
+                    if (adaptive != null) {
+                        adaptive.learn(arena, expandedNodes, expandedCount, arena.costG(currentNode));
+                    }
+                    // Planı reconstruct edip döndürüyoruz
+                    return reconstructPlan(arena, codec, currentNode);
+                }
 
-                // Eğer bu durum zaten kapalıysa (expand edildi) atla
-                if (closedSet.contains(successorState)) {
+                // Bu state'i daha önce expand ettiysek tekrar uğraşma
+                if (timing) {
+                    t0 = System.nanoTime();
+                }
+                boolean firstVisit = closedSet.add(canonical(currentKey, canonicalKey, pruner));
+                if (timing) {
+                    stats.hashingNanos += System.nanoTime() - t0;
+                }
+                if (!firstVisit) {
                     continue;
                 }
+                stats.expanded++;
+                if (stats.expanded % INTERRUPT_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                if (adaptive != null) {
+                    if (expandedCount == expandedNodes.length) {
+                        expandedNodes = Arrays.copyOf(expandedNodes, expandedCount << 1);
+                    }
+                    expandedNodes[expandedCount++] = currentNode;
+                }
+                if (listener != null) {
+                    listener.nodeExpanded(GameState.fromKey(startState, currentKey),
+                            arena.costG(currentNode), arena.heuristicH(currentNode), stats);
+                }
+
+                // Geçerli durumdan uygulanabilecek aksiyonları (kod olarak) al
+                if (timing) {
+                    t0 = System.nanoTime();
+                }
+                int actionCount = codec.generate(currentKey, useMacroActions, actionCodes);
+                if (pruner != null) {
+                    actionCount = pruner.prune(currentKey, actionCodes, actionCount);
+                }
+                if (timing) {
+                    stats.successorNanos += System.nanoTime() - t0;
+                }
 
-                // g'yi (şimdiye kadarki gerçek maliyet) güncelle
-                double tentativeG = currentNode.getCostG() + action.getCost();
+                // Her uygulanabilir aksiyonu dene
+                for (int i = 0; i < actionCount; i++) {
+                    int code = actionCodes[i];
+                    stats.generated++;
 
-                // Heuristic hesapla
-                double h = calculateHeuristic(successorState);
+                    // Eğer successor zaten kapalıysa (expand edildi) atla
+                    if (timing) {
+                        t0 = System.nanoTime();
+                    }
+                    codec.writeSuccessorKey(currentKey, code, successorKey);
+                    double actionCost = codec.cost(currentKey, code);
+                    if (timing) {
+                        long t1 = System.nanoTime();
+                        stats.successorNanos += t1 - t0;
+                        t0 = t1;
+                    }
+                    long[] successorLookupKey = canonical(successorKey, canonicalKey, pruner);
+                    boolean closed = closedSet.contains(successorLookupKey);
+                    if (timing) {
+                        stats.hashingNanos += System.nanoTime() - t0;
+                    }
+                    if (closed) {
+                        stats.duplicates++;
+                        continue;
+                    }
 
-                // Yeni düğüm oluştur
-                AStarNode successorNode = new AStarNode(
-                        successorState,
-                        tentativeG,
-                        h,
-                        currentNode,
-                        action
-                );
+                    // g'yi (şimdiye kadarki gerçek maliyet) güncelle
+                    double tentativeG = arena.costG(currentNode) + actionCost;
 
-                // openSet'e ekle
-                openSet.add(successorNode);
+                    // Heuristic hesapla; sonsuzsa bu daldan hedefe ulaşılamaz
+                    if (timing) {
+                        t0 = System.nanoTime();
+                    }
+                    double h = heuristic.estimate(startState, successorKey);
+                    if (timing) {
+                        stats.heuristicNanos += System.nanoTime() - t0;
+                    }
+                    if (Double.isInfinite(h)) {
+                        continue;
+                    }
+
+                    // Yeni düğüm; open list kabul etmezse (aynı state daha iyi g ile
+                    // zaten orada) arena'dan geri alınır
+                    int successorNode = arena.add(successorKey, tentativeG, h, currentNode, code);
+                    if (timing) {
+                        t0 = System.nanoTime();
+                    }
+                    boolean accepted = openSet.offer(successorNode, successorLookupKey);
+                    if (timing) {
+                        stats.heapNanos += System.nanoTime() - t0;
+                    }
+                    if (!accepted) {
+                        arena.removeLast();
+                        stats.duplicates++;
+                    }
+                }
             }
-        }
 
-        // Open set bitti, hedef bulunamadı
-        return null;
+            // Open set bitti, hedef bulunamadı
+            return null;
+        } finally {
+            stats.peakOpen = openSet.peakSize();
+            stats.closedSize = closedSet.size();
+        }
     }
 
     /**
-     * Heuristic fonksiyonu:
-     *
-     * Amaç: Hâlâ toplanması gereken altın/odun miktarı için kaç "toplama turu"
-     * (harvest + deposit döngüsü) gerektiğini alt sınır olarak tahmin etmek.
-     *
-     * Neden güvenli? (admissible)
-     * - Hareket maliyetlerini (MoveAction) küçümsemiyoruz, hatta yok sayıyoruz.
-     *   Bu A* için iyidir, yani heuristic hedefe olan gerçek maliyeti asla aşmaz.
-     *
-     * - Her hasat/depolama döngüsünde 100 birim kaynak işleniyor
-     *   ve bu en az iki aksiyon demek:
-     *     HarvestAction (1 cost)
-     *     DepositAction (1 cost)
-     *   Yani bir tur ≈ 2 cost.
+     * Budama açıksa 'key'in kanonik halini 'buffer'a yazıp onu, değilse 'key'i döndürür.
      */
-    private double calculateHeuristic(GameState state) {
-        // Hedefe kalan miktarları hesapla
-        double goldNeeded = Math.max(0, state.requiredGold - state.collectedGold);
-        double woodNeeded = Math.max(0, state.requiredWood - state.collectedWood);
-
-        // Kaç "100-lük paket" daha lazım?
-        double goldTrips = Math.ceil(goldNeeded / 100.0);
-        double woodTrips = Math.ceil(woodNeeded / 100.0);
-
-        // Her trip kabaca:
-        //   HarvestAction (1)
-        //   DepositAction (1)
-        // => 2 maliyet
-        double baseHeuristic = (goldTrips + woodTrips) * 2.0;
-
-        // Ek küçük iyileştirme:
-        // Eğer köylü zaten yük taşıyorsa, muhtemelen sıradaki adım Deposit olacak,
-        // yani en azından Harvest'i yapmış durumda sayabiliriz. Bu biraz maliyeti düşürür.
-        if (state.peasantIsCarrying) {
-            // Tamamen aşırı agresif olmayalım, -1 yeter.
-            baseHeuristic = baseHeuristic - 1.0;
-        }
-
-        // Negatif dönmesin
-        if (baseHeuristic < 0) {
-            baseHeuristic = 0;
+    private static long[] canonical(long[] key, long[] buffer, SymmetryPruner pruner) {
+        if (pruner == null) {
+            return key;
         }
-
-        return baseHeuristic;
+        System.arraycopy(key, 0, buffer, 0, key.length);
+        pruner.canonicalize(buffer);
+        return buffer;
     }
 
     /**
-     * Hedef node'a ulaşıldığında, parent zincirini takip edip
-     * uygulanmış aksiyonları tersten alırız.
-     * Çıktı: plan[0] ilk yapılacak aksiyon olacak şekilde Stack olarak döndürülür.
+     * Hedef düğüme ulaşıldığında, parent zincirini takip edip
+     * uygulanmış aksiyonları tersten alırız. Aksiyon kodları burada, parent
+     * state'in anahtarıyla StripsAction'a çevrilir; makrolar temel aksiyonlarına açılır.
+     * Çıktı: ilk yapılacak aksiyon en üstte olacak şekilde Stack olarak döndürülür.
      */
-    private Stack<StripsAction> reconstructPlan(AStarNode goalNode) {
+    static Stack<StripsAction> reconstructPlan(NodeArena arena, ActionCodec codec, int goalNode) {
         Stack<StripsAction> reverseStack = new Stack<>();
-        AStarNode cursor = goalNode;
+        long[] parentKey = new long[arena.width()];
+        int cursor = goalNode;
 
-        while (cursor != null && cursor.getAction() != null) {
-            reverseStack.push(cursor.getAction());
-            cursor = cursor.getParent();
+        while (arena.parent(cursor) != NodeArena.NO_PARENT) {
+            arena.copyKey(arena.parent(cursor), parentKey);
+            StripsAction action = codec.decode(parentKey, arena.action(cursor));
+            if (action instanceof MacroAction) {
+                // Makroyu temel aksiyonlarına aç. Hedeften geriye push ettiğimiz için
+                // makronun adımlarını da sondan başa doğru push ediyoruz.
+                List<StripsAction> steps = ((MacroAction) action).expand();
+                for (int i = steps.size() - 1; i >= 0; i--) {
+                    reverseStack.push(steps.get(i));
+                }
+            } else {
+                reverseStack.push(action);
+            }
+            cursor = arena.parent(cursor);
         }
 
-        // reverseStack şu anda hedef -> başlangıç yönünde.
-        // Stack LIFO olduğu için doğrudan döndürmek senin RCAgent'ındaki kullanım
-        // ile uyumluysa değiştirmeye gerek yok.
-        //
-        // Senin RCAgent şu mantıkla çalışıyordu:
-        //   StripsAction nextAction = plan.peek();
-        //   ... sonra plan.pop();
-        //
-        // Bu durumda reverseStack'in en üstündeki aksiyon "ilk uygulanacak" olmalı.
-        // Şu an öyle. Çünkü parent'tan çocuğa gelirken push ettik.
-        //
-        // Yani ekstra ters çevirme gerekmiyor.
+        // reverseStack'in en üstünde ilk uygulanacak aksiyon var
+        // (hedeften başlangıca doğru push ettik), ters çevirmeye gerek yok.
         return reverseStack;
     }
 }
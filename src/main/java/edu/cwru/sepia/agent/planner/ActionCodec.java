@@ -0,0 +1,269 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+/**
+ * ActionCodec:
+ * A* aramasında aksiyonları nesne yerine küçük int kodlar olarak taşır.
+ * Aksiyon üretme, maliyet ve successor anahtarı doğrudan paketlenmiş state
+ * anahtarı üzerinden hesaplanır; arama sırasında hiç StripsAction ayrılmaz.
+ * decode() sadece plan geri çıkarılırken çağrılır.
+ *
+ * Kod düzeni: TownHall (20..30. bitler) | tür (16..19. bitler) | hedef (alt 16 bit)
+ *   MOVE        hedef = kaynak index'i veya TOWN_HALL (TownHall index'i ayrı alanda)
+ *   HARVEST     hedef = kaynak index'i
+ *   DEPOSIT     hedef kullanılmaz
+ *   ROUND_TRIP  hedef = kaynak index'i, TownHall = teslim edilen TownHall
+ * Tek TownHall'lı dünyada TownHall alanı hep 0; kodlar eski düzenle aynı.
+ * Move / RoundTrip'in başlangıç noktası koda yazılmaz, parent state'in
+ * anahtarından okunur.
+ *
+ * Birden fazla TownHall varsa yük taşıyan köylü HER TownHall'a Move edebilir,
+ * RoundTrip de her TownHall'a dönebilir: en yakın TownHall'a bırakmak o turu
+ * ucuzlatır ama sonraki tur başka bir TownHall'dan daha ucuz başlayabilir.
+ * Sadece en yakına gitmek aksiyon uzayını daraltıyor, A* / HDA* / ARA* çok
+ * TownHall'lı dünyada optimal planı kaçırıyordu. Boş elle TownHall'a Move hâlâ
+ * üretilmez: mesafeler metrik, ara durak hiçbir planı ucuzlatmaz.
+ *
+ * Üretilen aksiyonlar GameState.generateApplicableActions() ve
+ * generateMacroActions() ile aynı sırada ve aynı önkoşullarla.
+ */
+public class ActionCodec {
+
+    static final int MOVE = 1;
+    static final int HARVEST = 2;
+    static final int DEPOSIT = 3;
+    static final int ROUND_TRIP = 4;
+
+    // MOVE hedefi olarak TownHall (hangisi olduğu townHall(code) alanında)
+    static final int TOWN_HALL = 0xFFFF;
+
+    // TownHall alanı 11 bit (kod negatif olmasın)
+    static final int MAX_TOWN_HALLS = 1 << 11;
+
+    private final WorldModel world;
+    private final int keyWidth;
+
+    public ActionCodec(WorldModel world) {
+        if (world.townHallCount() > MAX_TOWN_HALLS) {
+            throw new IllegalArgumentException("too many town halls to encode: " + world.townHallCount());
+        }
+        this.world = world;
+        this.keyWidth = GameState.keyWidth(world.resourceCount());
+    }
+
+    static int encode(int kind, int target) {
+        return encode(kind, target, 0);
+    }
+
+    static int encode(int kind, int target, int townHall) {
+        return (townHall << 20) | (kind << 16) | (target & 0xFFFF);
+    }
+
+    static int kind(int code) {
+        return (code >>> 16) & 0xF;
+    }
+
+    /**
+     * TownHall'a Move'un ve RoundTrip'in TownHall index'i.
+     */
+    static int townHall(int code) {
+        return code >>> 20;
+    }
+
+    static int target(int code) {
+        return code & 0xFFFF;
+    }
+
+    /**
+     * Kodun yöneldiği kaynak index'i; Deposit ve TownHall'a Move için -1.
+     */
+    static int resourceOf(int code) {
+        if (kind(code) == DEPOSIT || target(code) == TOWN_HALL) {
+            return -1;
+        }
+        return target(code);
+    }
+
+    /**
+     * generate()'e verilecek dizinin en az bu uzunlukta olması yeterli.
+     */
+    int maxActions() {
+        // Makroda kaynak x TownHall RoundTrip; yük varken TownHall başına bir Move
+        return Math.max(world.resourceCount(), 1) * world.townHallCount();
+    }
+
+    /**
+     * 'key' state'inden uygulanabilir aksiyon kodlarını 'out'a yazar, sayısını döndürür.
+     */
+    int generate(long[] key, boolean macro, int[] out) {
+        int px = GameState.unpackPeasantX(key);
+        int py = GameState.unpackPeasantY(key);
+        int count = 0;
+
+        if (GameState.unpackCarrying(key)) {
+            // Yük varken tek seçenek TownHall: birindeysek Deposit (başka TownHall'a
+            // gitmek üçgen eşitsizliğinden kazandırmaz), değilsek her birine Move
+            if (world.isTownHall(px, py)) {
+                out[count++] = encode(DEPOSIT, 0);
+            } else {
+                for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                    out[count++] = encode(MOVE, TOWN_HALL, hall.index);
+                }
+            }
+            return count;
+        }
+
+        for (ResourceInfo r : world.resources()) {
+            boolean enough = GameState.unpackRemaining(key, r.index) >= 100;
+            if (macro) {
+                if (enough) {
+                    for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                        out[count++] = encode(ROUND_TRIP, r.index, hall.index);
+                    }
+                }
+            } else if (px == r.x && py == r.y) {
+                if (enough) {
+                    out[count++] = encode(HARVEST, r.index);
+                }
+            } else {
+                out[count++] = encode(MOVE, r.index);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 'key' state'inde 'code' aksiyonunun maliyeti (StripsAction.getCost() ile aynı).
+     */
+    double cost(long[] key, int code) {
+        int px = GameState.unpackPeasantX(key);
+        int py = GameState.unpackPeasantY(key);
+        switch (kind(code)) {
+            case MOVE:
+                if (target(code) == TOWN_HALL) {
+                    WorldModel.TownHallInfo hall = world.townHall(townHall(code));
+                    return world.distance(px, py, hall.x, hall.y);
+                }
+                ResourceInfo target = world.resource(target(code));
+                return world.distance(px, py, target.x, target.y);
+            case HARVEST:
+            case DEPOSIT:
+                return 1.0;
+            case ROUND_TRIP:
+                ResourceInfo r = world.resource(target(code));
+                WorldModel.TownHallInfo hall = world.townHall(townHall(code));
+                return world.distance(px, py, r.x, r.y) + 1.0
+                        + world.distance(r.x, r.y, hall.x, hall.y) + 1.0;
+            default:
+                throw new IllegalArgumentException("unknown action code: " + code);
+        }
+    }
+
+    /**
+     * 'key' state'ine 'code' uygulanınca oluşan state'in anahtarını 'out'a yazar.
+     */
+    void writeSuccessorKey(long[] key, int code, long[] out) {
+        System.arraycopy(key, 0, out, 0, keyWidth);
+        int px = GameState.unpackPeasantX(key);
+        int py = GameState.unpackPeasantY(key);
+        boolean carrying = GameState.unpackCarrying(key);
+        boolean carriesGold = GameState.unpackCarriesGold(key);
+        int gold = GameState.unpackCollectedGold(key);
+        int wood = GameState.unpackCollectedWood(key);
+
+        switch (kind(code)) {
+            case MOVE:
+                if (target(code) == TOWN_HALL) {
+                    WorldModel.TownHallInfo hall = world.townHall(townHall(code));
+                    out[0] = GameState.packPeasant(hall.x, hall.y, carrying, carriesGold);
+                } else {
+                    ResourceInfo target = world.resource(target(code));
+                    out[0] = GameState.packPeasant(target.x, target.y, carrying, carriesGold);
+                }
+                break;
+            case HARVEST: {
+                ResourceInfo r = world.resource(target(code));
+                out[0] = GameState.packPeasant(px, py, true, r.isGoldMine);
+                GameState.packRemaining(out, r.index, GameState.unpackRemaining(key, r.index) - 100);
+                break;
+            }
+            case DEPOSIT:
+                out[0] = GameState.packPeasant(px, py, false, false);
+                out[1] = carriesGold
+                        ? GameState.packCollected(gold + 100, wood)
+                        : GameState.packCollected(gold, wood + 100);
+                break;
+            case ROUND_TRIP: {
+                ResourceInfo r = world.resource(target(code));
+                WorldModel.TownHallInfo hall = world.townHall(townHall(code));
+                out[0] = GameState.packPeasant(hall.x, hall.y, false, false);
+                out[1] = r.isGoldMine
+                        ? GameState.packCollected(gold + 100, wood)
+                        : GameState.packCollected(gold, wood + 100);
+                GameState.packRemaining(out, r.index, GameState.unpackRemaining(key, r.index) - 100);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown action code: " + code);
+        }
+    }
+
+    /**
+     * decode()'un tersi: planlayıcının döndürdüğü bir aksiyonun kodu (PlanCache
+     * planları böyle, aksiyon başına 4 bayt saklıyor). Başlangıç noktası koda
+     * girmediği için decode(key, encode(a)) ancak a'nın uygulandığı state'te a'yı verir.
+     */
+    int encode(StripsAction action) {
+        if (action instanceof MoveAction) {
+            MoveAction move = (MoveAction) action;
+            int hall = world.townHallIndexAt(move.targetX, move.targetY);
+            if (hall >= 0) {
+                return encode(MOVE, TOWN_HALL, hall);
+            }
+            int index = world.resourceIndexAt(move.targetX, move.targetY);
+            if (index < 0) {
+                throw new IllegalArgumentException("move target is not a point of interest: ("
+                        + move.targetX + "," + move.targetY + ")");
+            }
+            return encode(MOVE, index);
+        }
+        if (action instanceof HarvestAction) {
+            return encode(HARVEST, ((HarvestAction) action).resource.index);
+        }
+        if (action instanceof DepositAction) {
+            return encode(DEPOSIT, 0);
+        }
+        if (action instanceof RoundTripAction) {
+            RoundTripAction roundTrip = (RoundTripAction) action;
+            return encode(ROUND_TRIP, roundTrip.resource.index, roundTrip.townHall.index);
+        }
+        throw new IllegalArgumentException("cannot encode " + action.getClass().getSimpleName());
+    }
+
+    /**
+     * Kodu, 'key' state'inde uygulanan StripsAction nesnesine çevirir.
+     */
+    StripsAction decode(long[] key, int code) {
+        int px = GameState.unpackPeasantX(key);
+        int py = GameState.unpackPeasantY(key);
+        switch (kind(code)) {
+            case MOVE:
+                if (target(code) == TOWN_HALL) {
+                    WorldModel.TownHallInfo hall = world.townHall(townHall(code));
+                    return new MoveAction(world, px, py, hall.x, hall.y);
+                }
+                ResourceInfo target = world.resource(target(code));
+                return new MoveAction(world, px, py, target.x, target.y);
+            case HARVEST:
+                return new HarvestAction(world.resource(target(code)));
+            case DEPOSIT:
+                return new DepositAction();
+            case ROUND_TRIP:
+                return new RoundTripAction(world, px, py, world.resource(target(code)),
+                        world.townHall(townHall(code)));
+            default:
+                throw new IllegalArgumentException("unknown action code: " + code);
+        }
+    }
+}
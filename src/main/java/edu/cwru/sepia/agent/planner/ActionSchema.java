@@ -0,0 +1,145 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+/**
+ * ActionSchema:
+ * Bir temel StripsAction'ın spec.txt'deki STRIPS tarifi, açıkça:
+ *   ön koşul    At(preX, preY), taşıma durumu (preCarry), Remaining(r) >= 100
+ *   ekle / sil  At(addX, addY) (eski At silinir), taşıma durumu (carryEffect)
+ *   sayısal     Collected(GOLD) += addGold, Collected(WOOD) += addWood, Remaining(r) -= 100
+ *
+ * StripsAction'lar bunu apply() içinde örtük yapıyor; geriye doğru arama
+ * (RegressionPlanner) için etkilerin ayrı ayrı bilinmesi gerekiyor. Tarif aksiyonun
+ * kendi alanlarından kurulur (MoveAction hedefi, HarvestAction kaynağı), aksiyon da
+ * yanında tutulur; regresyonla bulunan plan aynı StripsAction nesnelerinden oluşur.
+ *
+ * Deposit spec'te Deposit(p, t): hangi türün yatırıldığı aksiyonun parametresi.
+ * DepositAction taşınanı state'ten okuyor; o yüzden ona iki tarif var (altın / odun).
+ *
+ * Koşullar GameState anahtarıyla aynı düzende paketleniyor:
+ *   word 0   köylünün olması gereken konum ve taşıma durumu
+ *   word 1   en az bu kadar toplanmış olmalı (altın, odun)
+ *   word 2.. düğümde en az bu kadar kalmış olmalı
+ * Konum ve taşıma durumu hep belli (hedef koşulunun "her yer / her şey" hali
+ * RegressionPlanner'da ayrıca ele alınıyor), sayısallar alt sınır.
+ */
+public final class ActionSchema {
+
+    // Taşıma durumu; packPeasant ile aynı kodlar
+    static final int CARRY_UNCHANGED = -1;
+    static final int CARRY_NONE = 0;
+    static final int CARRY_GOLD = 1;
+    static final int CARRY_WOOD = 2;
+
+    final StripsAction action;
+
+    // Ön koşullar
+    final int preX;
+    final int preY;
+    final int preCarry;
+    // Remaining(consumes) >= 100 ön koşulu ve -100 etkisi (-1 = yok)
+    final int consumes;
+
+    // Etkiler
+    final int addX;
+    final int addY;
+    final int carryEffect;
+    final int addGold;
+    final int addWood;
+
+    private ActionSchema(StripsAction action, int preX, int preY, int preCarry, int consumes,
+                         int addX, int addY, int carryEffect, int addGold, int addWood) {
+        this.action = action;
+        this.preX = preX;
+        this.preY = preY;
+        this.preCarry = preCarry;
+        this.consumes = consumes;
+        this.addX = addX;
+        this.addY = addY;
+        this.carryEffect = carryEffect;
+        this.addGold = addGold;
+        this.addWood = addWood;
+    }
+
+    /**
+     * Move(l1, l2): At(l1) -> At(l2); taşınana dokunmaz.
+     */
+    static ActionSchema move(MoveAction move) {
+        return new ActionSchema(move, move.startX, move.startY, CARRY_UNCHANGED, -1,
+                move.targetX, move.targetY, CARRY_UNCHANGED, 0, 0);
+    }
+
+    /**
+     * Harvest(r): At(r) ∧ Empty ∧ Remaining(r) >= 100 -> Has(t), Remaining(r) -= 100.
+     */
+    static ActionSchema harvest(HarvestAction harvest) {
+        ResourceInfo r = harvest.resource;
+        return new ActionSchema(harvest, r.x, r.y, CARRY_NONE, r.index,
+                r.x, r.y, r.isGoldMine ? CARRY_GOLD : CARRY_WOOD, 0, 0);
+    }
+
+    /**
+     * Deposit(h, t): At(h) ∧ Has(t) -> Empty, Collected(t) += 100 (h bir TownHall).
+     */
+    static ActionSchema deposit(DepositAction deposit, WorldModel.TownHallInfo hall, boolean gold) {
+        return new ActionSchema(deposit, hall.x, hall.y,
+                gold ? CARRY_GOLD : CARRY_WOOD, -1,
+                hall.x, hall.y, CARRY_NONE,
+                gold ? 100 : 0, gold ? 0 : 100);
+    }
+
+    double getCost() {
+        return action.getCost();
+    }
+
+    /**
+     * 'condition' koşulunu bu aksiyondan geriye taşır: aksiyondan önce hangi koşul
+     * tutmalı ki aksiyondan sonra 'condition' tutsun? Sonucu 'out'a yazar.
+     *
+     * Aksiyon koşulla çelişiyorsa (konumu ya da taşıma durumu tutmuyor) veya koşula
+     * hiçbir katkısı yoksa (alakasız) false döner; alakasız aksiyonlar geriye
+     * doğru aramayı sadece şişirir.
+     */
+    boolean regress(long[] condition, long[] out) {
+        int x = GameState.unpackPeasantX(condition);
+        int y = GameState.unpackPeasantY(condition);
+        int carry = carryOf(condition);
+        int needGold = GameState.unpackCollectedGold(condition);
+        int needWood = GameState.unpackCollectedWood(condition);
+
+        // Aksiyondan sonraki konum ve taşıma durumu koşulunkiyle aynı olmalı
+        if (addX != x || addY != y) {
+            return false;
+        }
+        int carryAfter = carryEffect != CARRY_UNCHANGED ? carryEffect
+                : preCarry != CARRY_UNCHANGED ? preCarry : carry;
+        if (carryAfter != carry) {
+            return false;
+        }
+
+        // Katkı: konumu değiştiriyor, taşıma durumunu sağlıyor ya da eksik toplamı azaltıyor
+        boolean moves = preX != addX || preY != addY;
+        boolean carries = carryEffect != CARRY_UNCHANGED && carryEffect != CARRY_NONE;
+        boolean collects = (addGold > 0 && needGold > 0) || (addWood > 0 && needWood > 0);
+        if (!moves && !carries && !collects) {
+            return false;
+        }
+
+        System.arraycopy(condition, 0, out, 0, condition.length);
+        int carryBefore = preCarry != CARRY_UNCHANGED ? preCarry : carry;
+        out[0] = GameState.packPeasant(preX, preY, carryBefore != CARRY_NONE, carryBefore == CARRY_GOLD);
+        out[1] = GameState.packCollected(Math.max(0, needGold - addGold), Math.max(0, needWood - addWood));
+        if (consumes >= 0) {
+            GameState.packRemaining(out, consumes, GameState.unpackRemaining(condition, consumes) + 100);
+        }
+        return true;
+    }
+
+    static int carryOf(long[] key) {
+        if (!GameState.unpackCarrying(key)) {
+            return CARRY_NONE;
+        }
+        return GameState.unpackCarriesGold(key) ? CARRY_GOLD : CARRY_WOOD;
+    }
+}
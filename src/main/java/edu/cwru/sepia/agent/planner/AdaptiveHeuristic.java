@@ -0,0 +1,101 @@
+package edu.cwru.sepia.agent.planner;
+
+/**
+ * AdaptiveHeuristic:
+ * Aramalar arası öğrenen heuristic (Adaptive A*, Koenig & Likhachev).
+ * Yeniden planlamada (ExecutionMonitor) önceki aramanın emeği çöpe gitmesin diye var.
+ *
+ * Fikir:
+ * - Bir A* araması hedefi g* maliyetiyle bulduğunda, expand edilmiş her s için
+ *   g*  <=  g(s) + h*(s)   yani   h*(s) >= g* - g(s).
+ *   Bu yüzden h(s) = g* - g(s) kabul edilebilir (ve tutarlı) bir alt sınır.
+ * - Bu değerler paketlenmiş anahtarla saklanır; sonraki aramalarda
+ *   max(temel heuristic, öğrenilen) kullanılır. Başlangıç state'i farklı olabilir
+ *   (köylü planın dışına düştü), yeter ki dünya ve hedefler aynı olsun.
+ *
+ * Sonuç: sapmadan sonra arama eski planın etrafındaki state'lere girince h neredeyse
+ * kesin; open list o bölgede genişlemiyor. Öğrenilen tablo dünya (WorldModel
+ * nesnesi ya da fingerprint'i, ör. bir düğüm tükenip hücre açıldıysa) veya
+ * hedefler değişince sıfırlanır; yoksa geçersiz alt sınırlar kalırdı.
+ *
+ * AStarPlanner, heuristic bu sınıfsa hedefi bulduğunda learn() çağırıyor.
+ */
+public class AdaptiveHeuristic implements Heuristic {
+
+    private final Heuristic base;
+
+    // anahtar -> öğrenilen h (maliyetler tam sayı)
+    private PackedStateMap learned;
+
+    // Öğrenilenlerin geçerli olduğu dünya ve hedefler
+    private WorldModel world;
+    private long worldFingerprint;
+    private int requiredGold;
+    private int requiredWood;
+
+    public AdaptiveHeuristic(Heuristic base) {
+        this.base = base;
+    }
+
+    public Heuristic getBase() {
+        return base;
+    }
+
+    /**
+     * Şu an saklanan öğrenilmiş değer sayısı.
+     */
+    public int learnedCount() {
+        return learned == null ? 0 : learned.size();
+    }
+
+    @Override
+    public void prepare(GameState startState) {
+        base.prepare(startState);
+        long fingerprint = startState.world.fingerprint();
+        if (learned == null
+                || world != startState.world
+                || worldFingerprint != fingerprint
+                || requiredGold != startState.requiredGold
+                || requiredWood != startState.requiredWood) {
+            learned = new PackedStateMap(startState.keyWidth());
+            world = startState.world;
+            worldFingerprint = fingerprint;
+            requiredGold = startState.requiredGold;
+            requiredWood = startState.requiredWood;
+        }
+    }
+
+    @Override
+    public double estimate(GameState state) {
+        return withLearned(base.estimate(state), state.key());
+    }
+
+    @Override
+    public double estimate(GameState start, long[] key) {
+        return withLearned(base.estimate(start, key), key);
+    }
+
+    private double withLearned(double h, long[] key) {
+        if (learned == null || learned.size() == 0) {
+            return h;
+        }
+        int value = learned.get(key);
+        return value == PackedStateMap.NO_VALUE ? h : Math.max(h, value);
+    }
+
+    /**
+     * Başarılı bir aramadan sonra: expand edilmiş düğümler için h = goalCost - g.
+     */
+    void learn(NodeArena arena, int[] expandedNodes, int count, double goalCost) {
+        long[] key = new long[arena.width()];
+        for (int i = 0; i < count; i++) {
+            int node = expandedNodes[i];
+            int value = (int) (goalCost - arena.costG(node));
+            arena.copyKey(node, key);
+            int old = learned.get(key);
+            if (old == PackedStateMap.NO_VALUE || value > old) {
+                learned.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,607 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * AllocationPlanner:
+ * Çok köylü için ortak arama yapmadan görev dağıtımı: hangi köylü hangi
+ * maden / ormana gidecek, kaç tur yapacak.
+ *
+ * MultiAgentPlanner ortak state uzayında arıyor; birkaç köylüden sonra uzay
+ * patlıyor. Oysa RC problemlerinde kazancın çoğu köylüleri düğümlere doğru
+ * dağıtmaktan geliyor, her köylünün kendi döngüsü (TownHall -> düğüm -> TownHall)
+ * zaten belli. Burada:
+ *
+ * 1) Talep: tür başına gereken tur sayısı (hedef - toplanan - köylülerin elindeki).
+ *    Köylüler iki türe, işin payına göre bölünür: altına ayrılan köylü sayısı
+ *    ~ P * (altın turları x en ucuz altın döngüsü) / (toplam iş).
+ * 2) Atama: min-cost flow
+ *      kaynak -> köylü (1) -> düğüm (maliyet w) -> tür (düğümün yuvası) -> hedef (türün köylü sayısı)
+ *    Düğümün yuvası min(yanındaki boş hücre, kalan tur); maliyet köylünün o düğümle
+ *    toplam işi: w = ilk tur (bulunduğu yerden) + (k - 1) x (2d + 2), k köylü başına
+ *    beklenen tur. Mesafeler WorldModel.distance (harita varsa grid, yoksa Chebyshev).
+ *    Ardışık en kısa yol (SPFA) köylü başına bir artırım; 50+ köylüde milisaniye.
+ * 3) Turlar: her tur, o türde turu en erken bitecek köylüye verilir (bitişleri
+ *    dengeler, yani makespan'i küçük tutar). Köylünün düğümü biterse TownHall'dan
+ *    en ucuz döngüsü olan, hâlâ kapasitesi kalan düğüme geçer.
+ * 4) Plan: köylü başına temel aksiyon listesi; elinde yük varsa önce
+ *    Move(TownHall) + Deposit, sonra her tur Move(düğüm), Harvest, Move(TownHall),
+ *    Deposit. Listeler CooperativeScheduler.addPeasant'a doğrudan verilebilir.
+ *
+ * reallocate(): oyun sırasında bir düğüm tükenince (ya da hedef değişince)
+ * yeniden çözer ama atamayı baştan kurmaz: düğümü hâlâ işe yarayan köylüler
+ * yerinde kalır, sadece düğümü bitenler ve boştakiler akışa girer.
+ *
+ * Sonuç optimal değil (atama ile tur dağıtımı ayrı ayrı çözülüyor); köylü
+ * sayısıyla polinom büyüyor ve tek köylüde DirectPlanner'la aynı döngüleri seçiyor.
+ * Kapasite yetmiyorsa (haritada o kadar kaynak yok) null döner.
+ */
+public class AllocationPlanner {
+
+    // Harvest + Deposit (DirectPlanner'daki 2d + 2'nin 2'si)
+    private static final int HARVEST_AND_DEPOSIT = 2;
+
+    private SearchStats lastStats = new SearchStats("AllocationPlanner");
+
+    // Son çözümün köylü -> düğüm ataması (reallocate korumaya çalışıyor)
+    private int[] lastAssignment;
+
+    /**
+     * Bir dağıtımın sonucu: köylü başına düğüm, plan ve tahmini bitiş turu.
+     */
+    public static final class Allocation {
+        final int[] node;
+        final int[] trips;
+        final int[] finish;
+        final List<List<StripsAction>> plans;
+
+        Allocation(int[] node, int[] trips, int[] finish, List<List<StripsAction>> plans) {
+            this.node = node;
+            this.trips = trips;
+            this.finish = finish;
+            this.plans = plans;
+        }
+
+        public int peasantCount() {
+            return node.length;
+        }
+
+        /**
+         * Köylünün ilk hizmet ettiği düğüm; boşta kalıyorsa -1.
+         */
+        public int getNode(int peasant) {
+            return node[peasant];
+        }
+
+        public int getTrips(int peasant) {
+            return trips[peasant];
+        }
+
+        public int getFinishTurn(int peasant) {
+            return finish[peasant];
+        }
+
+        /**
+         * Köylünün temel aksiyonları, ilk uygulanacak başta.
+         */
+        public List<StripsAction> getPlan(int peasant) {
+            return Collections.unmodifiableList(plans.get(peasant));
+        }
+
+        /**
+         * En geç biten köylünün bitiş turu (eşzamanlı çalışma, çakışmalar hariç).
+         */
+        public int getMakespan() {
+            int makespan = 0;
+            for (int f : finish) {
+                makespan = Math.max(makespan, f);
+            }
+            return makespan;
+        }
+    }
+
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Sıfırdan dağıtım.
+     */
+    public Allocation allocate(GameStateMulti state) {
+        return solve(state, null);
+    }
+
+    /**
+     * Önceki dağıtımı koruyarak yeniden çözer: düğümü hâlâ en az bir turluk
+     * kaynak tutan ve türü hâlâ gereken köylüler yerinde kalır. Köylü sayısı
+     * değiştiyse (ya da önceki çözüm yoksa) allocate() ile aynı.
+     */
+    public Allocation reallocate(GameStateMulti state) {
+        if (lastAssignment == null || lastAssignment.length != state.peasantCount()) {
+            return solve(state, null);
+        }
+        return solve(state, lastAssignment);
+    }
+
+    /**
+     * reallocate(), son çözüm yerine verilen dağıtımı koruyarak.
+     */
+    public Allocation reallocate(GameStateMulti state, Allocation previous) {
+        if (previous.peasantCount() != state.peasantCount()) {
+            return solve(state, null);
+        }
+        return solve(state, previous.node);
+    }
+
+    private Allocation solve(GameStateMulti state, int[] keep) {
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("AllocationPlanner");
+        lastStats = stats;
+        Allocation allocation = new Solver(state, stats).solve(keep);
+        if (allocation != null) {
+            lastAssignment = allocation.node.clone();
+        }
+        stats.wallNanos = System.nanoTime() - searchStart;
+        stats.found = allocation != null;
+        if (allocation != null) {
+            stats.planCost = allocation.getMakespan();
+            for (List<StripsAction> plan : allocation.plans) {
+                stats.planLength += plan.size();
+            }
+        }
+        return allocation;
+    }
+
+    /**
+     * Tek bir çözümün durumu; her çağrıda yeniden kurulur.
+     */
+    private static final class Solver {
+        final GameStateMulti state;
+        final WorldModel world;
+        final SearchStats stats;
+        final int peasants;
+        final int nodes;
+
+        // Düğüm başına: TownHall'dan döngü maliyeti, kalan tur, köylü yuvası
+        final int[] cycle;
+        final int[] capacity;
+        final int[] slots;
+
+        // Köylü başına: yükünü bıraktıktan sonraki konum ve tur
+        final int[] readyX;
+        final int[] readyY;
+        final int[] readyAt;
+
+        int goldTrips;
+        int woodTrips;
+
+        Solver(GameStateMulti state, SearchStats stats) {
+            this.state = state;
+            this.world = state.world;
+            this.stats = stats;
+            this.peasants = state.peasantCount();
+            this.nodes = world.resourceCount();
+            this.cycle = new int[nodes];
+            this.capacity = new int[nodes];
+            this.slots = new int[nodes];
+            for (ResourceInfo r : world.resources()) {
+                // r'ye en yakın TownHall'dan gidiş-dönüş. Birden fazla TownHall varsa
+                // düğüm değiştiren köylünün geçişi bundan pahalı olabilir (plan gerçek
+                // konumdan açıldığı için geçerli kalıyor)
+                cycle[r.index] = 2 * world.distanceToTownHall(r) + HARVEST_AND_DEPOSIT;
+                capacity[r.index] = state.remaining[r.index] / 100;
+                slots[r.index] = Math.min(accessCells(r), capacity[r.index]);
+            }
+
+            goldTrips = tripsNeeded(state.requiredGold, state.collectedGold);
+            woodTrips = tripsNeeded(state.requiredWood, state.collectedWood);
+            this.readyX = new int[peasants];
+            this.readyY = new int[peasants];
+            this.readyAt = new int[peasants];
+            for (int p = 0; p < peasants; p++) {
+                readyX[p] = state.peasantX[p];
+                readyY[p] = state.peasantY[p];
+                if (state.carrying[p]) {
+                    // Önce elindekini bırakır; o da bir tur sayılır
+                    WorldModel.TownHallInfo hall = world.nearestTownHall(readyX[p], readyY[p]);
+                    readyAt[p] = world.distance(readyX[p], readyY[p], hall.x, hall.y) + 1;
+                    readyX[p] = hall.x;
+                    readyY[p] = hall.y;
+                    if (state.carriesGold[p]) {
+                        goldTrips = Math.max(0, goldTrips - 1);
+                    } else {
+                        woodTrips = Math.max(0, woodTrips - 1);
+                    }
+                }
+            }
+        }
+
+        Allocation solve(int[] keep) {
+            if (totalCapacity(true) < goldTrips || totalCapacity(false) < woodTrips) {
+                return null;
+            }
+
+            // 1) Tür başına köylü sayısı
+            int goldPeasants = goldPeasants();
+            int woodPeasants = Math.min(peasants - goldPeasants, woodTrips);
+
+            // 2) Atama: korunanlar yerinde, kalanlar akışla
+            int[] node = new int[peasants];
+            Arrays.fill(node, -1);
+            int[] freeSlots = slots.clone();
+            if (keep != null) {
+                for (int p = 0; p < peasants; p++) {
+                    int r = keep[p];
+                    if (r < 0 || freeSlots[r] == 0) {
+                        continue;
+                    }
+                    boolean gold = world.resource(r).isGoldMine;
+                    if (gold && goldPeasants > 0) {
+                        goldPeasants--;
+                    } else if (!gold && woodPeasants > 0) {
+                        woodPeasants--;
+                    } else {
+                        continue;
+                    }
+                    node[p] = r;
+                    freeSlots[r]--;
+                }
+            }
+            match(node, freeSlots, goldPeasants, woodPeasants);
+
+            // 3) Turların dağıtımı ve 4) planlar
+            List<List<Integer>> route = new ArrayList<>(peasants);
+            for (int p = 0; p < peasants; p++) {
+                route.add(new ArrayList<>());
+            }
+            int[] finish = readyAt.clone();
+            int[] remainingCapacity = capacity.clone();
+            if (!distribute(true, goldTrips, node, route, finish, remainingCapacity)
+                    || !distribute(false, woodTrips, node, route, finish, remainingCapacity)) {
+                return null;
+            }
+            int[] trips = new int[peasants];
+            List<List<StripsAction>> plans = new ArrayList<>(peasants);
+            for (int p = 0; p < peasants; p++) {
+                trips[p] = route.get(p).size();
+                plans.add(expand(p, route.get(p)));
+            }
+            return new Allocation(node, trips, finish, plans);
+        }
+
+        /**
+         * Altına ayrılacak köylü sayısı: işin payı kadar, her türe (turu varsa)
+         * en az bir köylü, tur sayısından fazla değil.
+         */
+        private int goldPeasants() {
+            if (goldTrips == 0) {
+                return 0;
+            }
+            if (woodTrips == 0) {
+                return Math.min(peasants, goldTrips);
+            }
+            double goldWork = (double) goldTrips * cheapestCycle(true);
+            double woodWork = (double) woodTrips * cheapestCycle(false);
+            int gold = (int) Math.round(peasants * goldWork / (goldWork + woodWork));
+            gold = Math.max(1, Math.min(gold, peasants - 1));
+            return Math.min(gold, goldTrips);
+        }
+
+        /**
+         * Boştaki köylüleri min-cost flow ile yuvalara atar; 'node' yerinde doldurulur.
+         */
+        private void match(int[] node, int[] freeSlots, int goldPeasants, int woodPeasants) {
+            if (goldPeasants + woodPeasants == 0) {
+                return;
+            }
+            int goldEach = perPeasant(goldTrips, goldPeasants + countAssigned(node, true));
+            int woodEach = perPeasant(woodTrips, woodPeasants + countAssigned(node, false));
+
+            // Düğümler: 0 kaynak, 1 hedef, 2 altın, 3 odun, 4.. köylüler, sonra kaynak düğümleri
+            int source = 0;
+            int sink = 1;
+            int goldSink = 2;
+            int woodSink = 3;
+            int firstPeasant = 4;
+            int firstNode = firstPeasant + peasants;
+            MinCostFlow flow = new MinCostFlow(firstNode + nodes);
+            flow.addEdge(goldSink, sink, goldPeasants, 0);
+            flow.addEdge(woodSink, sink, woodPeasants, 0);
+            for (int r = 0; r < nodes; r++) {
+                if (freeSlots[r] > 0) {
+                    boolean gold = world.resource(r).isGoldMine;
+                    flow.addEdge(firstNode + r, gold ? goldSink : woodSink, freeSlots[r], 0);
+                }
+            }
+            int[] edgeOf = new int[peasants * nodes];
+            Arrays.fill(edgeOf, -1);
+            for (int p = 0; p < peasants; p++) {
+                if (node[p] >= 0) {
+                    continue;
+                }
+                flow.addEdge(source, firstPeasant + p, 1, 0);
+                for (ResourceInfo r : world.resources()) {
+                    if (freeSlots[r.index] == 0) {
+                        continue;
+                    }
+                    int each = r.isGoldMine ? goldEach : woodEach;
+                    int cost = firstTrip(p, r) + (each - 1) * cycle[r.index];
+                    edgeOf[p * nodes + r.index] = flow.addEdge(firstPeasant + p, firstNode + r.index, 1, cost);
+                }
+            }
+            stats.expanded += flow.run(source, sink, goldPeasants + woodPeasants);
+            for (int p = 0; p < peasants; p++) {
+                for (int r = 0; r < nodes; r++) {
+                    int edge = edgeOf[p * nodes + r];
+                    if (edge >= 0 && flow.flowOn(edge) > 0) {
+                        node[p] = r;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 'gold' türünün 'tripCount' turunu köylülere dağıtır: her tur, turu en
+         * erken bitecek köylüye. Düğümü biten köylü en ucuz döngülü açık düğüme
+         * geçer; türde açık düğüm kalmazsa false. Türe hiç köylü ayrılmadıysa (köylü
+         * sayısı tür sayısından az) öbür türün köylüleri kendi turlarından sonra yapar.
+         */
+        private boolean distribute(boolean gold, int tripCount, int[] node, List<List<Integer>> route,
+                                   int[] finish, int[] remainingCapacity) {
+            if (tripCount == 0) {
+                return true;
+            }
+            int[] current = new int[peasants];
+            int[] nextFinish = new int[peasants];
+            PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, peasants),
+                    (a, b) -> nextFinish[a] != nextFinish[b]
+                            ? Integer.compare(nextFinish[a], nextFinish[b]) : Integer.compare(a, b));
+            boolean borrow = countAssigned(node, gold) == 0;
+            for (int p = 0; p < peasants; p++) {
+                if (node[p] < 0) {
+                    continue;
+                }
+                if (world.resource(node[p]).isGoldMine == gold) {
+                    current[p] = node[p];
+                } else if (borrow) {
+                    current[p] = cheapestOpen(gold, remainingCapacity);
+                } else {
+                    continue;
+                }
+                if (current[p] >= 0) {
+                    nextFinish[p] = finish[p] + tripCost(p, current[p], route.get(p).isEmpty());
+                    queue.add(p);
+                }
+            }
+            while (tripCount > 0) {
+                Integer polled = queue.poll();
+                if (polled == null) {
+                    return false;
+                }
+                int p = polled;
+                int r = current[p];
+                if (remainingCapacity[r] == 0) {
+                    // Düğüm bitti: TownHall'dan en ucuz açık düğüme geç
+                    r = cheapestOpen(gold, remainingCapacity);
+                    if (r < 0) {
+                        return false;
+                    }
+                    current[p] = r;
+                    nextFinish[p] = finish[p] + tripCost(p, r, route.get(p).isEmpty());
+                    queue.add(p);
+                    continue;
+                }
+                remainingCapacity[r]--;
+                tripCount--;
+                route.get(p).add(r);
+                finish[p] = nextFinish[p];
+                nextFinish[p] = finish[p] + cycle[r];
+                queue.add(p);
+            }
+            return true;
+        }
+
+        private List<StripsAction> expand(int p, List<Integer> route) {
+            List<StripsAction> plan = new ArrayList<>(4 * route.size() + 2);
+            int x = state.peasantX[p];
+            int y = state.peasantY[p];
+            if (state.carrying[p]) {
+                WorldModel.TownHallInfo hall = world.nearestTownHall(x, y);
+                plan.add(new MoveAction(world, x, y, hall.x, hall.y));
+                plan.add(new DepositAction());
+                x = hall.x;
+                y = hall.y;
+            }
+            for (int index : route) {
+                ResourceInfo r = world.resource(index);
+                WorldModel.TownHallInfo hall = world.nearestTownHall(r);
+                plan.add(new MoveAction(world, x, y, r.x, r.y));
+                plan.add(new HarvestAction(r));
+                plan.add(new MoveAction(world, r.x, r.y, hall.x, hall.y));
+                plan.add(new DepositAction());
+                x = hall.x;
+                y = hall.y;
+            }
+            return plan;
+        }
+
+        /**
+         * Köylünün r'ye bir turu: ilk turuysa bulunduğu yerden, değilse TownHall'dan.
+         */
+        private int tripCost(int p, int r, boolean first) {
+            return first ? firstTrip(p, world.resource(r)) : cycle[r];
+        }
+
+        private int firstTrip(int p, ResourceInfo r) {
+            return world.distance(readyX[p], readyY[p], r.x, r.y) + world.distanceToTownHall(r)
+                    + HARVEST_AND_DEPOSIT;
+        }
+
+        private int cheapestOpen(boolean gold, int[] remainingCapacity) {
+            int best = -1;
+            for (ResourceInfo r : world.resources()) {
+                if (r.isGoldMine == gold && remainingCapacity[r.index] > 0
+                        && (best < 0 || cycle[r.index] < cycle[best])) {
+                    best = r.index;
+                }
+            }
+            return best;
+        }
+
+        private int cheapestCycle(boolean gold) {
+            int best = Integer.MAX_VALUE;
+            for (ResourceInfo r : world.resources()) {
+                if (r.isGoldMine == gold && capacity[r.index] > 0) {
+                    best = Math.min(best, cycle[r.index]);
+                }
+            }
+            return best;
+        }
+
+        private int totalCapacity(boolean gold) {
+            int total = 0;
+            for (ResourceInfo r : world.resources()) {
+                if (r.isGoldMine == gold) {
+                    total += capacity[r.index];
+                }
+            }
+            return total;
+        }
+
+        private int countAssigned(int[] node, boolean gold) {
+            int count = 0;
+            for (int r : node) {
+                if (r >= 0 && world.resource(r).isGoldMine == gold) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Düğümün yanındaki geçilebilir hücre sayısı: aynı anda hizmet alabilecek köylü.
+         */
+        private int accessCells(ResourceInfo r) {
+            int count = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx != 0 || dy != 0) && world.isPassable(r.x + dx, r.y + dy)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private static int perPeasant(int trips, int peasants) {
+        return peasants == 0 ? 0 : Math.max(1, (trips + peasants - 1) / peasants);
+    }
+
+    private static int tripsNeeded(int required, int collected) {
+        int needed = required - collected;
+        return needed <= 0 ? 0 : (needed + 99) / 100;
+    }
+
+    /**
+     * Küçük bir min-cost flow: ardışık en kısa yol, SPFA ile (artık ağda negatif
+     * kenarlar var). Kenarlar ikili: e ve e ^ 1 ters kenar.
+     */
+    static final class MinCostFlow {
+        private final int vertices;
+        private final int[] head;
+        private int[] to = new int[64];
+        private int[] next = new int[64];
+        private int[] cap = new int[64];
+        private int[] cost = new int[64];
+        private int edges;
+
+        MinCostFlow(int vertices) {
+            this.vertices = vertices;
+            this.head = new int[vertices];
+            Arrays.fill(head, -1);
+        }
+
+        /**
+         * u -> v kenarı ekler ve index'ini döndürür (flowOn için).
+         */
+        int addEdge(int u, int v, int capacity, int edgeCost) {
+            int edge = edges;
+            link(u, v, capacity, edgeCost);
+            link(v, u, 0, -edgeCost);
+            return edge;
+        }
+
+        private void link(int u, int v, int capacity, int edgeCost) {
+            if (edges == to.length) {
+                to = Arrays.copyOf(to, edges * 2);
+                next = Arrays.copyOf(next, edges * 2);
+                cap = Arrays.copyOf(cap, edges * 2);
+                cost = Arrays.copyOf(cost, edges * 2);
+            }
+            to[edges] = v;
+            cap[edges] = capacity;
+            cost[edges] = edgeCost;
+            next[edges] = head[u];
+            head[u] = edges++;
+        }
+
+        int flowOn(int edge) {
+            return cap[edge ^ 1];
+        }
+
+        /**
+         * En fazla 'limit' birim akış gönderir; artırım sayısını döndürür.
+         */
+        int run(int source, int sink, int limit) {
+            int[] dist = new int[vertices];
+            int[] via = new int[vertices];
+            boolean[] queued = new boolean[vertices];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            int augmentations = 0;
+            int sent = 0;
+            while (sent < limit) {
+                Arrays.fill(dist, Integer.MAX_VALUE);
+                Arrays.fill(via, -1);
+                dist[source] = 0;
+                queue.add(source);
+                queued[source] = true;
+                while (!queue.isEmpty()) {
+                    int u = queue.poll();
+                    queued[u] = false;
+                    for (int e = head[u]; e >= 0; e = next[e]) {
+                        if (cap[e] > 0 && dist[u] + cost[e] < dist[to[e]]) {
+                            dist[to[e]] = dist[u] + cost[e];
+                            via[to[e]] = e;
+                            if (!queued[to[e]]) {
+                                queued[to[e]] = true;
+                                queue.add(to[e]);
+                            }
+                        }
+                    }
+                }
+                if (dist[sink] == Integer.MAX_VALUE) {
+                    break;
+                }
+                int push = limit - sent;
+                for (int v = sink; v != source; v = to[via[v] ^ 1]) {
+                    push = Math.min(push, cap[via[v]]);
+                }
+                for (int v = sink; v != source; v = to[via[v] ^ 1]) {
+                    cap[via[v]] -= push;
+                    cap[via[v] ^ 1] += push;
+                }
+                sent += push;
+                augmentations++;
+            }
+            return augmentations;
+        }
+    }
+}
@@ -0,0 +1,633 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+import java.util.Stack;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AnytimeAStarPlanner:
+ * ARA* (Anytime Repairing A*, Likhachev, Gordon & Thrun 2003). Büyük hedeflerde
+ * optimal A* initialStep'i sınırsız süre bloklayabiliyor; bu planlayıcı önce
+ * ağırlıklı A* (f = g + w*h, w > 1) ile hızlıca geçerli bir plan bulur, sonra
+ * süre kaldıkça w'yi düşürüp planı iyileştirir.
+ *
+ * Her iterasyon (ImprovePath):
+ * - Open list'ten en küçük g + w*h'li state çıkar, bulunan en iyi hedefin g'si
+ *   open list'in minimumundan büyük olmadığı sürece devam eder.
+ * - Bir state'in g'si düşerse: bu iterasyonda kapalı değilse open list'e,
+ *   kapalıysa INCONS listesine girer (tekrar expand edilmez).
+ * İterasyonlar arası: w -= weightStep (en az 1), INCONS open list'e eklenir,
+ * open list yeni w ile yeniden sıralanır, closed temizlenir. Önceki aramanın
+ * g değerleri ve parent'ları aynen kalır; sıfırdan arama yok.
+ *
+ * Her iterasyon sonunda bir Solution yayınlanır; plan maliyeti optimumun en
+ * fazla 'bound' katıdır:
+ *   bound = min(w, g(hedef) / min{ g(s) + h(s) : s open ∪ INCONS })
+ * bound 1'e inince plan optimal ve arama biter. Bu sınır (ve w-optimallik) sadece
+ * tutarlı (consistent) bir heuristic'le geçerli: kapalı düğüm bir iterasyon içinde
+ * tekrar açılmadığı için, tutarsız h'de expand edilen bir state'in g'si optimal
+ * olmayabilir ve min g + h optimumun üstüne çıkabilir. Varsayılan
+ * TravelAwareHeuristic tutarlı, AdaptiveHeuristic de tutarlı bir temel üstünde
+ * tutarlı kalıyor; başka bir heuristic verilirse isOptimal() bir iddia değil.
+ *
+ * Süre: setTimeBudgetNanos ile duvar saati bütçesi. plan() ilk planı bulana kadar
+ * bütçeye bakmaz (planın olması şart), sonra bütçe bitince o ana kadarki en iyi
+ * planla döner. setBackgroundRefinement(true) ise iyileştirme bir daemon thread'de
+ * devam eder; yeni planlar pollImprovement() ile alınır (RCAgent yürütmeye
+ * başlamış plana ExecutionMonitor.improve() ile takıyor). plan() tekrar
+ * çağrılırsa önceki arka plan araması durdurulur. plan()'ı çalıştıran thread
+ * interrupt edilirse (PlannerService iptali / süre sınırı) o ana kadarki en iyi
+ * planla (yoksa plansız) döner ve arka plan iyileştirmesi başlatılmaz.
+ *
+ * AStarPlanner'dan farkı: state başına tek düğüm (NodeArena.relax ile g iyileşir),
+ * kendi indexed heap'i (anahtar w'ye bağlı olduğu için OpenList kullanılamıyor) ve
+ * simetri budaması yok. Heuristic AdaptiveHeuristic ise sadece w = 1 ile tamamlanmış
+ * son iterasyondan öğrenilir (ağırlıklı iterasyonların g'leri optimal değil).
+ */
+public class AnytimeAStarPlanner implements Planner {
+
+    public static final double DEFAULT_INITIAL_WEIGHT = 3.0;
+    public static final double DEFAULT_WEIGHT_STEP = 0.5;
+
+    // Bu kadar expand'de bir süre / iptal kontrolü
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private boolean useMacroActions;
+    private Heuristic heuristic = new TravelAwareHeuristic();
+    private double initialWeight = DEFAULT_INITIAL_WEIGHT;
+    private double weightStep = DEFAULT_WEIGHT_STEP;
+
+    // Duvar saati bütçesi (Long.MAX_VALUE = sınırsız, optimal plana kadar)
+    private long timeBudgetNanos = Long.MAX_VALUE;
+    private boolean backgroundRefinement;
+
+    // Arka plan iyileştirmesi
+    private Thread refiner;
+    private volatile boolean cancelled;
+    private final AtomicReference<Solution> improvement = new AtomicReference<>();
+    private volatile Solution best;
+
+    private SearchStats lastStats = new SearchStats("AnytimeAStarPlanner");
+
+    public AnytimeAStarPlanner() {
+        this(false);
+    }
+
+    public AnytimeAStarPlanner(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public boolean isUsingMacroActions() {
+        return useMacroActions;
+    }
+
+    public void setUseMacroActions(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public double getInitialWeight() {
+        return initialWeight;
+    }
+
+    public double getWeightStep() {
+        return weightStep;
+    }
+
+    /**
+     * İlk iterasyonun ağırlığı (>= 1) ve iterasyon başına azalma (> 0).
+     */
+    public void setWeights(double initialWeight, double weightStep) {
+        if (initialWeight < 1.0 || weightStep <= 0.0) {
+            throw new IllegalArgumentException("need initialWeight >= 1 and weightStep > 0: "
+                    + initialWeight + ", " + weightStep);
+        }
+        this.initialWeight = initialWeight;
+        this.weightStep = weightStep;
+    }
+
+    public long getTimeBudgetNanos() {
+        return timeBudgetNanos;
+    }
+
+    public void setTimeBudgetNanos(long timeBudgetNanos) {
+        if (timeBudgetNanos <= 0) {
+            throw new IllegalArgumentException("time budget must be positive: " + timeBudgetNanos);
+        }
+        this.timeBudgetNanos = timeBudgetNanos;
+    }
+
+    public boolean isBackgroundRefinement() {
+        return backgroundRefinement;
+    }
+
+    public void setBackgroundRefinement(boolean backgroundRefinement) {
+        this.backgroundRefinement = backgroundRefinement;
+    }
+
+    /**
+     * Bütçe ve arka plan iyileştirmesi sadece ne zaman durulacağını değiştiriyor ama
+     * dönen ilk plan bütçeye bağlı; önbellek anahtarına giriyor.
+     */
+    @Override
+    public String describe() {
+        return "AnytimeAStarPlanner(macro=" + useMacroActions
+                + ",w0=" + initialWeight
+                + ",step=" + weightStep
+                + ",budgetNs=" + timeBudgetNanos
+                + ",heuristic=" + heuristic.getClass().getSimpleName() + ")";
+    }
+
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Şimdiye kadarki en iyi çözüm (arka plan dahil), yoksa null.
+     */
+    public Solution getBest() {
+        return best;
+    }
+
+    /**
+     * Arka planda bulunan, henüz alınmamış en son iyileştirme; yoksa null.
+     */
+    public Solution pollImprovement() {
+        return improvement.getAndSet(null);
+    }
+
+    /**
+     * Arka plan iyileştirmesi hâlâ çalışıyor mu?
+     */
+    public boolean isRefining() {
+        Thread thread = refiner;
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Arka plan iyileştirmesini durdurur ve bitmesini bekler.
+     */
+    public void cancelRefinement() {
+        Thread thread = refiner;
+        if (thread == null) {
+            return;
+        }
+        cancelled = true;
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        refiner = null;
+        cancelled = false;
+    }
+
+    /**
+     * Arka plan iyileştirmesini durdurur (cancelRefinement).
+     */
+    @Override
+    public void cancelBackgroundWork() {
+        cancelRefinement();
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    @Override
+    public PlanResult plan(GameState startState) {
+        cancelRefinement();
+        improvement.set(null);
+        best = null;
+
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("AnytimeAStarPlanner");
+        lastStats = stats;
+        long deadline = timeBudgetNanos == Long.MAX_VALUE
+                ? Long.MAX_VALUE : searchStart + timeBudgetNanos;
+
+        final Search search = new Search(startState, stats, searchStart);
+        search.run(deadline);
+        best = search.latest;
+
+        stats.wallNanos = System.nanoTime() - searchStart;
+        Stack<StripsAction> plan = best == null ? null : best.getPlan();
+        stats.recordPlan(plan);
+
+        if (backgroundRefinement && !search.finished && !Thread.currentThread().isInterrupted()) {
+            // Sayaçlar artık arka planın; dönen stats değişmesin
+            search.stats = new SearchStats("AnytimeAStarPlanner(background)");
+            search.publishImprovements = true;
+            // Dünyayı oyun thread'i de okuyor: tembel mesafe satırları şimdi
+            startState.world.prepareDistances();
+            Thread thread = new Thread(() -> search.run(Long.MAX_VALUE), "ara-star-refiner");
+            thread.setDaemon(true);
+            refiner = thread;
+            thread.start();
+        }
+        return new PlanResult(plan, stats);
+    }
+
+    /**
+     * Bir iterasyonun sonucu. Plan ilk aksiyon en üstte; maliyet <= bound * optimum.
+     */
+    public static final class Solution {
+        private final GameState start;
+        private final Stack<StripsAction> plan;
+        private final double cost;
+        private final double weight;
+        private final double bound;
+        private final int expanded;
+        private final long elapsedNanos;
+
+        Solution(GameState start, Stack<StripsAction> plan, double cost,
+                 double weight, double bound, int expanded, long elapsedNanos) {
+            this.start = start;
+            this.plan = plan;
+            this.cost = cost;
+            this.weight = weight;
+            this.bound = bound;
+            this.expanded = expanded;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Planın başladığı state (arka plan planları hâlâ ilk başlangıçtan).
+         */
+        public GameState getStart() {
+            return start;
+        }
+
+        /**
+         * Kopya; yürütme tarafı değiştirebilir.
+         */
+        public Stack<StripsAction> getPlan() {
+            Stack<StripsAction> copy = new Stack<>();
+            copy.addAll(plan);
+            return copy;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * Alt-optimallik sınırı: cost <= bound * optimum (heuristic tutarlıysa,
+         * bkz. sınıf açıklaması).
+         */
+        public double getBound() {
+            return bound;
+        }
+
+        public boolean isOptimal() {
+            return bound <= 1.0;
+        }
+
+        /**
+         * Aramanın başından bu çözüme kadar expand sayısı.
+         */
+        public int getExpanded() {
+            return expanded;
+        }
+
+        /**
+         * Aramanın başından bu çözüme kadar geçen süre.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+
+    /**
+     * Bir ARA* aramasının tüm durumu; iterasyonlar ve arka plan devamı arasında korunur.
+     */
+    private final class Search {
+
+        final GameState startState;
+        final long startNanos;
+        final int width;
+        final NodeArena arena;
+        final ActionCodec codec;
+        final PackedStateMap index;
+        final AdaptiveHeuristic adaptive;
+        SearchStats stats;
+
+        // Indexed heap (anahtar g + w*h)
+        int[] heap = new int[1 << 10];
+        int[] heapPos = new int[1 << 10];
+        int heapSize;
+
+        // closedIn[id] == iteration -> bu iterasyonda expand edildi
+        int[] closedIn = new int[1 << 10];
+        int iteration = 1;
+        // Bu iterasyonda expand edilenler (öğrenme için)
+        int[] closedList = new int[1 << 10];
+        int closedCount;
+
+        int[] incons = new int[1 << 10];
+        boolean[] inIncons = new boolean[1 << 10];
+        int inconsCount;
+
+        double weight;
+        int goalNode = -1;
+        double goalG = Double.POSITIVE_INFINITY;
+
+        boolean finished;
+        boolean publishImprovements;
+        Solution latest;
+
+        final long[] currentKey;
+        final long[] successorKey;
+        final int[] actionCodes;
+
+        Search(GameState startState, SearchStats stats, long startNanos) {
+            this.startState = startState;
+            this.stats = stats;
+            this.startNanos = startNanos;
+            this.width = startState.keyWidth();
+            this.arena = new NodeArena(width);
+            this.codec = new ActionCodec(startState.world);
+            this.index = new PackedStateMap(width);
+            this.adaptive = heuristic instanceof AdaptiveHeuristic ? (AdaptiveHeuristic) heuristic : null;
+            this.weight = initialWeight;
+            this.currentKey = new long[width];
+            this.successorKey = new long[width];
+            this.actionCodes = new int[codec.maxActions()];
+            Arrays.fill(heapPos, -1);
+
+            heuristic.prepare(startState);
+            double h = heuristic.estimate(startState);
+            if (Double.isInfinite(h)) {
+                finished = true;
+                return;
+            }
+            int start = addNode(startState.key(), 0.0, h, NodeArena.NO_PARENT, NodeArena.NO_ACTION);
+            if (startState.isGoal(startState.key())) {
+                goalNode = start;
+                goalG = 0.0;
+            }
+            push(start);
+        }
+
+        /**
+         * İterasyonları deadline'a kadar (ilk plan bulunana kadar deadline'sız) sürdürür.
+         */
+        void run(long deadline) {
+            while (!finished) {
+                if (!improvePath(deadline)) {
+                    if (latest == null) {
+                        // İlk iterasyon yarıda kaldı ama hedef bulundu: onu ver
+                        publish(false);
+                    }
+                    return;
+                }
+                publish(true);
+                if (latest == null || latest.bound <= 1.0 || weight <= 1.0) {
+                    if (adaptive != null && weight <= 1.0 && goalNode >= 0) {
+                        adaptive.learn(arena, closedList, closedCount, goalG);
+                    }
+                    finished = true;
+                    return;
+                }
+                if (cancelled || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                nextIteration();
+            }
+        }
+
+        /**
+         * ImprovePath; süre ya da iptal yüzünden yarıda kaldıysa false (kaldığı yerden devam eder).
+         */
+        boolean improvePath(long deadline) {
+            int sinceCheck = 0;
+            while (heapSize > 0 && goalG > key(heap[0])) {
+                if (++sinceCheck == CHECK_INTERVAL) {
+                    sinceCheck = 0;
+                    if (cancelled || Thread.currentThread().isInterrupted()
+                            || (goalNode >= 0 && System.nanoTime() >= deadline)) {
+                        return false;
+                    }
+                }
+                int current = pop();
+                closedIn[current] = iteration;
+                if (closedCount == closedList.length) {
+                    closedList = Arrays.copyOf(closedList, closedCount << 1);
+                }
+                closedList[closedCount++] = current;
+                arena.copyKey(current, currentKey);
+                if (startState.isGoal(currentKey)) {
+                    // Hedefin successor'ları daha pahalı; expand etmeye gerek yok
+                    continue;
+                }
+                stats.expanded++;
+                expand(current);
+            }
+            return true;
+        }
+
+        void expand(int current) {
+            int actionCount = codec.generate(currentKey, useMacroActions, actionCodes);
+            double currentG = arena.costG(current);
+            for (int i = 0; i < actionCount; i++) {
+                int code = actionCodes[i];
+                stats.generated++;
+                codec.writeSuccessorKey(currentKey, code, successorKey);
+                double g = currentG + codec.cost(currentKey, code);
+
+                int node = index.get(successorKey);
+                if (node == PackedStateMap.NO_VALUE) {
+                    double h = heuristic.estimate(startState, successorKey);
+                    if (Double.isInfinite(h)) {
+                        continue;
+                    }
+                    node = addNode(successorKey, g, h, current, code);
+                } else if (g < arena.costG(node)) {
+                    arena.relax(node, g, current, code);
+                } else {
+                    stats.duplicates++;
+                    continue;
+                }
+
+                if (startState.isGoal(successorKey) && g < goalG) {
+                    goalNode = node;
+                    goalG = g;
+                }
+                if (closedIn[node] != iteration) {
+                    push(node);
+                } else if (!inIncons[node]) {
+                    if (inconsCount == incons.length) {
+                        incons = Arrays.copyOf(incons, inconsCount << 1);
+                    }
+                    incons[inconsCount++] = node;
+                    inIncons[node] = true;
+                }
+            }
+        }
+
+        /**
+         * En iyi hedefin planını yayınlar. Sınırın alt kısmı (open ∪ INCONS'taki en
+         * küçük g + h) iterasyon yarıda kalsa da geçerli; w ile kırpmak ise sadece
+         * tamamlanmış iterasyonda.
+         */
+        void publish(boolean complete) {
+            if (goalNode < 0) {
+                return;
+            }
+            double lowerBound = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < heapSize; i++) {
+                lowerBound = Math.min(lowerBound, arena.costG(heap[i]) + arena.heuristicH(heap[i]));
+            }
+            for (int i = 0; i < inconsCount; i++) {
+                int node = incons[i];
+                lowerBound = Math.min(lowerBound, arena.costG(node) + arena.heuristicH(node));
+            }
+            double bound = lowerBound >= goalG ? 1.0 : goalG / lowerBound;
+            if (complete) {
+                bound = Math.min(weight, bound);
+            }
+            if (latest != null && goalG >= latest.cost && bound >= latest.bound) {
+                return;
+            }
+            Stack<StripsAction> plan = AStarPlanner.reconstructPlan(arena, codec, goalNode);
+            latest = new Solution(startState, plan, goalG, weight, bound,
+                    stats.expanded, System.nanoTime() - startNanos);
+            if (publishImprovements) {
+                best = latest;
+                improvement.set(latest);
+            }
+        }
+
+        void nextIteration() {
+            weight = Math.max(1.0, weight - weightStep);
+            for (int i = 0; i < inconsCount; i++) {
+                int node = incons[i];
+                inIncons[node] = false;
+                pushUnordered(node);
+            }
+            inconsCount = 0;
+            closedCount = 0;
+            iteration++;
+            // Yeni w ile heap'i baştan kur
+            for (int pos = (heapSize >>> 1) - 1; pos >= 0; pos--) {
+                siftDown(pos);
+            }
+        }
+
+        int addNode(long[] key, double g, double h, int parent, int code) {
+            int id = arena.add(key, g, h, parent, code);
+            index.put(key, id);
+            if (id == heapPos.length) {
+                int capacity = id << 1;
+                heapPos = Arrays.copyOf(heapPos, capacity);
+                Arrays.fill(heapPos, id, capacity, -1);
+                closedIn = Arrays.copyOf(closedIn, capacity);
+                inIncons = Arrays.copyOf(inIncons, capacity);
+            }
+            return id;
+        }
+
+        double key(int node) {
+            return arena.costG(node) + weight * arena.heuristicH(node);
+        }
+
+        boolean less(int a, int b) {
+            int byKey = Double.compare(key(a), key(b));
+            if (byKey != 0) {
+                return byKey < 0;
+            }
+            return arena.heuristicH(a) < arena.heuristicH(b);
+        }
+
+        /**
+         * Ekler ya da (zaten heap'teyse) anahtarı düştüğü için yukarı taşır.
+         */
+        void push(int node) {
+            int pos = heapPos[node];
+            if (pos < 0) {
+                pos = pushUnordered(node);
+                stats.peakOpen = Math.max(stats.peakOpen, heapSize);
+            }
+            siftUp(pos);
+        }
+
+        int pushUnordered(int node) {
+            if (heapPos[node] >= 0) {
+                return heapPos[node];
+            }
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize << 1);
+            }
+            int pos = heapSize++;
+            heap[pos] = node;
+            heapPos[node] = pos;
+            return pos;
+        }
+
+        int pop() {
+            int top = heap[0];
+            heapPos[top] = -1;
+            int last = heap[--heapSize];
+            if (heapSize > 0) {
+                heap[0] = last;
+                heapPos[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        void siftUp(int pos) {
+            int node = heap[pos];
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!less(node, heap[parent])) {
+                    break;
+                }
+                heap[pos] = heap[parent];
+                heapPos[heap[pos]] = pos;
+                pos = parent;
+            }
+            heap[pos] = node;
+            heapPos[node] = pos;
+        }
+
+        void siftDown(int pos) {
+            int node = heap[pos];
+            while (true) {
+                int child = 2 * pos + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], node)) {
+                    break;
+                }
+                heap[pos] = heap[child];
+                heapPos[heap[pos]] = pos;
+                pos = child;
+            }
+            heap[pos] = node;
+            heapPos[node] = pos;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BuildOrderPlanner:
+ * "Köylü üretmeye değer mi, değerse ne zaman?" sorusunu toplam SEPIA tur sayısı
+ * (makespan) üzerinden cevaplayan planlayıcı.
+ *
+ * Takas:
+ * - Her yeni köylü 400 altına (ve bir food'a) mal oluyor. Hedef kasadaki altın
+ *   olduğu için bu altın fazladan toplanmak zorunda: toplam iş artıyor.
+ * - Karşılığında iş daha fazla köylüye bölünüyor: toplama hızı artıyor.
+ * Büyük hedeflerde (çok tur) ikincisi baskın, küçük hedeflerde birincisi.
+ *
+ * Nasıl?
+ * Bu bir arama değil; her aday strateji için olay güdümlü bir simülasyon:
+ * - Boşta kalan köylü, hedefe en çok eksiği olan türün en ucuz turunu
+ *   (d(p, r) + d(r, TownHall) en küçük, bitmemiş düğüm) alıyor.
+ *   Eksik hesabına henüz yapılmamış üretimlerin altını da giriyor.
+ * - TownHall, kasada yeterli altın ve yiyecek varsa hemen üretiyor; yeni köylü
+ *   üretim bittiği tur TownHall'dan çalışmaya başlıyor.
+ * - Adaylar: 0..maxBuilds üretim, her biri iki zamanlamayla:
+ *     fundFirst = true  -> üretim parası çıkana kadar boşalan köylü altına gider (erken yatırım)
+ *     fundFirst = false -> üretim altını hedefin geri kalanından sonraya kalır,
+ *                          kasa izin verdikçe üret (geç yatırım)
+ *   En kısa makespan kazanır, eşitlikte daha az üretim.
+ *
+ * Zaman modeli MultiAgentPlanner ile aynı: hareket WorldModel.distance() kadar tur,
+ * Harvest / Deposit birer tur, üretim BuildPeasantAction.turns tur (SimpleModel'de 1).
+ * Köylüler birbirini beklemiyor (ortak adım yok), bu yüzden makespan
+ * MultiAgentPlanner'ın senkron adımlarından daha sıkı.
+ */
+public class BuildOrderPlanner {
+
+    // Step.unit için: aksiyonu TownHall yapıyor
+    public static final int TOWN_HALL_UNIT = -1;
+
+    private static final int NONE = 0;
+    private static final int GOLD = 1;
+    private static final int WOOD = 2;
+
+    private final BuildPeasantAction build;
+
+    public BuildOrderPlanner() {
+        this(new BuildPeasantAction());
+    }
+
+    public BuildOrderPlanner(BuildPeasantAction build) {
+        if (build.foodCost <= 0) {
+            // Yiyecek sınırı olmadan aday sayısı sınırsız olur
+            throw new IllegalArgumentException("build must consume food: " + build.foodCost);
+        }
+        this.build = build;
+    }
+
+    /**
+     * Yiyecek sınırının izin verdiği en fazla üretim sayısı.
+     */
+    public int maxBuilds(GameStateMulti start) {
+        return Math.max(0, (start.supplyCap - start.foodUsed) / build.foodCost);
+    }
+
+    /**
+     * Tüm adayları dener, en kısa sürede biten programı döndürür; hedefe hiç
+     * ulaşılamıyorsa null.
+     */
+    public Schedule plan(GameStateMulti start) {
+        Schedule best = null;
+        for (int builds = 0; builds <= maxBuilds(start); builds++) {
+            for (boolean fundFirst : new boolean[]{true, false}) {
+                if (builds == 0 && !fundFirst) {
+                    continue; // üretim yoksa iki zamanlama aynı
+                }
+                Schedule candidate = simulate(start, builds, fundFirst);
+                if (candidate != null && (best == null || candidate.makespan < best.makespan)) {
+                    best = candidate;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Tek bir aday: en fazla 'builds' köylü üretilerek hedefe ne zaman ulaşılıyor?
+     * (Hedef üretimler bitmeden tutarsa kalan üretimler yapılmaz.) Ulaşılamıyorsa null.
+     */
+    public Schedule simulate(GameStateMulti start, int builds, boolean fundFirst) {
+        if (builds < 0 || builds > maxBuilds(start)) {
+            throw new IllegalArgumentException("builds out of range: " + builds);
+        }
+        WorldModel world = start.world;
+        int capacity = start.peasantCount() + builds;
+        int peasants = start.peasantCount();
+        int[] px = Arrays.copyOf(start.peasantX, capacity);
+        int[] py = Arrays.copyOf(start.peasantY, capacity);
+        // freeAt[i]: köylünün boşa çıktığı tur; cargo[i]: o turda teslim edeceği tür
+        int[] freeAt = new int[capacity];
+        int[] cargo = new int[capacity];
+        int[] reserved = start.remaining.clone();
+
+        int stockGold = start.collectedGold;
+        int stockWood = start.collectedWood;
+        int inflightGold = 0;
+        int inflightWood = 0;
+        int buildsLeft = builds;
+        int townHallFreeAt = 0;
+        int built = 0;
+
+        List<Step> steps = new ArrayList<>();
+
+        // Yükle başlayan köylü önce TownHall'a gidip bırakmak zorunda
+        for (int i = 0; i < peasants; i++) {
+            if (!start.carrying[i]) {
+                continue;
+            }
+            WorldModel.TownHallInfo hall = world.nearestTownHall(px[i], py[i]);
+            int d = world.distance(px[i], py[i], hall.x, hall.y);
+            if (d > 0) {
+                steps.add(new Step(i, 0, d, new MoveAction(world, px[i], py[i], hall.x, hall.y)));
+            }
+            steps.add(new Step(i, d, d + 1, new DepositAction()));
+            freeAt[i] = d + 1;
+            if (start.carriesGold[i]) {
+                cargo[i] = GOLD;
+                inflightGold += 100;
+            } else {
+                cargo[i] = WOOD;
+                inflightWood += 100;
+            }
+            px[i] = hall.x;
+            py[i] = hall.y;
+        }
+
+        int t = 0;
+        while (true) {
+            // 1) Bu tur biten teslimatlar
+            for (int i = 0; i < peasants; i++) {
+                if (freeAt[i] == t && cargo[i] != NONE) {
+                    if (cargo[i] == GOLD) {
+                        stockGold += 100;
+                        inflightGold -= 100;
+                    } else {
+                        stockWood += 100;
+                        inflightWood -= 100;
+                    }
+                    cargo[i] = NONE;
+                }
+            }
+            if (stockGold >= start.requiredGold && stockWood >= start.requiredWood) {
+                return new Schedule(finishedBy(steps, t), t, built, fundFirst);
+            }
+
+            // 2) TownHall: para ve yiyecek varsa üret
+            if (buildsLeft > 0 && townHallFreeAt <= t && stockGold >= build.goldCost) {
+                stockGold -= build.goldCost;
+                townHallFreeAt = t + build.turns;
+                steps.add(new Step(TOWN_HALL_UNIT, t, townHallFreeAt, build));
+                px[peasants] = world.primaryTownHall().x;
+                py[peasants] = world.primaryTownHall().y;
+                freeAt[peasants] = townHallFreeAt;
+                peasants++;
+                buildsLeft--;
+                built++;
+            }
+
+            // 3) Boştaki köylülere tur ver
+            for (int i = 0; i < peasants; i++) {
+                if (freeAt[i] > t) {
+                    continue;
+                }
+                int buildGold = buildsLeft * build.goldCost;
+                int goldShort = start.requiredGold + buildGold - stockGold - inflightGold;
+                int woodShort = start.requiredWood - stockWood - inflightWood;
+                boolean preferGold;
+                if (fundFirst) {
+                    // Üretim parası çıkana kadar altın, sonra en çok eksiği olan tür
+                    preferGold = (buildsLeft > 0 && stockGold + inflightGold < build.goldCost)
+                            || goldShort >= woodShort;
+                } else {
+                    // Üretim altını hedefin geri kalanı karşılanana kadar hesaba girmiyor
+                    preferGold = goldShort - buildGold >= woodShort || woodShort <= 0;
+                }
+
+                ResourceInfo target = null;
+                if (preferGold ? goldShort > 0 : woodShort > 0) {
+                    target = cheapestTrip(world, reserved, px[i], py[i], preferGold);
+                }
+                if (target == null && (preferGold ? woodShort > 0 : goldShort > 0)) {
+                    target = cheapestTrip(world, reserved, px[i], py[i], !preferGold);
+                }
+                if (target == null) {
+                    continue; // bu köylüye iş yok; boşta kalır
+                }
+
+                RoundTripAction trip = new RoundTripAction(world, px[i], py[i], target);
+                reserved[target.index] -= 100;
+                freeAt[i] = t + (int) trip.getCost();
+                steps.add(new Step(i, t, freeAt[i], trip));
+                if (target.isGoldMine) {
+                    cargo[i] = GOLD;
+                    inflightGold += 100;
+                } else {
+                    cargo[i] = WOOD;
+                    inflightWood += 100;
+                }
+                px[i] = world.nearestTownHall(target).x;
+                py[i] = world.nearestTownHall(target).y;
+            }
+
+            // 4) Sonraki olay: bir teslimat ya da bir üretimin bitişi
+            int next = Integer.MAX_VALUE;
+            for (int i = 0; i < peasants; i++) {
+                if (freeAt[i] > t) {
+                    next = Math.min(next, freeAt[i]);
+                }
+            }
+            if (buildsLeft > 0 && townHallFreeAt > t) {
+                next = Math.min(next, townHallFreeAt);
+            }
+            if (next == Integer.MAX_VALUE) {
+                // Kimse çalışmıyor ve hedef tutmadı: haritada yeterli kaynak yok
+                return null;
+            }
+            t = next;
+        }
+    }
+
+    /**
+     * Hedef tuttuğunda hâlâ süren adımlar (üretim parası için başlamış turlar gibi)
+     * plana girmez.
+     */
+    private static List<Step> finishedBy(List<Step> steps, int makespan) {
+        List<Step> finished = new ArrayList<>(steps.size());
+        for (Step step : steps) {
+            if (step.endTurn <= makespan) {
+                finished.add(step);
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * (x,y)'den başlayan, istenen türdeki en ucuz tur: d(p, r) + d(r, TownHall) en küçük
+     * ve en az 100 birim (ayrılmamış) kalmış düğüm. Eşitlikte küçük index.
+     */
+    private static ResourceInfo cheapestTrip(WorldModel world, int[] reserved, int x, int y, boolean gold) {
+        ResourceInfo best = null;
+        int bestCost = Integer.MAX_VALUE;
+        for (ResourceInfo r : world.resources()) {
+            if (r.isGoldMine != gold || reserved[r.index] < 100) {
+                continue;
+            }
+            int cost = world.distance(x, y, r.x, r.y) + world.distanceToTownHall(r);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = r;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Step: programın bir satırı. 'unit' köylü index'i (başlangıçtaki köylüler
+     * 0..k-1, üretilenler üretim sırasıyla k, k+1, ...) ya da TOWN_HALL_UNIT.
+     * RoundTripAction'lar yürütülürken expand() ile açılır.
+     */
+    public static class Step {
+        public final int unit;
+        public final int startTurn;
+        public final int endTurn;
+        public final StripsAction action;
+
+        public Step(int unit, int startTurn, int endTurn, StripsAction action) {
+            this.unit = unit;
+            this.startTurn = startTurn;
+            this.endTurn = endTurn;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Schedule: bir adayın sonucu. Adımlar başlangıç turuna göre sıralı.
+     */
+    public static class Schedule {
+        private final List<Step> steps;
+        private final int makespan;
+        private final int buildCount;
+        private final boolean fundFirst;
+
+        Schedule(List<Step> steps, int makespan, int buildCount, boolean fundFirst) {
+            this.steps = Collections.unmodifiableList(steps);
+            this.makespan = makespan;
+            this.buildCount = buildCount;
+            this.fundFirst = fundFirst;
+        }
+
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        /**
+         * Hedefin tuttuğu tur (başlangıç 0).
+         */
+        public int getMakespan() {
+            return makespan;
+        }
+
+        /**
+         * Gerçekten yapılan üretim sayısı.
+         */
+        public int getBuildCount() {
+            return buildCount;
+        }
+
+        public boolean isFundFirst() {
+            return fundFirst;
+        }
+
+        @Override
+        public String toString() {
+            return "Schedule[makespan=" + makespan + ", builds=" + buildCount
+                    + ", fundFirst=" + fundFirst + ", steps=" + steps.size() + "]";
+        }
+    }
+}
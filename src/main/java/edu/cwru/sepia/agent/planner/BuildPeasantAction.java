@@ -0,0 +1,89 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.environment.model.state.Template;
+
+/**
+ * BuildPeasantAction:
+ * TownHall'ın yeni bir köylü üretmesi.
+ *
+ * Önkoşullar:
+ * - Kasada en az goldCost altın var
+ * - foodUsed + foodCost <= supplyCap (TownHall'ların verdiği yiyecek sınırı)
+ *
+ * Etkiler:
+ * - collectedGold -= goldCost (hedef "kasadaki" altın olduğu için bu altın tekrar toplanmalı)
+ * - foodUsed += foodCost
+ * - TownHall'da eli boş yeni bir köylü
+ *
+ * Tek köylülü GameState ikinci bir köylüyü temsil edemiyor; bu yüzden aksiyon
+ * orada hiçbir zaman uygulanabilir değil (arePreconditionsMet false) ve
+ * apply(GameState) state'i aynen döndürür. Asıl işi GameStateMulti üzerindeki
+ * overload'lar yapıyor, ne zaman üretileceğine BuildOrderPlanner karar veriyor.
+ *
+ * Maliyet: üretimin sürdüğü tur sayısı. SimpleModel üretimi tek primitive
+ * aksiyonla (tek tur) yapıyor; süreli bir modelde şablonun timeCost'u verilmeli.
+ */
+public class BuildPeasantAction implements StripsAction {
+
+    // rc_3m5t'deki Peasant şablonu
+    public static final int DEFAULT_GOLD_COST = 400;
+    public static final int DEFAULT_FOOD_COST = 1;
+
+    public final int goldCost;
+    public final int foodCost;
+    public final int turns;
+
+    public BuildPeasantAction() {
+        this(DEFAULT_GOLD_COST, DEFAULT_FOOD_COST, 1);
+    }
+
+    public BuildPeasantAction(int goldCost, int foodCost, int turns) {
+        if (goldCost < 0 || foodCost < 0 || turns <= 0) {
+            throw new IllegalArgumentException("invalid build cost: gold=" + goldCost
+                    + " food=" + foodCost + " turns=" + turns);
+        }
+        this.goldCost = goldCost;
+        this.foodCost = foodCost;
+        this.turns = turns;
+    }
+
+    /**
+     * SEPIA'daki köylü şablonundan (altın ve yiyecek maliyeti). 'turns' modele göre
+     * verilir: SimpleModel için 1, süreli modellerde template.getTimeCost().
+     */
+    public static BuildPeasantAction fromTemplate(Template.TemplateView peasantTemplate, int turns) {
+        return new BuildPeasantAction(peasantTemplate.getGoldCost(), peasantTemplate.getFoodCost(), turns);
+    }
+
+    @Override
+    public boolean arePreconditionsMet(GameState state) {
+        // Tek köylülü durumda yeni köylüye yer yok
+        return false;
+    }
+
+    /**
+     * Önkoşul hiç sağlanmadığı için çağrılmaması gerekir; çağrılırsa hiçbir şey
+     * değiştirmez (StripsAction sözleşmesi gereği 'state' mutasyona uğramaz).
+     */
+    @Override
+    public GameState apply(GameState state) {
+        return state;
+    }
+
+    public boolean arePreconditionsMet(GameStateMulti state) {
+        return state.collectedGold >= goldCost
+                && state.foodUsed + foodCost <= state.supplyCap;
+    }
+
+    /**
+     * Yeni köylü listenin sonuna eklenir (index = eski peasantCount()).
+     */
+    public GameStateMulti apply(GameStateMulti state) {
+        return state.withBuiltPeasant(goldCost, foodCost);
+    }
+
+    @Override
+    public double getCost() {
+        return turns;
+    }
+}
@@ -0,0 +1,58 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Stack;
+
+/**
+ * CachingPlanner:
+ * Başka bir planlayıcının önüne PlanCache koyar. Önbellekte varsa plan oradan
+ * gelir (arama yok), yoksa asıl planlayıcı çalışır ve bulduğu plan saklanır.
+ *
+ * İsabette dönen SearchStats'ın planlayıcı adı "PlanCache"; sayaçlar 0, süre
+ * önbellekten okuma (kod tekrar oynatma dahil) süresi. Iskada asıl planlayıcının
+ * istatistikleri aynen döner.
+ */
+public class CachingPlanner implements Planner {
+
+    private final Planner delegate;
+    private final PlanCache cache;
+
+    public CachingPlanner(Planner delegate, PlanCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    public PlanCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    @Override
+    public PlanResult plan(GameState startState) {
+        long start = System.nanoTime();
+        String config = delegate.describe();
+        Stack<StripsAction> cached = cache.get(startState, config);
+        if (cached != null) {
+            SearchStats stats = new SearchStats("PlanCache");
+            stats.wallNanos = System.nanoTime() - start;
+            stats.recordPlan(cached);
+            return new PlanResult(cached, stats);
+        }
+        PlanResult result = delegate.plan(startState);
+        cache.put(startState, config, result.getPlan());
+        return result;
+    }
+
+    @Override
+    public String describe() {
+        return delegate.describe();
+    }
+
+    @Override
+    public void cancelBackgroundWork() {
+        delegate.cancelBackgroundWork();
+    }
+}
@@ -0,0 +1,574 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.action.Action;
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import edu.cwru.sepia.util.Direction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * CooperativeScheduler:
+ * Birden fazla köylünün StripsAction planlarını aynı grid'de, birbirine
+ * çarpmadan ve kaynak / TownHall önünde itişmeden tur tur yürütür.
+ *
+ * Planlayıcılar tek köylü için "Move(maden), Harvest, Move(TownHall), Deposit"
+ * üretiyor; hareketin süresi mesafe. Birkaç köylü aynı madene gidince SEPIA'nın
+ * compound move'u diğer köylüleri o anki yerlerinde engel sayıp yol arıyor:
+ * dar yerlerde birbirlerinin önünü kesiyorlar, madenin etrafı doluyken bekleyip
+ * tekrar deniyorlar, iki köylü karşılıklı yer değiştirmeye çalışınca ikisi de
+ * takılıyor.
+ *
+ * Burada:
+ * - Plan, görevlere çevrilir: Move(kaynak) + Harvest -> "kaynağın yanına git,
+ *   orada 'dwell' tur topla" (DurativeExecutor'daki birleştirmenin aynısı);
+ *   Move(TownHall) + Deposit da öyle. Makro aksiyonlar expand() ile açılır.
+ * - Boşta kalan her köylü (sırası sabit: eklenme sırası) görevi için uzay-zaman
+ *   A* yapar: düğüm (hücre, tur), 8 komşu + yerinde bekle, her adım 1 tur;
+ *   heuristic DistanceOracle mesafesi. Diğer köylülerin ReservationTable'daki
+ *   kayıtlarına girmez (aynı hücre aynı tur) ve yer değiştirme (swap) yapmaz.
+ * - Hedef, ilgi noktasının yanındaki geçilebilir bir hücre ("erişim hücresi");
+ *   oraya varılan turdan işin bittiği tura kadar boş olmalı ve sonrasında park
+ *   edilebilmeli. Bir madenin erişim hücreleri o madene erişim kuyruğunun
+ *   "gişeleri": A* köylüyü en erken boşalan gişeye götürüyor, hepsi doluysa
+ *   köylü gişelerin hemen dışındaki en yakın boş hücrede sıra bekliyor.
+ *   Önce rezervasyon yapan önce hizmet alıyor (FIFO).
+ * - Bulunan yol tabloya yazılır; köylü yol bitene kadar tekrar planlanmaz.
+ *   Ne gişe ne bekleme yeri bulunamazsa köylü o tur yerinde bekler ve sonraki
+ *   tur tekrar dener. İşi biten köylü bir gişede kaldıysa oradan çekilir.
+ *
+ * Tur başı iş sadece o tur boşa çıkan köylülerin aramaları; her arama heuristic
+ * sayesinde kabaca yol uzunluğu kadar düğüm açıyor, yani toplam yaklaşık
+ * O(köylü x yol uzunluğu). Rezervasyon kontrolleri O(1).
+ *
+ * Planlama önceliklidir (kooperatif A*): önce planlanan köylü yolunu korur,
+ * sonrakiler etrafından dolaşır. İşi bitip park etmiş bir köylü dar bir geçidi
+ * tıkıyorsa diğerleri beklemeye devam eder; rc_3m5t gibi açık haritalarda olmuyor.
+ *
+ * Zamanlayıcı kendi tur sayacını tutar ve köylülerin adımlarını aynen
+ * uyguladığını varsayar (nextTurn() -> SEPIA primitive aksiyonları).
+ */
+public class CooperativeScheduler {
+
+    public static final int DEFAULT_HORIZON = 64;
+
+    // Arama başına açılabilecek düğüm: hücre sayısının bu katı
+    private static final int EXPANSION_LIMIT_FACTOR = 2;
+
+    // Kuyrukta bekleme yerine gidiş (hedefi schedule() seçiyor)
+    private static final Task HOLD = new Task(-1, -1, true, StepType.WAIT, 0);
+
+    // İşi bitmiş köylünün erişim hücresinden çekilmesi: hedefi yok, sadece HOLD'a düşüyor
+    private static final Task CLEAR = new Task(-1, -1, true, StepType.WAIT, 0);
+
+    private static final int[] DX = {0, -1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int[] DY = {0, -1, -1, -1, 0, 0, 1, 1, 1};
+
+    public enum StepType {
+        WAIT,
+        MOVE,
+        GATHER,
+        DEPOSIT
+    }
+
+    /**
+     * Bir köylünün bir turluk adımı: MOVE için hareket yönü, GATHER / DEPOSIT
+     * için kaynağın / TownHall'un yönü.
+     */
+    public static final class Step {
+        static final Step WAIT = new Step(StepType.WAIT, 0, 0);
+
+        final StepType type;
+        final int dx;
+        final int dy;
+
+        Step(StepType type, int dx, int dy) {
+            this.type = type;
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        public StepType getType() {
+            return type;
+        }
+
+        public int getDx() {
+            return dx;
+        }
+
+        public int getDy() {
+            return dy;
+        }
+
+        /**
+         * SEPIA primitive aksiyonu; WAIT için null (birime komut gönderilmez).
+         */
+        public Action toSepiaAction(int unitID) {
+            switch (type) {
+                case MOVE:
+                    return Action.createPrimitiveMove(unitID, Direction.getDirection(dx, dy));
+                case GATHER:
+                    return Action.createPrimitiveGather(unitID, Direction.getDirection(dx, dy));
+                case DEPOSIT:
+                    return Action.createPrimitiveDeposit(unitID, Direction.getDirection(dx, dy));
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Bir görev: (x,y) ilgi noktasının yanına (exact ise kendisine) git, 'dwell'
+     * tur 'act' yap.
+     */
+    static final class Task {
+        final int x;
+        final int y;
+        final boolean exact;
+        final StepType act;
+        final int dwell;
+
+        Task(int x, int y, boolean exact, StepType act, int dwell) {
+            this.x = x;
+            this.y = y;
+            this.exact = exact;
+            this.act = act;
+            this.dwell = dwell;
+        }
+    }
+
+    /**
+     * Köylünün zamanlayıcıdaki hali. Yol turları: pathStart + k. turda (pathX[k], pathY[k]).
+     */
+    static final class Peasant {
+        final Deque<Task> tasks;
+        int x;
+        int y;
+
+        Task current;
+        int[] pathX = new int[0];
+        int[] pathY = new int[0];
+        int pathStart;
+        int arrival;
+        int busyUntil;
+
+        Peasant(int x, int y, Deque<Task> tasks) {
+            this.x = x;
+            this.y = y;
+            this.tasks = tasks;
+        }
+    }
+
+    private final WorldModel world;
+    private final ReservationTable table;
+    private final List<Peasant> peasants = new ArrayList<>();
+    private int turn;
+
+    // Bir ilgi noktasının (TownHall, kaynak) yanındaki hücreler
+    private final boolean[] access;
+
+    // Uzay-zaman A* çalışma alanı (tekrar kullanılıyor)
+    private final int cells;
+    private final int expansionLimit;
+    private final int[] visited;
+    private int searchId;
+    private int[] nodeCell = new int[256];
+    private int[] nodeTurn = new int[256];
+    private int[] nodeParent = new int[256];
+    private int[] nodeF = new int[256];
+    private int nodeCount;
+    private int[] heap = new int[256];
+    private int heapSize;
+
+    private long expandedNodes;
+    private int waitTurns;
+    private int failedSearches;
+
+    public CooperativeScheduler(WorldModel world) {
+        this(world, DEFAULT_HORIZON);
+    }
+
+    /**
+     * @param horizon bir aramanın bakabileceği en uzak tur (yol + iş süresi bundan kısa olmalı)
+     */
+    public CooperativeScheduler(WorldModel world, int horizon) {
+        this.world = world;
+        this.table = new ReservationTable(world, horizon);
+        this.cells = table.width() * table.height();
+        this.visited = new int[horizon * cells];
+        this.expansionLimit = EXPANSION_LIMIT_FACTOR * cells;
+        this.access = new boolean[cells];
+        for (WorldModel.TownHallInfo hall : world.townHalls()) {
+            markAccess(hall.x, hall.y);
+        }
+        for (ResourceInfo r : world.resources()) {
+            markAccess(r.x, r.y);
+        }
+    }
+
+    private void markAccess(int x, int y) {
+        for (int dir = 1; dir < DX.length; dir++) {
+            int nx = x + DX[dir];
+            int ny = y + DY[dir];
+            if (table.isPassable(nx, ny)) {
+                access[ny * table.width() + nx] = true;
+            }
+        }
+    }
+
+    /**
+     * Köylü ekler; 'actions' ilk uygulanacak aksiyon başta. Dönen değer köylünün
+     * zamanlayıcıdaki index'i (nextTurn() dizisindeki yeri).
+     */
+    public int addPeasant(int x, int y, List<StripsAction> actions) {
+        int unit = peasants.size();
+        if (!table.isFree(unit, x, y, turn) || !table.isFreeFrom(unit, x, y, turn, turn)) {
+            throw new IllegalArgumentException("start cell (" + x + "," + y + ") is not free");
+        }
+        peasants.add(new Peasant(x, y, toTasks(x, y, actions)));
+        table.park(unit, x, y, turn);
+        return unit;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public int peasantCount() {
+        return peasants.size();
+    }
+
+    /**
+     * Bütün köylülerin bütün görevleri bitti mi.
+     */
+    public boolean isFinished() {
+        for (Peasant p : peasants) {
+            if ((p.current != null && p.current != CLEAR && turn < p.busyUntil) || !p.tasks.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * İşi olduğu halde yerinde beklenen köylü-tur sayısı (kuyruk + yol tıkanıklığı).
+     */
+    public int getWaitTurns() {
+        return waitTurns;
+    }
+
+    public int getFailedSearches() {
+        return failedSearches;
+    }
+
+    /**
+     * Şimdiki turun adımları (köylü index'i sırasıyla) ve bir sonraki tura geçiş.
+     * Boşta kalan köylüler önce planlanır.
+     */
+    public Step[] nextTurn() {
+        Step[] steps = new Step[peasants.size()];
+        for (int unit = 0; unit < peasants.size(); unit++) {
+            Peasant p = peasants.get(unit);
+            if (p.current != null && turn >= p.busyUntil) {
+                p.current = null;
+            }
+            if (p.current == null && !p.tasks.isEmpty()) {
+                if (schedule(unit, p, p.tasks.peek())) {
+                    p.tasks.poll();
+                } else {
+                    failedSearches++;
+                }
+            } else if (p.current == null && access[p.y * table.width() + p.x]) {
+                // İşi bitti ama bir gişede duruyor; orada kalırsa diğerleri hizmet alamıyor
+                schedule(unit, p, CLEAR);
+            }
+        }
+        for (int unit = 0; unit < peasants.size(); unit++) {
+            steps[unit] = advance(peasants.get(unit));
+        }
+        turn++;
+        return steps;
+    }
+
+    private Step advance(Peasant p) {
+        if (p.current == null) {
+            if (!p.tasks.isEmpty()) {
+                waitTurns++;
+            }
+            return Step.WAIT;
+        }
+        if (turn < p.arrival) {
+            int k = turn - p.pathStart;
+            int dx = p.pathX[k + 1] - p.pathX[k];
+            int dy = p.pathY[k + 1] - p.pathY[k];
+            p.x = p.pathX[k + 1];
+            p.y = p.pathY[k + 1];
+            if (dx == 0 && dy == 0) {
+                waitTurns++;
+                return Step.WAIT;
+            }
+            return new Step(StepType.MOVE, dx, dy);
+        }
+        Task task = p.current;
+        if (task.act == StepType.WAIT) {
+            return Step.WAIT;
+        }
+        return new Step(task.act, task.x - p.x, task.y - p.y);
+    }
+
+    /**
+     * Görev için uzay-zaman A*; bulunursa yol, iş süresi ve sonraki park tabloya
+     * yazılır. En fazla expansionLimit düğüm açılır; yol yoksa arama bütün
+     * (hücre, tur) uzayını taramasın.
+     *
+     * Hedefe varılamıyorsa (bütün erişim hücreleri dolu) köylü kuyruğa girer:
+     * aramanın gördüğü, hiçbir ilgi noktasının yanında olmayan ve park edilebilen
+     * hücrelerden hedefe en yakınına gider (HOLD) ve false döner; görev sırada
+     * kalır, sonraki turlar oradan tekrar denenir. Erişim hücresinde bekleyen
+     * köylü yakınlaşmasa da çekilir: yoksa madenin önünde TownHall'da yer bekleyen
+     * yüklü köylüler ile TownHall'un önünde madende yer bekleyen boş köylüler
+     * birbirini sonsuza kadar kilitliyor.
+     */
+    private boolean schedule(int unit, Peasant p, Task task) {
+        int startCell = p.y * table.width() + p.x;
+        int lastTurn = turn + table.horizon() - 1 - task.dwell;
+
+        table.unpark(unit, p.x, p.y);
+        searchId++;
+        nodeCount = 0;
+        heapSize = 0;
+        push(addNode(startCell, turn, -1, heuristic(task, p.x, p.y)));
+        visited[startCell] = searchId;
+
+        int goal = -1;
+        int hold = -1;
+        int holdH = access[startCell] ? Integer.MAX_VALUE : heuristic(task, p.x, p.y);
+        int budget = expansionLimit;
+        while (heapSize > 0 && budget-- > 0) {
+            int node = pop();
+            int cell = nodeCell[node];
+            int t = nodeTurn[node];
+            int x = cell % table.width();
+            int y = cell / table.width();
+            expandedNodes++;
+            if (isGoal(unit, task, x, y, t)) {
+                goal = node;
+                break;
+            }
+            if (!access[cell] && heuristic(task, x, y) < holdH && table.isFreeFrom(unit, x, y, t, turn)) {
+                hold = node;
+                holdH = heuristic(task, x, y);
+            }
+            if (t >= lastTurn) {
+                continue;
+            }
+            for (int dir = 0; dir < DX.length; dir++) {
+                int nx = x + DX[dir];
+                int ny = y + DY[dir];
+                if (!table.isFree(unit, nx, ny, t + 1)) {
+                    continue;
+                }
+                if (dir != 0) {
+                    // Yer değiştirme: (nx,ny)'deki köylü bir sonraki tur bizim hücremize geliyor
+                    int other = table.ownerAt(nx, ny, t);
+                    if (other != ReservationTable.FREE && other != unit
+                            && table.ownerAt(x, y, t + 1) == other) {
+                        continue;
+                    }
+                }
+                int next = ny * table.width() + nx;
+                int index = (t + 1 - turn) * cells + next;
+                if (visited[index] == searchId) {
+                    continue;
+                }
+                visited[index] = searchId;
+                push(addNode(next, t + 1, node, (t + 1 - turn) + heuristic(task, nx, ny)));
+            }
+        }
+
+        if (goal >= 0) {
+            commit(unit, p, task, goal);
+            return true;
+        }
+        if (hold >= 0) {
+            commit(unit, p, HOLD, hold);
+        } else {
+            table.park(unit, p.x, p.y, turn);
+        }
+        return false;
+    }
+
+    /**
+     * 'goal' düğümüne giden yolu, iş süresini ve sonraki parkı tabloya yazar.
+     */
+    private void commit(int unit, Peasant p, Task task, int goal) {
+        int length = nodeTurn[goal] - turn + 1;
+        p.pathX = new int[length];
+        p.pathY = new int[length];
+        for (int node = goal; node >= 0; node = nodeParent[node]) {
+            int k = nodeTurn[node] - turn;
+            p.pathX[k] = nodeCell[node] % table.width();
+            p.pathY[k] = nodeCell[node] / table.width();
+            table.reserve(unit, p.pathX[k], p.pathY[k], nodeTurn[node]);
+        }
+        p.current = task;
+        p.pathStart = turn;
+        p.arrival = nodeTurn[goal];
+        p.busyUntil = p.arrival + task.dwell;
+        int gx = p.pathX[length - 1];
+        int gy = p.pathY[length - 1];
+        for (int t = p.arrival; t < p.busyUntil; t++) {
+            table.reserve(unit, gx, gy, t);
+        }
+        table.park(unit, gx, gy, p.busyUntil);
+    }
+
+    /**
+     * (x,y) 't' turunda görevin hedefi mi: doğru hücre, iş süresince boş, sonra park edilebilir.
+     */
+    private boolean isGoal(int unit, Task task, int x, int y, int t) {
+        if (task.exact) {
+            if (x != task.x || y != task.y) {
+                return false;
+            }
+        } else if (Math.max(Math.abs(x - task.x), Math.abs(y - task.y)) != 1) {
+            return false;
+        }
+        for (int k = t; k < t + task.dwell; k++) {
+            if (!table.isFree(unit, x, y, k)) {
+                return false;
+            }
+        }
+        return table.isFreeFrom(unit, x, y, t + task.dwell, turn);
+    }
+
+    private int heuristic(Task task, int x, int y) {
+        if (task == CLEAR) {
+            return 0;
+        }
+        int d = world.distance(x, y, task.x, task.y);
+        return task.exact ? d : Math.max(0, d - 1);
+    }
+
+    /**
+     * Plan aksiyonlarını görevlere çevirir (Move + Harvest / Move + Deposit birleşir).
+     * Deposit, köylünün soyut olarak durduğu TownHall'a; (x,y) başlangıç konumu.
+     */
+    private Deque<Task> toTasks(int x, int y, List<StripsAction> actions) {
+        List<StripsAction> flat = new ArrayList<>();
+        for (StripsAction action : actions) {
+            if (action instanceof MacroAction) {
+                flat.addAll(((MacroAction) action).expand());
+            } else {
+                flat.add(action);
+            }
+        }
+        Deque<Task> tasks = new ArrayDeque<>();
+        int atX = x;
+        int atY = y;
+        for (int i = 0; i < flat.size(); i++) {
+            StripsAction action = flat.get(i);
+            StripsAction next = i + 1 < flat.size() ? flat.get(i + 1) : null;
+            if (action instanceof MoveAction) {
+                MoveAction move = (MoveAction) action;
+                atX = move.targetX;
+                atY = move.targetY;
+                if (next instanceof HarvestAction && isAt((HarvestAction) next, move)
+                        || next instanceof DepositAction && world.isTownHall(move.targetX, move.targetY)) {
+                    // Move'un hedefi işin yapılacağı yer; ikisi tek görev
+                    continue;
+                }
+                boolean exact = world.isPassable(move.targetX, move.targetY);
+                tasks.add(new Task(move.targetX, move.targetY, exact, StepType.WAIT, 0));
+            } else if (action instanceof HarvestAction) {
+                ResourceInfo r = ((HarvestAction) action).resource;
+                atX = r.x;
+                atY = r.y;
+                tasks.add(new Task(r.x, r.y, false, StepType.GATHER, dwell(action)));
+            } else if (action instanceof DepositAction) {
+                WorldModel.TownHallInfo hall = world.nearestTownHall(atX, atY);
+                tasks.add(new Task(hall.x, hall.y, false, StepType.DEPOSIT, dwell(action)));
+            } else {
+                throw new IllegalArgumentException("cannot schedule " + action.getClass().getSimpleName());
+            }
+        }
+        return tasks;
+    }
+
+    private static boolean isAt(HarvestAction harvest, MoveAction move) {
+        return harvest.resource.x == move.targetX && harvest.resource.y == move.targetY;
+    }
+
+    private static int dwell(StripsAction action) {
+        return Math.max(1, (int) Math.ceil(action.getCost()));
+    }
+
+    // --- A* düğümleri ve (f, -g) sıralı ikili heap ---
+
+    private int addNode(int cell, int t, int parent, int f) {
+        if (nodeCount == nodeCell.length) {
+            int capacity = nodeCount * 2;
+            nodeCell = Arrays.copyOf(nodeCell, capacity);
+            nodeTurn = Arrays.copyOf(nodeTurn, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeF = Arrays.copyOf(nodeF, capacity);
+        }
+        nodeCell[nodeCount] = cell;
+        nodeTurn[nodeCount] = t;
+        nodeParent[nodeCount] = parent;
+        nodeF[nodeCount] = f;
+        return nodeCount++;
+    }
+
+    // f eşitse daha ileri turdaki (hedefe daha yakın) önce
+    private boolean before(int a, int b) {
+        return nodeF[a] < nodeF[b] || (nodeF[a] == nodeF[b] && nodeTurn[a] > nodeTurn[b]);
+    }
+
+    private void push(int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(node, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = node;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = last;
+        }
+        return top;
+    }
+}
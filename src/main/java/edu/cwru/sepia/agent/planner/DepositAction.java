@@ -1,12 +1,14 @@
 package edu.cwru.sepia.agent.planner;
 
+import edu.cwru.sepia.action.Action;
+
 /**
  * DepositAction:
- * Köylü TownHall üzerinde duruyorsa ve elinde kaynak varsa,
+ * Köylü bir TownHall üzerinde duruyorsa ve elinde kaynak varsa,
  * bu kaynağı kasaya bırakır.
  *
  * Etkiler:
- * - peasantIsCarrying = false
+ * - peasantIsCarrying = false (peasantCarriesGold de false olur)
  * - Eğer altın taşıyorsa collectedGold += 100
  *   değilse collectedWood += 100
  */
@@ -14,34 +16,27 @@ public class DepositAction implements StripsAction {
 
     @Override
     public boolean arePreconditionsMet(GameState state) {
-        // 1. Köylü TownHall koordinatında olmalı
+        // 1. Köylü bir TownHall'un koordinatında olmalı (hangisi olduğu önemsiz)
         // 2. Köylü bir şey taşıyor olmalı
-        return state.peasantX == GameState.TOWN_HALL_X &&
-               state.peasantY == GameState.TOWN_HALL_Y &&
+        return state.world.isTownHall(state.peasantX, state.peasantY) &&
                state.peasantIsCarrying;
     }
 
     @Override
     public GameState apply(GameState state) {
-        GameState newState = new GameState(state);
-
-        // Artık eller boş
-        newState.peasantIsCarrying = false;
-
-        // Ne taşıyorsa o kaydı kasaya ekle
-        if (state.peasantCarriesGold) {
-            newState.collectedGold += 100;
-        } else {
-            newState.collectedWood += 100;
-        }
-
-        // Kaynağı bıraktıktan sonra eller boş, taşıdığı şeyin türü resetlenebilir
-        // ama peasantCarriesGold bayrağını sıfırlamak zorunda değiliz.
-        // Bu bayrak anlamını "şu anda taşıdığı şey altın mıydı?" gibi kullanıyoruz.
-        // İstersen güvenli olsun diye false yapabiliriz, ama gerekmiyor.
-        // newState.peasantCarriesGold = false;
+        // Eller boşalır, ne taşıyorsa o kasaya eklenir.
+        // peasantCarriesGold da sıfırlanır; yoksa aynı durum iki farklı
+        // anahtarla closed set'e girerdi.
+        return state.withDeposit();
+    }
 
-        return newState;
+    @Override
+    public void writeSuccessorKey(GameState state, long[] out) {
+        System.arraycopy(state.key(), 0, out, 0, state.keyWidth());
+        out[0] = GameState.packPeasant(state.peasantX, state.peasantY, false, false);
+        out[1] = state.peasantCarriesGold
+                ? GameState.packCollected(state.collectedGold + 100, state.collectedWood)
+                : GameState.packCollected(state.collectedGold, state.collectedWood + 100);
     }
 
     @Override
@@ -49,4 +44,15 @@ public class DepositAction implements StripsAction {
         // Depo etmek tek zaman adımı.
         return 1.0;
     }
+
+    @Override
+    public Action toSepiaAction(GameState state) {
+        // Compound deposit: gerekirse TownHall'un yanına yürür, sonra bırakır.
+        // Köylünün durduğu TownHall'a; sentetik dünyada id yoksa state'inkine.
+        int hall = state.world.townHallIndexAt(state.peasantX, state.peasantY);
+        int townhallID = hall >= 0 && state.world.townHall(hall).unitID != 0
+                ? state.world.townHall(hall).unitID
+                : state.townhallID;
+        return Action.createCompoundDeposit(state.peasantID, townhallID);
+    }
 }
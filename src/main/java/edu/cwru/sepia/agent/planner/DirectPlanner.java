@@ -0,0 +1,225 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * DirectPlanner:
+ * Tek köylülü RC1 problemi için arama YAPMADAN optimal planı üreten planlayıcı.
+ *
+ * Neden mümkün?
+ * - Harvest ve Deposit sabit 1 maliyetli, hareket WorldModel.distance() (simetrik).
+ * - İlk turdan sonra her tur TownHall'dan başlıyor; TownHall'dan r düğümüne bir tur
+ *   2 * d(r, TownHall) + 2 tutuyor. Yani her türde en yakın bitmemiş düğümü
+ *   kullanmak optimal (değiştirme argümanı), turların sırası da maliyeti değiştirmiyor.
+ * - Sadece ilk tur köylünün başlangıç konumundan çıkıyor; onun için her aday
+ *   düğüm denenip kalan turların kapalı formdaki maliyetiyle karşılaştırılıyor.
+ *
+ * Plan O(tur sayısı) zaman ve bellekle üretilir. Önkoşullar tutmazsa
+ * (maliyet modeli farklı, haritada yeterli kaynak yok, birden fazla TownHall
+ * -- o zaman turlar farklı TownHall'lardan başlıyor ve değiştirme argümanı
+ * geçmiyor, ...) verilen fallback
+ * planlayıcıya (genelde AStarPlanner) devreder.
+ */
+public class DirectPlanner implements Planner {
+
+    private final Planner fallback;
+
+    /**
+     * @param fallback önkoşullar tutmadığında kullanılacak planlayıcı (null olabilir)
+     */
+    public DirectPlanner(Planner fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Bu durum kapalı formla çözülebilir mi?
+     * - Temel aksiyonlar birim maliyetli (Harvest = Deposit = 1)
+     * - Tek TownHall var
+     * - Her tür için haritada yeterli tur kapasitesi var
+     */
+    public boolean canSolve(GameState state) {
+        if (state.world.townHallCount() != 1 || new DepositAction().getCost() != 1.0) {
+            return false;
+        }
+        for (ResourceInfo r : state.world.resources()) {
+            if (new HarvestAction(r).getCost() != 1.0) {
+                return false;
+            }
+        }
+
+        int goldTrips = tripsNeeded(state.requiredGold, state.collectedGold);
+        int woodTrips = tripsNeeded(state.requiredWood, state.collectedWood);
+        if (state.peasantIsCarrying) {
+            if (state.peasantCarriesGold && goldTrips > 0) {
+                goldTrips--;
+            } else if (!state.peasantCarriesGold && woodTrips > 0) {
+                woodTrips--;
+            }
+        }
+        return capacity(state.remaining, state.world, true) >= goldTrips
+                && capacity(state.remaining, state.world, false) >= woodTrips;
+    }
+
+    /**
+     * Kapalı formla çözülemiyorsa fallback'in istatistiklerini (A* sayaçları) döndürür.
+     */
+    @Override
+    public PlanResult plan(GameState startState) {
+        if (!canSolve(startState) && fallback != null) {
+            return fallback.plan(startState);
+        }
+        return Planner.super.plan(startState);
+    }
+
+    @Override
+    public String describe() {
+        return "DirectPlanner(" + (fallback == null ? "none" : fallback.describe()) + ")";
+    }
+
+    @Override
+    public void cancelBackgroundWork() {
+        if (fallback != null) {
+            fallback.cancelBackgroundWork();
+        }
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        if (!canSolve(startState)) {
+            return fallback == null ? null : fallback.findPlan(startState);
+        }
+
+        WorldModel world = startState.world;
+        int[] remaining = startState.remaining.clone();
+        int goldTrips = tripsNeeded(startState.requiredGold, startState.collectedGold);
+        int woodTrips = tripsNeeded(startState.requiredWood, startState.collectedWood);
+
+        List<StripsAction> steps = new ArrayList<>();
+        int px = startState.peasantX;
+        int py = startState.peasantY;
+        WorldModel.TownHallInfo hall = world.primaryTownHall();
+
+        // 1) Elinde yük varsa önce onu bırak (başka türlü hasat yapılamaz)
+        if (startState.peasantIsCarrying && goldTrips + woodTrips > 0) {
+            if (px != hall.x || py != hall.y) {
+                steps.add(new MoveAction(world, px, py, hall.x, hall.y));
+                px = hall.x;
+                py = hall.y;
+            }
+            steps.add(new DepositAction());
+            if (startState.peasantCarriesGold && goldTrips > 0) {
+                goldTrips--;
+            } else if (!startState.peasantCarriesGold && woodTrips > 0) {
+                woodTrips--;
+            }
+        }
+
+        List<ResourceInfo> goldByDistance = sortedByDistance(world, true);
+        List<ResourceInfo> woodByDistance = sortedByDistance(world, false);
+
+        // 2) Köylü TownHall'da değilse ilk tur buradan çıkar: en ucuz ilk turu seç
+        if ((px != hall.x || py != hall.y) && goldTrips + woodTrips > 0) {
+            ResourceInfo bestFirst = null;
+            long bestCost = Long.MAX_VALUE;
+            for (ResourceInfo r : world.resources()) {
+                boolean needed = r.isGoldMine ? goldTrips > 0 : woodTrips > 0;
+                if (!needed || remaining[r.index] < 100) {
+                    continue;
+                }
+                remaining[r.index] -= 100;
+                long cost = world.distance(px, py, r.x, r.y) + world.distanceToTownHall(r) + 2
+                        + greedyCost(world, goldByDistance, remaining, r.isGoldMine ? goldTrips - 1 : goldTrips)
+                        + greedyCost(world, woodByDistance, remaining, r.isGoldMine ? woodTrips : woodTrips - 1);
+                remaining[r.index] += 100;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestFirst = r;
+                }
+            }
+            steps.addAll(new RoundTripAction(world, px, py, bestFirst).expand());
+            remaining[bestFirst.index] -= 100;
+            if (bestFirst.isGoldMine) {
+                goldTrips--;
+            } else {
+                woodTrips--;
+            }
+        }
+
+        // 3) Kalan turlar: her türde en yakın bitmemiş düğüm, TownHall'dan gidiş-dönüş
+        appendGreedyTrips(steps, world, goldByDistance, remaining, goldTrips);
+        appendGreedyTrips(steps, world, woodByDistance, remaining, woodTrips);
+
+        // Stack: ilk uygulanacak aksiyon en üstte
+        Stack<StripsAction> plan = new Stack<>();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            plan.push(steps.get(i));
+        }
+        return plan;
+    }
+
+    private static void appendGreedyTrips(List<StripsAction> steps,
+                                          WorldModel world,
+                                          List<ResourceInfo> byDistance,
+                                          int[] remaining,
+                                          int trips) {
+        for (ResourceInfo r : byDistance) {
+            while (trips > 0 && remaining[r.index] >= 100) {
+                WorldModel.TownHallInfo hall = world.nearestTownHall(r);
+                steps.addAll(new RoundTripAction(world, hall.x, hall.y, r).expand());
+                remaining[r.index] -= 100;
+                trips--;
+            }
+            if (trips == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * TownHall'dan başlayan 'trips' turun greedy (en yakın önce) toplam maliyeti. O(düğüm sayısı).
+     */
+    private static long greedyCost(WorldModel world, List<ResourceInfo> byDistance, int[] remaining, int trips) {
+        long cost = 0;
+        for (ResourceInfo r : byDistance) {
+            if (trips <= 0) {
+                break;
+            }
+            int used = Math.min(trips, remaining[r.index] / 100);
+            cost += (long) used * (2 * world.distanceToTownHall(r) + 2);
+            trips -= used;
+        }
+        return cost;
+    }
+
+    private static List<ResourceInfo> sortedByDistance(WorldModel world, boolean gold) {
+        List<ResourceInfo> nodes = new ArrayList<>();
+        for (ResourceInfo r : world.resources()) {
+            if (r.isGoldMine == gold) {
+                nodes.add(r);
+            }
+        }
+        nodes.sort(Comparator.comparingInt((ResourceInfo r) -> world.distanceToTownHall(r))
+                .thenComparingInt(r -> r.index));
+        return nodes;
+    }
+
+    private static long capacity(int[] remaining, WorldModel world, boolean gold) {
+        long trips = 0;
+        for (ResourceInfo r : world.resources()) {
+            if (r.isGoldMine == gold) {
+                trips += remaining[r.index] / 100;
+            }
+        }
+        return trips;
+    }
+
+    private static int tripsNeeded(int required, int collected) {
+        int needed = required - collected;
+        return needed <= 0 ? 0 : (needed + 99) / 100;
+    }
+}
@@ -0,0 +1,289 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * DistanceOracle:
+ * Haritadaki engelleri (ağaçlar, madenler, TownHall) hesaba katan yol mesafeleri.
+ *
+ * Chebyshev mesafesi köylünün engellerin içinden "ışınlandığını" varsayıyor;
+ * gerçek haritada etrafından dolaşmak gerekiyor ve plan tur sayısını eksik tahmin ediyor.
+ * Planlayıcının sorduğu mesafelerin hepsinin en az bir ucu bir "ilgi noktası"
+ * (TownHall ya da bir kaynak düğümü), o yüzden:
+ * - Her ilgi noktası için tüm grid'e bir BFS (8 yön, her adım 1 tur, SEPIA gibi).
+ *   Sonuçlar tek bir int[] tabloda: table[poi * hücreSayısı + hücre].
+ * - distance() iki ucundan biri ilgi noktasıysa O(1) tablo okuması; ikisi de
+ *   değilse (planlayıcıda olmuyor) Chebyshev'e düşer.
+ *
+ * İlgi noktalarının hücreleri köylü için engel (isBlocked) ve BFS onların içinden
+ * geçmiyor: bir ilgi noktası sadece uç nokta, yanındaki boş bir hücreden bir
+ * adımda "girilir". Kaynak ilgi noktası da sadece boş komşularına açılıyor; yan
+ * yana iki ağaç arası 2 (aradaki boş hücreden), bir ormanın içindeki (hiç boş
+ * komşusu olmayan) ağaçlara hiçbir yoldan ulaşılamıyor. Ormanlar ve maden
+ * kümeleri böylece gerçekten dolaşılıyor.
+ *
+ * Tek başına bu tablo metrik değil: soyut modelde köylü bir ilgi noktasının
+ * hangi yanında durduğunu bilmiyor, a -> TownHall -> b iki Move'u TownHall'un
+ * iki yanı arasını bedava geçiyor ve d(a, b) > d(a, TownHall) + d(TownHall, b)
+ * olabiliyor; planlayıcı da ara durak ekleyerek "kısa yol" bulabiliyor.
+ * O yüzden tablo bir kere, bütün satırlar hesaplandıktan sonra kapatılıyor:
+ * - İlgi noktası x ilgi noktası tablosunda Floyd–Warshall (küçük: TownHall +
+ *   kaynak sayısı kadar satır).
+ * - Her hücre satırı: d(hücre, q) = min_r (bfs(hücre, r) + D(r, q)), yani bir
+ *   hücreden q'ya doğrudan ya da ara duraklı Move'ların en ucuzu.
+ * Sonuç simetrik ve üçgen eşitsizliği geçerli; DirectPlanner / heuristic'lerin
+ * "TownHall'dan tur = 2d + 2" argümanları bu tabloyla doğru. Ara durak sadece
+ * gerçekten durulabilecek bir ilgi noktasından geçebiliyor: tek sıra ağaçtan bir
+ * duvar, ağacın iki yanı da boşsa o ağaçta durarak hâlâ geçilebilir (model
+ * köylünün hangi yanda durduğunu tutmuyor), kalın bir ormandan geçilemez.
+ * Boş haritada sonuç Chebyshev (yan yana iki ilgi noktası arası hariç: 2).
+ *
+ * Bir orman / maden bitince SEPIA düğümü kaldırıyor ve hücre açılıyor:
+ * withUnblocked() hücresi açık YENİ bir oracle döndürür (tablosu ilk sorguda
+ * hesaplanır). Engeller bir kere kurulduktan sonra değişmiyor;
+ * eski oracle'ı okuyan bir arama (ya da arka plan iyileştirmesi) tutarlı bir
+ * haritayla bitiyor.
+ */
+public class DistanceOracle {
+
+    // Ulaşılamayan hücre: hiçbir gerçek yoldan kısa olamayacak kadar büyük,
+    // birkaç tanesi toplansa da taşmayacak kadar küçük
+    public static final int UNREACHABLE = 1 << 20;
+
+    private static final int[] DX = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int[] DY = {-1, -1, -1, 0, 0, 1, 1, 1};
+
+    private final int width;
+    private final int height;
+    private final boolean[] blocked;
+
+    private final int[] poiX;
+    private final int[] poiY;
+    // hücre -> ilgi noktası index'i + 1 (0 = yok)
+    private final int[] poiAt;
+
+    // table[poi * cells + cell] = poi'den hücreye adım sayısı (kapanmış); ilk
+    // sorguda bütünüyle hesaplanır
+    private int[] table;
+
+    // BFS kuyruğu (tekrar kullanılıyor)
+    private final int[] queue;
+
+    /**
+     * @param blocked hücre (y * width + x) geçilemez mi; kopyalanır
+     * @param poiX    ilgi noktalarının x'leri (poiY ile aynı sırada)
+     */
+    public DistanceOracle(int width, int height, boolean[] blocked, int[] poiX, int[] poiY) {
+        if (width <= 0 || height <= 0 || blocked.length != width * height) {
+            throw new IllegalArgumentException("blocked grid does not match " + width + "x" + height);
+        }
+        if (poiX.length != poiY.length) {
+            throw new IllegalArgumentException("poiX and poiY differ in length");
+        }
+        int cells = width * height;
+        this.width = width;
+        this.height = height;
+        this.blocked = blocked.clone();
+        this.poiX = poiX.clone();
+        this.poiY = poiY.clone();
+        this.poiAt = new int[cells];
+        for (int p = 0; p < poiX.length; p++) {
+            if (!inBounds(poiX[p], poiY[p])) {
+                throw new IllegalArgumentException("point of interest " + p + " is off the map: ("
+                        + poiX[p] + "," + poiY[p] + ")");
+            }
+            poiAt[poiY[p] * width + poiX[p]] = p + 1;
+        }
+        this.queue = new int[cells];
+    }
+
+    /**
+     * (x1,y1) ile (x2,y2) arasındaki yol uzunluğu (tur). Ulaşılamıyorsa UNREACHABLE.
+     */
+    public int distance(int x1, int y1, int x2, int y2) {
+        if (inBounds(x2, y2)) {
+            int p = poiAt[y2 * width + x2] - 1;
+            if (p >= 0 && inBounds(x1, y1)) {
+                ensureTable();
+                return table[offset(p) + y1 * width + x1];
+            }
+        }
+        if (inBounds(x1, y1)) {
+            int p = poiAt[y1 * width + x1] - 1;
+            if (p >= 0 && inBounds(x2, y2)) {
+                ensureTable();
+                return table[offset(p) + y2 * width + x2];
+            }
+        }
+        return GameState.chebyshev(x1, y1, x2, y2);
+    }
+
+    /**
+     * (x,y) hücresi açılmış (bitmiş orman / maden) yeni oracle; hücre zaten açıksa
+     * bu oracle. İlgi noktaları aynı, tablo ilk sorguda hesaplanır.
+     */
+    public DistanceOracle withUnblocked(int x, int y) {
+        if (!inBounds(x, y) || !blocked[y * width + x]) {
+            return this;
+        }
+        return new DistanceOracle(this, y * width + x);
+    }
+
+    private DistanceOracle(DistanceOracle base, int openedCell) {
+        this.width = base.width;
+        this.height = base.height;
+        this.blocked = base.blocked.clone();
+        this.blocked[openedCell] = false;
+        // İlgi noktası dizileri constructor'dan sonra hiç yazılmıyor: paylaşılabilir
+        this.poiX = base.poiX;
+        this.poiY = base.poiY;
+        this.poiAt = base.poiAt;
+        this.queue = new int[base.queue.length];
+    }
+
+    /**
+     * Haritanın (boyut ve engeller) 64 bitlik özeti; PlanCache anahtarı için.
+     * Açılmış hücreler de değiştiriyor.
+     */
+    public long fingerprint() {
+        long h = WorldModel.mix(WorldModel.mix(WorldModel.FINGERPRINT_SEED, width), height);
+        for (int cell = 0; cell < blocked.length; cell++) {
+            if (blocked[cell]) {
+                h = WorldModel.mix(h, cell);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Tabloyu (henüz hesaplanmadıysa) şimdi hesaplar. Sonrasında distance() hiçbir
+     * şey yazmıyor, yani birden fazla thread aynı anda okuyabilir (HdaStarPlanner
+     * worker'ları başlamadan önce çağırıyor).
+     */
+    public void computeAll() {
+        ensureTable();
+    }
+
+    public int pointCount() {
+        return poiX.length;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Hücre geçilemez mi (harita dışı da geçilemez sayılır). İlgi noktalarının
+     * hücreleri de engel.
+     */
+    public boolean isBlocked(int x, int y) {
+        return !inBounds(x, y) || blocked[y * width + x];
+    }
+
+    /**
+     * Tablonun bellek maliyeti (rapor için).
+     */
+    public long tableBytes() {
+        return 4L * poiX.length * width * height;
+    }
+
+    private void ensureTable() {
+        if (table != null) {
+            return;
+        }
+        int cells = width * height;
+        int points = poiX.length;
+        int[] direct = new int[points * cells];
+        for (int p = 0; p < points; p++) {
+            bfs(p, direct);
+        }
+
+        // İlgi noktaları arasında Floyd–Warshall
+        int[] between = new int[points * points];
+        for (int p = 0; p < points; p++) {
+            for (int q = 0; q < points; q++) {
+                between[p * points + q] = direct[p * cells + poiY[q] * width + poiX[q]];
+            }
+        }
+        for (int k = 0; k < points; k++) {
+            for (int p = 0; p < points; p++) {
+                int viaK = between[p * points + k];
+                if (viaK >= UNREACHABLE) {
+                    continue;
+                }
+                for (int q = 0; q < points; q++) {
+                    int d = viaK + between[k * points + q];
+                    if (d < between[p * points + q]) {
+                        between[p * points + q] = d;
+                    }
+                }
+            }
+        }
+
+        // Hücre satırları: doğrudan ya da bir ara durak r üzerinden (r'den sonrası kapanmış)
+        int[] closed = new int[points * cells];
+        for (int q = 0; q < points; q++) {
+            int base = q * cells;
+            for (int cell = 0; cell < cells; cell++) {
+                int best = UNREACHABLE;
+                for (int r = 0; r < points; r++) {
+                    int d = direct[r * cells + cell] + between[r * points + q];
+                    if (d < best) {
+                        best = d;
+                    }
+                }
+                closed[base + cell] = best;
+            }
+        }
+        table = closed;
+    }
+
+    private int offset(int p) {
+        return p * width * height;
+    }
+
+    private void bfs(int p, int[] rows) {
+        int base = offset(p);
+        Arrays.fill(rows, base, base + width * height, UNREACHABLE);
+        int source = poiY[p] * width + poiX[p];
+        rows[base + source] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            int next = rows[base + cell] + 1;
+            // İlgi noktalarına sadece boş bir hücreden girilir (kaynak ilgi noktasının
+            // kendisinden değil): yan yana ağaçlar arasında "orman içi" yol yok
+            boolean standing = !blocked[cell];
+            for (int dir = 0; dir < DX.length; dir++) {
+                int nx = x + DX[dir];
+                int ny = y + DY[dir];
+                if (!inBounds(nx, ny)) {
+                    continue;
+                }
+                int n = ny * width + nx;
+                if (rows[base + n] != UNREACHABLE) {
+                    continue;
+                }
+                if (!blocked[n]) {
+                    rows[base + n] = next;
+                    queue[tail++] = n;
+                } else if (standing && poiAt[n] != 0) {
+                    // Uç nokta: içinden geçilmiyor
+                    rows[base + n] = next;
+                }
+            }
+        }
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+}
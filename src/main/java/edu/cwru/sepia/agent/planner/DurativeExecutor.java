@@ -0,0 +1,154 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.action.Action;
+import edu.cwru.sepia.action.ActionFeedback;
+import edu.cwru.sepia.action.ActionResult;
+import edu.cwru.sepia.environment.model.history.History;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DurativeExecutor:
+ * Plan aksiyonlarını SEPIA compound komutları olarak çalıştırır ve bir birime
+ * sadece elindeki komut bittiğinde yeni komut verir.
+ *
+ * Eskiden RCAgent her tur bir aksiyon gönderiyordu: çok turluk bir hareket bir
+ * turda "bitti" sayılıyor, sıradaki aksiyon erkenden gidiyor (SEPIA yarım kalan
+ * hareketi atıyor) ve motor her tur yeni aksiyon map'iyle uğraşıyordu.
+ *
+ * Çalışan komutlar (birim -> Action) burada tutuluyor. Her tur
+ * collectIdle() SEPIA'nın bir önceki tur için yazdığı komut geri bildirimlerine
+ * (History.getCommandFeedback) bakar; COMPLETED / FAILED / takıldı gibi biten
+ * komutların birimleri "boşta" listesine düşer. INCOMPLETE olanlar çalışmaya
+ * devam ediyor, onlar için hiçbir şey yapılmaz. Yani tur başı iş geri bildirim
+ * gelen birim sayısı kadar; ajan da sadece boştaki birimler için karar veriyor.
+ *
+ * Plan -> komut eşlemesi (toSepiaAction):
+ *   Move(kaynak) + Harvest(kaynak)   -> compound gather (yürü + topla)
+ *   Move(TownHall) + Deposit         -> compound deposit (yürü + bırak)
+ *   diğerleri                        -> StripsAction.toSepiaAction()
+ * Planda köylü kaynağın / TownHall'un hücresine "gidiyor"; SEPIA'da o hücre
+ * dolu, compound move oraya yol bulamıyor. Birleştirme bu yüzden şart.
+ * Birleştirilmiş komut bitince ExecutionMonitor iki plan adımını birden geçer.
+ */
+public class DurativeExecutor {
+
+    private final int playerNum;
+
+    // birim -> şu an çalışan komut
+    private final Map<Integer, Action> running = new HashMap<>();
+
+    // Son collectIdle'da boşa çıkan birimler (liste tekrar kullanılıyor)
+    private final List<Integer> idle = new ArrayList<>();
+
+    private int issued;
+    private int completed;
+    private int failed;
+
+    public DurativeExecutor(int playerNum) {
+        this.playerNum = playerNum;
+    }
+
+    /**
+     * Bir önceki turun geri bildirimlerini işler; komutu biten (başarılı ya da
+     * değil) birimleri döndürür. 'turn' şimdiki tur (StateView.getTurnNumber()).
+     */
+    public List<Integer> collectIdle(History.HistoryView history, int turn) {
+        idle.clear();
+        if (history == null || turn <= 0) {
+            return idle;
+        }
+        Map<Integer, ActionResult> feedback = history.getCommandFeedback(playerNum, turn - 1);
+        if (feedback == null) {
+            return idle;
+        }
+        for (Map.Entry<Integer, ActionResult> entry : feedback.entrySet()) {
+            ActionFeedback result = entry.getValue().getFeedback();
+            if (result == ActionFeedback.INCOMPLETE) {
+                continue;
+            }
+            Integer unit = entry.getKey();
+            if (running.remove(unit) == null) {
+                // Bizim takip etmediğimiz (ya da zaten bırakılmış) komut
+                continue;
+            }
+            if (result == ActionFeedback.COMPLETED) {
+                completed++;
+            } else {
+                failed++;
+            }
+            idle.add(unit);
+        }
+        return idle;
+    }
+
+    /**
+     * Birimin çalışan bir komutu var mı?
+     */
+    public boolean isBusy(int unitID) {
+        return running.containsKey(unitID);
+    }
+
+    /**
+     * Monitörün şimdiki adımı için SEPIA komutu (birleştirmeler dahil), yoksa null.
+     */
+    public static Action toSepiaAction(StripsAction current, StripsAction next, GameState state) {
+        if (current instanceof MoveAction && next != null) {
+            MoveAction move = (MoveAction) current;
+            if (next instanceof HarvestAction) {
+                HarvestAction harvest = (HarvestAction) next;
+                if (harvest.resource.x == move.targetX && harvest.resource.y == move.targetY) {
+                    return harvest.toSepiaAction(state);
+                }
+            }
+            if (next instanceof DepositAction
+                    && state.world.isTownHall(move.targetX, move.targetY)) {
+                // Teslim, Move'un gittiği TownHall'a (birden fazla olabilir)
+                return next.toSepiaAction(state.withPeasantAt(move.targetX, move.targetY));
+            }
+        }
+        return current == null ? null : current.toSepiaAction(state);
+    }
+
+    /**
+     * Komutu birime verir (önceki komutun yerine geçer) ve 'out' map'ine ekler.
+     */
+    public void issue(Map<Integer, Action> out, int unitID, Action action) {
+        running.put(unitID, action);
+        out.put(unitID, action);
+        issued++;
+    }
+
+    /**
+     * Birimin komutunu unutur (ör. yeniden planlamada bir sonraki komut yerine geçecek).
+     */
+    public void release(int unitID) {
+        running.remove(unitID);
+    }
+
+    /**
+     * Yeni bölüm: tüm takip sıfırlanır.
+     */
+    public void reset() {
+        running.clear();
+        idle.clear();
+        issued = 0;
+        completed = 0;
+        failed = 0;
+    }
+
+    public int getIssued() {
+        return issued;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+}
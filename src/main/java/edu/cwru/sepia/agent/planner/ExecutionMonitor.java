@@ -0,0 +1,469 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * ExecutionMonitor:
+ * Planı körü körüne adım adım göndermek yerine her tur gözlenen state'i planın
+ * beklediği state'lerle karşılaştırır; plandan sapınca gözlenen state'ten yeniden planlar.
+ *
+ * Plan başlarken beklenen state'ler önceden hesaplanır:
+ *   expected[0] = başlangıç, expected[i + 1] = plan[i].apply(expected[i])
+ * ve state -> index tablosu tutulur (GameState equals/hash paketlenmiş anahtardan).
+ *
+ * observe() her tur:
+ * - Köylü planda bir kaynağın / TownHall'un ÜSTÜNDE duruyor, SEPIA'da ise yanında
+ *   (8 komşudan birinde). O yüzden gözlenen konum beklenen (sıradaki ya da şimdiki)
+ *   konuma Chebyshev 1 içindeyse o konuma "oturtulur".
+ * - Oturtulmuş state ileride bir beklenen state'e eşitse o index'e atlanır (ON_TRACK,
+ *   sıradaki aksiyon gönderilmeli). Birden fazla adım birden tamamlanmış olabilir.
+ * - Şimdiki aksiyonun ön-state'iyle aynıysa ya da sadece konum farklıysa (yürüyor)
+ *   aksiyon sürüyor demek (IN_PROGRESS, yeni aksiyon gönderme). Köylü STALL_LIMIT
+ *   turdan fazla yerinden kıpırdamazsa (yol tıkalı, aksiyon düştü) yeniden planlanır.
+ * - Başka her fark (beklenmedik kaynak miktarı, yanlış yük, düğüm erken bitti)
+ *   yeniden planlama demek (REPLANNED, ya da plan yoksa FAILED).
+ *
+ * Artımlı yeniden planlama: planlayıcı AStarPlanner + AdaptiveHeuristic ise önceki
+ * aramalar h değerlerini öğrenmiş oluyor; aynı dünya ve hedefle yapılan yeniden
+ * planlama soğuk aramadan çok daha az düğüm açıyor (bkz. AdaptiveHeuristic).
+ * Tükenen düğümler haritadan açılır: WorldModel değişmez, monitör
+ * world.withExhausted() ile yeni dünyayı kurar ve o turun gözleminden itibaren
+ * gözlenen state'leri (yeniden planlama, akışın devamı) ona taşır. Süren arama
+ * eski dünyayla biter; eski dünyaya göre iyileştiren arka plan işi
+ * (Planner.cancelBackgroundWork) durdurulur.
+ *
+ * Akışlı yürütme (StreamingPlanner): plan boş başlar, parçalar geldikçe append() ile
+ * sona eklenir. setStreaming(true) iken plan bitmiş ama hedef görünmüyorsa bu
+ * "sıradaki parça henüz gelmedi" demek; yeniden planlanmaz, IN_PROGRESS döner.
+ *
+ * Arka plan planlama (setService): yeniden planlama PlannerService'e istek olarak
+ * gider, observe() beklemeden PLANNING döner; sonraki turlarda istek bitince yeni
+ * plana geçilir (REPLANNED). Köylü STALL_LIMIT'e gelince (bir tur sonra yeniden
+ * planlanacak) aynı state'ten spekülatif istek bırakılır; takılma sürerse yeniden
+ * planlama o isteği devralır. Tükenen düğüm süren isteği beklemez; istek eski
+ * dünyanın planını verir.
+ */
+public class ExecutionMonitor {
+
+    // Köylü bu kadar tur kıpırdamazsa aksiyon takıldı sayılır
+    static final int STALL_LIMIT = 3;
+
+    public enum Status {
+        // Yeni aksiyon başladı (currentAction() gönderilmeli)
+        ON_TRACK,
+        // Şimdiki aksiyon sürüyor, yeni aksiyon gönderme
+        IN_PROGRESS,
+        // Sapma vardı, yeni plan hazır (currentAction() gönderilmeli)
+        REPLANNED,
+        // Sapma vardı ve yeni plan bulunamadı
+        FAILED,
+        // Yeni plan arka planda aranıyor (PlannerService), aksiyon gönderme
+        PLANNING
+    }
+
+    private final Planner planner;
+
+    private List<StripsAction> actions = new ArrayList<>();
+    private List<GameState> expected = new ArrayList<>();
+    private Map<GameState, Integer> expectedIndex = new HashMap<>();
+    private int index;
+
+    private GameState lastObserved;
+    private int stallTurns;
+    private boolean streaming;
+
+    // Arka plan planlama: servis, istek süresi, bekleyen istek
+    private PlannerService service;
+    private long serviceDeadlineNanos;
+    private PlannerService.Request pending;
+    private boolean pendingReplan;
+
+    // Şu anki dünya (düğüm tükendikçe withExhausted ile değişir); gözlenen
+    // state'ler buna taşınır
+    private WorldModel world;
+
+    private int replans;
+    private long lastReplanNanos;
+    private long maxReplanNanos;
+    private PlanResult lastResult;
+
+    public ExecutionMonitor(Planner planner) {
+        this.planner = planner;
+    }
+
+    /**
+     * Yeni planı izlemeye başlar. plan: ilk aksiyon en üstte (Planner çıktısı).
+     */
+    public void start(GameState startState, Stack<StripsAction> plan) {
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+        actions = new ArrayList<>();
+        expected = new ArrayList<>();
+        expectedIndex = new HashMap<>();
+        index = 0;
+        stallTurns = 0;
+        streaming = false;
+        if (world == null) {
+            world = startState.world;
+        }
+        lastObserved = startState;
+        unroll(startState, plan, actions, expected, expectedIndex);
+    }
+
+    /**
+     * Aynı başlangıçtan daha ucuz bir plan geldi (AnytimeAStarPlanner arka plan
+     * iyileştirmesi). Şu an beklenen state yeni planın üstündeyse ve oradan kalan
+     * maliyet daha düşükse yeni plana o noktadan geçilir. Köylü boştayken (komutlar
+     * arasında) çağrılmalı. Geçildiyse true.
+     */
+    public boolean improve(GameState planStart, Stack<StripsAction> plan) {
+        if (plan == null || isDone() || pending != null) {
+            return false;
+        }
+        List<StripsAction> newActions = new ArrayList<>();
+        List<GameState> newExpected = new ArrayList<>();
+        Map<GameState, Integer> newIndex = new HashMap<>();
+        unroll(planStart, plan, newActions, newExpected, newIndex);
+
+        Integer at = newIndex.get(expected.get(index));
+        if (at == null || remainingCost(newActions, at) >= remainingCost(actions, index)) {
+            return false;
+        }
+        actions = newActions;
+        expected = newExpected;
+        expectedIndex = newIndex;
+        index = at;
+        stallTurns = 0;
+        return true;
+    }
+
+    /**
+     * Planın sonuna aksiyon ekler (ilk aksiyon listenin başında); beklenen state'ler
+     * planın son beklenen state'inden devam eder. Akışlı yürütmede kanaldan gelen
+     * parçalar için.
+     */
+    public void append(List<StripsAction> more) {
+        GameState state = getPlanEnd();
+        for (StripsAction action : more) {
+            state = action.apply(state);
+            actions.add(action);
+            expected.add(state);
+            expectedIndex.put(state, expected.size() - 1);
+        }
+    }
+
+    /**
+     * Planın sonunda beklenen state (akış buradan devam ettirilir).
+     */
+    public GameState getPlanEnd() {
+        return expected.get(expected.size() - 1).withWorld(world);
+    }
+
+    /**
+     * Akış modu; start() (yeniden planlama dahil) kapatır.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    private static void unroll(GameState startState, Stack<StripsAction> plan,
+                               List<StripsAction> actions, List<GameState> expected,
+                               Map<GameState, Integer> expectedIndex) {
+        GameState state = startState;
+        expected.add(state);
+        expectedIndex.put(state, 0);
+        if (plan != null) {
+            for (int i = plan.size() - 1; i >= 0; i--) {
+                StripsAction action = plan.get(i);
+                state = action.apply(state);
+                actions.add(action);
+                expected.add(state);
+                // Aynı state iki kere geçerse ilki (putIfAbsent) değil sonuncusu: ileri atla
+                expectedIndex.put(state, expected.size() - 1);
+            }
+        }
+    }
+
+    private static double remainingCost(List<StripsAction> actions, int from) {
+        double cost = 0;
+        for (int i = from; i < actions.size(); i++) {
+            cost += actions.get(i).getCost();
+        }
+        return cost;
+    }
+
+    /**
+     * Planlar ve izlemeye başlar. Plan bulunamazsa false.
+     */
+    public boolean plan(GameState startState) {
+        lastResult = planner.plan(startState);
+        start(startState, lastResult.getPlan());
+        return lastResult.isFound();
+    }
+
+    /**
+     * Yeniden planlamaları (ve planAsync'i) servise gönderir. deadlineNanos: istek
+     * sırada en fazla bu kadar bekler. null servis: eski, eşzamanlı davranış.
+     */
+    public void setService(PlannerService service, long deadlineNanos) {
+        if (service != null && deadlineNanos <= 0) {
+            throw new IllegalArgumentException("deadline must be positive: " + deadlineNanos);
+        }
+        this.service = service;
+        this.serviceDeadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * İlk planı arka planda ister; plan gelene kadar observe() PLANNING döner,
+     * gelince REPLANNED (yeniden planlama sayılmaz). Servis yoksa plan() gibi.
+     */
+    public void planAsync(GameState startState) {
+        if (service == null) {
+            plan(startState);
+            return;
+        }
+        start(startState, null);
+        submit(startState, false);
+    }
+
+    /**
+     * Servise gitmiş, sonucu beklenen istek var mı?
+     */
+    public boolean isPlanning() {
+        return pending != null;
+    }
+
+    /**
+     * Turun gözlenen state'ini işler, ne yapılacağını döndürür.
+     */
+    public Status observe(GameState observed) {
+        if (world == null) {
+            world = observed.world;
+        }
+        markExhausted(observed);
+        observed = observed.withWorld(world);
+        GameState previous = lastObserved;
+        lastObserved = observed;
+
+        if (pending != null) {
+            if (!pending.isDone()) {
+                return Status.PLANNING;
+            }
+            return adopt(observed, previous);
+        }
+        return track(observed, previous);
+    }
+
+    /**
+     * Gözlenen state'i planla karşılaştırır (observe'un servis dışı kısmı).
+     */
+    private Status track(GameState observed, GameState previous) {
+        GameState snapped = snap(observed);
+        Integer reached = expectedIndex.get(snapped);
+        if (reached != null && reached > index) {
+            index = reached;
+            stallTurns = 0;
+            return Status.ON_TRACK;
+        }
+        if (isDone()) {
+            if (streaming && reached != null && reached == index) {
+                // Planın sonundayız, sıradaki parça yolda: bekle
+                stallTurns = 0;
+                return Status.IN_PROGRESS;
+            }
+            // Plan bitti ama hedef görünmüyor: gözlenenden devam
+            return snapped.isGoal() ? Status.IN_PROGRESS : replan(observed);
+        }
+
+        GameState pre = expected.get(index);
+        boolean samePlace = reached != null && reached == index;
+        boolean walking = !samePlace && sameExceptPosition(observed, pre);
+        if (samePlace || walking) {
+            boolean moved = previous == null
+                    || previous.peasantX != observed.peasantX
+                    || previous.peasantY != observed.peasantY;
+            stallTurns = moved && walking ? 0 : stallTurns + 1;
+            if (stallTurns > STALL_LIMIT) {
+                return replan(observed);
+            }
+            if (stallTurns == STALL_LIMIT && service != null) {
+                // Bir tur daha kıpırdamazsa buradan yeniden planlanacak
+                service.speculate(observed, serviceDeadlineNanos);
+            }
+            return Status.IN_PROGRESS;
+        }
+        return replan(observed);
+    }
+
+    /**
+     * Şimdi gönderilmesi gereken aksiyon (plan bittiyse null).
+     */
+    public StripsAction currentAction() {
+        return isDone() ? null : actions.get(index);
+    }
+
+    /**
+     * Şimdikinden sonraki aksiyon (yoksa null). DurativeExecutor Move + Harvest /
+     * Move + Deposit çiftlerini tek SEPIA komutuna birleştirmek için bakıyor.
+     */
+    public StripsAction nextAction() {
+        return index + 1 < actions.size() ? actions.get(index + 1) : null;
+    }
+
+    public int currentIndex() {
+        return index;
+    }
+
+    public int planLength() {
+        return actions.size();
+    }
+
+    public boolean isDone() {
+        return index >= actions.size();
+    }
+
+    public int getReplans() {
+        return replans;
+    }
+
+    public long getLastReplanNanos() {
+        return lastReplanNanos;
+    }
+
+    public long getMaxReplanNanos() {
+        return maxReplanNanos;
+    }
+
+    /**
+     * Son planlamanın (ilk plan ya da yeniden planlama) sonucu.
+     */
+    public PlanResult getLastResult() {
+        return lastResult;
+    }
+
+    private Status replan(GameState observed) {
+        if (service != null) {
+            submit(observed, true);
+            return pending.isDone() ? adopt(observed, lastObserved) : Status.PLANNING;
+        }
+        long start = System.nanoTime();
+        boolean found = plan(observed);
+        lastReplanNanos = System.nanoTime() - start;
+        maxReplanNanos = Math.max(maxReplanNanos, lastReplanNanos);
+        replans++;
+        return found ? Status.REPLANNED : Status.FAILED;
+    }
+
+    private void submit(GameState state, boolean replan) {
+        PlannerService.Request speculative = service.takeSpeculative(state);
+        pending = speculative != null ? speculative : service.submit(state, serviceDeadlineNanos);
+        pendingReplan = replan;
+    }
+
+    /**
+     * Biten isteğin planına geçer. Köylü isteğin state'indeyse (boşta bekliyordu)
+     * REPLANNED / FAILED; arada ilerlediyse yeni plana göre normal değerlendirme.
+     */
+    private Status adopt(GameState observed, GameState previous) {
+        PlannerService.Request done = pending;
+        pending = null;
+        lastResult = done.getResult();
+        if (pendingReplan) {
+            lastReplanNanos = lastResult.getStats().getWallNanos();
+            maxReplanNanos = Math.max(maxReplanNanos, lastReplanNanos);
+            replans++;
+        }
+        start(done.getStart(), lastResult.getPlan());
+        lastObserved = observed;
+        if (!lastResult.isFound()) {
+            return Status.FAILED;
+        }
+        Integer at = expectedIndex.get(snap(observed));
+        if (at != null && at == 0) {
+            return Status.REPLANNED;
+        }
+        return track(observed, previous);
+    }
+
+    /**
+     * Beklenen konumun komşusundaki köylüyü o konuma oturtur.
+     */
+    private GameState snap(GameState observed) {
+        if (index + 1 < expected.size()) {
+            GameState next = expected.get(index + 1);
+            if (adjacent(observed, next)) {
+                return observed.withPeasantAt(next.peasantX, next.peasantY);
+            }
+        }
+        GameState pre = expected.get(Math.min(index, expected.size() - 1));
+        if (adjacent(observed, pre)) {
+            return observed.withPeasantAt(pre.peasantX, pre.peasantY);
+        }
+        return observed;
+    }
+
+    private static boolean adjacent(GameState a, GameState b) {
+        return GameState.chebyshev(a.peasantX, a.peasantY, b.peasantX, b.peasantY) <= 1;
+    }
+
+    private static boolean sameExceptPosition(GameState a, GameState b) {
+        long[] ka = a.key();
+        long[] kb = b.key();
+        if (GameState.unpackCarrying(ka) != GameState.unpackCarrying(kb)
+                || GameState.unpackCarriesGold(ka) != GameState.unpackCarriesGold(kb)) {
+            return false;
+        }
+        for (int i = 1; i < ka.length; i++) {
+            if (ka[i] != kb[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * observe(observed) bir düğümü tükenmiş işaretleyip dünyayı değiştirecek mi?
+     * (Eski dünyayı okuyan akış o zaman yeniden başlatılmalı.)
+     */
+    public boolean exhaustsNode(GameState observed) {
+        if (lastObserved == null) {
+            return false;
+        }
+        for (int i = 0; i < observed.remaining.length; i++) {
+            if (observed.remaining[i] == 0 && lastObserved.remaining[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markExhausted(GameState observed) {
+        if (!exhaustsNode(observed)) {
+            return;
+        }
+        WorldModel next = world;
+        for (int i = 0; i < observed.remaining.length; i++) {
+            if (observed.remaining[i] == 0 && lastObserved.remaining[i] > 0) {
+                next = next.withExhausted(i);
+            }
+        }
+        // Arka plan işi (ARA* iyileştirmesi) eski dünyanın planlarını üretiyor.
+        // Servis ararken durdurulamazsa sorun değil: planner.plan() zaten öncekini durdurdu
+        if (service == null) {
+            planner.cancelBackgroundWork();
+        } else {
+            service.tryCancelBackgroundWork();
+        }
+        world = next;
+    }
+}
@@ -1,13 +1,14 @@
 package edu.cwru.sepia.agent.planner;
 
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
 import edu.cwru.sepia.environment.model.state.ResourceNode;
 import edu.cwru.sepia.environment.model.state.ResourceType;
 import edu.cwru.sepia.environment.model.state.State;
 import edu.cwru.sepia.environment.model.state.Unit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * GameState planlayıcının (A*) arama uzayında kullandığı SOYUT durum temsilidir.
@@ -17,54 +18,79 @@ import java.util.Objects;
  * - Köylünün üstünde kaynak taşıyıp taşımadığını bilmek
  * - Toplamda TownHall'a teslim edilmiş (depolanmış) altın ve odun miktarlarını bilmek
  * - Hangi kaynak düğümlerinde (maden / orman) ne kadar kaynak kaldığını bilmek
+ *   (düğümlerin kendisi paylaşılan WorldModel'de, burada sadece kalan miktarlar var)
  *
  * Bu state, STRIPS-benzeri aksiyonlarla (MoveAction, HarvestAction, DepositAction)
- * yeni state'lere kopyalanarak genişletilir.
+ * yeni state'lere genişletilir. State değişmezdir; tüm dinamik kısım bir long[]
+ * anahtara paketlenir ve hash bir kere hesaplanır (bkz. PackedStateSet).
  *
  * NOT: Bu sınıf sadece tek köylü senaryosunu (RC1) temsil ediyor.
- * RC2 için çoklu köylü ve BuildPeasantAction ayrıca eklenecek.
+ * RC2'nin çoklu köylüsü ve BuildPeasantAction GameStateMulti üzerinde.
  */
 public class GameState {
 
-    // --- Sabit dünya bilgileri / varsayımlar ---
-    // TownHall koordinatları (rc_3m5t.xml’e göre)
-    // Bunlar ileride dinamik alınabilir ama şu an sabit tutulmuş.
-    static final int TOWN_HALL_X = 8;
-    static final int TOWN_HALL_Y = 9;
-
     // --- Hedef gereksinimler ---
-    // Bu değerleri istersen daha sonra konfigürasyondan alacak hale getirebiliriz.
-    // Şu an RC1 kapsamında (200/200 gibi) sabit duruyor.
-    final int requiredGold = 200;
-    final int requiredWood = 200;
+    // Hedefler constructor'da veriliyor (RCAgent ajan argümanlarından okuyor);
+    // verilmezse RC1 varsayılanı (200/200).
+    // TownHall'lar (teslim noktaları) sabit değil, WorldModel'de.
+    static final int DEFAULT_REQUIRED = 200;
+    final int requiredGold;
+    final int requiredWood;
+
+    // --- Paylaşılan dünya bilgisi ---
+    // Kaynak düğümlerinin statik kısmı (x, y, tür, id). Bir aramanın tüm
+    // state'leri aynı WorldModel nesnesini gösterir, hiç kopyalanmaz.
+    final WorldModel world;
 
     // --- Dinamik durum değişkenleri ---
+    // GameState DEĞİŞMEZ (immutable). Aksiyonlar yeni state'i
+    // withPeasantAt / withHarvest / withDeposit ile üretiyor.
+
     // TownHall'a teslim edilmiş toplam kaynak
-    int collectedGold;
-    int collectedWood;
+    final int collectedGold;
+    final int collectedWood;
 
     // Agent'ın takip etmesi için kimlikler (SEPIA tarafıyla eşlemek için)
-    int peasantID;
-    int townhallID;
+    final int peasantID;
+    final int townhallID;
 
     // Köylünün haritadaki konumu
-    int peasantX;
-    int peasantY;
+    final int peasantX;
+    final int peasantY;
 
     // Köylü bir şey taşıyor mu?
-    boolean peasantIsCarrying;
+    final boolean peasantIsCarrying;
+
+    // Eğer taşıyorsa bu şey altın mı? (taşımıyorsa her zaman false)
+    final boolean peasantCarriesGold;
 
-    // Eğer taşıyorsa bu şey altın mı? (false ise odun varsay)
-    boolean peasantCarriesGold;
+    // remaining[i] = world.resource(i) düğümünde kalan miktar.
+    // Copy-on-write: Move ve Deposit bu diziyi olduğu gibi paylaşır,
+    // sadece Harvest yeni bir kopya oluşturur. Bu yüzden diziye ASLA yazılmaz.
+    final int[] remaining;
 
-    // Haritadaki kaynak düğümleri (madenler / ormanlar)
-    List<ResourceInfo> resources;
+    // --- Paketlenmiş anahtar ---
+    // key[0]: peasantX (16 bit) | peasantY (16 bit) | taşıma durumu (2 bit)
+    // key[1]: collectedGold (üst 32 bit) | collectedWood (alt 32 bit)
+    // key[2..]: kaynak başına kalan miktar, her long'a iki tane (32'şer bit)
+    //
+    // equals/hashCode sadece bu diziye bakar; hash bir kere hesaplanır.
+    private final long[] key;
+    private final int hash;
 
     /**
-     * Bu constructor gerçek SEPIA durumundan (StateView) soyut planlama durumunu çıkarır.
-     * RCAgent initialStep() içinde ilk planlama başlatılırken kullanılacak.
+     * Gerçek SEPIA durumundan, varsayılan (200/200) hedefle.
      */
     public GameState(State.StateView state) {
+        this(state, DEFAULT_REQUIRED, DEFAULT_REQUIRED);
+    }
+
+    /**
+     * Bu constructor gerçek SEPIA durumundan (StateView) soyut planlama durumunu çıkarır.
+     * RCAgent initialStep() içinde ilk planlama başlatılırken, ajan argümanlarındaki
+     * hedeflerle kullanılıyor.
+     */
+    public GameState(State.StateView state, int requiredGold, int requiredWood) {
         Unit.UnitView peasant = null;
         Unit.UnitView townhall = null;
 
@@ -85,57 +111,313 @@ public class GameState {
 
             // Köylü bir şey taşıyor mu?
             this.peasantIsCarrying = peasant.getCargoAmount() > 0;
-
-            // Taşıdığı şeyin türünü basitçe varsayım olarak "altın mı?" diye belirliyoruz.
-            // (İleride state.getUnit(peasantID).getCargoType() ile daha kesin alınabilir.)
-            this.peasantCarriesGold = false;
+        } else {
+            this.peasantID = 0;
+            this.peasantX = 0;
+            this.peasantY = 0;
+            this.peasantIsCarrying = false;
         }
 
-        if (townhall != null) {
-            this.townhallID = townhall.getID();
-        }
+        // Taşıdığı şeyin türünü basitçe varsayım olarak "altın mı?" diye belirliyoruz.
+        // (İleride state.getUnit(peasantID).getCargoType() ile daha kesin alınabilir.)
+        this.peasantCarriesGold = false;
+
+        this.townhallID = townhall != null ? townhall.getID() : 0;
+
+        this.requiredGold = requiredGold;
+        this.requiredWood = requiredWood;
 
         // Toplam teslim edilmiş kaynakları al:
         // state.getResourceAmount(playerNum, ResourceType) -> TownHall stoğu gibi.
         this.collectedGold = state.getResourceAmount(0, ResourceType.GOLD);
         this.collectedWood = state.getResourceAmount(0, ResourceType.WOOD);
 
-        // Kaynak düğümlerini listele (altın madenleri ve ormanlar)
-        this.resources = new ArrayList<>();
-        for (ResourceNode.ResourceView resource : state.getAllResourceNodes()) {
-            boolean isGold = (resource.getType() == ResourceNode.Type.GOLD_MINE);
-            resources.add(new ResourceInfo(
-                    resource.getXPosition(),
-                    resource.getYPosition(),
-                    isGold,
-                    resource.getAmountRemaining(),
-                    resource.getID()
-            ));
+        // Kaynak düğümleri (altın madenleri ve ormanlar) paylaşılan dünya tablosuna gidiyor
+        this.world = new WorldModel(state);
+        this.remaining = world.initialAmounts();
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(key, 0, key.length);
+    }
+
+    /**
+     * Yürütme sırasında gözlenen durum (ExecutionMonitor): dünya ve hedefler
+     * 'reference'tan (planın başlangıcı) alınır, dinamik kısım StateView'dan okunur.
+     * Dünya her tur yeniden kurulmadığı için gözlenen state'ler planın beklediği
+     * state'lerle (aynı anahtar düzeni) doğrudan karşılaştırılabilir.
+     *
+     * Haritadan kalkmış (tükenmiş) düğümün kalanı 0 sayılır.
+     */
+    public GameState(GameState reference, State.StateView state) {
+        this.world = reference.world;
+        this.peasantID = reference.peasantID;
+        this.townhallID = reference.townhallID;
+        this.requiredGold = reference.requiredGold;
+        this.requiredWood = reference.requiredWood;
+
+        Unit.UnitView peasant = state.getUnit(reference.peasantID);
+        if (peasant != null) {
+            this.peasantX = peasant.getXPosition();
+            this.peasantY = peasant.getYPosition();
+            this.peasantIsCarrying = peasant.getCargoAmount() > 0;
+            this.peasantCarriesGold = peasantIsCarrying && peasant.getCargoType() == ResourceType.GOLD;
+        } else {
+            this.peasantX = reference.peasantX;
+            this.peasantY = reference.peasantY;
+            this.peasantIsCarrying = false;
+            this.peasantCarriesGold = false;
+        }
+
+        this.collectedGold = state.getResourceAmount(0, ResourceType.GOLD);
+        this.collectedWood = state.getResourceAmount(0, ResourceType.WOOD);
+
+        List<ResourceInfo> resources = world.resources();
+        this.remaining = new int[resources.size()];
+        for (ResourceInfo r : resources) {
+            ResourceNode.ResourceView node = state.getResourceNode(r.resourceID);
+            remaining[r.index] = node == null ? 0 : node.getAmountRemaining();
         }
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(key, 0, key.length);
+    }
+
+    /**
+     * Sentetik başlangıç durumu: köylü (peasantX, peasantY) konumunda ve eli boş,
+     * kaynaklar world'deki başlangıç miktarlarında.
+     * SEPIA runtime'ı olmadan (benchmark, deney) planlayıcıyı çalıştırmak için.
+     */
+    public GameState(WorldModel world,
+                     int peasantX, int peasantY,
+                     int requiredGold, int requiredWood) {
+        this.world = world;
+        this.peasantID = 0;
+        this.townhallID = 0;
+        this.peasantX = peasantX;
+        this.peasantY = peasantY;
+        this.peasantIsCarrying = false;
+        this.peasantCarriesGold = false;
+        this.collectedGold = 0;
+        this.collectedWood = 0;
+        this.requiredGold = requiredGold;
+        this.requiredWood = requiredWood;
+        this.remaining = world.initialAmounts();
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(key, 0, key.length);
+    }
+
+    private GameState(GameState base, WorldModel world) {
+        this.world = world;
+        this.peasantID = base.peasantID;
+        this.townhallID = base.townhallID;
+        this.requiredGold = base.requiredGold;
+        this.requiredWood = base.requiredWood;
+
+        this.peasantX = base.peasantX;
+        this.peasantY = base.peasantY;
+        this.peasantIsCarrying = base.peasantIsCarrying;
+        this.peasantCarriesGold = base.peasantCarriesGold;
+        this.collectedGold = base.collectedGold;
+        this.collectedWood = base.collectedWood;
+        this.remaining = base.remaining;
+
+        this.key = base.key;
+        this.hash = base.hash;
+    }
+
+    /**
+     * Aksiyonların kullandığı iç constructor.
+     * ID'ler, hedefler ve dünya 'base' ile paylaşılır. 'remaining' dizisi
+     * değişmediyse aynen geçirilir (kopyalanmaz).
+     */
+    private GameState(GameState base,
+                      int peasantX, int peasantY,
+                      boolean peasantIsCarrying, boolean peasantCarriesGold,
+                      int collectedGold, int collectedWood,
+                      int[] remaining) {
+        this.world = base.world;
+        this.peasantID = base.peasantID;
+        this.townhallID = base.townhallID;
+        this.requiredGold = base.requiredGold;
+        this.requiredWood = base.requiredWood;
+
+        this.peasantX = peasantX;
+        this.peasantY = peasantY;
+        this.peasantIsCarrying = peasantIsCarrying;
+        this.peasantCarriesGold = peasantIsCarrying && peasantCarriesGold;
+        this.collectedGold = collectedGold;
+        this.collectedWood = collectedWood;
+        this.remaining = remaining;
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(key, 0, key.length);
+    }
+
+    /**
+     * Aynı state, başka bir dünyada (düğüm tükenince ExecutionMonitor'un
+     * WorldModel.withExhausted ile değiştirdiği dünya). Anahtar aynen paylaşılır.
+     */
+    GameState withWorld(WorldModel world) {
+        return world == this.world ? this : new GameState(this, world);
+    }
+
+    /**
+     * Köylü (x,y)'ye taşınmış yeni state. (MoveAction)
+     * Kalan miktar vektörü paylaşılır.
+     */
+    GameState withPeasantAt(int x, int y) {
+        return new GameState(this, x, y,
+                peasantIsCarrying, peasantCarriesGold,
+                collectedGold, collectedWood, remaining);
+    }
+
+    /**
+     * Köylü 'resource' düğümünden 100 birim almış yeni state. (HarvestAction)
+     * Kalan miktar vektörünün kopyalandığı TEK yer burası.
+     */
+    GameState withHarvest(ResourceInfo resource) {
+        int[] newRemaining = remaining.clone();
+        newRemaining[resource.index] -= 100;
+        return new GameState(this, peasantX, peasantY,
+                true, resource.isGoldMine,
+                collectedGold, collectedWood, newRemaining);
+    }
+
+    /**
+     * Köylünün taşıdığı 100 birim kasaya bırakılmış yeni state. (DepositAction)
+     * Kalan miktar vektörü paylaşılır.
+     */
+    GameState withDeposit() {
+        return new GameState(this, peasantX, peasantY,
+                false, false,
+                peasantCarriesGold ? collectedGold + 100 : collectedGold,
+                peasantCarriesGold ? collectedWood : collectedWood + 100,
+                remaining);
+    }
+
+    /**
+     * 'resource' düğümünde bu state'te kalan miktar.
+     */
+    int remaining(ResourceInfo resource) {
+        return remaining[resource.index];
+    }
+
+    // ------------------------------------------------------------
+    // Paketlenmiş anahtar yardımcıları
+    // ------------------------------------------------------------
+
+    /**
+     * Paketlenmiş anahtarın iç dizisi. Kopyalanmaz, DEĞİŞTİRMEYİN.
+     */
+    long[] key() {
+        return key;
     }
 
     /**
-     * Kopyalama constructor'ı.
-     * Aksiyonlar (HarvestAction gibi) state'i MUTASYONA uğratmıyor; bunun yerine
-     * yeni bir GameState kopyası oluşturuyor. Bu yüzden deep copy önemli.
+     * Anahtar kaç long'dan oluşuyor? (Aynı haritadaki tüm state'ler için sabit.)
      */
-    public GameState(GameState other) {
-        this.collectedGold = other.collectedGold;
-        this.collectedWood = other.collectedWood;
+    int keyWidth() {
+        return key.length;
+    }
 
-        this.peasantID = other.peasantID;
-        this.townhallID = other.townhallID;
+    static int keyWidth(int resourceCount) {
+        return 2 + (resourceCount + 1) / 2;
+    }
 
-        this.peasantX = other.peasantX;
-        this.peasantY = other.peasantY;
+    static long packPeasant(int x, int y, boolean carrying, boolean carriesGold) {
+        long carry = !carrying ? 0L : (carriesGold ? 1L : 2L);
+        return (x & 0xFFFFL) | ((y & 0xFFFFL) << 16) | (carry << 32);
+    }
 
-        this.peasantIsCarrying = other.peasantIsCarrying;
-        this.peasantCarriesGold = other.peasantCarriesGold;
+    static long packCollected(int gold, int wood) {
+        return ((long) gold << 32) | (wood & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Anahtardaki 'index' numaralı kaynağın kalan miktarını 'amount' ile değiştirir.
+     */
+    static void packRemaining(long[] key, int index, int amount) {
+        int word = 2 + (index >> 1);
+        int shift = (index & 1) << 5;
+        key[word] = (key[word] & ~(0xFFFFFFFFL << shift)) | ((amount & 0xFFFFFFFFL) << shift);
+    }
+
+    static int unpackPeasantX(long[] key) {
+        return (int) (key[0] & 0xFFFFL);
+    }
+
+    static int unpackPeasantY(long[] key) {
+        return (int) ((key[0] >>> 16) & 0xFFFFL);
+    }
+
+    static int unpackRemaining(long[] key, int index) {
+        return (int) (key[2 + (index >> 1)] >>> ((index & 1) << 5));
+    }
+
+    static boolean unpackCarrying(long[] key) {
+        return ((key[0] >>> 32) & 0x3L) != 0;
+    }
 
-        this.resources = new ArrayList<>();
-        for (ResourceInfo res : other.resources) {
-            this.resources.add(new ResourceInfo(res));
+    static boolean unpackCarriesGold(long[] key) {
+        return ((key[0] >>> 32) & 0x3L) == 1;
+    }
+
+    static int unpackCollectedGold(long[] key) {
+        return (int) (key[1] >>> 32);
+    }
+
+    static int unpackCollectedWood(long[] key) {
+        return (int) key[1];
+    }
+
+    /**
+     * Aynı aramadaki bir state'in anahtarını tekrar GameState'e açar.
+     * ID'ler, hedefler ve dünya 'base' ile paylaşılır. (A* bunu sadece plan
+     * geri çıkarılırken ve key tabanlı estimate'i olmayan heuristic'ler için kullanır.)
+     */
+    static GameState fromKey(GameState base, long[] key) {
+        int[] remaining = new int[base.world.resourceCount()];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = unpackRemaining(key, i);
         }
+        return new GameState(base,
+                unpackPeasantX(key), unpackPeasantY(key),
+                unpackCarrying(key), unpackCarriesGold(key),
+                unpackCollectedGold(key), unpackCollectedWood(key),
+                remaining);
+    }
+
+    private long[] pack() {
+        long[] packed = new long[keyWidth(remaining.length)];
+        packed[0] = packPeasant(peasantX, peasantY, peasantIsCarrying, peasantCarriesGold);
+        packed[1] = packCollected(collectedGold, collectedWood);
+        for (int i = 0; i < remaining.length; i++) {
+            packRemaining(packed, i, remaining[i]);
+        }
+        return packed;
+    }
+
+    /**
+     * Köylü 'resource' düğümüne gidip 100 birim almış, 'hall'a gidip teslim
+     * etmiş yeni state. (RoundTripAction)
+     * Dört ara state yerine tek state ve tek kopya oluşturur.
+     */
+    GameState withRoundTrip(ResourceInfo resource, WorldModel.TownHallInfo hall) {
+        int[] newRemaining = remaining.clone();
+        newRemaining[resource.index] -= 100;
+        return new GameState(this, hall.x, hall.y,
+                false, false,
+                resource.isGoldMine ? collectedGold + 100 : collectedGold,
+                resource.isGoldMine ? collectedWood : collectedWood + 100,
+                newRemaining);
+    }
+
+    /**
+     * İki nokta arasındaki Chebyshev mesafesi (max(dx,dy)), hareket maliyeti olarak kullanılıyor.
+     */
+    static int chebyshev(int x1, int y1, int x2, int y2) {
+        return Math.max(Math.abs(x1 - x2), Math.abs(y1 - y2));
     }
 
     /**
@@ -146,6 +428,14 @@ public class GameState {
         return collectedGold >= requiredGold && collectedWood >= requiredWood;
     }
 
+    /**
+     * isGoal() ile aynı, ama aynı aramadaki bir state'in paketlenmiş anahtarı için
+     * (hedefler bu state'ten alınır).
+     */
+    boolean isGoal(long[] key) {
+        return unpackCollectedGold(key) >= requiredGold && unpackCollectedWood(key) >= requiredWood;
+    }
+
     /**
      * Bu durumdan hangi STRIPS-benzeri aksiyonlar yasal olarak uygulanabilir?
      * Planner (AStarPlanner) bunları çağırıp successor state'ler üretiyor.
@@ -156,19 +446,22 @@ public class GameState {
         // Eğer köylünün elinde kaynak varsa:
         if (peasantIsCarrying) {
 
-            // 1) TownHall'daysak -> Deposit yapabiliriz
-            if (peasantX == TOWN_HALL_X && peasantY == TOWN_HALL_Y) {
+            // 1) Bir TownHall'daysak -> Deposit yapabiliriz
+            if (world.isTownHall(peasantX, peasantY)) {
                 DepositAction deposit = new DepositAction();
                 if (deposit.arePreconditionsMet(this)) {
                     actions.add(deposit);
                 }
 
             } else {
-                // 2) Değilsek -> TownHall'a hareket edebiliriz
-                actions.add(new MoveAction(
-                        peasantX, peasantY,
-                        TOWN_HALL_X, TOWN_HALL_Y
-                ));
+                // 2) Değilsek -> herhangi bir TownHall'a hareket edebiliriz (en yakını
+                //    her zaman en iyisi değil, sonraki tur oradan başlıyor)
+                for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                    actions.add(new MoveAction(world,
+                            peasantX, peasantY,
+                            hall.x, hall.y
+                    ));
+                }
             }
 
         } else {
@@ -176,7 +469,7 @@ public class GameState {
             // Her kaynak düğümü için iki olasılık:
             // - Eğer üstündeyiz ve yeterli miktar varsa --> Harvest
             // - Değilsek --> oraya Move
-            for (ResourceInfo resource : resources) {
+            for (ResourceInfo resource : world.resources()) {
 
                 boolean standingOnThisResource =
                         (peasantX == resource.x && peasantY == resource.y);
@@ -188,7 +481,7 @@ public class GameState {
                     }
                 } else {
                     // Kaynağın yanına git (hedef = kaynağın koordinatı)
-                    actions.add(new MoveAction(
+                    actions.add(new MoveAction(world,
                             peasantX, peasantY,
                             resource.x, resource.y
                     ));
@@ -199,79 +492,44 @@ public class GameState {
         return actions;
     }
 
+    /**
+     * Makro mod için aksiyonlar.
+     * Köylü boşsa her kaynak düğümü ve TownHall için tek bir RoundTripAction
+     * üretir (Move -> Harvest -> Move -> Deposit tek adım). Köylü yük taşıyorsa
+     * (sadece başlangıçta olabilir) temel aksiyonlara döner.
+     */
+    public List<StripsAction> generateMacroActions() {
+        if (peasantIsCarrying) {
+            return generateApplicableActions();
+        }
+
+        List<StripsAction> actions = new ArrayList<>();
+        for (ResourceInfo resource : world.resources()) {
+            for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                RoundTripAction roundTrip = new RoundTripAction(world, peasantX, peasantY, resource, hall);
+                if (roundTrip.arePreconditionsMet(this)) {
+                    actions.add(roundTrip);
+                }
+            }
+        }
+        return actions;
+    }
+
     /**
      * GameState eşitliği.
      * Bu çok kritik çünkü A* closed set'te state karşılaştırırken bunu kullanıyor.
+     * Tüm dinamik alanlar paketlenmiş anahtarda olduğu için sadece o karşılaştırılır.
      */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof GameState)) return false;
         GameState gameState = (GameState) o;
-        return collectedGold == gameState.collectedGold &&
-               collectedWood == gameState.collectedWood &&
-               peasantX == gameState.peasantX &&
-               peasantY == gameState.peasantY &&
-               peasantIsCarrying == gameState.peasantIsCarrying &&
-               peasantCarriesGold == gameState.peasantCarriesGold &&
-               Objects.equals(resources, gameState.resources);
+        return hash == gameState.hash && Arrays.equals(key, gameState.key);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(
-                collectedGold,
-                collectedWood,
-                peasantX,
-                peasantY,
-                peasantIsCarrying,
-                peasantCarriesGold,
-                resources
-        );
-    }
-
-    /**
-     * ResourceInfo: Bir kaynak düğümünün (maden/orman) planlayıcıya yansıyan hali.
-     * amountRemaining azalabilir (HarvestAction bunu düşürüyor).
-     */
-    public static class ResourceInfo {
-        public int x;
-        public int y;
-        public boolean isGoldMine;
-        public int amountRemaining;
-        public int resourceID;
-
-        public ResourceInfo(int x, int y, boolean isGoldMine, int amountRemaining, int resourceID) {
-            this.x = x;
-            this.y = y;
-            this.isGoldMine = isGoldMine;
-            this.amountRemaining = amountRemaining;
-            this.resourceID = resourceID;
-        }
-
-        public ResourceInfo(ResourceInfo toCopy) {
-            this.x = toCopy.x;
-            this.y = toCopy.y;
-            this.isGoldMine = toCopy.isGoldMine;
-            this.amountRemaining = toCopy.amountRemaining;
-            this.resourceID = toCopy.resourceID;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof ResourceInfo)) return false;
-            ResourceInfo that = (ResourceInfo) o;
-            return x == that.x &&
-                   y == that.y &&
-                   isGoldMine == that.isGoldMine &&
-                   amountRemaining == that.amountRemaining &&
-                   resourceID == that.resourceID;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(x, y, isGoldMine, amountRemaining, resourceID);
-        }
+        return hash;
     }
 }
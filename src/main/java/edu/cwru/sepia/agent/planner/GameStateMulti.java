@@ -0,0 +1,338 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.environment.model.state.ResourceType;
+import edu.cwru.sepia.environment.model.state.State;
+import edu.cwru.sepia.environment.model.state.Unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GameStateMulti:
+ * Birden fazla köylülü (RC2) soyut durum. GameState'in çok köylülü hali:
+ * her köylünün konumu ve taşıdığı şey ayrı, teslim edilen toplamlar ve kalan
+ * miktarlar ortak.
+ *
+ * MultiAgentPlanner ortak adımları (JointAction) köylü köylü atıyor (operator
+ * decomposition). Bu yüzden anahtarda "sıradaki köylü" ve "bu adımın şu ana
+ * kadarki en uzun aksiyonu" da var; tam (adım sınırındaki) state'lerde ikisi de 0.
+ *
+ * Paketlenmiş anahtar (k köylü, n kaynak):
+ *   key[0]          collectedGold (üst 32 bit) | collectedWood (alt 32 bit)
+ *   key[1]          sıradaki köylü (üst 32 bit) | adımın en uzun süresi (alt 32 bit)
+ *   key[2 .. 2+k)   köylü başına GameState.packPeasant(x, y, taşıma)
+ *   key[2+k ..]     kalan miktarlar, GameState ile aynı düzende (long başına iki)
+ */
+public class GameStateMulti {
+
+    final int requiredGold;
+    final int requiredWood;
+
+    final WorldModel world;
+
+    final int collectedGold;
+    final int collectedWood;
+
+    // Yiyecek (food): kullanılan ve TownHall'ların verdiği üst sınır.
+    // Sadece BuildPeasantAction'ın önkoşulu için; anahtarda yok (köylü sayısıyla birlikte değişiyor).
+    final int foodUsed;
+    final int supplyCap;
+
+    // SEPIA tarafıyla eşlemek için (sentetik state'lerde 0)
+    final int[] peasantIDs;
+    final int townhallID;
+
+    final int[] peasantX;
+    final int[] peasantY;
+    final boolean[] carrying;
+    final boolean[] carriesGold;
+
+    // Copy-on-write, GameState'teki gibi ASLA yazılmaz
+    final int[] remaining;
+
+    private final long[] key;
+    private final int hash;
+
+    /**
+     * Gerçek SEPIA durumundan, varsayılan (200/200) hedefle.
+     */
+    public GameStateMulti(State.StateView state) {
+        this(state, GameState.DEFAULT_REQUIRED, GameState.DEFAULT_REQUIRED);
+    }
+
+    /**
+     * Gerçek SEPIA durumundan: oyuncu 0'ın tüm köylüleri (id sırasıyla), hedefler
+     * ajan argümanlarından.
+     */
+    public GameStateMulti(State.StateView state, int requiredGold, int requiredWood) {
+        List<Unit.UnitView> peasants = new ArrayList<>();
+        Unit.UnitView townhall = null;
+        for (Unit.UnitView unit : state.getUnits(0)) {
+            String unitTypeName = unit.getTemplateView().getName();
+            if (unitTypeName.equals("Peasant")) {
+                peasants.add(unit);
+            } else if (unitTypeName.equals("TownHall")) {
+                townhall = unit;
+            }
+        }
+        peasants.sort((a, b) -> Integer.compare(a.getID(), b.getID()));
+
+        int k = peasants.size();
+        this.peasantIDs = new int[k];
+        this.peasantX = new int[k];
+        this.peasantY = new int[k];
+        this.carrying = new boolean[k];
+        this.carriesGold = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            Unit.UnitView peasant = peasants.get(i);
+            peasantIDs[i] = peasant.getID();
+            peasantX[i] = peasant.getXPosition();
+            peasantY[i] = peasant.getYPosition();
+            carrying[i] = peasant.getCargoAmount() > 0;
+            carriesGold[i] = carrying[i] && peasant.getCargoType() == ResourceType.GOLD;
+        }
+        this.townhallID = townhall != null ? townhall.getID() : 0;
+
+        this.requiredGold = requiredGold;
+        this.requiredWood = requiredWood;
+        this.collectedGold = state.getResourceAmount(0, ResourceType.GOLD);
+        this.collectedWood = state.getResourceAmount(0, ResourceType.WOOD);
+        this.foodUsed = state.getSupplyAmount(0);
+        this.supplyCap = state.getSupplyCap(0);
+
+        this.world = new WorldModel(state);
+        this.remaining = world.initialAmounts();
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(key, 0, key.length);
+    }
+
+    /**
+     * Sentetik başlangıç: köylüler (xs[i], ys[i]) konumlarında ve eli boş,
+     * kaynaklar world'deki başlangıç miktarlarında. Yiyecek sınırı köylü sayısı
+     * kadar, yani yeni köylü üretilemez.
+     */
+    public GameStateMulti(WorldModel world, int[] xs, int[] ys, int requiredGold, int requiredWood) {
+        this(world, xs, ys, requiredGold, requiredWood, xs.length);
+    }
+
+    /**
+     * Sentetik başlangıç, yiyecek sınırıyla (köylü başına 1 food varsayılır;
+     * rc_3m5t'deki TownHall 3 food veriyor).
+     */
+    public GameStateMulti(WorldModel world, int[] xs, int[] ys,
+                          int requiredGold, int requiredWood, int supplyCap) {
+        if (xs.length != ys.length || xs.length == 0) {
+            throw new IllegalArgumentException("need matching, non-empty peasant coordinates");
+        }
+        if (supplyCap < xs.length) {
+            throw new IllegalArgumentException("supply cap " + supplyCap + " is below peasant count " + xs.length);
+        }
+        this.world = world;
+        this.requiredGold = requiredGold;
+        this.requiredWood = requiredWood;
+        this.collectedGold = 0;
+        this.collectedWood = 0;
+        this.foodUsed = xs.length;
+        this.supplyCap = supplyCap;
+        this.peasantIDs = new int[xs.length];
+        this.townhallID = 0;
+        this.peasantX = xs.clone();
+        this.peasantY = ys.clone();
+        this.carrying = new boolean[xs.length];
+        this.carriesGold = new boolean[xs.length];
+        this.remaining = world.initialAmounts();
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(key, 0, key.length);
+    }
+
+    /**
+     * Anahtardan açılan state (plan geri çıkarılırken). ID'ler, hedefler ve dünya base'den.
+     * Sıradaki köylü / adım süresi alanları burada tutulmaz (tam state varsayılır).
+     */
+    private GameStateMulti(GameStateMulti base, long[] key) {
+        int k = base.peasantCount();
+        this.world = base.world;
+        this.requiredGold = base.requiredGold;
+        this.requiredWood = base.requiredWood;
+        this.peasantIDs = base.peasantIDs;
+        this.townhallID = base.townhallID;
+        this.collectedGold = unpackCollectedGold(key);
+        this.collectedWood = unpackCollectedWood(key);
+        this.foodUsed = base.foodUsed;
+        this.supplyCap = base.supplyCap;
+        this.peasantX = new int[k];
+        this.peasantY = new int[k];
+        this.carrying = new boolean[k];
+        this.carriesGold = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            long word = key[peasantWord(i)];
+            peasantX[i] = unpackX(word);
+            peasantY[i] = unpackY(word);
+            carrying[i] = unpackCarrying(word);
+            carriesGold[i] = unpackCarriesGold(word);
+        }
+        this.remaining = new int[world.resourceCount()];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = unpackRemaining(key, k, i);
+        }
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(this.key, 0, this.key.length);
+    }
+
+    /**
+     * TownHall'ın yeni bir köylü ürettiği durum (BuildPeasantAction).
+     * Yeni köylü TownHall koordinatında ve eli boş başlıyor; SEPIA onu en yakın boş
+     * hücreye koyuyor, planlama soyutlamasında bu fark yok sayılıyor (deposit de öyle).
+     */
+    private GameStateMulti(GameStateMulti base, int goldCost, int foodCost) {
+        int k = base.peasantCount();
+        this.world = base.world;
+        this.requiredGold = base.requiredGold;
+        this.requiredWood = base.requiredWood;
+        this.townhallID = base.townhallID;
+        this.collectedGold = base.collectedGold - goldCost;
+        this.collectedWood = base.collectedWood;
+        this.foodUsed = base.foodUsed + foodCost;
+        this.supplyCap = base.supplyCap;
+        // Yeni köylünün SEPIA id'si üretilene kadar bilinmiyor (0)
+        this.peasantIDs = Arrays.copyOf(base.peasantIDs, k + 1);
+        this.peasantX = Arrays.copyOf(base.peasantX, k + 1);
+        this.peasantY = Arrays.copyOf(base.peasantY, k + 1);
+        this.carrying = Arrays.copyOf(base.carrying, k + 1);
+        this.carriesGold = Arrays.copyOf(base.carriesGold, k + 1);
+        // Yeni köylü ana TownHall'da üretiliyor
+        peasantX[k] = world.primaryTownHall().x;
+        peasantY[k] = world.primaryTownHall().y;
+        this.remaining = base.remaining;
+
+        this.key = pack();
+        this.hash = PackedStateSet.hash(this.key, 0, this.key.length);
+    }
+
+    static GameStateMulti fromKey(GameStateMulti base, long[] key) {
+        return new GameStateMulti(base, key);
+    }
+
+    GameStateMulti withBuiltPeasant(int goldCost, int foodCost) {
+        return new GameStateMulti(this, goldCost, foodCost);
+    }
+
+    public int peasantCount() {
+        return peasantX.length;
+    }
+
+    /**
+     * i. köylünün SEPIA unit id'si (sentetik state'te 0).
+     */
+    public int peasantID(int i) {
+        return peasantIDs[i];
+    }
+
+    public boolean isGoal() {
+        return collectedGold >= requiredGold && collectedWood >= requiredWood;
+    }
+
+    /**
+     * isGoal() ile aynı, aynı aramadaki bir anahtar için.
+     */
+    boolean isGoal(long[] key) {
+        return unpackCollectedGold(key) >= requiredGold && unpackCollectedWood(key) >= requiredWood;
+    }
+
+    // ------------------------------------------------------------
+    // Paketlenmiş anahtar yardımcıları
+    // ------------------------------------------------------------
+
+    long[] key() {
+        return key;
+    }
+
+    int keyWidth() {
+        return key.length;
+    }
+
+    static int keyWidth(int peasantCount, int resourceCount) {
+        return 2 + peasantCount + (resourceCount + 1) / 2;
+    }
+
+    static int peasantWord(int peasant) {
+        return 2 + peasant;
+    }
+
+    static long packStep(int nextPeasant, int stepMax) {
+        return ((long) nextPeasant << 32) | (stepMax & 0xFFFFFFFFL);
+    }
+
+    static int unpackNextPeasant(long[] key) {
+        return (int) (key[1] >>> 32);
+    }
+
+    static int unpackStepMax(long[] key) {
+        return (int) key[1];
+    }
+
+    static int unpackCollectedGold(long[] key) {
+        return (int) (key[0] >>> 32);
+    }
+
+    static int unpackCollectedWood(long[] key) {
+        return (int) key[0];
+    }
+
+    static int unpackX(long peasantWord) {
+        return (int) (peasantWord & 0xFFFFL);
+    }
+
+    static int unpackY(long peasantWord) {
+        return (int) ((peasantWord >>> 16) & 0xFFFFL);
+    }
+
+    static boolean unpackCarrying(long peasantWord) {
+        return ((peasantWord >>> 32) & 0x3L) != 0;
+    }
+
+    static boolean unpackCarriesGold(long peasantWord) {
+        return ((peasantWord >>> 32) & 0x3L) == 1;
+    }
+
+    static int unpackRemaining(long[] key, int peasantCount, int index) {
+        return (int) (key[2 + peasantCount + (index >> 1)] >>> ((index & 1) << 5));
+    }
+
+    static void packRemaining(long[] key, int peasantCount, int index, int amount) {
+        int word = 2 + peasantCount + (index >> 1);
+        int shift = (index & 1) << 5;
+        key[word] = (key[word] & ~(0xFFFFFFFFL << shift)) | ((amount & 0xFFFFFFFFL) << shift);
+    }
+
+    private long[] pack() {
+        int k = peasantCount();
+        long[] packed = new long[keyWidth(k, remaining.length)];
+        packed[0] = GameState.packCollected(collectedGold, collectedWood);
+        packed[1] = packStep(0, 0);
+        for (int i = 0; i < k; i++) {
+            packed[peasantWord(i)] = GameState.packPeasant(peasantX[i], peasantY[i], carrying[i], carriesGold[i]);
+        }
+        for (int i = 0; i < remaining.length; i++) {
+            packRemaining(packed, k, i, remaining[i]);
+        }
+        return packed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameStateMulti)) return false;
+        GameStateMulti other = (GameStateMulti) o;
+        return hash == other.hash && Arrays.equals(key, other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -1,6 +1,7 @@
 package edu.cwru.sepia.agent.planner;
 
-import edu.cwru.sepia.agent.planner.GameState.ResourceInfo;
+import edu.cwru.sepia.action.Action;
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
 
 /**
  * HarvestAction:
@@ -10,7 +11,7 @@ import edu.cwru.sepia.agent.planner.GameState.ResourceInfo;
  * Etkiler:
  * - peasantIsCarrying = true
  * - peasantCarriesGold (kaynağa göre)
- * - kaynağın amountRemaining -= 100
+ * - state.remaining[kaynak] -= 100 (kalan miktar vektörü kopyalanır)
  *
  * Not: Burada sadece 100'lük paketlerle çalışıyoruz.
  */
@@ -31,30 +32,20 @@ public class HarvestAction implements StripsAction {
         return state.peasantX == resource.x &&
                state.peasantY == resource.y &&
                !state.peasantIsCarrying &&
-               resource.amountRemaining >= 100;
+               state.remaining(resource) >= 100;
     }
 
     @Override
     public GameState apply(GameState state) {
-        GameState newState = new GameState(state);
-
-        // Köylü artık bir şey taşıyor
-        newState.peasantIsCarrying = true;
-
-        // Neyi taşıyor? Altın mı odun mu?
-        newState.peasantCarriesGold = resource.isGoldMine;
-
-        // Kaynağın stoğunu azalt
-        for (GameState.ResourceInfo r : newState.resources) {
-            if (r.x == resource.x &&
-                r.y == resource.y &&
-                r.resourceID == resource.resourceID) {
-                r.amountRemaining -= 100;
-                break;
-            }
-        }
+        // Köylü artık kaynağın türünü taşıyor, kaynağın stoğu 100 azalıyor.
+        return state.withHarvest(resource);
+    }
 
-        return newState;
+    @Override
+    public void writeSuccessorKey(GameState state, long[] out) {
+        System.arraycopy(state.key(), 0, out, 0, state.keyWidth());
+        out[0] = GameState.packPeasant(state.peasantX, state.peasantY, true, resource.isGoldMine);
+        GameState.packRemaining(out, resource.index, state.remaining(resource) - 100);
     }
 
     @Override
@@ -62,4 +53,10 @@ public class HarvestAction implements StripsAction {
         // Hasat tek zaman adımı (sabit 1)
         return 1.0;
     }
+
+    @Override
+    public Action toSepiaAction(GameState state) {
+        // Compound gather: gerekirse yanına yürür, sonra toplar
+        return Action.createCompoundGather(state.peasantID, resource.resourceID);
+    }
 }
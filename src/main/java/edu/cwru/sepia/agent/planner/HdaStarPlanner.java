@@ -0,0 +1,521 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * HdaStarPlanner:
+ * Hash-Distributed A* (Kishimoto, Fukunaga & Botea 2009). Arama birden fazla
+ * çekirdeğe bölünür; her state'in bir "sahibi" var:
+ *   sahip(state) = karıştırılmış hash'in üst bitleri, thread sayısına ölçeklenmiş
+ * ve o state'le ilgili her şey (open list, en iyi g, expand) sadece sahibinde yapılır.
+ *
+ * Her worker'ın kendi NodeArena'sı, LazyHeapOpenList'i ve state -> en iyi düğüm
+ * tablosu (PackedStateMap) var; paylaşılan bir open list / closed set yok, kilit yok.
+ * Bir worker expand ettiği state'in successor'ı başka bir worker'a aitse onu
+ * (anahtar, g, parent, aksiyon kodu) mesaj olarak gönderir:
+ * - Mesajlar hedef başına BATCH_SIZE'lık paketlerde biriktirilir; paket dolunca,
+ *   FLUSH_INTERVAL expand'de bir ya da worker boşa düşmeden önce gönderilir.
+ * - Her worker'ın gelen kutusu kilitsiz bir MPSC yığını (AtomicReference, Treiber
+ *   push). Alıcı getAndSet(null) ile hepsini bir kerede alır. Sıra önemli değil,
+ *   her mesaj kendi g'siyle geliyor.
+ * Gelen (ya da yerel) successor'ın g'si sahibinin bildiğinden iyi değilse atılır;
+ * iyiyse yeni düğüm eklenir (h sahibinde hesaplanır) ve tablo onu gösterir. Tablonun
+ * göstermediği düğüm open list'ten çıkınca bayat sayılır. Global sıra olmadığı için
+ * expand edilmiş bir state'e sonradan daha iyi g gelebilir; o zaman tekrar açılır.
+ *
+ * Optimallik: hedef state'i open list'ten çıkaran worker maliyetini ortak üst sınıra
+ * (incumbent, CAS ile sadece azalır) yazar. f = g + h >= incumbent olan düğümler
+ * budanır. Heuristic kabul edilebilir olduğu sürece (TravelAwareHeuristic)
+ * arama bittiğinde f < incumbent olan her düğüm expand edilmiştir; incumbent optimaldir.
+ *
+ * Bitiş: 'active' sayacı = çalışan worker sayısı + gönderilmiş ama işlenmemiş paket
+ * sayısı. Gönderen paketi göndermeden önce artırır, alıcı paketi işledikten sonra
+ * azaltır; boşa düşen worker kendi payını azaltır, boştayken paket görürse önce
+ * artırıp sonra işler. Sayaç 0 ise ne çalışan worker ne yolda mesaj var; 0'dan tekrar
+ * çıkamaz (artırabilecek kimse kalmadı), o yüzden onu gören herkes durabilir.
+ *
+ * Düğüm id'leri worker'lar arası: global = yerel * thread sayısı + worker. Plan,
+ * thread'ler bittikten sonra parent zinciri arena'lar arasında izlenerek çıkarılır.
+ *
+ * Heuristic'ler önbellek tuttuğu için thread güvenli değil; her worker
+ * setHeuristicFactory ile verilen fabrikadan kendi örneğini alır. Mesafe
+ * tablosu da tembel hesaplanıyor; arama başlamadan WorldModel.prepareDistances()
+ * ile doldurulur, worker'lar sadece okur. Simetri budaması yok.
+ */
+public class HdaStarPlanner implements Planner {
+
+    // Hedef başına paketteki en fazla mesaj
+    static final int BATCH_SIZE = 64;
+
+    // Bu kadar expand'de bir yarım paketler de gönderilir (alıcılar aç kalmasın)
+    static final int FLUSH_INTERVAL = 16;
+
+    private final int threads;
+    private boolean useMacroActions;
+    private Supplier<Heuristic> heuristicFactory = TravelAwareHeuristic::new;
+
+    // Son aramanın istatistikleri ve worker'lar arası gönderilen mesaj sayısı
+    private SearchStats lastStats = new SearchStats("HdaStarPlanner");
+    private long lastMessages;
+
+    public HdaStarPlanner(int threads) {
+        this(threads, false);
+    }
+
+    public HdaStarPlanner(int threads, boolean useMacroActions) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.useMacroActions = useMacroActions;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isUsingMacroActions() {
+        return useMacroActions;
+    }
+
+    public void setUseMacroActions(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    /**
+     * Her worker için ayrı heuristic örneği üreten fabrika (varsayılan TravelAwareHeuristic).
+     * Optimal plan için heuristic kabul edilebilir olmalı.
+     */
+    public void setHeuristicFactory(Supplier<Heuristic> heuristicFactory) {
+        if (heuristicFactory == null) {
+            throw new IllegalArgumentException("heuristicFactory must not be null");
+        }
+        this.heuristicFactory = heuristicFactory;
+    }
+
+    /**
+     * Thread sayısı planı değiştirmiyor (maliyet aynı, eşit maliyetli planlardan
+     * hangisinin bulunduğu zamanlamaya bağlı), tarife girmiyor.
+     */
+    @Override
+    public String describe() {
+        return "HdaStarPlanner(macro=" + useMacroActions
+                + ",heuristic=" + heuristicFactory.get().getClass().getSimpleName() + ")";
+    }
+
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Son aramada tüm worker'ların expand ettiği düğüm sayısı (tekrar açılanlar dahil).
+     */
+    public int getExpandedNodeCount() {
+        return lastStats.expanded;
+    }
+
+    /**
+     * Son aramada başka bir worker'a gönderilen successor sayısı.
+     */
+    public long getLastMessageCount() {
+        return lastMessages;
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    @Override
+    public PlanResult plan(GameState startState) {
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("HdaStarPlanner");
+        lastStats = stats;
+        startState.world.prepareDistances();
+
+        Search search = new Search(startState);
+        Stack<StripsAction> plan = search.run(stats);
+        lastMessages = search.messages.get();
+
+        stats.wallNanos = System.nanoTime() - searchStart;
+        stats.recordPlan(plan);
+        return new PlanResult(plan, stats);
+    }
+
+    /**
+     * Hash'in sahibi olan worker. Worker'ın PackedStateMap'i slotu hash'in ALT
+     * bitlerinden alıyor; sahip de hash mod thread ile seçilseydi (ör. 4 thread'de)
+     * bir worker'ın bütün anahtarları aynı alt bitleri paylaşır, tablonun 1/threads'i
+     * kullanılır ve lineer probing zincirleri uzardı. Bu yüzden hash önce
+     * Fibonacci çarpımıyla karıştırılır, sahip karışık değerin ÜST bitlerinden
+     * (çarp-kaydır, mod yok) seçilir.
+     */
+    static int owner(int hash, int threads) {
+        long mixed = (hash * 0x9E3779B9) & 0xFFFFFFFFL;
+        return (int) ((mixed * threads) >>> 32);
+    }
+
+    /**
+     * Bir paket mesaj: successor anahtarları art arda, yanında g, parent (global id)
+     * ve aksiyon kodu. 'next' gelen kutusu yığınındaki bir sonraki paket.
+     */
+    private static final class Batch {
+        final long[] keys;
+        final double[] g = new double[BATCH_SIZE];
+        final int[] parent = new int[BATCH_SIZE];
+        final int[] action = new int[BATCH_SIZE];
+        int size;
+        Batch next;
+
+        Batch(int width) {
+            keys = new long[BATCH_SIZE * width];
+        }
+    }
+
+    /**
+     * Tek bir plan() çağrısının ortak durumu.
+     */
+    private final class Search {
+        final GameState start;
+        final int width;
+        final Worker[] workers;
+
+        // Çalışan worker + işlenmemiş paket sayısı (bkz. sınıf açıklaması)
+        final AtomicInteger active;
+        // Bulunan en ucuz hedefin maliyeti (Double bitleri; pozitif double'larda sıra aynı)
+        final AtomicLong incumbent = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        final AtomicLong messages = new AtomicLong();
+        volatile boolean finished;
+        volatile Throwable failure;
+
+        Search(GameState start) {
+            this.start = start;
+            this.width = start.keyWidth();
+            this.workers = new Worker[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Worker(this, i);
+            }
+            this.active = new AtomicInteger(threads);
+        }
+
+        Stack<StripsAction> run(SearchStats stats) {
+            long[] startKey = start.key();
+            Worker owner = workers[owner(startKey)];
+            if (!owner.insert(startKey, 0.0, NodeArena.NO_PARENT, NodeArena.NO_ACTION)) {
+                // Heuristic hedefin ulaşılamaz olduğunu biliyor
+                return null;
+            }
+
+            Thread[] running = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                running[i] = new Thread(workers[i], "hda-worker-" + i);
+                running[i].setDaemon(true);
+                running[i].start();
+            }
+            boolean interrupted = false;
+            for (Thread thread : running) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        // Worker'lar kendi bitiş koşullarıyla duruyor; yarım plan yok
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw new IllegalStateException("HDA* worker failed", failure);
+            }
+
+            Worker best = null;
+            for (Worker worker : workers) {
+                stats.expanded += worker.expanded;
+                stats.generated += worker.generated;
+                stats.duplicates += worker.duplicates;
+                stats.peakOpen += worker.open.peakSize();
+                stats.closedSize += worker.best.size();
+                if (worker.goalNode != NodeArena.NO_PARENT
+                        && (best == null || worker.goalCost < best.goalCost)) {
+                    best = worker;
+                }
+            }
+            return best == null ? null : reconstructPlan(best.goalNode * threads + best.index);
+        }
+
+        int owner(long[] key) {
+            return HdaStarPlanner.owner(PackedStateSet.hash(key, 0, width), threads);
+        }
+
+        double bound() {
+            return Double.longBitsToDouble(incumbent.get());
+        }
+
+        void offerGoal(double cost) {
+            long current = incumbent.get();
+            while (cost < Double.longBitsToDouble(current)
+                    && !incumbent.compareAndSet(current, Double.doubleToLongBits(cost))) {
+                current = incumbent.get();
+            }
+        }
+
+        /**
+         * AStarPlanner.reconstructPlan ile aynı, sadece parent'lar global id.
+         */
+        Stack<StripsAction> reconstructPlan(int goal) {
+            Stack<StripsAction> reverseStack = new Stack<>();
+            long[] parentKey = new long[width];
+            ActionCodec codec = workers[0].codec;
+            int cursor = goal;
+            while (true) {
+                NodeArena arena = workers[cursor % threads].arena;
+                int local = cursor / threads;
+                int parent = arena.parent(local);
+                if (parent == NodeArena.NO_PARENT) {
+                    return reverseStack;
+                }
+                workers[parent % threads].arena.copyKey(parent / threads, parentKey);
+                StripsAction action = codec.decode(parentKey, arena.action(local));
+                if (action instanceof MacroAction) {
+                    List<StripsAction> steps = ((MacroAction) action).expand();
+                    for (int i = steps.size() - 1; i >= 0; i--) {
+                        reverseStack.push(steps.get(i));
+                    }
+                } else {
+                    reverseStack.push(action);
+                }
+                cursor = parent;
+            }
+        }
+    }
+
+    /**
+     * Bir thread'in sahip olduğu state'ler üzerinde A*.
+     */
+    private final class Worker implements Runnable {
+        final Search search;
+        final int index;
+        final NodeArena arena;
+        final LazyHeapOpenList open;
+        // state -> en iyi g'li yerel düğüm
+        final PackedStateMap best;
+        final ActionCodec codec;
+        final Heuristic heuristic;
+
+        // Gelen kutusu (MPSC: herkes push eder, sadece bu worker boşaltır)
+        final AtomicReference<Batch> inbox = new AtomicReference<>();
+        // Hedef worker başına dolmakta olan paket
+        final Batch[] outgoing;
+
+        final long[] currentKey;
+        final long[] successorKey;
+        final int[] actionCodes;
+
+        int expanded;
+        int generated;
+        int duplicates;
+        int goalNode = NodeArena.NO_PARENT;
+        double goalCost = Double.POSITIVE_INFINITY;
+
+        Worker(Search search, int index) {
+            this.search = search;
+            this.index = index;
+            int width = search.width;
+            this.arena = new NodeArena(width);
+            this.open = new LazyHeapOpenList(arena);
+            this.best = new PackedStateMap(width);
+            this.codec = new ActionCodec(search.start.world);
+            this.heuristic = heuristicFactory.get();
+            heuristic.prepare(search.start);
+            this.outgoing = new Batch[threads];
+            this.currentKey = new long[width];
+            this.successorKey = new long[width];
+            this.actionCodes = new int[codec.maxActions()];
+        }
+
+        @Override
+        public void run() {
+            try {
+                work();
+            } catch (Throwable t) {
+                search.failure = t;
+                search.finished = true;
+            }
+        }
+
+        private void work() {
+            int sinceFlush = 0;
+            while (!search.finished) {
+                drainInbox();
+                if (expandNext()) {
+                    if (++sinceFlush == FLUSH_INTERVAL) {
+                        flushAll();
+                        sinceFlush = 0;
+                    }
+                    continue;
+                }
+                // Yapacak iş yok: elde kalan mesajları gönder ve boşa düş
+                flushAll();
+                sinceFlush = 0;
+                if (!waitForWork()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Boşta bekler. Paket gelirse true (worker tekrar aktif), arama bittiyse false.
+         */
+        private boolean waitForWork() {
+            if (search.active.decrementAndGet() == 0) {
+                search.finished = true;
+                return false;
+            }
+            while (!search.finished) {
+                if (inbox.get() != null) {
+                    search.active.incrementAndGet();
+                    return true;
+                }
+                if (search.active.get() == 0) {
+                    search.finished = true;
+                    return false;
+                }
+                Thread.yield();
+            }
+            return false;
+        }
+
+        private void drainInbox() {
+            Batch batch = inbox.getAndSet(null);
+            while (batch != null) {
+                for (int i = 0; i < batch.size; i++) {
+                    System.arraycopy(batch.keys, i * search.width, successorKey, 0, search.width);
+                    insert(successorKey, batch.g[i], batch.parent[i], batch.action[i]);
+                }
+                Batch next = batch.next;
+                // Paket işlendi, artık "yolda" değil (bu worker aktif olduğu için sayaç 0 olamaz)
+                search.active.decrementAndGet();
+                batch = next;
+            }
+        }
+
+        /**
+         * Open list'ten bir düğüm expand eder; budanmamış düğüm kalmadıysa false.
+         */
+        private boolean expandNext() {
+            while (!open.isEmpty()) {
+                int node = open.poll();
+                double g = arena.costG(node);
+                if (g + arena.heuristicH(node) >= search.bound()) {
+                    // Heap f sırasında: geri kalanı da budanır, incumbent sadece düşer
+                    while (!open.isEmpty()) {
+                        open.poll();
+                    }
+                    return false;
+                }
+                arena.copyKey(node, currentKey);
+                if (best.get(currentKey) != node) {
+                    // Aynı state'e sonradan daha iyi g geldi
+                    continue;
+                }
+                if (search.start.isGoal(currentKey)) {
+                    if (g < goalCost) {
+                        goalCost = g;
+                        goalNode = node;
+                    }
+                    search.offerGoal(g);
+                    continue;
+                }
+                expand(node, g);
+                return true;
+            }
+            return false;
+        }
+
+        private void expand(int node, double g) {
+            expanded++;
+            int globalId = node * threads + index;
+            int actionCount = codec.generate(currentKey, useMacroActions, actionCodes);
+            for (int i = 0; i < actionCount; i++) {
+                int code = actionCodes[i];
+                generated++;
+                codec.writeSuccessorKey(currentKey, code, successorKey);
+                double successorG = g + codec.cost(currentKey, code);
+                int target = search.owner(successorKey);
+                if (target == index) {
+                    insert(successorKey, successorG, globalId, code);
+                } else {
+                    send(target, successorKey, successorG, globalId, code);
+                }
+            }
+        }
+
+        /**
+         * Bu worker'a ait bir successor: g iyileştiyse yeni düğüm olarak open list'e.
+         * Düğüm eklendiyse true.
+         */
+        boolean insert(long[] key, double g, int parentId, int actionCode) {
+            int existing = best.get(key);
+            if (existing != PackedStateMap.NO_VALUE && arena.costG(existing) <= g) {
+                duplicates++;
+                return false;
+            }
+            double h = existing != PackedStateMap.NO_VALUE
+                    ? arena.heuristicH(existing)
+                    : heuristic.estimate(search.start, key);
+            if (Double.isInfinite(h) || g + h >= search.bound()) {
+                return false;
+            }
+            int node = arena.add(key, g, h, parentId, actionCode);
+            best.put(key, node);
+            open.offer(node, key);
+            return true;
+        }
+
+        private void send(int target, long[] key, double g, int parentId, int actionCode) {
+            Batch batch = outgoing[target];
+            if (batch == null) {
+                batch = new Batch(search.width);
+                outgoing[target] = batch;
+            }
+            int i = batch.size++;
+            System.arraycopy(key, 0, batch.keys, i * search.width, search.width);
+            batch.g[i] = g;
+            batch.parent[i] = parentId;
+            batch.action[i] = actionCode;
+            if (batch.size == BATCH_SIZE) {
+                flush(target);
+            }
+        }
+
+        private void flushAll() {
+            for (int target = 0; target < threads; target++) {
+                flush(target);
+            }
+        }
+
+        private void flush(int target) {
+            Batch batch = outgoing[target];
+            if (batch == null || batch.size == 0) {
+                return;
+            }
+            outgoing[target] = null;
+            search.messages.addAndGet(batch.size);
+            // Göndermeden önce say: alıcı işleyene kadar arama bitmiş sayılmasın
+            search.active.incrementAndGet();
+            AtomicReference<Batch> inbox = search.workers[target].inbox;
+            Batch head;
+            do {
+                head = inbox.get();
+                batch.next = head;
+            } while (!inbox.compareAndSet(head, batch));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package edu.cwru.sepia.agent.planner;
+
+/**
+ * A* için takılabilir heuristic arayüzü.
+ *
+ * estimate() her successor için çağrıldığı için ucuz (tercihen O(1)) olmalı.
+ * Harita bazlı ön hesaplar prepare() içinde, arama başlamadan bir kere yapılır.
+ * Optimal plan isteniyorsa estimate() kabul edilebilir (admissible) olmalı:
+ * hedefe olan gerçek maliyeti asla aşmamalı. Ayrıca tutarlı (consistent) olmalı,
+ * h(s) <= c(s, s') + h(s'): AStarPlanner kapalı düğümleri tekrar açmıyor, sadece
+ * kabul edilebilir bir heuristic'le bulduğu plan optimal olmayabilir.
+ */
+public interface Heuristic {
+
+    /**
+     * Arama başlamadan bir kere çağrılır. Varsayılan hali hiçbir şey yapmaz.
+     */
+    default void prepare(GameState startState) {
+    }
+
+    /**
+     * h(n): 'state'ten hedefe tahmini maliyet.
+     * Hedefe ulaşılamayacağı biliniyorsa Double.POSITIVE_INFINITY dönebilir.
+     */
+    double estimate(GameState state);
+
+    /**
+     * estimate() ile aynı, ama successor GameState oluşturmadan: 'key' aramadaki
+     * bir state'in paketlenmiş anahtarı, 'start' o aramanın başlangıç state'i
+     * (hedefler ve dünya oradan okunur). A* her successor için bunu çağırıyor.
+     * Varsayılan hali anahtarı GameState'e açar; ucuz heuristic'ler override etmeli.
+     */
+    default double estimate(GameState start, long[] key) {
+        return estimate(GameState.fromKey(start, key));
+    }
+}
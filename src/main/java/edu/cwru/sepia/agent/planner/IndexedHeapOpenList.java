@@ -0,0 +1,156 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * IndexedHeapOpenList:
+ * Paketlenmiş state anahtarıyla indekslenmiş ikili heap.
+ *
+ * LazyHeapOpenList'ten farkı:
+ * - Her state heap'te en fazla BİR kere bulunur.
+ * - Aynı state daha iyi bir g ile tekrar gelirse mevcut girdi güncellenir
+ *   (decrease-key), yeni girdi eklenmez. Böylece open list gereksiz kopyalarla
+ *   şişmez, poll() sonrası atılan düğüm de olmaz.
+ * - Sıralama f = g + h, eşitlikte küçük h (NodeArena.compare).
+ *
+ * İç yapı: anahtar -> girdi id'si (PackedStateMap); girdi id'si -> arena düğümü
+ * ve heap konumu (düz int dizileri); heap'in kendisi girdi id'lerinden oluşan
+ * bir int[]. Hiçbir işlem nesne ayırmaz (diziler büyürken hariç).
+ */
+public class IndexedHeapOpenList implements OpenList {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final NodeArena arena;
+
+    // state anahtarı -> girdi id'si (hiç silinmez; poll edilmiş girdinin heapPos'u -1 olur)
+    private final PackedStateMap entryOf;
+
+    // girdi id'si ile indekslenen diziler
+    private int[] nodes = new int[INITIAL_CAPACITY];
+    private int[] heapPos = new int[INITIAL_CAPACITY];
+    private int entryCount;
+
+    // heap[i] = i. heap konumundaki girdi id'si
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int size;
+    private int peakSize;
+
+    public IndexedHeapOpenList(NodeArena arena, int keyWidth) {
+        this.arena = arena;
+        this.entryOf = new PackedStateMap(keyWidth);
+    }
+
+    @Override
+    public boolean offer(int node, long[] key) {
+        int id = entryOf.get(key);
+        if (id == PackedStateMap.NO_VALUE) {
+            id = newEntry(node);
+            entryOf.put(key, id);
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = id;
+            heapPos[id] = size;
+            size++;
+            peakSize = Math.max(peakSize, size);
+            siftUp(size - 1);
+            return true;
+        }
+
+        if (heapPos[id] < 0) {
+            // Bu state zaten poll edildi (expand edildi / ediliyor)
+            return false;
+        }
+        if (arena.costG(nodes[id]) <= arena.costG(node)) {
+            return false;
+        }
+
+        // decrease-key: daha iyi yol bulundu, girdiyi yerinde güncelle
+        nodes[id] = node;
+        int pos = heapPos[id];
+        siftUp(pos);
+        siftDown(heapPos[id]);
+        return true;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int id = heap[0];
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+        heapPos[id] = -1;
+        return nodes[id];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int peakSize() {
+        return peakSize;
+    }
+
+    private int newEntry(int node) {
+        if (entryCount == nodes.length) {
+            nodes = Arrays.copyOf(nodes, entryCount * 2);
+            heapPos = Arrays.copyOf(heapPos, entryCount * 2);
+        }
+        nodes[entryCount] = node;
+        return entryCount++;
+    }
+
+    private boolean less(int a, int b) {
+        return arena.compare(nodes[heap[a]], nodes[heap[b]]) < 0;
+    }
+
+    private void swap(int a, int b) {
+        int idA = heap[a];
+        int idB = heap[b];
+        heap[a] = idB;
+        heap[b] = idA;
+        heapPos[idB] = a;
+        heapPos[idA] = b;
+    }
+
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!less(pos, parent)) {
+                break;
+            }
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= size) {
+                break;
+            }
+            int right = left + 1;
+            int smallest = (right < size && less(right, left)) ? right : left;
+            if (!less(smallest, pos)) {
+                break;
+            }
+            swap(pos, smallest);
+            pos = smallest;
+        }
+    }
+}
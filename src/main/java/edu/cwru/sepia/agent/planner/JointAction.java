@@ -0,0 +1,63 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JointAction:
+ * Çok köylülü planın bir adımı: her köylüye en fazla bir StripsAction.
+ * Aksiyonlar aynı anda başlar; adımın maliyeti süreleri TOPLAMI değil en uzunu.
+ * Bir köylünün aksiyonu null ise o adımda bekliyor demek.
+ *
+ * StripsAction'lar burada köylü başına tarif olarak duruyor (hedef, kaynak);
+ * RoundTripAction gibi makrolar köylü için ayrıca açılabilir.
+ */
+public class JointAction {
+
+    private final StripsAction[] actions;
+
+    public JointAction(StripsAction[] actions) {
+        this.actions = actions.clone();
+    }
+
+    public int peasantCount() {
+        return actions.length;
+    }
+
+    /**
+     * i. köylünün aksiyonu; bekliyorsa null.
+     */
+    public StripsAction action(int peasant) {
+        return actions[peasant];
+    }
+
+    public List<StripsAction> actions() {
+        return Collections.unmodifiableList(Arrays.asList(actions));
+    }
+
+    /**
+     * Adımın süresi: en uzun aksiyonun maliyeti.
+     */
+    public double getCost() {
+        double cost = 0;
+        for (StripsAction action : actions) {
+            if (action != null) {
+                cost = Math.max(cost, action.getCost());
+            }
+        }
+        return cost;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("JointAction[");
+        for (int i = 0; i < actions.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(actions[i] == null ? "wait" : actions[i].getClass().getSimpleName());
+        }
+        return sb.append("] cost=").append(getCost()).toString();
+    }
+}
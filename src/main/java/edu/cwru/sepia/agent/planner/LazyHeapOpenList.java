@@ -0,0 +1,89 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * Düz int ikili heap tabanlı open list (planlayıcının ilk hali; eskiden
+ * java.util.PriorityQueue<AStarNode> idi).
+ * Aynı state için her successor ayrı bir girdi olarak eklenir; kopyalar
+ * poll() sonrası closed set kontrolünde tembelce atılır.
+ */
+public class LazyHeapOpenList implements OpenList {
+
+    private final NodeArena arena;
+    private int[] heap = new int[1 << 10];
+    private int size;
+    private int peakSize;
+
+    public LazyHeapOpenList(NodeArena arena) {
+        this.arena = arena;
+    }
+
+    @Override
+    public boolean offer(int node, long[] key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int pos = size++;
+        peakSize = Math.max(peakSize, size);
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (arena.compare(node, heap[parent]) >= 0) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = node;
+        return true;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int top = heap[0];
+        int last = heap[--size];
+        int pos = 0;
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && arena.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (arena.compare(heap[child], last) >= 0) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = last;
+        return top;
+    }
+
+    /**
+     * En küçük f'li düğüm, çıkarmadan (boşsa -1). RegressionPlanner iki yönün
+     * minimum f'sini durma koşulu için okuyor.
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int peakSize() {
+        return peakSize;
+    }
+}
@@ -0,0 +1,346 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * LiftedPlanner:
+ * Collected(t, n) sayaçlarını tek tek state'e açmadan, sembolik olarak planlar.
+ *
+ * A* her 100'lük Deposit'te yeni bir (collectedGold, collectedWood) değeri
+ * görüyor; state uzayı hedefle doğrusal büyüyor (10000/10000'de 100 x 100 sayaç
+ * kombinasyonu, çarpı konumlar). Oysa ilk Deposit'ten sonra plan hep aynı
+ * döngünün tekrarı: TownHall'dan çık, bir düğümden topla, dön, bırak.
+ *
+ * Bu planlayıcı:
+ * 1) Döngüleri bir kere arar: sayaçlar soyutlanmış (toplanan 0, her düğümde "bir
+ *    Harvest'lik var / yok") anahtarlar üzerinde, temel aksiyonlarla (ActionCodec)
+ *    Dijkstra. İlk Deposit'le biten her düğüm bir döngü: hangi düğümden, hangi tür,
+ *    maliyeti ve temel aksiyonları. Düğüm başına en ucuzu ilk çıkan.
+ *    Aynı arama köylünün gerçek konumundan / yükünden de yapılır (açılış: ilk Deposit'e kadar).
+ * 2) Sayaçları sayı olarak çözer: her tür için gereken Deposit sayısı n_t ve her
+ *    düğümün kapasitesi (kalan / 100) belli. TownHall'dan çıkan döngüler birbirinden
+ *    bağımsız; her türde en ucuz döngüden başlayıp kapasite bitene kadar tekrar
+ *    etmek optimal. Her açılış seçeneği için bu toplam hesaplanıp en ucuzu alınır.
+ * 3) Planı açar: açılış + (döngü, tekrar sayısı) listesi temel aksiyonlara.
+ *
+ * Optimallik sadece tek TownHall'lı dünyada. Birden fazla TownHall varsa
+ * döngüler her TownHall'dan ayrı aranıyor ve sadece başladığı TownHall'a
+ * dönenler tutuluyor; bir TownHall'dan çıkıp başka birine bırakan turlar
+ * (A*'ın aksiyon uzayında var, bkz. ActionCodec) hiç kullanılmıyor. Parçalar
+ * farklı TownHall'larda ise açarken araya bir Move giriyor ve bu geçişler
+ * dağılımın maliyetine girmiyor. Plan geçerli ama A*'dan pahalı olabilir
+ * (rastgele iki TownHall'lı haritaların ~%28'inde); optimal plan gerekiyorsa
+ * çok TownHall'lı dünyada AStarPlanner kullanılmalı.
+ *
+ * Arama ve sayısal kısım hedefin büyüklüğünden bağımsız (düğüm sayısına bağlı);
+ * hedefle büyüyen tek şey çıkan planın uzunluğu. Döngü maliyetleri aksiyonların
+ * kendi getCost()'larından geliyor; DirectPlanner'ın kapalı formunun aksine
+ * Harvest / Deposit'in 1 olduğu varsayılmıyor.
+ *
+ * Kapasite yetmiyorsa (haritada o kadar kaynak yok) null döner.
+ */
+public class LiftedPlanner implements Planner {
+
+    private SearchStats lastStats = new SearchStats("LiftedPlanner");
+    private List<Segment> lastSegments = Collections.emptyList();
+
+    /**
+     * Sıkıştırılmış planın bir parçası: 'cycle' döngüsü 'repetitions' kere.
+     */
+    public static final class Segment {
+        final Cycle cycle;
+        final int repetitions;
+
+        Segment(Cycle cycle, int repetitions) {
+            this.cycle = cycle;
+            this.repetitions = repetitions;
+        }
+
+        public int getRepetitions() {
+            return repetitions;
+        }
+
+        public double getCost() {
+            return cycle.cost * repetitions;
+        }
+
+        /**
+         * Döngünün temel aksiyonları (ilk uygulanacak başta).
+         */
+        public List<StripsAction> getActions() {
+            return Collections.unmodifiableList(cycle.actions);
+        }
+    }
+
+    /**
+     * Bir Deposit'le biten aksiyon dizisi: 'resource' düğümünden bir Harvest'lik
+     * (açılış yükü bırakıyorsa -1), 'gold' türünde.
+     */
+    static final class Cycle {
+        final int resource;
+        final boolean gold;
+        final double cost;
+        final List<StripsAction> actions;
+        // Döngünün başladığı ve bittiği (Deposit yapılan) konum
+        final int startX;
+        final int startY;
+        final int endX;
+        final int endY;
+
+        Cycle(int resource, boolean gold, double cost, List<StripsAction> actions,
+              int startX, int startY, int endX, int endY) {
+            this.resource = resource;
+            this.gold = gold;
+            this.cost = cost;
+            this.actions = actions;
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+        }
+    }
+
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Son planın sıkıştırılmış hali: açılış (1 kere) ve döngüler tekrar sayılarıyla.
+     */
+    public List<Segment> getLastSegments() {
+        return lastSegments;
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    @Override
+    public PlanResult plan(GameState startState) {
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("LiftedPlanner");
+        lastStats = stats;
+        lastSegments = solve(startState, stats);
+        Stack<StripsAction> plan = lastSegments == null ? null : expand(startState.world, lastSegments);
+        stats.wallNanos = System.nanoTime() - searchStart;
+        stats.recordPlan(plan);
+        return new PlanResult(plan, stats);
+    }
+
+    private List<Segment> solve(GameState start, SearchStats stats) {
+        WorldModel world = start.world;
+        int goldDeposits = depositsNeeded(start.requiredGold, start.collectedGold);
+        int woodDeposits = depositsNeeded(start.requiredWood, start.collectedWood);
+        if (goldDeposits == 0 && woodDeposits == 0) {
+            return new ArrayList<>();
+        }
+
+        // 1) Döngüler: TownHall'lardan (tekrar edilenler; başladığı TownHall'a dönenler)
+        // ve köylünün olduğu yerden (açılış)
+        List<Cycle> cycles = new ArrayList<>();
+        for (WorldModel.TownHallInfo hall : world.townHalls()) {
+            long[] townHallKey = abstractKey(start);
+            townHallKey[0] = GameState.packPeasant(hall.x, hall.y, false, false);
+            for (Cycle cycle : findCycles(world, townHallKey, stats)) {
+                if (cycle.endX == hall.x && cycle.endY == hall.y) {
+                    cycles.add(cycle);
+                }
+            }
+        }
+        List<Cycle> openings = findCycles(world, abstractKey(start), stats);
+        cycles.sort(Comparator.comparingDouble((Cycle c) -> c.cost).thenComparingInt(c -> c.resource));
+
+        // 2) Sayılar: her açılış için kalan Deposit'lerin en ucuz dağılımı
+        int[] capacity = new int[world.resourceCount()];
+        for (ResourceInfo r : world.resources()) {
+            capacity[r.index] = start.remaining(r) / 100;
+        }
+        Cycle bestOpening = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (Cycle opening : openings) {
+            if (opening.resource >= 0) {
+                capacity[opening.resource]--;
+            }
+            double cost = opening.cost
+                    + fillCost(cycles, capacity, true, opening.gold ? goldDeposits - 1 : goldDeposits)
+                    + fillCost(cycles, capacity, false, opening.gold ? woodDeposits : woodDeposits - 1);
+            if (opening.resource >= 0) {
+                capacity[opening.resource]++;
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestOpening = opening;
+            }
+        }
+        if (bestOpening == null) {
+            return null;
+        }
+
+        // 3) Seçilen dağılımın parçaları
+        List<Segment> segments = new ArrayList<>();
+        segments.add(new Segment(bestOpening, 1));
+        if (bestOpening.resource >= 0) {
+            capacity[bestOpening.resource]--;
+        }
+        fill(segments, cycles, capacity, true, bestOpening.gold ? goldDeposits - 1 : goldDeposits);
+        fill(segments, cycles, capacity, false, bestOpening.gold ? woodDeposits : woodDeposits - 1);
+        if (world.townHallCount() > 1) {
+            // Aynı TownHall'un döngüleri art arda: önce açılışın bittiği TownHall,
+            // böylece en fazla (TownHall sayısı - 1) geçiş
+            Cycle opening = bestOpening;
+            segments.subList(1, segments.size()).sort(Comparator.comparingInt((Segment s) ->
+                    s.cycle.startX == opening.endX && s.cycle.startY == opening.endY
+                            ? -1 : world.townHallIndexAt(s.cycle.startX, s.cycle.startY)));
+        }
+        return segments;
+    }
+
+    /**
+     * TownHall'dan 'deposits' tane 'gold' türü döngünün en ucuz toplamı (kapasite
+     * yetmezse sonsuz). Döngüler maliyete göre sıralı.
+     */
+    private static double fillCost(List<Cycle> cycles, int[] capacity, boolean gold, int deposits) {
+        double cost = 0;
+        for (Cycle cycle : cycles) {
+            if (deposits <= 0) {
+                break;
+            }
+            if (cycle.gold == gold) {
+                int used = Math.min(deposits, capacity[cycle.resource]);
+                cost += used * cycle.cost;
+                deposits -= used;
+            }
+        }
+        return deposits > 0 ? Double.POSITIVE_INFINITY : cost;
+    }
+
+    private static void fill(List<Segment> segments, List<Cycle> cycles, int[] capacity,
+                             boolean gold, int deposits) {
+        for (Cycle cycle : cycles) {
+            if (deposits <= 0) {
+                return;
+            }
+            if (cycle.gold == gold) {
+                int used = Math.min(deposits, capacity[cycle.resource]);
+                if (used > 0) {
+                    segments.add(new Segment(cycle, used));
+                    capacity[cycle.resource] -= used;
+                    deposits -= used;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sayaçları soyutlanmış anahtar: toplanan 0, her düğümde 100 (Harvest yapılabilir) ya da 0.
+     */
+    private static long[] abstractKey(GameState start) {
+        long[] key = start.key().clone();
+        key[1] = GameState.packCollected(0, 0);
+        for (ResourceInfo r : start.world.resources()) {
+            GameState.packRemaining(key, r.index, start.remaining(r) >= 100 ? 100 : 0);
+        }
+        return key;
+    }
+
+    /**
+     * 'startKey'den ilk Deposit'e kadar Dijkstra; Deposit'le biten her düğüm bir
+     * döngü. Soyut anahtarda bir düğümden en fazla bir Harvest yapılabildiği ve
+     * Deposit'ten sonra açılmadığı için uzay konum x yük kadar küçük.
+     */
+    private static List<Cycle> findCycles(WorldModel world, long[] startKey, SearchStats stats) {
+        int width = startKey.length;
+        NodeArena arena = new NodeArena(width);
+        LazyHeapOpenList open = new LazyHeapOpenList(arena);
+        PackedStateSet closed = new PackedStateSet(width);
+        ActionCodec codec = new ActionCodec(world);
+        long[] key = new long[width];
+        long[] successorKey = new long[width];
+        int[] actionCodes = new int[codec.maxActions()];
+
+        List<Cycle> cycles = new ArrayList<>();
+        open.offer(arena.add(startKey, 0.0, 0.0, NodeArena.NO_PARENT, NodeArena.NO_ACTION), startKey);
+        while (!open.isEmpty()) {
+            int node = open.poll();
+            arena.copyKey(node, key);
+            if (!closed.add(key)) {
+                continue;
+            }
+            if (key[1] != 0L) {
+                // Deposit yapıldı: döngü bitti, buradan devam edilmez
+                cycles.add(toCycle(world, arena, codec, node, startKey, key));
+                continue;
+            }
+            stats.expanded++;
+            int actionCount = codec.generate(key, false, actionCodes);
+            for (int i = 0; i < actionCount; i++) {
+                int code = actionCodes[i];
+                stats.generated++;
+                codec.writeSuccessorKey(key, code, successorKey);
+                if (closed.contains(successorKey)) {
+                    stats.duplicates++;
+                    continue;
+                }
+                double g = arena.costG(node) + codec.cost(key, code);
+                open.offer(arena.add(successorKey, g, 0.0, node, code), successorKey);
+            }
+        }
+        stats.peakOpen = Math.max(stats.peakOpen, open.peakSize());
+        stats.closedSize += closed.size();
+        return cycles;
+    }
+
+    private static Cycle toCycle(WorldModel world, NodeArena arena, ActionCodec codec,
+                                 int node, long[] startKey, long[] key) {
+        // Hangi düğümden toplandı: soyut kalanı 100'den 0'a düşen
+        int resource = -1;
+        for (int r = 0; r < world.resourceCount(); r++) {
+            if (GameState.unpackRemaining(startKey, r) != GameState.unpackRemaining(key, r)) {
+                resource = r;
+            }
+        }
+        List<StripsAction> actions = new ArrayList<>(AStarPlanner.reconstructPlan(arena, codec, node));
+        // Stack'te ilk aksiyon en üstte (listenin sonunda)
+        Collections.reverse(actions);
+        return new Cycle(resource, GameState.unpackCollectedGold(key) > 0, arena.costG(node), actions,
+                GameState.unpackPeasantX(startKey), GameState.unpackPeasantY(startKey),
+                GameState.unpackPeasantX(key), GameState.unpackPeasantY(key));
+    }
+
+    /**
+     * Parçaları temel aksiyonlara açar; ilk uygulanacak aksiyon en üstte.
+     * Bir parça öncekinin bittiği TownHall'dan başlamıyorsa araya Move girer.
+     */
+    static Stack<StripsAction> expand(WorldModel world, List<Segment> segments) {
+        List<StripsAction> steps = new ArrayList<>();
+        for (int s = 0; s < segments.size(); s++) {
+            Cycle cycle = segments.get(s).cycle;
+            if (s > 0) {
+                Cycle previous = segments.get(s - 1).cycle;
+                if (previous.endX != cycle.startX || previous.endY != cycle.startY) {
+                    steps.add(new MoveAction(world, previous.endX, previous.endY, cycle.startX, cycle.startY));
+                }
+            }
+            for (int k = 0; k < segments.get(s).repetitions; k++) {
+                steps.addAll(cycle.actions);
+            }
+        }
+        Stack<StripsAction> plan = new Stack<>();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            plan.push(steps.get(i));
+        }
+        return plan;
+    }
+
+    private static int depositsNeeded(int required, int collected) {
+        int needed = required - collected;
+        return needed <= 0 ? 0 : (needed + 99) / 100;
+    }
+}
@@ -0,0 +1,20 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.List;
+
+/**
+ * MacroAction:
+ * Birden fazla temel aksiyonu tek bir arama adımı olarak gösteren aksiyon.
+ *
+ * Planlayıcı makro seviyede arar, plan çıkarılırken (reconstructPlan)
+ * her makro expand() ile temel MoveAction / HarvestAction / DepositAction
+ * dizisine açılır. RCAgent sadece temel aksiyonları görür.
+ */
+public interface MacroAction extends StripsAction {
+
+    /**
+     * Bu makroyu oluşturan temel aksiyonlar, uygulanma sırasıyla.
+     * Maliyetlerinin toplamı getCost() ile aynı olmalı.
+     */
+    List<StripsAction> expand();
+}
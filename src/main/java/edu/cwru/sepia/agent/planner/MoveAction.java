@@ -1,13 +1,16 @@
 package edu.cwru.sepia.agent.planner;
 
+import edu.cwru.sepia.action.Action;
+
 /**
  * MoveAction:
  * Köylünün (peasant) bulunduğu (currentX,currentY) konumundan
  * hedef (targetX,targetY) konumuna "gitmesini" soyutlar.
  *
  * Bu aksiyon state içinde sadece köylünün koordinatlarını günceller.
- * Hareket süresinin cost'u olarak Chebyshev distance (max(dx,dy)) kullanıyoruz.
- * Bu, SEPIA’daki diagonal hareket modeline daha yakın bir alt bound’dur.
+ * Maliyet WorldModel.distance(): harita biliniyorsa engellerin etrafından
+ * dolaşan yolun uzunluğu (DistanceOracle), bilinmiyorsa Chebyshev distance
+ * (max(dx,dy)); SEPIA'daki diagonal hareket modelinde ikisi de tur sayısı.
  */
 public class MoveAction implements StripsAction {
 
@@ -16,7 +19,10 @@ public class MoveAction implements StripsAction {
     public final int targetX;
     public final int targetY;
 
-    public MoveAction(int startX, int startY, int targetX, int targetY) {
+    private final WorldModel world;
+
+    public MoveAction(WorldModel world, int startX, int startY, int targetX, int targetY) {
+        this.world = world;
         this.startX = startX;
         this.startY = startY;
         this.targetX = targetX;
@@ -33,21 +39,31 @@ public class MoveAction implements StripsAction {
 
     @Override
     public GameState apply(GameState state) {
-        // Yeni bir kopya oluşturuyoruz, orijinali bozmuyoruz.
-        GameState newState = new GameState(state);
-
         // Köylüyü yeni koordinata "ışınla" (planlama soyutlaması).
-        newState.peasantX = targetX;
-        newState.peasantY = targetY;
+        // Orijinal state değişmez, yeni bir state dönüyor.
+        return state.withPeasantAt(targetX, targetY);
+    }
 
-        return newState;
+    @Override
+    public void writeSuccessorKey(GameState state, long[] out) {
+        // Sadece köylü kelimesi değişiyor
+        System.arraycopy(state.key(), 0, out, 0, state.keyWidth());
+        out[0] = GameState.packPeasant(targetX, targetY,
+                state.peasantIsCarrying, state.peasantCarriesGold);
     }
 
     @Override
     public double getCost() {
-        int dx = Math.abs(targetX - startX);
-        int dy = Math.abs(targetY - startY);
-        // Chebyshev distance = max(dx,dy)
-        return Math.max(dx, dy);
+        return world.distance(startX, startY, targetX, targetY);
+    }
+
+    /**
+     * Hedefe compound move. Hedef bir kaynak / TownHall hücresiyse (planda hep
+     * öyle) DurativeExecutor bunu sonraki Harvest / Deposit ile tek bir compound
+     * gather / deposit'e birleştiriyor; dolu hücreye tek başına move gönderilmiyor.
+     */
+    @Override
+    public Action toSepiaAction(GameState state) {
+        return Action.createCompoundMove(state.peasantID, targetX, targetY);
     }
 }
@@ -0,0 +1,703 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * MultiAgentPlanner:
+ * Birden fazla köylü için A*. Her adımda her köylüye bir aksiyon atanır
+ * (JointAction), aksiyonlar aynı anda çalışır ve adımın maliyeti en uzun
+ * aksiyonun süresidir. Yani g(n) toplam iş değil, makespan.
+ *
+ * Ortak aksiyon uzayı (köylü başına ~n seçenek, k köylü için n^k) şöyle dizginleniyor:
+ *
+ * 1) Köylü köylü genişletme (operator decomposition):
+ *    Bir A* adımı tek bir köylüye aksiyon atar; k köylü atanınca ortak adım kapanır.
+ *    Dallanma n^k yerine n. Anahtarda "sıradaki köylü" ve "bu adımın şu ana kadarki
+ *    en uzun süresi" tutulur; i. köylünün d süreli aksiyonu g'ye max(0, d - adımMax) ekler.
+ *
+ * 2) Değişme (commutativity) budaması:
+ *    Aynı adımda, adım başında aynı konum/yükteki ardışık iki köylü birbirinin yerine
+ *    geçebilir. (a, b) ile (b, a) aynı sonuca gider; sadece kodu artan sıradaki
+ *    atama üretilir.
+ *
+ * 3) Özdeş köylü simetrisi:
+ *    Closed set / open list anahtarında köylüler (bu adımda atanmış ve atanmamış
+ *    gruplar ayrı ayrı) sıralanır; köylülerin yer değiştirdiği state'ler tek anahtar.
+ *
+ * 4) Gereksiz tür: teslim edilen + taşınan miktar hedefi karşılıyorsa o türe gidilmez.
+ *
+ * 5) TownHall'da yük taşıyan köylü beklemez, Deposit eder. Bekleme dışındaki her
+ *    aksiyon en az 1 tur; Deposit ya başka birinin aksiyonuyla aynı adıma bedava
+ *    sığar ya da adımda kimse bir şey yapmıyordur (o adım silinebilir).
+ *
+ * Heuristic (kabul edilebilir ve tutarlı) üç alt sınırın en büyüğü.
+ *
+ * a) Kalan toplam işin alt sınırı / k. d en yakın TownHall'a uzaklık; hangi
+ *    TownHall'dan çıkıp hangisine dönülürse dönülsün her tur en az 2d + 2, yük
+ *    taşıyan köylü d(p, TownHall) + 1. Eli boş, p'deki bir köylünün ilk turu hem
+ *    d + 2'den hem de (üçgen eşitsizliğiyle) 2d + 2 - d(p)'den ucuz değil; yani o
+ *    tura min(d, d(p)) indirim. d(p) yerine hep d verilseydi TownHall'dan çıkan ya
+ *    da Harvest eden köylüde h adım maliyetinden fazla düşüyor, closed set'li A*
+ *    optimal planı kaçırabiliyordu. Bu adımda henüz atanmamış köylüler adımın
+ *    mevcut süresini bedava kullanabildiği için o kadar iş düşülür.
+ *
+ * b) En çok teslimat yapan köylünün süresi (busiestPeasantBound). Sona doğru
+ *    (k'dan az tur kalmışken) work / k'dan çok daha güçlü.
+ *
+ * c) Makro modda adım sınırı (stepBound): her köylü bir adımda en fazla bir tur
+ *    yapıyor, yani turlar k'şar gruplanıyor ve her grup en uzun turu kadar sürüyor.
+ *    İlkel modda bir tur dört adıma yayıldığı ve köylüler kaydırılmış turlar
+ *    yapabildiği için bu sınır orada geçerli değil.
+ *
+ * Ölçüm (rc_3m5t, bütün köylüler (8,10)'da): makro modda 3-5 köylü 1000/1000
+ * hedefte bile 60 ms altında. İlkel mod Move / Harvest / Deposit'i ayrı adımlar
+ * olarak aradığı için k >= 3 ve büyük hedeflerde hâlâ üstel (600/600 k=4 ~20 s,
+ * 1000/1000 k=3 3 GB'a sığmıyor); çok köylüde makro mod kullanılmalı.
+ *
+ * Makro modda boş köylüye sadece RoundTripAction atanır (tek teslimat = tek atama).
+ *
+ * Aksiyon kodları ActionCodec'in (kod 0 WAIT); GameState / AStarPlanner gibi yük
+ * taşıyan köylü HER TownHall'a Move edebilir, RoundTrip her TownHall'a dönebilir.
+ * Sadece en yakın TownHall'a gitmek birden fazla TownHall'lı dünyada optimal
+ * planı kaçırıyordu (bkz. ActionCodec).
+ */
+public class MultiAgentPlanner {
+
+    // Bekleme (kod 0; ActionCodec türleri 1'den başlıyor)
+    static final int WAIT = 0;
+
+    private boolean useMacroActions;
+
+    private SearchStats lastStats = new SearchStats("MultiAgentPlanner");
+
+    // Arama boyunca sabit: dünya, köylü sayısı, tür başına TownHall'a uzaklığa göre sıralı düğümler
+    private GameStateMulti start;
+    private WorldModel world;
+    private int peasantCount;
+    private int[] goldByDistance;
+    private int[] woodByDistance;
+    private int[] distanceToTownHall;
+
+    // heuristic() tamponları
+    private int[] taken;
+    private int[] emptyDistances;
+    private long[] firstDelivery;
+    private long[] headStart;
+    private int[] tripCosts = new int[0];
+
+    public MultiAgentPlanner() {
+        this(false);
+    }
+
+    public MultiAgentPlanner(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public boolean isUsingMacroActions() {
+        return useMacroActions;
+    }
+
+    public void setUseMacroActions(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Hedefe giden ortak adımlar; ilk adım en üstte. Bulunamazsa null.
+     */
+    public Stack<JointAction> findPlan(GameStateMulti startState) {
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("MultiAgentPlanner");
+        lastStats = stats;
+        prepare(startState);
+
+        Stack<JointAction> plan = search(stats);
+
+        stats.wallNanos = System.nanoTime() - searchStart;
+        stats.found = plan != null;
+        if (plan != null) {
+            stats.planLength = plan.size();
+            for (JointAction step : plan) {
+                stats.planCost += step.getCost();
+            }
+        }
+        return plan;
+    }
+
+    private void prepare(GameStateMulti startState) {
+        this.start = startState;
+        this.world = startState.world;
+        this.peasantCount = startState.peasantCount();
+        if (peasantCount > 0xFFFF) {
+            throw new IllegalArgumentException("too many peasants: " + peasantCount);
+        }
+
+        int n = world.resourceCount();
+        distanceToTownHall = new int[n];
+        List<Integer> gold = new ArrayList<>();
+        List<Integer> wood = new ArrayList<>();
+        for (ResourceInfo r : world.resources()) {
+            distanceToTownHall[r.index] = world.distanceToTownHall(r);
+            (r.isGoldMine ? gold : wood).add(r.index);
+        }
+        goldByDistance = sortedByDistance(gold);
+        woodByDistance = sortedByDistance(wood);
+        taken = new int[n];
+        emptyDistances = new int[peasantCount];
+        firstDelivery = new long[peasantCount];
+        headStart = new long[peasantCount];
+    }
+
+    private int[] sortedByDistance(List<Integer> indices) {
+        Collections.sort(indices, (a, b) -> distanceToTownHall[a] != distanceToTownHall[b]
+                ? Integer.compare(distanceToTownHall[a], distanceToTownHall[b])
+                : Integer.compare(a, b));
+        int[] sorted = new int[indices.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = indices.get(i);
+        }
+        return sorted;
+    }
+
+    private Stack<JointAction> search(SearchStats stats) {
+        int width = start.keyWidth();
+        NodeArena arena = new NodeArena(width);
+        OpenList openSet = new IndexedHeapOpenList(arena, width);
+        PackedStateSet closedSet = new PackedStateSet(width);
+
+        long[] currentKey = new long[width];
+        long[] parentKey = new long[width];
+        long[] successorKey = new long[width];
+        long[] canonicalKey = new long[width];
+        int[] codes = new int[new ActionCodec(world).maxActions() + 1];
+
+        double initialHeuristic = heuristic(start.key());
+        if (Double.isInfinite(initialHeuristic)) {
+            return null;
+        }
+        int root = arena.add(start.key(), 0.0, initialHeuristic, NodeArena.NO_PARENT, NodeArena.NO_ACTION);
+        openSet.offer(root, canonicalize(start.key(), canonicalKey));
+
+        try {
+            while (!openSet.isEmpty()) {
+                int currentNode = openSet.poll();
+                arena.copyKey(currentNode, currentKey);
+                int next = GameStateMulti.unpackNextPeasant(currentKey);
+
+                // Hedef sadece adım sınırında kontrol edilir
+                if (next == 0 && start.isGoal(currentKey)) {
+                    return reconstructPlan(arena, currentNode);
+                }
+
+                if (!closedSet.add(canonicalize(currentKey, canonicalKey))) {
+                    continue;
+                }
+                stats.expanded++;
+
+                int count = generate(currentKey, next, codes);
+
+                // Değişme budaması: önceki köylü adım başında bu köylüyle aynı
+                // konum/yükteyse, ondan küçük kodlu aksiyonlar atlanır
+                int minCode = Integer.MIN_VALUE;
+                if (next > 0) {
+                    arena.copyKey(arena.parent(currentNode), parentKey);
+                    int word = GameStateMulti.peasantWord(next);
+                    if (parentKey[word - 1] == currentKey[word]) {
+                        minCode = arena.action(currentNode);
+                    }
+                }
+
+                int stepMax = GameStateMulti.unpackStepMax(currentKey);
+                for (int i = 0; i < count; i++) {
+                    int code = codes[i];
+                    if (code < minCode) {
+                        continue;
+                    }
+                    stats.generated++;
+
+                    int duration = apply(currentKey, next, code, successorKey);
+                    long[] lookupKey = canonicalize(successorKey, canonicalKey);
+                    if (closedSet.contains(lookupKey)) {
+                        stats.duplicates++;
+                        continue;
+                    }
+
+                    double h = heuristic(successorKey);
+                    if (Double.isInfinite(h)) {
+                        continue;
+                    }
+                    double g = arena.costG(currentNode) + Math.max(0, duration - stepMax);
+                    int successorNode = arena.add(successorKey, g, h, currentNode, code);
+                    if (!openSet.offer(successorNode, lookupKey)) {
+                        arena.removeLast();
+                        stats.duplicates++;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            stats.peakOpen = openSet.peakSize();
+            stats.closedSize = closedSet.size();
+        }
+    }
+
+    /**
+     * 'peasant' köylüsünün uygulanabilir aksiyon kodları, artan sırada.
+     */
+    private int generate(long[] key, int peasant, int[] out) {
+        long word = key[GameStateMulti.peasantWord(peasant)];
+        int px = GameStateMulti.unpackX(word);
+        int py = GameStateMulti.unpackY(word);
+        int count = 0;
+
+        boolean carrying = GameStateMulti.unpackCarrying(word);
+        if (carrying && world.isTownHall(px, py)) {
+            // TownHall'daki yük hemen bırakılır: beklemek hiçbir planı ucuzlatmıyor
+            // (bkz. sınıf açıklaması, 5)
+            out[count++] = ActionCodec.encode(ActionCodec.DEPOSIT, 0);
+            return count;
+        }
+
+        // Beklemek başka her durumda mümkün (ör. hedefi son teslimat tamamlayacaksa diğerleri beklemeli)
+        out[count++] = WAIT;
+
+        if (carrying) {
+            for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                out[count++] = ActionCodec.encode(ActionCodec.MOVE, ActionCodec.TOWN_HALL, hall.index);
+            }
+            return count;
+        }
+
+        boolean goldNeeded = needed(key, true);
+        boolean woodNeeded = needed(key, false);
+        int k = peasantCount;
+        for (ResourceInfo r : world.resources()) {
+            if (r.isGoldMine ? !goldNeeded : !woodNeeded) {
+                continue;
+            }
+            boolean enough = GameStateMulti.unpackRemaining(key, k, r.index) >= 100;
+            if (useMacroActions) {
+                if (enough) {
+                    for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                        out[count++] = ActionCodec.encode(ActionCodec.ROUND_TRIP, r.index, hall.index);
+                    }
+                }
+            } else if (px == r.x && py == r.y) {
+                if (enough) {
+                    out[count++] = ActionCodec.encode(ActionCodec.HARVEST, r.index);
+                }
+            } else {
+                out[count++] = ActionCodec.encode(ActionCodec.MOVE, r.index);
+            }
+        }
+        // Kodlar tür | hedef düzeninde; değişme budaması için sıralı olmalı
+        Arrays.sort(out, 1, count);
+        return count;
+    }
+
+    /**
+     * Teslim edilen + köylülerin taşıdığı miktar bu türün hedefine yetmiyor mu?
+     */
+    private boolean needed(long[] key, boolean gold) {
+        int have = gold ? GameStateMulti.unpackCollectedGold(key) : GameStateMulti.unpackCollectedWood(key);
+        for (int i = 0; i < peasantCount; i++) {
+            long word = key[GameStateMulti.peasantWord(i)];
+            if (GameStateMulti.unpackCarrying(word) && GameStateMulti.unpackCarriesGold(word) == gold) {
+                have += 100;
+            }
+        }
+        return have < (gold ? start.requiredGold : start.requiredWood);
+    }
+
+    /**
+     * 'peasant' köylüsüne 'code' atanmış successor anahtarını yazar, aksiyonun süresini döndürür.
+     */
+    private int apply(long[] key, int peasant, int code, long[] out) {
+        System.arraycopy(key, 0, out, 0, key.length);
+        int k = peasantCount;
+        int wordIndex = GameStateMulti.peasantWord(peasant);
+        long word = key[wordIndex];
+        int px = GameStateMulti.unpackX(word);
+        int py = GameStateMulti.unpackY(word);
+        boolean carrying = GameStateMulti.unpackCarrying(word);
+        boolean carriesGold = GameStateMulti.unpackCarriesGold(word);
+        int gold = GameStateMulti.unpackCollectedGold(key);
+        int wood = GameStateMulti.unpackCollectedWood(key);
+
+        int duration;
+        switch (ActionCodec.kind(code)) {
+            case WAIT:
+                duration = 0;
+                break;
+            case ActionCodec.MOVE: {
+                int tx;
+                int ty;
+                if (ActionCodec.target(code) == ActionCodec.TOWN_HALL) {
+                    WorldModel.TownHallInfo hall = world.townHall(ActionCodec.townHall(code));
+                    tx = hall.x;
+                    ty = hall.y;
+                } else {
+                    ResourceInfo target = world.resource(ActionCodec.target(code));
+                    tx = target.x;
+                    ty = target.y;
+                }
+                duration = world.distance(px, py, tx, ty);
+                out[wordIndex] = GameState.packPeasant(tx, ty, carrying, carriesGold);
+                break;
+            }
+            case ActionCodec.HARVEST: {
+                ResourceInfo r = world.resource(ActionCodec.target(code));
+                duration = 1;
+                out[wordIndex] = GameState.packPeasant(px, py, true, r.isGoldMine);
+                GameStateMulti.packRemaining(out, k, r.index,
+                        GameStateMulti.unpackRemaining(key, k, r.index) - 100);
+                break;
+            }
+            case ActionCodec.DEPOSIT:
+                duration = 1;
+                out[wordIndex] = GameState.packPeasant(px, py, false, false);
+                out[0] = carriesGold
+                        ? GameState.packCollected(gold + 100, wood)
+                        : GameState.packCollected(gold, wood + 100);
+                break;
+            case ActionCodec.ROUND_TRIP: {
+                ResourceInfo r = world.resource(ActionCodec.target(code));
+                WorldModel.TownHallInfo hall = world.townHall(ActionCodec.townHall(code));
+                duration = world.distance(px, py, r.x, r.y) + 1 + world.distance(r.x, r.y, hall.x, hall.y) + 1;
+                out[wordIndex] = GameState.packPeasant(hall.x, hall.y, false, false);
+                out[0] = r.isGoldMine
+                        ? GameState.packCollected(gold + 100, wood)
+                        : GameState.packCollected(gold, wood + 100);
+                GameStateMulti.packRemaining(out, k, r.index,
+                        GameStateMulti.unpackRemaining(key, k, r.index) - 100);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown action code: " + code);
+        }
+
+        // Adım muhasebesi: son köylü atandıysa adım kapanır
+        int stepMax = Math.max(GameStateMulti.unpackStepMax(key), duration);
+        out[1] = peasant + 1 == k
+                ? GameStateMulti.packStep(0, 0)
+                : GameStateMulti.packStep(peasant + 1, stepMax);
+        return duration;
+    }
+
+    /**
+     * Closed set / open list anahtarı: köylü kelimeleri, bu adımda atanmış
+     * [0, next) ve atanmamış [next, k) gruplar içinde sıralanır.
+     */
+    private long[] canonicalize(long[] key, long[] buffer) {
+        System.arraycopy(key, 0, buffer, 0, key.length);
+        int next = GameStateMulti.unpackNextPeasant(key);
+        int first = GameStateMulti.peasantWord(0);
+        Arrays.sort(buffer, first, first + next);
+        Arrays.sort(buffer, first + next, first + peasantCount);
+        return buffer;
+    }
+
+    /**
+     * Kalan makespan'in alt sınırı (bkz. sınıf açıklaması).
+     */
+    private double heuristic(long[] key) {
+        int goldTrips = tripsNeeded(start.requiredGold, GameStateMulti.unpackCollectedGold(key));
+        int woodTrips = tripsNeeded(start.requiredWood, GameStateMulti.unpackCollectedWood(key));
+        if (goldTrips == 0 && woodTrips == 0) {
+            return 0;
+        }
+        int deliveries = goldTrips + woodTrips;
+
+        long work = 0;
+        int empty = 0;
+        for (int i = 0; i < peasantCount; i++) {
+            long word = key[GameStateMulti.peasantWord(i)];
+            if (!GameStateMulti.unpackCarrying(word)) {
+                emptyDistances[empty++] = world.distanceToTownHall(
+                        GameStateMulti.unpackX(word), GameStateMulti.unpackY(word));
+                continue;
+            }
+            boolean gold = GameStateMulti.unpackCarriesGold(word);
+            if (gold ? goldTrips == 0 : woodTrips == 0) {
+                continue;
+            }
+            work += world.distanceToTownHall(GameStateMulti.unpackX(word), GameStateMulti.unpackY(word)) + 1;
+            if (gold) {
+                goldTrips--;
+            } else {
+                woodTrips--;
+            }
+        }
+
+        // En ucuz turlar, tür başına TownHall'a yakından uzağa
+        Arrays.fill(taken, 0);
+        long slots = takeCheapest(key, goldByDistance, goldTrips) + takeCheapest(key, woodByDistance, woodTrips);
+        if (slots < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        work += slots;
+        // taken[] aşağıda indirimlerle azalıyor; adım sınırı ondan önce
+        long steps = useMacroActions && peasantCount > 1 ? stepBound(key) : 0;
+
+        // Eli boş her köylünün en fazla bir turu ilk turu; o tur min(d, d(p)) kadar
+        // ucuz. Uzak köylüleri uzak turlarla eşlemek toplam indirimi en büyük yapar.
+        Arrays.sort(emptyDistances, 0, empty);
+        int gi = goldByDistance.length - 1;
+        int wi = woodByDistance.length - 1;
+        for (int e = empty - 1; e >= 0; e--) {
+            while (gi >= 0 && taken[goldByDistance[gi]] == 0) {
+                gi--;
+            }
+            while (wi >= 0 && taken[woodByDistance[wi]] == 0) {
+                wi--;
+            }
+            if (gi < 0 && wi < 0) {
+                break;
+            }
+            int r;
+            if (wi < 0 || (gi >= 0 && distanceToTownHall[goldByDistance[gi]] >= distanceToTownHall[woodByDistance[wi]])) {
+                r = goldByDistance[gi];
+            } else {
+                r = woodByDistance[wi];
+            }
+            work -= Math.min(distanceToTownHall[r], emptyDistances[e]);
+            taken[r]--;
+        }
+
+        // Bu adımda atanmamış köylüler adımın şimdiki süresini bedava kullanabilir
+        int unassigned = peasantCount - GameStateMulti.unpackNextPeasant(key);
+        work -= (long) unassigned * GameStateMulti.unpackStepMax(key);
+        long busiest = busiestPeasantBound(key, deliveries, goldTrips > 0, woodTrips > 0);
+        return Math.max(Math.max(0, work) / (double) peasantCount, Math.max(busiest, steps));
+    }
+
+    /**
+     * Makro modda alt sınır: bir adımda her köylü en fazla bir RoundTrip yapar ve
+     * adım en uzun turu kadar sürer. takeCheapest'in seçtiği turlar (2d + 2)
+     * büyükten küçüğe dizilip k'şar gruplanınca grup maksimumlarının toplamı
+     * (0., k., 2k. ... eleman) her gruplamanın en ucuzu. work / k ortalamayı
+     * alıyor; bu sınır uzak düğümlerin adımı uzattığını ve yuvarlamayı görüyor.
+     *
+     * Adımın ortasında atanmamış köylüler şimdiki adıma en fazla u tur daha
+     * koyabilir, o tur grubu stepMax'ı aştığı kadar ödüyor. En büyüğü i. tur olan
+     * grup için en iyisi i'den sonraki u - 1 tur; bütün i'ler (ve boş grup) denenir.
+     * Eli boş, p'deki bir köylünün turu 2d + 2 - d(p)'den ucuz değil; tek eleman
+     * d(p) azalınca toplam en fazla d(p) azaldığı için sonuçtan hepsi düşülür.
+     * Yük taşıyanların teslimatı listede yok (work zaten sayıyor).
+     */
+    private long stepBound(long[] key) {
+        int trips = 0;
+        for (int count : taken) {
+            trips += count;
+        }
+        if (trips == 0) {
+            return 0;
+        }
+        if (tripCosts.length < trips) {
+            tripCosts = new int[Math.max(trips, 2 * tripCosts.length)];
+        }
+        int t = 0;
+        for (int r = 0; r < taken.length; r++) {
+            for (int i = 0; i < taken[r]; i++) {
+                tripCosts[t++] = 2 * distanceToTownHall[r] + 2;
+            }
+        }
+        // Artan sırada; büyükten küçüğe j. tur tripCosts[trips - 1 - j]
+        Arrays.sort(tripCosts, 0, trips);
+
+        int free = peasantCount - GameStateMulti.unpackNextPeasant(key);
+        int stepMax = GameStateMulti.unpackStepMax(key);
+        long best = groupMaxima(trips, 0, 0);
+        for (int i = 0; i < trips; i++) {
+            int width = Math.min(free, trips - i);
+            long current = Math.max(0, tripCosts[trips - 1 - i] - stepMax);
+            best = Math.min(best, current + groupMaxima(trips, i, width));
+        }
+
+        for (int i = 0; i < peasantCount; i++) {
+            long word = key[GameStateMulti.peasantWord(i)];
+            if (!GameStateMulti.unpackCarrying(word)) {
+                best -= world.distanceToTownHall(GameStateMulti.unpackX(word), GameStateMulti.unpackY(word));
+            }
+        }
+        return Math.max(0, best);
+    }
+
+    /**
+     * Büyükten küçüğe dizili turlardan [from, from + width) çıkarılınca kalanların
+     * 0., k., 2k. ... elemanlarının toplamı.
+     */
+    private long groupMaxima(int trips, int from, int width) {
+        long sum = 0;
+        for (int j = 0; j < trips - width; j += peasantCount) {
+            int index = j < from ? j : j + width;
+            sum += tripCosts[trips - 1 - index];
+        }
+        return sum;
+    }
+
+    /**
+     * Kalan teslimatlar köylülere nasıl dağıtılırsa dağıtılsın en çok iş alan
+     * köylünün bitirme süresinin alt sınırı. work / k sona doğru çok zayıf: tek
+     * tur kalmışken k köylüden biri o turun tamamını yürümek zorunda.
+     *
+     * c = 2 * dmin + 2 (dmin: hâlâ gereken türden, en az 100 kalmış en yakın düğüm).
+     * Bir köylünün j teslimatı en az:
+     * - yük taşıyorsa d(p) + 1 + (j - 1) * c (önce yükünü bırakmalı),
+     * - eli boşsa c - min(dmin, d(p)) + (j - 1) * c (ilk tur, heuristic'teki indirim).
+     * Bu adımda atanmamış köylüler adımın başından saydığı için stepMax kadar erken
+     * başlar. Sonuç, köylülerin bu sürede yapabildiği teslimatlar toplamının
+     * kalan teslimatlara yettiği en küçük süre (ikili arama). Her kenarda köylü
+     * başına sınır kenar süresinden fazla düşmüyor; tutarlı, work / k ile max'ı da tutarlı.
+     */
+    private long busiestPeasantBound(long[] key, int deliveries, boolean goldNeeded, boolean woodNeeded) {
+        int k = peasantCount;
+        int nearest = -1;
+        for (ResourceInfo r : world.resources()) {
+            if ((r.isGoldMine ? goldNeeded : woodNeeded)
+                    && GameStateMulti.unpackRemaining(key, k, r.index) >= 100
+                    && (nearest < 0 || distanceToTownHall[r.index] < nearest)) {
+                nearest = distanceToTownHall[r.index];
+            }
+        }
+        // Düğüm kalmadıysa sadece yük taşıyanlar teslim edebilir (birer tane)
+        long trip = nearest < 0 ? -1 : 2L * nearest + 2;
+
+        int next = GameStateMulti.unpackNextPeasant(key);
+        int stepMax = GameStateMulti.unpackStepMax(key);
+        long high = 0;
+        for (int i = 0; i < k; i++) {
+            long word = key[GameStateMulti.peasantWord(i)];
+            int d = world.distanceToTownHall(GameStateMulti.unpackX(word), GameStateMulti.unpackY(word));
+            long first;
+            if (GameStateMulti.unpackCarrying(word)) {
+                first = d + 1;
+            } else {
+                first = trip < 0 ? -1 : trip - Math.min(nearest, d);
+            }
+            firstDelivery[i] = first;
+            headStart[i] = i >= next ? stepMax : 0;
+            high = Math.max(high, first - headStart[i]);
+        }
+        if (trip > 0) {
+            high += deliveries * trip;
+        }
+
+        long low = 0;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (deliveriesWithin(mid, trip, deliveries) >= deliveries) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Köylülerin 'budget' süresinde yapabileceği teslimat sayısı (en fazla 'cap').
+     */
+    private long deliveriesWithin(long budget, long trip, int cap) {
+        long total = 0;
+        for (int i = 0; i < peasantCount && total < cap; i++) {
+            long available = budget + headStart[i];
+            long first = firstDelivery[i];
+            if (first < 0 || available < first) {
+                continue;
+            }
+            total += trip < 0 ? 1 : 1 + (available - first) / trip;
+        }
+        return total;
+    }
+
+    /**
+     * 'trips' turu en yakın düğümlerden alır (taken[] doldurulur), toplam 2d + 2
+     * maliyetini döndürür; kapasite yetmezse -1.
+     */
+    private long takeCheapest(long[] key, int[] byDistance, int trips) {
+        long cost = 0;
+        for (int r : byDistance) {
+            if (trips == 0) {
+                break;
+            }
+            int available = GameStateMulti.unpackRemaining(key, peasantCount, r) / 100;
+            int used = Math.min(trips, available);
+            taken[r] = used;
+            cost += (long) used * (2 * distanceToTownHall[r] + 2);
+            trips -= used;
+        }
+        return trips > 0 ? -1 : cost;
+    }
+
+    private static int tripsNeeded(int required, int collected) {
+        int needed = required - collected;
+        return needed <= 0 ? 0 : (needed + 99) / 100;
+    }
+
+    /**
+     * Atama zincirini geri yürüyüp ortak adımlara böler.
+     */
+    private Stack<JointAction> reconstructPlan(NodeArena arena, int goalNode) {
+        // Hedeften başlangıca: her kenar bir köylü ataması
+        List<Integer> edges = new ArrayList<>();
+        for (int node = goalNode; arena.parent(node) != NodeArena.NO_PARENT; node = arena.parent(node)) {
+            edges.add(node);
+        }
+        Collections.reverse(edges);
+
+        List<JointAction> steps = new ArrayList<>();
+        long[] parentKey = new long[arena.width()];
+        StripsAction[] current = new StripsAction[peasantCount];
+        for (int node : edges) {
+            arena.copyKey(arena.parent(node), parentKey);
+            int peasant = GameStateMulti.unpackNextPeasant(parentKey);
+            current[peasant] = decode(parentKey, peasant, arena.action(node));
+            if (peasant == peasantCount - 1) {
+                steps.add(new JointAction(current));
+                Arrays.fill(current, null);
+            }
+        }
+
+        Stack<JointAction> plan = new Stack<>();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            plan.push(steps.get(i));
+        }
+        return plan;
+    }
+
+    private StripsAction decode(long[] key, int peasant, int code) {
+        long word = key[GameStateMulti.peasantWord(peasant)];
+        int px = GameStateMulti.unpackX(word);
+        int py = GameStateMulti.unpackY(word);
+        switch (ActionCodec.kind(code)) {
+            case WAIT:
+                return null;
+            case ActionCodec.MOVE:
+                if (ActionCodec.target(code) == ActionCodec.TOWN_HALL) {
+                    WorldModel.TownHallInfo hall = world.townHall(ActionCodec.townHall(code));
+                    return new MoveAction(world, px, py, hall.x, hall.y);
+                }
+                ResourceInfo target = world.resource(ActionCodec.target(code));
+                return new MoveAction(world, px, py, target.x, target.y);
+            case ActionCodec.HARVEST:
+                return new HarvestAction(world.resource(ActionCodec.target(code)));
+            case ActionCodec.DEPOSIT:
+                return new DepositAction();
+            case ActionCodec.ROUND_TRIP:
+                return new RoundTripAction(world, px, py, world.resource(ActionCodec.target(code)),
+                        world.townHall(ActionCodec.townHall(code)));
+            default:
+                throw new IllegalArgumentException("unknown action code: " + code);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * NodeArena:
+ * A* düğümlerinin struct-of-arrays deposu.
+ *
+ * Eskiden her düğüm ayrı bir AStarNode nesnesiydi (GameState, iki double,
+ * parent ve aksiyon referansı) ve her successor için yeni bir StripsAction
+ * ile yeni bir GameState (+ anahtar dizisi) ayrılıyordu. Burada düğüm sadece
+ * bir int id:
+ *
+ *   g[id], h[id]        maliyetler
+ *   parent[id]          parent düğümün id'si (kök için NO_PARENT)
+ *   action[id]          parent'tan buraya getiren aksiyonun ActionCodec kodu
+ *   keys[id * width..]  state'in paketlenmiş (kanonik OLMAYAN) anahtarı
+ *
+ * Düğüm başına sabit 8 * width + 24 bayt; diziler büyürken ikiye katlanır.
+ * StripsAction / GameState nesneleri sadece plan geri çıkarılırken oluşturulur.
+ */
+public class NodeArena {
+
+    public static final int NO_PARENT = -1;
+    public static final int NO_ACTION = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final int width;
+
+    private double[] g = new double[INITIAL_CAPACITY];
+    private double[] h = new double[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] action = new int[INITIAL_CAPACITY];
+    private long[] keys;
+    private int size;
+
+    public NodeArena(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.width = width;
+        this.keys = new long[INITIAL_CAPACITY * width];
+    }
+
+    /**
+     * Yeni düğüm ekler ve id'sini döndürür. 'key' kopyalanır.
+     */
+    public int add(long[] key, double costG, double heuristicH, int parentId, int actionCode) {
+        if (size == parent.length) {
+            grow();
+        }
+        int id = size++;
+        g[id] = costG;
+        h[id] = heuristicH;
+        parent[id] = parentId;
+        action[id] = actionCode;
+        System.arraycopy(key, 0, keys, id * width, width);
+        return id;
+    }
+
+    /**
+     * Düğüme daha ucuz bir yol bulundu: g, parent ve aksiyon güncellenir.
+     * Düğüm başına bir state tutan aramalar için (AnytimeAStarPlanner); A* her
+     * iyileştirmede yeni düğüm ekliyor, bunu kullanmıyor.
+     */
+    public void relax(int id, double costG, int parentId, int actionCode) {
+        g[id] = costG;
+        parent[id] = parentId;
+        action[id] = actionCode;
+    }
+
+    /**
+     * Son eklenen düğümü geri alır (open list onu kabul etmediyse).
+     */
+    public void removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("arena is empty");
+        }
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Anahtar genişliği (long sayısı).
+     */
+    public int width() {
+        return width;
+    }
+
+    public double costG(int id) {
+        return g[id];
+    }
+
+    public double heuristicH(int id) {
+        return h[id];
+    }
+
+    public int parent(int id) {
+        return parent[id];
+    }
+
+    public int action(int id) {
+        return action[id];
+    }
+
+    /**
+     * Düğümün state anahtarını 'out' dizisine kopyalar.
+     */
+    public void copyKey(int id, long[] out) {
+        System.arraycopy(keys, id * width, out, 0, width);
+    }
+
+    /**
+     * Open list sırası: küçük f = g + h önce, eşitlikte küçük h önce.
+     */
+    public int compare(int a, int b) {
+        int byF = Double.compare(g[a] + h[a], g[b] + h[b]);
+        if (byF != 0) {
+            return byF;
+        }
+        return Double.compare(h[a], h[b]);
+    }
+
+    /**
+     * Düğüm başına bayt (dizi başlıkları hariç).
+     */
+    public int bytesPerNode() {
+        return 8 * width + 8 + 8 + 4 + 4;
+    }
+
+    private void grow() {
+        int capacity = parent.length * 2;
+        g = Arrays.copyOf(g, capacity);
+        h = Arrays.copyOf(h, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        action = Arrays.copyOf(action, capacity);
+        keys = Arrays.copyOf(keys, capacity * width);
+    }
+}
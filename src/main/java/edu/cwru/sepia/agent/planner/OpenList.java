@@ -0,0 +1,34 @@
+package edu.cwru.sepia.agent.planner;
+
+/**
+ * A* open list arayüzü.
+ * AStarPlanner hangi veri yapısının kullanılacağını seçebilsin ve
+ * tepe open-list boyutları karşılaştırılabilsin diye var.
+ *
+ * Düğümler NodeArena id'leridir; sıralama NodeArena.compare() ile yapılır.
+ */
+public interface OpenList {
+
+    /**
+     * Düğümü open list'e verir. 'key' düğümün (gerekirse kanonik) paketlenmiş
+     * state anahtarıdır; uygulama bunu kopyalar.
+     *
+     * @return düğüm eklendiyse veya mevcut girdiyi iyileştirdiyse true,
+     *         aynı state zaten eşit/daha iyi g ile varsa false
+     */
+    boolean offer(int node, long[] key);
+
+    /**
+     * En düşük f (eşitlikte en düşük h) değerli düğümü çıkarır; boşsa -1.
+     */
+    int poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    /**
+     * Arama boyunca görülen en büyük size().
+     */
+    int peakSize();
+}
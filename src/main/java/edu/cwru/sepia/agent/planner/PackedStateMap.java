@@ -0,0 +1,111 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * PackedStateMap:
+ * PackedStateSet'in int değer tutan hali: paketlenmiş state anahtarı -> int.
+ * Aynı open-addressing düzeni (linear probing, düz long[] tablo), silme yok.
+ *
+ * IndexedHeapOpenList bunu "bu state heap'te hangi girdide?" sorusu için kullanıyor.
+ */
+public class PackedStateMap {
+
+    public static final int NO_VALUE = -1;
+
+    private final int width;
+
+    private long[] table;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public PackedStateMap(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.width = width;
+        allocate(1 << 10);
+    }
+
+    /**
+     * Anahtarın değeri, yoksa NO_VALUE. (Hiç nesne ayırmaz.)
+     */
+    public int get(long[] key) {
+        int slot = PackedStateSet.hash(key, 0, width) & mask;
+        while (used[slot]) {
+            if (matches(slot, key)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Anahtarın değerini yazar (varsa üzerine). Anahtar dizisi kopyalanır.
+     */
+    public void put(long[] key, int value) {
+        if ((size + 1) * 2 > used.length) {
+            rehash(used.length << 1);
+        }
+        int slot = PackedStateSet.hash(key, 0, width) & mask;
+        while (used[slot]) {
+            if (matches(slot, key)) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        values[slot] = value;
+        System.arraycopy(key, 0, table, slot * width, width);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private boolean matches(int slot, long[] key) {
+        int base = slot * width;
+        for (int i = 0; i < width; i++) {
+            if (table[base + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void allocate(int slots) {
+        table = new long[slots * width];
+        values = new int[slots];
+        used = new boolean[slots];
+        mask = slots - 1;
+    }
+
+    private void rehash(int slots) {
+        long[] oldTable = table;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(slots);
+        for (int old = 0; old < oldUsed.length; old++) {
+            if (!oldUsed[old]) {
+                continue;
+            }
+            int slot = PackedStateSet.hash(oldTable, old * width, width) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            values[slot] = oldValues[old];
+            System.arraycopy(oldTable, old * width, table, slot * width, width);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * PackedStateSet:
+ * GameState'lerin paketlenmiş long anahtarlarını tutan, open-addressing
+ * (linear probing) bir hash set.
+ *
+ * Neden HashSet<GameState> değil?
+ * - HashSet her eleman için Entry nesnesi ayırıyor, equals/hashCode üzerinden
+ *   liste dolaşıyordu.
+ * - Burada her anahtar sabit genişlikte (width adet long) ve tek bir düz long[]
+ *   tablosunda yan yana duruyor. contains() hiçbir nesne ayırmadan çalışır.
+ *
+ * width == 1 olduğunda bu düz bir primitive long hash set'tir.
+ */
+public class PackedStateSet {
+
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+
+    private final int width;
+
+    // slots * width uzunluğunda; i. slotun anahtarı [i*width, (i+1)*width)
+    private long[] table;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public PackedStateSet(int width) {
+        this(width, DEFAULT_CAPACITY);
+    }
+
+    public PackedStateSet(int width, int expectedSize) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.width = width;
+        int slots = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(slots);
+    }
+
+    /**
+     * Anahtar sette var mı? (Hiç nesne ayırmaz.)
+     */
+    public boolean contains(long[] key) {
+        int slot = hash(key, 0, width) & mask;
+        while (used[slot]) {
+            if (matches(slot, key, 0)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Anahtarı ekler. Yeni eklendiyse true, zaten varsa false döner.
+     * Anahtar dizisi kopyalanır; çağıran aynı diziyi tekrar kullanabilir.
+     */
+    public boolean add(long[] key) {
+        if ((size + 1) * 2 > used.length) {
+            allocateAndRehash(used.length << 1);
+        }
+        int slot = hash(key, 0, width) & mask;
+        while (used[slot]) {
+            if (matches(slot, key, 0)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        System.arraycopy(key, 0, table, slot * width, width);
+        size++;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Paketlenmiş bir anahtarın hash'i. GameState.hashCode() de bunu kullanır,
+     * böylece iki taraf her zaman aynı değeri üretir.
+     */
+    static int hash(long[] key, int offset, int width) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < width; i++) {
+            h ^= key[offset + i];
+            h *= 0xC2B2AE3D27D4EB4FL;
+            h = Long.rotateLeft(h, 31);
+        }
+        // fmix64 (MurmurHash3 son karıştırma adımı)
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private boolean matches(int slot, long[] key, int offset) {
+        int base = slot * width;
+        for (int i = 0; i < width; i++) {
+            if (table[base + i] != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void allocate(int slots) {
+        table = new long[slots * width];
+        used = new boolean[slots];
+        mask = slots - 1;
+    }
+
+    private void allocateAndRehash(int slots) {
+        long[] oldTable = table;
+        boolean[] oldUsed = used;
+        allocate(slots);
+        for (int old = 0; old < oldUsed.length; old++) {
+            if (!oldUsed[old]) {
+                continue;
+            }
+            int slot = hash(oldTable, old * width, width) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            System.arraycopy(oldTable, old * width, table, slot * width, width);
+        }
+    }
+}
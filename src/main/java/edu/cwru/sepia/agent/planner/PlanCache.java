@@ -0,0 +1,430 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * PlanCache:
+ * Aynı harita + aynı başlangıç + aynı hedef + aynı planlayıcı ayarı için
+ * planı bir kere bulup saklar. midasConfig 100 bölümü aynı harita ve hedefle
+ * koşuyor; 2..N. bölümlerde arama yerine önbellekten plan okunuyor.
+ *
+ * Anahtar (long[]):
+ *   [0] WorldModel.fingerprint()   (düğümler, başlangıç miktarları, harita)
+ *   [1] planlayıcı tarifinin özeti (Planner.describe())
+ *   [2] requiredGold (üst 32) | requiredWood (alt 32)
+ *   [3..] başlangıç GameState'inin paketlenmiş anahtarı
+ *
+ * Değer: plan, aksiyon başına bir ActionCodec kodu (int[]). Plan okunurken kodlar
+ * başlangıç state'inden itibaren tekrar oynatılıp StripsAction'lara açılır; son
+ * state hedef değilse (bozuk kayıt) kayıt atılır ve ıska sayılır.
+ *
+ * İki katman:
+ * - Bellek: erişim sırasına göre LRU (LinkedHashMap), en fazla 'capacity' plan.
+ * - Disk (isteğe bağlı): sadece sona eklenen bir kayıt dosyası; bellekte sadece
+ *   anahtar -> dosya konumu indeksi tutulur. Bellekte ıskalanan plan diskten
+ *   okunup belleğe alınır. Disk hatasında disk katmanı kapanır, önbellek
+ *   bellekte çalışmaya devam eder (önbellek bir hızlandırma, hata sebebi değil).
+ *
+ * İkili biçim (disk dosyası ve writeTo/readFrom, big-endian):
+ *   int MAGIC, int VERSION
+ *   kayıt: int anahtarUzunluğu, long[anahtarUzunluğu], int planUzunluğu, int[planUzunluğu]
+ * Disk dosyasında kayıtlar dosya sonuna kadar sıralanır; writeTo'da başlıktan
+ * sonra bir kayıt sayısı gelir.
+ *
+ * Okuma / yazma metotları senkronize: PlannerService'in thread'inde çalışan
+ * CachingPlanner ile oyun thread'i (RCAgent iyileşen planı yazarken) aynı
+ * önbelleği kullanıyor.
+ */
+public class PlanCache {
+
+    static final int MAGIC = 0x52435043; // "RCPC"
+    // 2: aksiyon kodlarında TownHall index'i (ActionCodec), çok TownHall'lı
+    // dünyaların eski kodları başka TownHall'u gösterir
+    static final int VERSION = 2;
+
+    private final int capacity;
+    private final LinkedHashMap<Key, int[]> memory;
+
+    // Disk katmanı (kapalıysa null)
+    private RandomAccessFile disk;
+    private final Map<Key, Long> diskIndex = new HashMap<>();
+
+    private int hits;
+    private int diskHits;
+    private int misses;
+
+    public PlanCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.memory = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                return size() > PlanCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Disk katmanıyla. Dosya yoksa oluşturulur; varsa kayıtları indekslenir
+     * (yarım kalmış son kayıt kesilip atılır). Açılamazsa sadece bellek katmanı çalışır.
+     */
+    public PlanCache(int capacity, File diskFile) {
+        this(capacity);
+        try {
+            disk = new RandomAccessFile(diskFile, "rw");
+            if (disk.length() == 0) {
+                disk.writeInt(MAGIC);
+                disk.writeInt(VERSION);
+            } else {
+                indexDisk();
+            }
+        } catch (IOException e) {
+            closeDisk();
+        }
+    }
+
+    /**
+     * Önbellekteki plan (ilk uygulanacak aksiyon en üstte), yoksa null.
+     */
+    public synchronized Stack<StripsAction> get(GameState start, String plannerConfig) {
+        Key key = new Key(keyOf(start, plannerConfig));
+        int[] codes = memory.get(key);
+        boolean fromDisk = false;
+        if (codes == null) {
+            codes = readFromDisk(key);
+            fromDisk = codes != null;
+        }
+        Stack<StripsAction> plan = codes == null ? null : replay(start, codes);
+        if (plan == null) {
+            if (codes != null) {
+                memory.remove(key);
+                diskIndex.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        if (fromDisk) {
+            memory.put(key, codes);
+            diskHits++;
+        }
+        hits++;
+        return plan;
+    }
+
+    /**
+     * Planı saklar (bellek, açıksa disk). null plan saklanmaz.
+     */
+    public synchronized void put(GameState start, String plannerConfig, Stack<StripsAction> plan) {
+        if (plan == null) {
+            return;
+        }
+        Key key = new Key(keyOf(start, plannerConfig));
+        ActionCodec codec = new ActionCodec(start.world);
+        int[] codes = new int[plan.size()];
+        for (int i = 0; i < codes.length; i++) {
+            // Stack'in en üstü (son eleman) ilk aksiyon
+            codes[i] = codec.encode(plan.get(plan.size() - 1 - i));
+        }
+        memory.put(key, codes);
+        if (disk != null) {
+            // Aynı anahtar tekrar yazılırsa (ör. iyileştirilmiş plan) sona eklenir;
+            // indeks ve açılışta indexDisk son kaydı kullanır
+            try {
+                long offset = disk.length();
+                disk.seek(offset);
+                disk.write(encodeRecord(key.words, codes));
+                diskIndex.put(key, offset);
+            } catch (IOException e) {
+                closeDisk();
+            }
+        }
+    }
+
+    /**
+     * Planı sadece bu anahtarda geçerli bir plan yoksa ya da saklanandan ucuzsa
+     * saklar; sakladıysa true. İsabet / ıska sayaçlarına dokunmaz. Arka planda
+     * iyileşen plan bununla yazılıyor: yanlış bir "optimal" iddiası bile daha
+     * ucuz bir kaydın üstüne yazamaz.
+     */
+    public synchronized boolean putIfCheaper(GameState start, String plannerConfig, Stack<StripsAction> plan) {
+        if (plan == null) {
+            return false;
+        }
+        Key key = new Key(keyOf(start, plannerConfig));
+        int[] codes = memory.get(key);
+        if (codes == null) {
+            codes = readFromDisk(key);
+        }
+        Stack<StripsAction> stored = codes == null ? null : replay(start, codes);
+        if (stored != null && cost(stored) <= cost(plan)) {
+            return false;
+        }
+        put(start, plannerConfig, plan);
+        return true;
+    }
+
+    public synchronized int size() {
+        return memory.size();
+    }
+
+    public synchronized int diskSize() {
+        return diskIndex.size();
+    }
+
+    public boolean isDiskEnabled() {
+        return disk != null;
+    }
+
+    /**
+     * Toplam isabet (bellek + disk).
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * İsabetlerden diskten okunanlar.
+     */
+    public int getDiskHits() {
+        return diskHits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Bellek katmanını akışa yazar (RCAgent.savePlayerData). Akışı kapatmaz.
+     */
+    public synchronized void writeTo(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(memory.size());
+        for (Map.Entry<Key, int[]> entry : memory.entrySet()) {
+            out.write(encodeRecord(entry.getKey().words, entry.getValue()));
+        }
+        out.flush();
+    }
+
+    /**
+     * writeTo ile yazılmış kayıtları bellek katmanına ekler (RCAgent.loadPlayerData).
+     */
+    public synchronized void readFrom(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        checkHeader(in.readInt(), in.readInt());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long[] words = readLongs(in);
+            int[] codes = readInts(in);
+            memory.put(new Key(words), codes);
+        }
+    }
+
+    static long[] keyOf(GameState start, String plannerConfig) {
+        long[] stateKey = start.key();
+        long[] key = new long[3 + stateKey.length];
+        key[0] = start.world.fingerprint();
+        long config = WorldModel.FINGERPRINT_SEED;
+        for (int i = 0; i < plannerConfig.length(); i++) {
+            config = WorldModel.mix(config, plannerConfig.charAt(i));
+        }
+        key[1] = config;
+        key[2] = GameState.packCollected(start.requiredGold, start.requiredWood);
+        System.arraycopy(stateKey, 0, key, 3, stateKey.length);
+        return key;
+    }
+
+    /**
+     * Kodları başlangıçtan oynatır; geçersiz kod ya da hedefe varmayan plan için null.
+     */
+    private static Stack<StripsAction> replay(GameState start, int[] codes) {
+        ActionCodec codec = new ActionCodec(start.world);
+        long[] key = start.key().clone();
+        long[] next = new long[key.length];
+        List<StripsAction> actions = new ArrayList<>(codes.length);
+        try {
+            for (int code : codes) {
+                actions.add(codec.decode(key, code));
+                codec.writeSuccessorKey(key, code, next);
+                long[] swap = key;
+                key = next;
+                next = swap;
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+        if (!start.isGoal(key)) {
+            return null;
+        }
+        Stack<StripsAction> plan = new Stack<>();
+        for (int i = actions.size() - 1; i >= 0; i--) {
+            plan.push(actions.get(i));
+        }
+        return plan;
+    }
+
+    private static double cost(Stack<StripsAction> plan) {
+        double cost = 0;
+        for (StripsAction action : plan) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+
+    private int[] readFromDisk(Key key) {
+        Long offset = diskIndex.get(key);
+        if (disk == null || offset == null) {
+            return null;
+        }
+        try {
+            disk.seek(offset);
+            int keyLength = disk.readInt();
+            disk.skipBytes(8 * keyLength);
+            int planLength = disk.readInt();
+            int[] codes = new int[planLength];
+            for (int i = 0; i < planLength; i++) {
+                codes[i] = disk.readInt();
+            }
+            return codes;
+        } catch (IOException e) {
+            closeDisk();
+            return null;
+        }
+    }
+
+    private void indexDisk() throws IOException {
+        disk.seek(0);
+        checkHeader(disk.readInt(), disk.readInt());
+        long length = disk.length();
+        long offset = disk.getFilePointer();
+        while (offset < length) {
+            try {
+                int keyLength = disk.readInt();
+                if (keyLength < 0 || disk.getFilePointer() + 8L * keyLength + 4 > length) {
+                    break;
+                }
+                long[] words = new long[keyLength];
+                for (int i = 0; i < keyLength; i++) {
+                    words[i] = disk.readLong();
+                }
+                int planLength = disk.readInt();
+                long end = disk.getFilePointer() + 4L * planLength;
+                if (planLength < 0 || end > length) {
+                    break;
+                }
+                disk.seek(end);
+                diskIndex.put(new Key(words), offset);
+                offset = end;
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        // Yarım yazılmış son kayıt (çökme) varsa at
+        disk.setLength(offset);
+    }
+
+    private void closeDisk() {
+        if (disk != null) {
+            try {
+                disk.close();
+            } catch (IOException ignored) {
+                // zaten kapatıyoruz
+            }
+        }
+        disk = null;
+        diskIndex.clear();
+    }
+
+    private static void checkHeader(int magic, int version) throws IOException {
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("not a plan cache (magic=" + Integer.toHexString(magic)
+                    + ", version=" + version + ")");
+        }
+    }
+
+    private static byte[] encodeRecord(long[] words, int[] codes) {
+        byte[] bytes = new byte[4 + 8 * words.length + 4 + 4 * codes.length];
+        int pos = putInt(bytes, 0, words.length);
+        for (long word : words) {
+            pos = putInt(bytes, pos, (int) (word >>> 32));
+            pos = putInt(bytes, pos, (int) word);
+        }
+        pos = putInt(bytes, pos, codes.length);
+        for (int code : codes) {
+            pos = putInt(bytes, pos, code);
+        }
+        return bytes;
+    }
+
+    private static int putInt(byte[] bytes, int pos, int value) {
+        bytes[pos] = (byte) (value >>> 24);
+        bytes[pos + 1] = (byte) (value >>> 16);
+        bytes[pos + 2] = (byte) (value >>> 8);
+        bytes[pos + 3] = (byte) value;
+        return pos + 4;
+    }
+
+    private static long[] readLongs(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("negative key length: " + length);
+        }
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) {
+            words[i] = in.readLong();
+        }
+        return words;
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("negative plan length: " + length);
+        }
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * long[] anahtar için equals/hashCode (HashMap / LinkedHashMap anahtarı).
+     */
+    private static final class Key {
+        final long[] words;
+        private final int hash;
+
+        Key(long[] words) {
+            this.words = words;
+            this.hash = PackedStateSet.hash(words, 0, words.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.equals(words, ((Key) o).words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
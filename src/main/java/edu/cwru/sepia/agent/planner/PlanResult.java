@@ -0,0 +1,32 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Stack;
+
+/**
+ * PlanResult: planlayıcının çıktısı. Plan (bulunamadıysa null) ve arama istatistikleri.
+ */
+public class PlanResult {
+
+    private final Stack<StripsAction> plan;
+    private final SearchStats stats;
+
+    public PlanResult(Stack<StripsAction> plan, SearchStats stats) {
+        this.plan = plan;
+        this.stats = stats;
+    }
+
+    /**
+     * İlk uygulanacak aksiyon en üstte; plan bulunamadıysa null.
+     */
+    public Stack<StripsAction> getPlan() {
+        return plan;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public boolean isFound() {
+        return plan != null;
+    }
+}
@@ -0,0 +1,116 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlanStream:
+ * Planlayıcı thread'inden oyun thread'ine plan parçalarını taşıyan sınırlı kanal
+ * (StreamingPlanner üretir, RCAgent tüketir).
+ *
+ * - Üretici taahhüt ettiği aksiyonları sırayla publish() eder. Kanal doluysa
+ *   (tüketici 'capacity' aksiyon geride) bekler; yani planlayıcı yürütmenin çok
+ *   önüne geçmez ve bellek sınırlı kalır.
+ * - Tüketici drainTo() ile o an hazır olanları alır; hiç beklemez.
+ * - Üretici bitince finish(found) çağırır; kanal boşalınca isFinished() true.
+ * - cancel(): üretici bir sonraki publish()'te durur (bekliyorsa da uyanır).
+ *
+ * Aksiyonlar kanala girdiği sırayla çıkar ve bir kere çıkar; plan, ilk aksiyon
+ * başta olacak şekilde drainTo()'ların art arda eklenmesidir.
+ */
+public class PlanStream {
+
+    // Dolu kanalda üreticinin iptali kontrol etme aralığı
+    private static final long PUBLISH_POLL_MILLIS = 10;
+
+    private final ArrayBlockingQueue<StripsAction> queue;
+    private volatile boolean producerDone;
+    private volatile boolean found;
+    private volatile boolean cancelled;
+    private volatile int published;
+
+    public PlanStream(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Üretici: aksiyonları sırayla kanala koyar, yer yoksa bekler.
+     * İptal edildiyse (ya da thread kesildiyse) false; kalan aksiyonlar atılır.
+     */
+    boolean publish(List<StripsAction> actions) {
+        for (StripsAction action : actions) {
+            try {
+                while (!queue.offer(action, PUBLISH_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            published++;
+            if (cancelled) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Üretici: akış bitti. found = son aksiyondan sonra hedefe ulaşılıyor mu.
+     */
+    void finish(boolean found) {
+        this.found = found;
+        this.producerDone = true;
+    }
+
+    /**
+     * Tüketici: hazır aksiyonları 'out'un sonuna ekler (beklemez), sayısını döndürür.
+     */
+    public int drainTo(Collection<? super StripsAction> out) {
+        return queue.drainTo(out);
+    }
+
+    /**
+     * Üretici bitti ve tüm aksiyonlar alındı mı?
+     */
+    public boolean isFinished() {
+        return producerDone && queue.isEmpty();
+    }
+
+    /**
+     * Üretici bittiyse: yayınlanan plan hedefe ulaşıyor mu (iptal ya da arama
+     * başarısızsa false).
+     */
+    public boolean isFound() {
+        return producerDone && found;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Şimdiye kadar kanala konan aksiyon sayısı.
+     */
+    public int getPublished() {
+        return published;
+    }
+
+    /**
+     * Kanalda bekleyen (henüz alınmamış) aksiyon sayısı.
+     */
+    public int pending() {
+        return queue.size();
+    }
+}
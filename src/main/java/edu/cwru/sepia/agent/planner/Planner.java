@@ -0,0 +1,47 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Stack;
+
+/**
+ * Ortak planlayıcı arayüzü.
+ * RCAgent hangi planlayıcının (A*, doğrudan/greedy, ...) çalıştığını bilmek zorunda değil.
+ */
+public interface Planner {
+
+    /**
+     * Verilen başlangıç durumundan hedefe giden planı bulur.
+     * Başarılıysa Stack döner (ilk uygulanacak aksiyon en üstte), bulunamazsa null.
+     */
+    Stack<StripsAction> findPlan(GameState startState);
+
+    /**
+     * findPlan ile aynı plan, yanında arama istatistikleriyle.
+     * Varsayılan hali sadece duvar saati süresini ve planı ölçer; arama yapan
+     * planlayıcılar kendi sayaçlarını doldurmak için override eder.
+     */
+    default PlanResult plan(GameState startState) {
+        SearchStats stats = new SearchStats(getClass().getSimpleName());
+        long start = System.nanoTime();
+        Stack<StripsAction> plan = findPlan(startState);
+        stats.wallNanos = System.nanoTime() - start;
+        stats.recordPlan(plan);
+        return new PlanResult(plan, stats);
+    }
+
+    /**
+     * Planı etkileyen ayarların kısa tarifi. PlanCache anahtarına giriyor: aynı
+     * başlangıç durumu farklı ayarlarla farklı (ama eşit maliyetli) plan verebilir.
+     */
+    default String describe() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * plan() döndükten sonra arka planda süren işi (ör. ARA* iyileştirmesi)
+     * durdurur ve bitmesini bekler. O iş aramanın dünyasıyla sürüyor; düğüm
+     * tükenip dünya değişince (WorldModel.withExhausted) ürettikleri eskimiş olur,
+     * ExecutionMonitor o zaman çağırıyor. Varsayılan hali bir şey yapmaz.
+     */
+    default void cancelBackgroundWork() {
+    }
+}
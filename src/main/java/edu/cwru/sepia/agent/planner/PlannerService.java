@@ -0,0 +1,338 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PlannerService:
+ * Planlamayı oyun thread'inden (SEPIA initialStep / middleStep) alıp ayrı bir
+ * worker'da çalıştırır. Oyun thread'i istek bırakır, sonraki turlarda isDone()'a
+ * bakar; hiçbir zaman aramayı beklemez.
+ *
+ * - submit(s, deadline): planlama isteği. Sırada beklerken süresi dolan istek hiç
+ *   başlatılmaz (plansız sonuç). Çalışırken süresi dolarsa worker thread'i
+ *   interrupt edilir (ayrı bir "planner-deadline" thread'inden): AStarPlanner
+ *   plansız, AnytimeAStarPlanner o ana kadarki en iyi planla döner; isLate().
+ *   Interrupt'a bakmayan planlayıcılar (ör. HdaStarPlanner) aramayı bitirir.
+ * - cancel(): başlamamış istek hiç çalışmaz, çalışan arama aynı şekilde interrupt
+ *   edilir ve sonucu atılır.
+ * - speculate(s): "yakında s'den yeniden planlamak gerekebilir" (ExecutionMonitor
+ *   köylü takılmaya başlayınca). Asıl istek aynı state içinse takeSpeculative()
+ *   ile devralınır (çoğu zaman bitmiş olur), değilse iptal edilir.
+ *
+ * Worker tek: planlayıcılar (AStarPlanner sayaçları, AdaptiveHeuristic'in öğrendiği
+ * tablo) thread-safe değil, istekler sırayla çalışıyor. Java 21+ çalışma ortamında
+ * worker sanal thread (Thread.ofVirtual, reflection ile; derleme hâlâ Java 8),
+ * değilse daemon platform thread'i.
+ *
+ * Dünya tablosu değişmez (WorldModel.withExhausted yeni dünya döndürür), arama
+ * sürerken değişmesinden korkmaya gerek yok. Planlayıcının kendisi ise paylaşılıyor:
+ * arama boyunca worker planlayıcı kilidini tutuyor. Oyun thread'i arka plan işini
+ * (ARA* iyileştirmesi, düğüm tükenince artık eski dünyaya ait) durdurmak için
+ * tryCancelBackgroundWork ile kilidi dener; arama sürüyorsa gerek yok, plan()
+ * önceki arka plan işini zaten durdurdu.
+ *
+ * İstek tarafı (submit / speculate / takeSpeculative / cancelAll) tek thread'den,
+ * oyun thread'inden çağrılmalı.
+ */
+public class PlannerService {
+
+    private final Planner planner;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    // Çalışan isteklerin süresi dolunca worker'ı interrupt eden zamanlayıcı
+    private final ScheduledExecutorService deadlines;
+
+    // Arama boyunca worker tutuyor; oyun thread'i sadece tryLock ile
+    private final ReentrantLock plannerLock = new ReentrantLock();
+
+    // Bitmemiş istekler (cancelAll için) ve bekleyen spekülatif istek
+    private final List<Request> outstanding = new ArrayList<>();
+    private Request speculative;
+
+    /**
+     * Bir planlama isteği. Sonuç getResult() ile, isDone() true olduktan sonra.
+     */
+    public static final class Request {
+
+        private final GameState start;
+        private final long deadline;
+        private final boolean speculative;
+        private Future<PlanResult> future;
+        private volatile boolean cancelled;
+        private volatile boolean late;
+        // İsteği çalıştıran worker thread'i (çalışmıyorsa null); this ile korunuyor
+        private Thread runner;
+
+        Request(GameState start, long deadline, boolean speculative) {
+            this.start = start;
+            this.deadline = deadline;
+            this.speculative = speculative;
+        }
+
+        public GameState getStart() {
+            return start;
+        }
+
+        public boolean isSpeculative() {
+            return speculative;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Arama deadline'a kadar bitmedi mi (kesildi ya da interrupt'a bakmadan
+         * geç bitti; dönen plan yine de geçerli).
+         */
+        public boolean isLate() {
+            return late;
+        }
+
+        /**
+         * İptal: başlamadıysa çalışmaz, çalışıyorsa arama interrupt edilir ve
+         * sonucu atılır.
+         */
+        public void cancel() {
+            cancelled = true;
+            future.cancel(false);
+            interruptRunner();
+        }
+
+        /**
+         * Süre doldu: çalışıyorsa arama interrupt edilir (sonucu kalır).
+         */
+        void expire() {
+            if (!future.isDone()) {
+                interruptRunner();
+            }
+        }
+
+        private synchronized void interruptRunner() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        private synchronized boolean attach(Thread thread) {
+            if (cancelled) {
+                return false;
+            }
+            runner = thread;
+            return true;
+        }
+
+        private synchronized void detach() {
+            runner = null;
+        }
+
+        /**
+         * Bitmiş isteğin sonucu; bitmediyse null. İptal edilen ya da sırada
+         * süresi dolan istek plansız sonuç verir. Planlayıcı exception attıysa
+         * burada IllegalStateException olarak çıkar.
+         */
+        public PlanResult getResult() {
+            if (!future.isDone()) {
+                return null;
+            }
+            try {
+                return future.get();
+            } catch (CancellationException e) {
+                return unsolved("cancelled");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return unsolved("cancelled");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("planner failed", e.getCause());
+            }
+        }
+    }
+
+    public PlannerService(Planner planner) {
+        this.planner = planner;
+        ThreadFactory factory = virtualThreadFactory();
+        this.virtualThreads = factory != null;
+        if (factory == null) {
+            factory = runnable -> {
+                Thread thread = new Thread(runnable, "planner-service");
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        this.executor = Executors.newSingleThreadExecutor(factory);
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "planner-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Worker sanal thread mi (Java 21+).
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * startState'ten planlama isteği; sırada deadlineNanos'tan (şimdiden itibaren)
+     * fazla bekleyen istek başlatılmaz. Bekleyen spekülatif istek iptal edilir.
+     */
+    public Request submit(GameState startState, long deadlineNanos) {
+        if (speculative != null) {
+            speculative.cancel();
+            speculative = null;
+        }
+        return enqueue(startState, deadlineNanos, false);
+    }
+
+    /**
+     * Spekülatif istek: aynı state için zaten varsa o döner, farklı bir state için
+     * bekleyen spekülatif istek iptal edilir.
+     */
+    public Request speculate(GameState startState, long deadlineNanos) {
+        if (speculative != null) {
+            if (speculative.start.equals(startState)) {
+                return speculative;
+            }
+            speculative.cancel();
+        }
+        speculative = enqueue(startState, deadlineNanos, true);
+        return speculative;
+    }
+
+    /**
+     * state için bekleyen spekülatif istek varsa onu devralır (artık iptal
+     * edilmez), yoksa null.
+     */
+    public Request takeSpeculative(GameState state) {
+        Request request = speculative;
+        if (request == null || request.cancelled || !request.start.equals(state)) {
+            return null;
+        }
+        speculative = null;
+        return request;
+    }
+
+    /**
+     * Bitmemiş bütün istekleri iptal eder.
+     */
+    public void cancelAll() {
+        for (Request request : outstanding) {
+            request.cancel();
+        }
+        outstanding.clear();
+        speculative = null;
+    }
+
+    /**
+     * İstekleri iptal eder, çalışan aramayı keser ve worker'ın bitmesini bekler
+     * (interrupt'a bakan planlayıcılarda en fazla birkaç bin expand); ardından
+     * planlayıcının arka plan işini durdurur. Sonrasında planlayıcı başka bir
+     * thread'den güvenle kullanılabilir.
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdown();
+        deadlines.shutdownNow();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        planner.cancelBackgroundWork();
+    }
+
+    /**
+     * O an arama yoksa planlayıcının arka plan işini durdurur ve true döner;
+     * arama sürüyorsa hiç beklemeden false (plan() öncekini zaten durdurdu).
+     */
+    public boolean tryCancelBackgroundWork() {
+        if (!plannerLock.tryLock()) {
+            return false;
+        }
+        try {
+            planner.cancelBackgroundWork();
+            return true;
+        } finally {
+            plannerLock.unlock();
+        }
+    }
+
+    private Request enqueue(GameState startState, long deadlineNanos, boolean speculative) {
+        if (deadlineNanos <= 0) {
+            throw new IllegalArgumentException("deadline must be positive: " + deadlineNanos);
+        }
+        outstanding.removeIf(Request::isDone);
+        // Dünya tablosu worker'da okunacak: tembel mesafe tablosu önceden
+        startState.world.prepareDistances();
+        Request request = new Request(startState, System.nanoTime() + deadlineNanos, speculative);
+        request.future = executor.submit(() -> run(request));
+        deadlines.schedule(request::expire, deadlineNanos, TimeUnit.NANOSECONDS);
+        outstanding.add(request);
+        return request;
+    }
+
+    private PlanResult run(Request request) {
+        if (System.nanoTime() >= request.deadline) {
+            return unsolved("expired");
+        }
+        if (!request.attach(Thread.currentThread())) {
+            return unsolved("cancelled");
+        }
+        plannerLock.lock();
+        try {
+            PlanResult result = planner.plan(request.start);
+            request.late = System.nanoTime() > request.deadline;
+            return result;
+        } finally {
+            plannerLock.unlock();
+            // detach'ten sonra kimse interrupt etmiyor; kalan bayrak sonraki isteğe geçmesin
+            request.detach();
+            Thread.interrupted();
+        }
+    }
+
+    private static PlanResult unsolved(String reason) {
+        SearchStats stats = new SearchStats("PlannerService(" + reason + ")");
+        stats.recordPlan(null);
+        return new PlanResult(null, stats);
+    }
+
+    /**
+     * Thread.ofVirtual().name("planner-service").factory(), çalışma ortamında varsa.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class).invoke(builder, "planner-service");
+            Method factory = builderType.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,537 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * RegressionPlanner:
+ * Hedeften geriye doğru (regresyon) ya da iki yönlü arama, spec.txt'deki STRIPS
+ * tarifleri (ActionSchema) üzerinden.
+ *
+ * Geriye doğru arama state'ler yerine koşullar üzerinde çalışır: "köylü l'de, şunu
+ * taşıyor, en az şu kadar toplanmış, düğümlerde en az şu kadar kalmış". Arama
+ * Collected(GOLD, G) ∧ Collected(WOOD, W) hedefinden başlar, her adımda bir
+ * aksiyonun tarifinden geriye taşınır (ActionSchema.regress); başlangıç state'i
+ * koşulu sağlayınca koşulun aksiyon zinciri planın tamamıdır.
+ * - Hedef koşulunda konum / taşıma serbest; ilk adım hep bir Deposit, o yüzden
+ *   arama doğrudan hedefin Deposit'lerden geriye taşınmış halleriyle başlar.
+ * - Move'lar somut: Move(l1, l2), l1 TownHall, bir kaynak ya da köylünün
+ *   başlangıç konumu (ileri planlarda da köylü hep bunlardan birinde).
+ * - Başlangıcın sağlayamayacağı koşullar (bir düğümde olandan fazlası lazım) ve
+ *   başlangıçta zaten toplanmış türün Deposit'i atılır.
+ * - h: başlangıçtan koşula en az maliyet. İleri yöndeki TravelAwareHeuristic'e
+ *   başlangıç state'i ve "koşulun eksik toplamı" sorulur (taşınan yük bir tur
+ *   daha sayılır, TownHall'a dönüşü düşülür); köylünün başlangıçtan koşulun
+ *   konumuna mesafesiyle büyüğü alınır. Kabul edilebilir ama tutarlı değil;
+ *   daha iyi g gelen koşul tekrar açılır (state -> en iyi düğüm tablosu, bayat
+ *   düğümler open list'ten çıkınca atılır).
+ *
+ * İki yönlü (bidirectional = true): yanında AStarPlanner'daki gibi ileri A* de
+ * çalışır; her adımda open list'i küçük olan yön açılır. Bir ileri state bir geri
+ * koşulu sağlıyorsa yollar ortada buluşur: ileri yolun planı + koşulun zinciri.
+ * Buluşma kontrolü için iki yönün açılmış düğümleri (konum + taşıma, yapılan /
+ * kalan Deposit sayısı) kovalarında tutulur; sadece aynı kovadakiler karşılaştırılır
+ * (optimal planda buluşma noktasının Deposit sayıları tam tutuyor).
+ * Durma: bulunan en ucuz plan maliyeti mu, iki open list'in en küçük f'lerinden
+ * büyüğünü geçmiyorsa daha ucuz plan yok (heuristic'ler kabul edilebilir). Sadece
+ * ileri yön de kendi başına tamdır; buluşma bulunamasa da optimal plan bulunur.
+ *
+ * Sadece temel aksiyonlar (Move / Harvest / Deposit); makro ve simetri budaması yok.
+ */
+public class RegressionPlanner implements Planner {
+
+    private boolean bidirectional;
+
+    private SearchStats lastStats = new SearchStats("RegressionPlanner");
+    private int lastForwardExpanded;
+    private int lastBackwardExpanded;
+
+    public RegressionPlanner() {
+        this(true);
+    }
+
+    public RegressionPlanner(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    @Override
+    public String describe() {
+        return "RegressionPlanner(bidirectional=" + bidirectional + ")";
+    }
+
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * Son aramada iki yönde toplam expand edilen düğüm (tekrar açılanlar dahil).
+     */
+    public int getExpandedNodeCount() {
+        return lastStats.expanded;
+    }
+
+    public int getLastForwardExpanded() {
+        return lastForwardExpanded;
+    }
+
+    public int getLastBackwardExpanded() {
+        return lastBackwardExpanded;
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    @Override
+    public PlanResult plan(GameState startState) {
+        long searchStart = System.nanoTime();
+        SearchStats stats = new SearchStats("RegressionPlanner");
+        lastStats = stats;
+        Search search = new Search(startState);
+        Stack<StripsAction> plan = search.run(stats);
+        lastForwardExpanded = search.forwardExpanded;
+        lastBackwardExpanded = search.backwardExpanded;
+        stats.wallNanos = System.nanoTime() - searchStart;
+        stats.recordPlan(plan);
+        return new PlanResult(plan, stats);
+    }
+
+    /**
+     * Tek bir plan() çağrısının durumu.
+     */
+    private final class Search {
+        final GameState start;
+        final WorldModel world;
+        final int width;
+        final int startGold;
+        final int startWood;
+
+        // Tüm somut aksiyon tarifleri; geri düğümlerin aksiyon kodu buradaki index
+        final List<ActionSchema> schemas = new ArrayList<>();
+        // (x << 16 | y) -> köylüyü oraya götüren / orada biten tarifler
+        final Map<Integer, List<Integer>> schemasAt = new HashMap<>();
+
+        // İleri yön
+        final ActionCodec codec;
+        final Heuristic forwardHeuristic = new TravelAwareHeuristic();
+        final NodeArena forward;
+        final LazyHeapOpenList forwardOpen;
+        final PackedStateMap forwardBest;
+        final PackedStateMap forwardBuckets = new PackedStateMap(3);
+        int[] forwardNext = new int[1 << 10];
+
+        // Geri yön
+        final Heuristic backwardHeuristic = new TravelAwareHeuristic();
+        final NodeArena backward;
+        final LazyHeapOpenList backwardOpen;
+        final PackedStateMap backwardBest;
+        final PackedStateMap backwardBuckets = new PackedStateMap(3);
+        int[] backwardNext = new int[1 << 10];
+
+        // En ucuz plan: maliyet ve buluştuğu düğümler (-1 = o yönden parça yok)
+        double mu = Double.POSITIVE_INFINITY;
+        int meetForward = -1;
+        int meetBackward = -1;
+
+        int forwardExpanded;
+        int backwardExpanded;
+        int generated;
+        int duplicates;
+
+        // Tekrar kullanılan tamponlar
+        final long[] key;
+        final long[] otherKey;
+        final long[] successorKey;
+        final long[] probeKey;
+        final long[] bucketKey = new long[3];
+        final int[] actionCodes;
+
+        Search(GameState start) {
+            this.start = start;
+            this.world = start.world;
+            this.width = start.keyWidth();
+            this.startGold = GameState.unpackCollectedGold(start.key());
+            this.startWood = GameState.unpackCollectedWood(start.key());
+            this.codec = new ActionCodec(world);
+            this.forward = new NodeArena(width);
+            this.forwardOpen = new LazyHeapOpenList(forward);
+            this.forwardBest = new PackedStateMap(width);
+            this.backward = new NodeArena(width);
+            this.backwardOpen = new LazyHeapOpenList(backward);
+            this.backwardBest = new PackedStateMap(width);
+            this.key = new long[width];
+            this.otherKey = new long[width];
+            this.successorKey = new long[width];
+            this.probeKey = start.key().clone();
+            this.actionCodes = new int[codec.maxActions()];
+            groundSchemas();
+        }
+
+        /**
+         * Tüm somut Move / Harvest / Deposit tariflerini kurar.
+         */
+        private void groundSchemas() {
+            // Önce TownHall'lar, sonra kaynaklar
+            List<int[]> places = new ArrayList<>();
+            for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                places.add(new int[]{hall.x, hall.y});
+            }
+            for (ResourceInfo r : world.resources()) {
+                places.add(new int[]{r.x, r.y});
+            }
+            boolean startIsPlace = false;
+            for (int[] place : places) {
+                startIsPlace |= place[0] == start.peasantX && place[1] == start.peasantY;
+            }
+            List<int[]> origins = new ArrayList<>(places);
+            if (!startIsPlace) {
+                origins.add(new int[]{start.peasantX, start.peasantY});
+            }
+
+            for (int[] to : places) {
+                for (int[] from : origins) {
+                    if (from[0] == to[0] && from[1] == to[1]) {
+                        continue;
+                    }
+                    add(ActionSchema.move(new MoveAction(world, from[0], from[1], to[0], to[1])));
+                }
+            }
+            for (ResourceInfo r : world.resources()) {
+                add(ActionSchema.harvest(new HarvestAction(r)));
+            }
+            DepositAction deposit = new DepositAction();
+            for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                add(ActionSchema.deposit(deposit, hall, true));
+                add(ActionSchema.deposit(deposit, hall, false));
+            }
+        }
+
+        private void add(ActionSchema schema) {
+            schemasAt.computeIfAbsent((schema.addX << 16) | schema.addY, k -> new ArrayList<>())
+                    .add(schemas.size());
+            schemas.add(schema);
+        }
+
+        Stack<StripsAction> run(SearchStats stats) {
+            if (start.isGoal()) {
+                return new Stack<>();
+            }
+            try {
+                forwardHeuristic.prepare(start);
+                backwardHeuristic.prepare(start);
+                offerForward(start.key(), 0.0, NodeArena.NO_PARENT, NodeArena.NO_ACTION);
+                seedBackward();
+
+                while (true) {
+                    int f = top(forward, forwardOpen, forwardBest);
+                    int b = top(backward, backwardOpen, backwardBest);
+                    double minF = f < 0 ? Double.POSITIVE_INFINITY : fOf(forward, f);
+                    double minB = b < 0 ? Double.POSITIVE_INFINITY : fOf(backward, b);
+                    if (mu <= Math.max(minF, minB)) {
+                        break;
+                    }
+                    boolean forwardTurn = f >= 0 && (b < 0
+                            || (bidirectional && forwardOpen.size() <= backwardOpen.size()));
+                    if (forwardTurn) {
+                        expandForward();
+                    } else {
+                        expandBackward();
+                    }
+                }
+                return mu == Double.POSITIVE_INFINITY ? null : buildPlan();
+            } finally {
+                stats.expanded = forwardExpanded + backwardExpanded;
+                stats.generated = generated;
+                stats.duplicates = duplicates;
+                stats.peakOpen = forwardOpen.peakSize() + backwardOpen.peakSize();
+                stats.closedSize = forwardBest.size() + backwardBest.size();
+            }
+        }
+
+        /**
+         * Open list'in bayat olmayan en küçük düğümü (yoksa -1).
+         */
+        private int top(NodeArena arena, LazyHeapOpenList open, PackedStateMap best) {
+            while (!open.isEmpty()) {
+                int node = open.peek();
+                arena.copyKey(node, otherKey);
+                if (best.get(otherKey) == node) {
+                    return node;
+                }
+                open.poll();
+            }
+            return -1;
+        }
+
+        private double fOf(NodeArena arena, int node) {
+            return arena.costG(node) + arena.heuristicH(node);
+        }
+
+        // ------------------------------------------------------------
+        // İleri yön
+        // ------------------------------------------------------------
+
+        private void expandForward() {
+            int node = forwardOpen.poll();
+            forward.copyKey(node, key);
+            double g = forward.costG(node);
+            forwardExpanded++;
+            if (start.isGoal(key)) {
+                meet(g, node, -1);
+                return;
+            }
+
+            // Bu state'i sağlayan açılmış geri koşullar
+            stateBucket(key);
+            for (int b = backwardBuckets.get(bucketKey); b != PackedStateMap.NO_VALUE; b = backwardNext[b]) {
+                backward.copyKey(b, otherKey);
+                if (satisfies(key, otherKey)) {
+                    meet(g + backward.costG(b), node, b);
+                }
+            }
+            forwardNext = link(forwardBuckets, forwardNext, node);
+
+            int actionCount = codec.generate(key, false, actionCodes);
+            for (int i = 0; i < actionCount; i++) {
+                int code = actionCodes[i];
+                generated++;
+                codec.writeSuccessorKey(key, code, successorKey);
+                offerForward(successorKey, g + codec.cost(key, code), node, code);
+            }
+        }
+
+        private void offerForward(long[] stateKey, double g, int parent, int code) {
+            int existing = forwardBest.get(stateKey);
+            if (existing != PackedStateMap.NO_VALUE && forward.costG(existing) <= g) {
+                duplicates++;
+                return;
+            }
+            double h = existing != PackedStateMap.NO_VALUE
+                    ? forward.heuristicH(existing)
+                    : forwardHeuristic.estimate(start, stateKey);
+            if (Double.isInfinite(h) || g + h >= mu) {
+                return;
+            }
+            int node = forward.add(stateKey, g, h, parent, code);
+            forwardBest.put(stateKey, node);
+            forwardOpen.offer(node, stateKey);
+        }
+
+        // ------------------------------------------------------------
+        // Geri yön
+        // ------------------------------------------------------------
+
+        /**
+         * Hedef koşulunu Deposit'lerden geriye taşır (ilk geri düğümler).
+         */
+        private void seedBackward() {
+            for (WorldModel.TownHallInfo hall : world.townHalls()) {
+                seedBackward(schemasAt.get((hall.x << 16) | hall.y));
+            }
+        }
+
+        private void seedBackward(List<Integer> schemasAtHall) {
+            for (int i : schemasAtHall) {
+                ActionSchema schema = schemas.get(i);
+                boolean gold = schema.addGold > 0;
+                if (schema.addGold == 0 && schema.addWood == 0
+                        || (gold ? start.requiredGold <= startGold : start.requiredWood <= startWood)) {
+                    continue;
+                }
+                Arrays.fill(successorKey, 0L);
+                successorKey[0] = GameState.packPeasant(schema.preX, schema.preY, true, gold);
+                successorKey[1] = GameState.packCollected(
+                        Math.max(0, start.requiredGold - schema.addGold),
+                        Math.max(0, start.requiredWood - schema.addWood));
+                offerBackward(successorKey, schema.getCost(), NodeArena.NO_PARENT, i);
+            }
+        }
+
+        private void expandBackward() {
+            int node = backwardOpen.poll();
+            backward.copyKey(node, key);
+            double g = backward.costG(node);
+            backwardExpanded++;
+            if (satisfies(start.key(), key)) {
+                meet(g, -1, node);
+                return;
+            }
+
+            // Bu koşulu sağlayan açılmış ileri state'ler
+            conditionBucket(key);
+            for (int f = forwardBuckets.get(bucketKey); f != PackedStateMap.NO_VALUE; f = forwardNext[f]) {
+                forward.copyKey(f, otherKey);
+                if (satisfies(otherKey, key)) {
+                    meet(forward.costG(f) + g, f, node);
+                }
+            }
+            backwardNext = link(backwardBuckets, backwardNext, node);
+
+            int needGold = GameState.unpackCollectedGold(key);
+            int needWood = GameState.unpackCollectedWood(key);
+            int at = (GameState.unpackPeasantX(key) << 16) | GameState.unpackPeasantY(key);
+            // Başlangıç konumuna giden tarif yok: orada biten koşul ancak başlangıçla sağlanır
+            for (int i : schemasAt.getOrDefault(at, Collections.<Integer>emptyList())) {
+                ActionSchema schema = schemas.get(i);
+                if ((schema.addGold > 0 && needGold <= startGold)
+                        || (schema.addWood > 0 && needWood <= startWood)) {
+                    // Başlangıçta zaten var: fazladan Deposit hiçbir optimal planda yok
+                    continue;
+                }
+                if (!schema.regress(key, successorKey)) {
+                    continue;
+                }
+                generated++;
+                if (schema.consumes >= 0 && GameState.unpackRemaining(successorKey, schema.consumes)
+                        > start.remaining[schema.consumes]) {
+                    continue;
+                }
+                offerBackward(successorKey, g + schema.getCost(), node, i);
+            }
+        }
+
+        private void offerBackward(long[] condition, double g, int parent, int schema) {
+            int existing = backwardBest.get(condition);
+            if (existing != PackedStateMap.NO_VALUE && backward.costG(existing) <= g) {
+                duplicates++;
+                return;
+            }
+            double h = existing != PackedStateMap.NO_VALUE
+                    ? backward.heuristicH(existing)
+                    : backwardEstimate(condition);
+            if (Double.isInfinite(h) || g + h >= mu) {
+                return;
+            }
+            int node = backward.add(condition, g, h, parent, schema);
+            backwardBest.put(condition, node);
+            backwardOpen.offer(node, condition);
+        }
+
+        /**
+         * Başlangıçtan 'condition'ı sağlayan bir state'e en az maliyet (bkz. sınıf açıklaması).
+         */
+        private double backwardEstimate(long[] condition) {
+            int x = GameState.unpackPeasantX(condition);
+            int y = GameState.unpackPeasantY(condition);
+            int carry = ActionSchema.carryOf(condition);
+            int needGold = GameState.unpackCollectedGold(condition)
+                    + (carry == ActionSchema.CARRY_GOLD ? 100 : 0);
+            int needWood = GameState.unpackCollectedWood(condition)
+                    + (carry == ActionSchema.CARRY_WOOD ? 100 : 0);
+
+            // İleri heuristic'e "hedef eksiği needGold / needWood" sorulur: hedef - toplanan
+            // = need - başlangıçta toplanan olacak şekilde toplanan kelimesini yaz
+            probeKey[1] = GameState.packCollected(start.requiredGold - needGold + startGold,
+                    start.requiredWood - needWood + startWood);
+            double h = backwardHeuristic.estimate(start, probeKey);
+            if (Double.isInfinite(h)) {
+                return h;
+            }
+            if (carry != ActionSchema.CARRY_NONE) {
+                // Taşınan yükün TownHall'a dönüşü koşuldan sonra
+                h -= world.distanceToTownHall(x, y) + 1;
+            }
+            return Math.max(Math.max(h, 0), world.distance(start.peasantX, start.peasantY, x, y));
+        }
+
+        // ------------------------------------------------------------
+        // Buluşma
+        // ------------------------------------------------------------
+
+        /**
+         * 'state' anahtarındaki state 'condition' koşulunu sağlıyor mu?
+         */
+        private boolean satisfies(long[] state, long[] condition) {
+            if (state[0] != condition[0]
+                    || GameState.unpackCollectedGold(state) < GameState.unpackCollectedGold(condition)
+                    || GameState.unpackCollectedWood(state) < GameState.unpackCollectedWood(condition)) {
+                return false;
+            }
+            for (int r = 0; r < world.resourceCount(); r++) {
+                if (GameState.unpackRemaining(state, r) < GameState.unpackRemaining(condition, r)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * İleri state'in kovası: konum + taşıma, başlangıçtan beri yapılan Deposit sayıları.
+         */
+        private void stateBucket(long[] state) {
+            bucketKey[0] = state[0];
+            bucketKey[1] = (GameState.unpackCollectedGold(state) - startGold) / 100;
+            bucketKey[2] = (GameState.unpackCollectedWood(state) - startWood) / 100;
+        }
+
+        /**
+         * Geri koşulun kovası: konum + taşıma, başlangıçtan koşula kadar gereken Deposit sayıları.
+         */
+        private void conditionBucket(long[] condition) {
+            bucketKey[0] = condition[0];
+            bucketKey[1] = deposits(GameState.unpackCollectedGold(condition) - startGold);
+            bucketKey[2] = deposits(GameState.unpackCollectedWood(condition) - startWood);
+        }
+
+        private int deposits(int amount) {
+            return amount <= 0 ? 0 : (amount + 99) / 100;
+        }
+
+        /**
+         * Düğümü bucketKey'in listesinin başına ekler; gerekirse 'next'i büyütüp döndürür.
+         */
+        private int[] link(PackedStateMap buckets, int[] next, int node) {
+            if (node >= next.length) {
+                next = Arrays.copyOf(next, Math.max(next.length << 1, node + 1));
+            }
+            next[node] = buckets.get(bucketKey);
+            buckets.put(bucketKey, node);
+            return next;
+        }
+
+        private void meet(double cost, int forwardNode, int backwardNode) {
+            if (cost < mu) {
+                mu = cost;
+                meetForward = forwardNode;
+                meetBackward = backwardNode;
+            }
+        }
+
+        /**
+         * İleri parça (başlangıçtan buluşma state'ine) + geri parça (koşuldan hedefe).
+         */
+        private Stack<StripsAction> buildPlan() {
+            List<StripsAction> suffix = new ArrayList<>();
+            for (int b = meetBackward; b != -1; b = backward.parent(b)) {
+                suffix.add(schemas.get(backward.action(b)).action);
+            }
+            Stack<StripsAction> plan = new Stack<>();
+            for (int i = suffix.size() - 1; i >= 0; i--) {
+                plan.push(suffix.get(i));
+            }
+            if (meetForward != -1) {
+                // reconstructPlan'ın çıktısında ilk aksiyon en üstte: alttan üste push
+                for (StripsAction action : AStarPlanner.reconstructPlan(forward, codec, meetForward)) {
+                    plan.push(action);
+                }
+            }
+            return plan;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Arrays;
+
+/**
+ * ReservationTable:
+ * Birden fazla köylünün aynı grid'de çarpışmadan yürümesi için uzay-zaman
+ * rezervasyon tablosu: (hücre, tur) -> o turda hücrede duracak birim.
+ *
+ * Sadece önümüzdeki 'horizon' tur tutuluyor; tablo bir halka:
+ *   slot = (tur % horizon) * hücreSayısı + hücre
+ *   owner[slot]  birim (FREE = boş)
+ *   turnOf[slot] owner'ın hangi tur için yazıldığı; tur tutmuyorsa kayıt bayat
+ * Böylece eski turlar hiç temizlenmiyor, turlar ilerledikçe kayıtlar kendiliğinden
+ * geçersiz oluyor; horizon'dan uzak bir tura yazmak yasak.
+ *
+ * Yolunu bitiren birim son hücresine "park eder": park(birim, x, y, tur) o
+ * turdan itibaren süresiz dolu demek. Yeni bir yol planlanınca önce unpark()
+ * (birim o andan itibaren tekrar yol rezervasyonlarıyla temsil ediliyor).
+ * Park kayıtları halkanın dışında, hücre başına tek değer; bir hücrede aynı anda
+ * tek birim park edebilir.
+ *
+ * Engeller (ağaç, maden, TownHall, harita dışı) WorldModel.isPassable'dan bir
+ * kere kopyalanır.
+ */
+public class ReservationTable {
+
+    public static final int FREE = -1;
+
+    private final int width;
+    private final int height;
+    private final int horizon;
+    private final boolean[] passable;
+
+    private final int[] owner;
+    private final int[] turnOf;
+
+    // hücre -> park eden birim / park başlangıç turu
+    private final int[] parkedBy;
+    private final int[] parkedSince;
+
+    /**
+     * @param horizon kaç turluk gelecek tutulacak (planlanan yolların üst sınırı)
+     */
+    public ReservationTable(WorldModel world, int horizon) {
+        if (!world.hasMap()) {
+            throw new IllegalArgumentException("reservation table needs a world with a map");
+        }
+        if (horizon <= 0) {
+            throw new IllegalArgumentException("horizon must be positive: " + horizon);
+        }
+        this.width = world.mapWidth();
+        this.height = world.mapHeight();
+        this.horizon = horizon;
+        int cells = width * height;
+        this.passable = new boolean[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            passable[cell] = world.isPassable(cell % width, cell / width);
+        }
+        this.owner = new int[horizon * cells];
+        this.turnOf = new int[horizon * cells];
+        Arrays.fill(turnOf, -1);
+        this.parkedBy = new int[cells];
+        this.parkedSince = new int[cells];
+        Arrays.fill(parkedBy, FREE);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int horizon() {
+        return horizon;
+    }
+
+    public boolean isPassable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && passable[y * width + x];
+    }
+
+    /**
+     * 'turn' turunda (x,y)'yi tutan birim (yol rezervasyonu ya da park), yoksa FREE.
+     */
+    public int ownerAt(int x, int y, int turn) {
+        int cell = y * width + x;
+        int slot = slot(cell, turn);
+        if (turnOf[slot] == turn && owner[slot] != FREE) {
+            return owner[slot];
+        }
+        if (parkedBy[cell] != FREE && parkedSince[cell] <= turn) {
+            return parkedBy[cell];
+        }
+        return FREE;
+    }
+
+    /**
+     * 'unit' 'turn' turunda (x,y)'de durabilir mi (geçilebilir ve başkası tutmuyor).
+     */
+    public boolean isFree(int unit, int x, int y, int turn) {
+        if (!isPassable(x, y)) {
+            return false;
+        }
+        int holder = ownerAt(x, y, turn);
+        return holder == FREE || holder == unit;
+    }
+
+    /**
+     * (x,y) 'from' turundan itibaren 'unit' dışında kimse tarafından tutulmuyor mu
+     * (tablonun gördüğü kadar, yani 'now + horizon'a kadar)? Park edilecek hücre
+     * için: sonradan oradan geçecek bir yol varsa park çakışır.
+     */
+    public boolean isFreeFrom(int unit, int x, int y, int from, int now) {
+        int cell = y * width + x;
+        if (parkedBy[cell] != FREE && parkedBy[cell] != unit) {
+            return false;
+        }
+        for (int t = from; t < now + horizon; t++) {
+            int slot = slot(cell, t);
+            if (turnOf[slot] == t && owner[slot] != FREE && owner[slot] != unit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 'unit' 'turn' turunda (x,y)'yi tutar. Başkasının kaydının üstüne yazmak
+     * bir planlama hatası; IllegalStateException.
+     */
+    public void reserve(int unit, int x, int y, int turn) {
+        int holder = ownerAt(x, y, turn);
+        if (holder != FREE && holder != unit) {
+            throw new IllegalStateException("cell (" + x + "," + y + ") at turn " + turn
+                    + " is held by unit " + holder);
+        }
+        int slot = slot(y * width + x, turn);
+        owner[slot] = unit;
+        turnOf[slot] = turn;
+    }
+
+    /**
+     * 'unit' 'turn' turundan itibaren (x,y)'de süresiz bekler.
+     */
+    public void park(int unit, int x, int y, int turn) {
+        int cell = y * width + x;
+        if (parkedBy[cell] != FREE && parkedBy[cell] != unit) {
+            throw new IllegalStateException("cell (" + x + "," + y + ") is already parked by unit "
+                    + parkedBy[cell]);
+        }
+        parkedBy[cell] = unit;
+        parkedSince[cell] = turn;
+    }
+
+    /**
+     * (x,y)'deki park kaydını kaldırır (sadece 'unit'in ise).
+     */
+    public void unpark(int unit, int x, int y) {
+        int cell = y * width + x;
+        if (parkedBy[cell] == unit) {
+            parkedBy[cell] = FREE;
+        }
+    }
+
+    private int slot(int cell, int turn) {
+        return Math.floorMod(turn, horizon) * width * height + cell;
+    }
+}
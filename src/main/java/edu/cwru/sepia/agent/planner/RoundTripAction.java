@@ -0,0 +1,88 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RoundTripAction:
+ * Boş eldeki köylünün bir kaynağa gidip 100 birim toplaması ve bir TownHall'a
+ * gidip teslim etmesi; yani tek bir "teslimat". TownHall verilmezse kaynağa en
+ * yakın olanı; birden fazla TownHall varsa arama her birine dönen turu ayrı
+ * aksiyon olarak üretiyor (bkz. ActionCodec).
+ *
+ *   Move(start -> kaynak), Harvest(kaynak), Move(kaynak -> TownHall), Deposit
+ *
+ * Temel modda bir teslimat dört A* adımı tutuyordu; makro modda tek adım.
+ * Maliyet dört aksiyonun maliyet toplamı:
+ *   d(start, kaynak) + 1 + d(kaynak, TownHall) + 1   (d = WorldModel.distance)
+ */
+public class RoundTripAction implements MacroAction {
+
+    public final int startX;
+    public final int startY;
+    public final ResourceInfo resource; // hedef kaynak düğümü
+    public final WorldModel.TownHallInfo townHall; // teslim edilen TownHall
+
+    private final WorldModel world;
+
+    public RoundTripAction(WorldModel world, int startX, int startY, ResourceInfo resource) {
+        this(world, startX, startY, resource, world.nearestTownHall(resource));
+    }
+
+    public RoundTripAction(WorldModel world, int startX, int startY, ResourceInfo resource,
+                           WorldModel.TownHallInfo townHall) {
+        this.world = world;
+        this.startX = startX;
+        this.startY = startY;
+        this.resource = resource;
+        this.townHall = townHall;
+    }
+
+    @Override
+    public boolean arePreconditionsMet(GameState state) {
+        // Önkoşullar:
+        // 1. Köylü start noktasında olmalı (maliyet buna göre hesaplandı)
+        // 2. Köylünün elleri boş olmalı
+        // 3. Bu kaynaktan en az 100 birim kalmış olmalı
+        return state.peasantX == startX &&
+               state.peasantY == startY &&
+               !state.peasantIsCarrying &&
+               state.remaining(resource) >= 100;
+    }
+
+    @Override
+    public GameState apply(GameState state) {
+        return state.withRoundTrip(resource, townHall);
+    }
+
+    @Override
+    public void writeSuccessorKey(GameState state, long[] out) {
+        System.arraycopy(state.key(), 0, out, 0, state.keyWidth());
+        out[0] = GameState.packPeasant(townHall.x, townHall.y, false, false);
+        out[1] = resource.isGoldMine
+                ? GameState.packCollected(state.collectedGold + 100, state.collectedWood)
+                : GameState.packCollected(state.collectedGold, state.collectedWood + 100);
+        GameState.packRemaining(out, resource.index, state.remaining(resource) - 100);
+    }
+
+    @Override
+    public double getCost() {
+        return world.distance(startX, startY, resource.x, resource.y) + 1.0
+                + world.distance(resource.x, resource.y, townHall.x, townHall.y) + 1.0;
+    }
+
+    @Override
+    public List<StripsAction> expand() {
+        List<StripsAction> steps = new ArrayList<>(4);
+        // Zaten kaynağın üstündeysek ilk hareket gereksiz
+        if (startX != resource.x || startY != resource.y) {
+            steps.add(new MoveAction(world, startX, startY, resource.x, resource.y));
+        }
+        steps.add(new HarvestAction(resource));
+        steps.add(new MoveAction(world, resource.x, resource.y, townHall.x, townHall.y));
+        steps.add(new DepositAction());
+        return steps;
+    }
+}
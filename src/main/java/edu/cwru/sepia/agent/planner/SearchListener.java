@@ -0,0 +1,17 @@
+package edu.cwru.sepia.agent.planner;
+
+/**
+ * Aramayı izlemek için kanca (ör. görselleştirme, canlı log).
+ * Her expand'de bir kere çağrılır. Listener verilmemişse planlayıcı hiçbir
+ * şey yapmaz; verilmişse her expand için bir GameState oluşturulur.
+ */
+public interface SearchListener {
+
+    /**
+     * @param state     expand edilen state
+     * @param costG     g(n)
+     * @param heuristicH h(n)
+     * @param stats     o ana kadarki sayaçlar (arama bitene kadar değişir, saklamayın)
+     */
+    void nodeExpanded(GameState state, double costG, double heuristicH, SearchStats stats);
+}
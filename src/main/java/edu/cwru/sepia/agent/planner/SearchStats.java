@@ -0,0 +1,154 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.Locale;
+import java.util.Stack;
+
+/**
+ * SearchStats:
+ * Bir planlama çağrısının sayaçları ve (açıksa) faz süreleri.
+ *
+ * Sayaçlar her zaman tutulur (düz int artırımı). Faz süreleri System.nanoTime()
+ * gerektirdiği için sadece planlayıcıda zamanlama açıksa doldurulur
+ * (AStarPlanner.setPhaseTiming); kapalıyken hepsi 0'dır.
+ *
+ * Planlayıcı arama boyunca alanları doğrudan yazar; dışarıya sadece okunur.
+ */
+public class SearchStats {
+
+    final String planner;
+
+    // Sayaçlar
+    int expanded;
+    int generated;
+    // Closed set'te veya open list'te zaten (eşit/daha iyi g ile) olduğu için atılan successor'lar
+    int duplicates;
+    int peakOpen;
+    int closedSize;
+
+    // Sonuç
+    boolean found;
+    int planLength;
+    double planCost;
+
+    // Süreler (nanosaniye)
+    long wallNanos;
+    boolean phaseTimed;
+    long successorNanos;
+    long heuristicNanos;
+    long hashingNanos;
+    long heapNanos;
+
+    SearchStats(String planner) {
+        this.planner = planner;
+    }
+
+    /**
+     * found / planLength / planCost alanlarını plandan doldurur.
+     */
+    void recordPlan(Stack<StripsAction> plan) {
+        found = plan != null;
+        planLength = plan == null ? 0 : plan.size();
+        planCost = 0;
+        if (plan != null) {
+            for (StripsAction action : plan) {
+                planCost += action.getCost();
+            }
+        }
+    }
+
+    public String getPlanner() {
+        return planner;
+    }
+
+    public int getExpanded() {
+        return expanded;
+    }
+
+    public int getGenerated() {
+        return generated;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Üretilen successor'ların ne kadarı tekrar eden state'ti (0..1).
+     */
+    public double getDuplicateRate() {
+        return generated == 0 ? 0.0 : (double) duplicates / generated;
+    }
+
+    public int getPeakOpen() {
+        return peakOpen;
+    }
+
+    public int getClosedSize() {
+        return closedSize;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public int getPlanLength() {
+        return planLength;
+    }
+
+    public double getPlanCost() {
+        return planCost;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public boolean isPhaseTimed() {
+        return phaseTimed;
+    }
+
+    /**
+     * Aksiyon üretme, budama, successor anahtarı ve maliyet.
+     */
+    public long getSuccessorNanos() {
+        return successorNanos;
+    }
+
+    public long getHeuristicNanos() {
+        return heuristicNanos;
+    }
+
+    /**
+     * Kanonikleştirme ve closed set işlemleri.
+     */
+    public long getHashingNanos() {
+        return hashingNanos;
+    }
+
+    /**
+     * Open list offer / poll.
+     */
+    public long getHeapNanos() {
+        return heapNanos;
+    }
+
+    /**
+     * Kazınabilir tek satır: "PLANNER_STATS anahtar=değer ...". Alan sırası sabit.
+     */
+    public String toLine() {
+        return String.format(Locale.ROOT,
+                "PLANNER_STATS planner=%s found=%b length=%d cost=%.1f"
+                        + " expanded=%d generated=%d duplicates=%d duplicate_rate=%.4f"
+                        + " peak_open=%d closed=%d wall_ns=%d phase_timed=%b"
+                        + " successor_ns=%d heuristic_ns=%d hashing_ns=%d heap_ns=%d",
+                planner, found, planLength, planCost,
+                expanded, generated, duplicates, getDuplicateRate(),
+                peakOpen, closedSize, wallNanos, phaseTimed,
+                successorNanos, heuristicNanos, hashingNanos, heapNanos);
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+}
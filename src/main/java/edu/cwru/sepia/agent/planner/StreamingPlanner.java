@@ -0,0 +1,378 @@
+package edu.cwru.sepia.agent.planner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * StreamingPlanner:
+ * RTAA* (Real-Time Adaptive A*, Koenig & Likhachev 2006) ile planı parça parça
+ * üretir; yürütme ilk parça gelir gelmez başlayabilir, arama arkada sürer.
+ *
+ * Her adım (şimdiki state s'den):
+ * 1) En fazla 'lookahead' expand'lik A* (f = g + h). Hedef çıkarsa s'den hedefe
+ *    yol taahhüt edilir ve akış biter.
+ * 2) Çıkmazsa open list'in en küçük f'li state'i 'best'. Expand edilen her n için
+ *      h(n) = f(best) - g(n)
+ *    öğrenilir (RTAA* güncellemesi; temel heuristic kabul edilebilir ve tutarlıysa
+ *    öğrenilen değerler de öyle kalır, aynı state'e bir daha düşük tahminle
+ *    dönülmez, yani takılıp dönme yok).
+ * 3) s'den best'e yol taahhüt edilir: aksiyonlar kanala (PlanStream) yazılır,
+ *    s = best. Taahhüt edilen aksiyon geri alınmaz.
+ *
+ * Adım başına iş lookahead ile sınırlı, hedefin büyüklüğünden bağımsız; ilk
+ * parça A*'ın tam planı bulmasını beklemez. Karşılığında plan optimal olmayabilir
+ * (lookahead büyüdükçe A*'a yaklaşır). Makro modda (RoundTripAction) her
+ * expand bir teslimat; ilk turlar, yakın-optimal planların hepsinde aynı olan
+ * turlar, birkaç adımda taahhüt ediliyor.
+ *
+ * Kullanım:
+ * - start(s): arka planda (daemon thread) akış başlar, kanal döner. Kanal doluysa
+ *   planlayıcı bekler (yürütmenin en fazla 'capacity' aksiyon önünde).
+ * - findPlan(s): aynı arama çağıran thread'de, tüm plan tek Stack olarak.
+ * Dünya tablosu arka plan thread'iyle paylaşıldığı için start() mesafeleri
+ * önceden hazırlar (WorldModel.prepareDistances). Akış başladığı dünyayla sürer;
+ * düğüm tükenip dünya değişince (WorldModel.withExhausted) cancel() edilip yeni
+ * dünyadan tekrar başlatılmalı (RCAgent öyle yapıyor).
+ */
+public class StreamingPlanner implements Planner {
+
+    public static final int DEFAULT_LOOKAHEAD = 256;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private boolean useMacroActions;
+    private Heuristic heuristic = new TravelAwareHeuristic();
+    private int lookahead = DEFAULT_LOOKAHEAD;
+    private int capacity = DEFAULT_CAPACITY;
+
+    // Arka plan akışı
+    private Thread streamer;
+    private PlanStream stream;
+
+    // Son biten aramanın sonucu (akışta üretici thread'i yazıyor)
+    private volatile PlanResult lastResult;
+
+    public StreamingPlanner() {
+        this(true);
+    }
+
+    public StreamingPlanner(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public boolean isUsingMacroActions() {
+        return useMacroActions;
+    }
+
+    public void setUseMacroActions(boolean useMacroActions) {
+        this.useMacroActions = useMacroActions;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Adım başına en fazla expand sayısı (>= 1).
+     */
+    public void setLookahead(int lookahead) {
+        if (lookahead <= 0) {
+            throw new IllegalArgumentException("lookahead must be positive: " + lookahead);
+        }
+        this.lookahead = lookahead;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Kanalın aksiyon kapasitesi (>= 1).
+     */
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Lookahead planı değiştiriyor (kapasite değiştirmiyor); önbellek anahtarına giriyor.
+     */
+    @Override
+    public String describe() {
+        return "StreamingPlanner(macro=" + useMacroActions
+                + ",lookahead=" + lookahead
+                + ",heuristic=" + heuristic.getClass().getSimpleName() + ")";
+    }
+
+    /**
+     * Son biten aramanın sonucu: tüm plan ve sayaçlar. Akışta kanal bitmeden
+     * (PlanStream.isFinished) önce yazılıyor; henüz biten arama yoksa null.
+     */
+    public PlanResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Arka plan akışını başlatır (öncekini durdurur) ve kanalını döndürür.
+     */
+    public PlanStream start(GameState startState) {
+        cancel();
+        startState.world.prepareDistances();
+        final PlanStream channel = new PlanStream(capacity);
+        final Search search = new Search(startState, new SearchStats("StreamingPlanner(stream)"));
+        Thread thread = new Thread(() -> {
+            long searchStart = System.nanoTime();
+            List<StripsAction> steps = new ArrayList<>();
+            boolean found = false;
+            try {
+                found = search.run(actions -> {
+                    steps.addAll(actions);
+                    return channel.publish(actions);
+                });
+            } finally {
+                lastResult = search.result(steps, found, searchStart);
+                channel.finish(found);
+            }
+        }, "rtaa-streamer");
+        thread.setDaemon(true);
+        stream = channel;
+        streamer = thread;
+        thread.start();
+        return channel;
+    }
+
+    /**
+     * Akış hâlâ üretiyor mu?
+     */
+    public boolean isStreaming() {
+        Thread thread = streamer;
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Arka plan akışını durdurur ve bitmesini bekler. Kanalda kalan aksiyonlar
+     * hâlâ alınabilir.
+     */
+    public void cancel() {
+        Thread thread = streamer;
+        if (thread == null) {
+            return;
+        }
+        stream.cancel();
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        streamer = null;
+        stream = null;
+    }
+
+    /**
+     * Arka plan akışını durdurur (cancel).
+     */
+    @Override
+    public void cancelBackgroundWork() {
+        cancel();
+    }
+
+    @Override
+    public Stack<StripsAction> findPlan(GameState startState) {
+        return plan(startState).getPlan();
+    }
+
+    @Override
+    public PlanResult plan(GameState startState) {
+        long searchStart = System.nanoTime();
+        Search search = new Search(startState, new SearchStats("StreamingPlanner"));
+        List<StripsAction> steps = new ArrayList<>();
+        boolean found = search.run(actions -> {
+            steps.addAll(actions);
+            return true;
+        });
+        PlanResult result = search.result(steps, found, searchStart);
+        lastResult = result;
+        return result;
+    }
+
+    /**
+     * Taahhüt edilen parçaların gittiği yer: liste ya da kanal.
+     */
+    private interface Sink {
+        boolean accept(List<StripsAction> actions);
+    }
+
+    /**
+     * Bir RTAA* akışının durumu: öğrenilen h tablosu adımlar arasında korunur,
+     * lookahead aramaları her adımda sıfırdan.
+     */
+    private final class Search {
+
+        final GameState startState;
+        final SearchStats stats;
+        final int width;
+        final ActionCodec codec;
+        final boolean macro;
+        final int lookaheadLimit;
+        final Heuristic baseHeuristic;
+
+        // anahtar -> öğrenilen h (maliyetler tam sayı)
+        final PackedStateMap learned;
+
+        Search(GameState startState, SearchStats stats) {
+            this.startState = startState;
+            this.stats = stats;
+            this.width = startState.keyWidth();
+            this.codec = new ActionCodec(startState.world);
+            this.macro = useMacroActions;
+            this.lookaheadLimit = lookahead;
+            this.baseHeuristic = heuristic;
+            this.learned = new PackedStateMap(width);
+        }
+
+        /**
+         * Taahhüt edilen aksiyonlardan (ilk aksiyon başta) PlanResult.
+         */
+        PlanResult result(List<StripsAction> steps, boolean found, long searchStart) {
+            stats.wallNanos = System.nanoTime() - searchStart;
+            Stack<StripsAction> plan = null;
+            if (found) {
+                // Stack: ilk uygulanacak aksiyon en üstte
+                plan = new Stack<>();
+                for (int i = steps.size() - 1; i >= 0; i--) {
+                    plan.push(steps.get(i));
+                }
+            }
+            stats.recordPlan(plan);
+            return new PlanResult(plan, stats);
+        }
+
+        /**
+         * Hedefe ulaşana kadar adım atar. Hedefe ulaşıldıysa true; arama
+         * başarısızsa ya da sink durdurduysa false.
+         */
+        boolean run(Sink sink) {
+            baseHeuristic.prepare(startState);
+            long[] current = startState.key().clone();
+            if (startState.isGoal(current)) {
+                return true;
+            }
+
+            long[] key = new long[width];
+            long[] successorKey = new long[width];
+            int[] actionCodes = new int[codec.maxActions()];
+            int[] expandedNodes = new int[lookaheadLimit];
+
+            while (true) {
+                NodeArena arena = new NodeArena(width);
+                LazyHeapOpenList open = new LazyHeapOpenList(arena);
+                PackedStateSet closed = new PackedStateSet(width);
+                open.offer(arena.add(current, 0.0, estimate(current), NodeArena.NO_PARENT,
+                        NodeArena.NO_ACTION), current);
+
+                int expanded = 0;
+                int frontier = -1;
+                boolean goal = false;
+                while (!open.isEmpty()) {
+                    int node = open.poll();
+                    arena.copyKey(node, key);
+                    if (closed.contains(key)) {
+                        continue;
+                    }
+                    if (startState.isGoal(key)) {
+                        frontier = node;
+                        goal = true;
+                        break;
+                    }
+                    if (expanded == lookaheadLimit) {
+                        // Bütçe bitti: open'ın en küçük f'lisi
+                        frontier = node;
+                        break;
+                    }
+                    closed.add(key);
+                    expandedNodes[expanded++] = node;
+                    stats.expanded++;
+
+                    int actionCount = codec.generate(key, macro, actionCodes);
+                    for (int i = 0; i < actionCount; i++) {
+                        int code = actionCodes[i];
+                        stats.generated++;
+                        codec.writeSuccessorKey(key, code, successorKey);
+                        if (closed.contains(successorKey)) {
+                            stats.duplicates++;
+                            continue;
+                        }
+                        double h = estimate(successorKey);
+                        if (Double.isInfinite(h)) {
+                            continue;
+                        }
+                        double g = arena.costG(node) + codec.cost(key, code);
+                        open.offer(arena.add(successorKey, g, h, node, code), successorKey);
+                    }
+                }
+                stats.peakOpen = Math.max(stats.peakOpen, open.peakSize());
+                stats.closedSize += closed.size();
+                if (frontier < 0) {
+                    // Ulaşılabilir her state açıldı, hedef yok
+                    return false;
+                }
+
+                if (!goal) {
+                    learn(arena, expandedNodes, expanded,
+                            arena.costG(frontier) + arena.heuristicH(frontier));
+                }
+
+                List<StripsAction> committed = new ArrayList<>(
+                        AStarPlanner.reconstructPlan(arena, codec, frontier));
+                // Stack'te ilk aksiyon en üstte (listenin sonunda)
+                Collections.reverse(committed);
+                if (!sink.accept(committed)) {
+                    return false;
+                }
+                if (goal) {
+                    return true;
+                }
+                arena.copyKey(frontier, current);
+            }
+        }
+
+        private double estimate(long[] key) {
+            double h = baseHeuristic.estimate(startState, key);
+            int value = learned.get(key);
+            return value == PackedStateMap.NO_VALUE ? h : Math.max(h, value);
+        }
+
+        /**
+         * RTAA* güncellemesi: expand edilen her n için h(n) = f(best) - g(n).
+         */
+        private void learn(NodeArena arena, int[] expandedNodes, int count, double frontierF) {
+            long[] key = new long[width];
+            for (int i = 0; i < count; i++) {
+                int node = expandedNodes[i];
+                int value = (int) (frontierF - arena.costG(node));
+                arena.copyKey(node, key);
+                int old = learned.get(key);
+                if (old == PackedStateMap.NO_VALUE || value > old) {
+                    learned.put(key, value);
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package edu.cwru.sepia.agent.planner;
 
+import edu.cwru.sepia.action.Action;
+
 /**
  * STRIPS-benzeri aksiyon arayüzü.
  * Her aksiyon:
  *  - Bu durumda yasal mı? (arePreconditionsMet)
  *  - Uygulanırsa yeni durum ne olur? (apply)
  *  - Maliyeti ne? (getCost)
+ *  - SEPIA'da hangi komutla yürütülür? (toSepiaAction)
  */
 public interface StripsAction {
 
@@ -21,9 +24,28 @@ public interface StripsAction {
      */
     GameState apply(GameState state);
 
+    /**
+     * apply(state) sonucunun paketlenmiş anahtarını 'out' dizisine yazar.
+     * A* closed set kontrolünü successor GameState'i oluşturmadan yapabilsin diye var.
+     * Varsayılan hali apply() çağırır; temel aksiyonlar bunu ucuz şekilde override eder.
+     */
+    default void writeSuccessorKey(GameState state, long[] out) {
+        long[] key = apply(state).key();
+        System.arraycopy(key, 0, out, 0, key.length);
+    }
+
     /**
      * Aksiyonun maliyeti.
      * A* araması g(n) += cost ile ilerliyor.
      */
     double getCost();
+
+    /**
+     * Bu aksiyonu 'state'teki köylü için yürüten SEPIA komutu (compound; çok tur
+     * sürebilir, bkz. DurativeExecutor). SEPIA karşılığı olmayan aksiyonlar
+     * (makrolar, sadece planlamada kullanılanlar) null döndürür.
+     */
+    default Action toSepiaAction(GameState state) {
+        return null;
+    }
 }
@@ -0,0 +1,297 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SymmetryPruner:
+ * A* için üç aşamalı budama. Hepsi optimal plan maliyetini korur; budamalı ve
+ * budamasız A* aynı maliyeti bulur (SymmetryPrunerTest).
+ *
+ * 1) Simetri (closed set anahtarı):
+ *    Aynı türdeki iki düğüm, diğer TÜM ilgi noktalarına (TownHall'lar ve diğer
+ *    kaynaklar) aynı uzaklıktaysa ve en yakın TownHall'ları aynıysa birbirinin
+ *    yerine geçebilir: ikisini takas etmek aksiyonları, maliyetleri ve hedefi
+ *    olduğu gibi korur. Bir "simetri sınıfı"ndaki düğümler ikişer ikişer bu
+ *    koşulu sağlar, bu yüzden sınıf içindeki her permütasyon da geçerli.
+ *    canonicalize() anahtardaki kalan miktarları "kalan tur sayısına"
+ *    (remaining / 100) çevirir, her sınıf içinde sıralar ve köylü bir sınıf
+ *    üyesinin üstündeyse onu sıralamadaki karşılığına taşır. Köylü bir ilgi
+ *    noktasında değilse (sadece başlangıçta) ona eşit uzaklıkta olmayan sınıflara
+ *    dokunulmaz. Böylece simetrik state'ler closed set'te tek bir anahtara düşer.
+ *
+ * 2) Gereksiz hedef (successor filtresi):
+ *    Eli boş köylü için, hedefi zaten karşılanmış türden bir kaynağa yönelen
+ *    aksiyon kodları (Move / Harvest / RoundTrip) atılır. Böyle bir aksiyonla
+ *    başlayan her plan parçası ondan kısaltılabilir: o türü toplamak hedefe
+ *    katkı vermez, mesafeler metrik olduğu için (DistanceOracle) ara durak da
+ *    yolu kısaltmaz.
+ *
+ * 3) Baskınlık (successor filtresi):
+ *    Mesafeler metrik olduğu için optimal bir planda köylü bir kaynağa sadece
+ *    bulunduğu yerden (ilk tur) ya da bir TownHall'dan gider, hasat eder ve bir
+ *    TownHall'a döner; ara durak yapmaz. Yani bir düğümün maliyete katkısı sadece
+ *    köylüye ve TownHall'lara uzaklığı. Aynı türden a düğümü b'ye baskın:
+ *    - her TownHall'a b kadar yakın (eşitlikte index'i küçük olan baskın),
+ *    - köylünün şu anki yerine b kadar yakın,
+ *    - ve a'da o türün kalan bütün turları için yetecek kadar kaynak var.
+ *    O zaman b'ye giden her tur a'ya çevrilebilir; plan pahalanmaz, a yetiyor.
+ *    Eli boş köylünün b'ye yönelen aksiyonları atılır. Birden fazla tur
+ *    gerekiyorsa kapasite şartı önemli: sadece "daha yakın" düğümü seçmek yakın
+ *    düğüm bitince pahalı planlara götürüyordu.
+ */
+public class SymmetryPruner {
+
+    private final WorldModel world;
+
+    // Hedefler (bir türün hedefi karşılandıysa o türe giden aksiyon gereksiz)
+    private final int requiredGold;
+    private final int requiredWood;
+
+    // classes[c] = c. simetri sınıfındaki kaynak index'leri (sadece 2+ üyeli sınıflar)
+    private final int[][] classes;
+
+    // dominators[b] = TownHall'lara göre b'ye baskın olabilecek aynı türden düğümler
+    private final int[][] dominators;
+
+    // canonicalize() içinde tekrar kullanılan tamponlar
+    private final int[] trips;
+    private final int[] order;
+    private final int[] sortedTrips;
+
+    public SymmetryPruner(GameState startState) {
+        this.world = startState.world;
+        this.requiredGold = startState.requiredGold;
+        this.requiredWood = startState.requiredWood;
+        int n = world.resourceCount();
+
+        List<int[]> found = new ArrayList<>();
+        boolean[] assigned = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (assigned[i]) {
+                continue;
+            }
+            List<Integer> members = new ArrayList<>();
+            members.add(i);
+            assigned[i] = true;
+            for (int j = i + 1; j < n; j++) {
+                if (!assigned[j] && interchangeableWithAll(j, members)) {
+                    members.add(j);
+                    assigned[j] = true;
+                }
+            }
+            if (members.size() > 1) {
+                int[] cls = new int[members.size()];
+                for (int k = 0; k < cls.length; k++) {
+                    cls[k] = members.get(k);
+                }
+                found.add(cls);
+            }
+        }
+        this.classes = found.toArray(new int[0][]);
+
+        this.dominators = new int[n][];
+        for (int b = 0; b < n; b++) {
+            List<Integer> over = new ArrayList<>();
+            for (int a = 0; a < n; a++) {
+                if (a != b && closerToTownHalls(a, b)) {
+                    over.add(a);
+                }
+            }
+            dominators[b] = new int[over.size()];
+            for (int k = 0; k < dominators[b].length; k++) {
+                dominators[b][k] = over.get(k);
+            }
+        }
+        this.trips = new int[n];
+        this.order = new int[n];
+        this.sortedTrips = new int[n];
+    }
+
+    private boolean interchangeableWithAll(int candidate, List<Integer> members) {
+        for (int member : members) {
+            if (!interchangeable(candidate, member)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * a ile b'yi takas etmek dünyanın bir simetrisi mi? Aynı tür, aynı en yakın
+     * TownHall, her TownHall'a ve diğer her kaynağa aynı uzaklık.
+     */
+    private boolean interchangeable(int a, int b) {
+        ResourceInfo ra = world.resource(a);
+        ResourceInfo rb = world.resource(b);
+        if (ra.isGoldMine != rb.isGoldMine
+                || world.nearestTownHall(ra) != world.nearestTownHall(rb)
+                || distance(ra, rb.x, rb.y) != distance(rb, ra.x, ra.y)) {
+            return false;
+        }
+        for (WorldModel.TownHallInfo t : world.townHalls()) {
+            if (distance(ra, t.x, t.y) != distance(rb, t.x, t.y)) {
+                return false;
+            }
+        }
+        for (ResourceInfo other : world.resources()) {
+            if (other.index != a && other.index != b
+                    && distance(ra, other.x, other.y) != distance(rb, other.x, other.y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * a, b ile aynı türden ve her TownHall'a ondan uzak değil mi? Her yerde eşitse
+     * index'i küçük olan kazanır, böylece baskınlık döngü kurmuyor.
+     */
+    private boolean closerToTownHalls(int a, int b) {
+        ResourceInfo ra = world.resource(a);
+        ResourceInfo rb = world.resource(b);
+        if (ra.isGoldMine != rb.isGoldMine) {
+            return false;
+        }
+        boolean strictly = false;
+        for (WorldModel.TownHallInfo t : world.townHalls()) {
+            int da = distance(ra, t.x, t.y);
+            int db = distance(rb, t.x, t.y);
+            if (da > db) {
+                return false;
+            }
+            strictly |= da < db;
+        }
+        return strictly || a < b;
+    }
+
+    private int distance(ResourceInfo r, int x, int y) {
+        return world.distance(r.x, r.y, x, y);
+    }
+
+    /**
+     * Kaç tane 2+ üyeli simetri sınıfı var? (Rapor için.)
+     */
+    public int symmetryClassCount() {
+        return classes.length;
+    }
+
+    /**
+     * Paketlenmiş bir GameState anahtarını yerinde kanonik hale getirir.
+     * GameState'in kendi key() dizisi ASLA buraya verilmemeli; önce kopyalanmalı.
+     */
+    public void canonicalize(long[] key) {
+        int n = world.resourceCount();
+        for (int i = 0; i < n; i++) {
+            // 100'ün altındaki artık hiçbir hasadı mümkün kılmaz
+            trips[i] = GameState.unpackRemaining(key, i) / 100;
+        }
+
+        int peasantX = GameState.unpackPeasantX(key);
+        int peasantY = GameState.unpackPeasantY(key);
+        int peasantOn = world.resourceIndexAt(peasantX, peasantY);
+        boolean atPointOfInterest = peasantOn >= 0 || world.isTownHall(peasantX, peasantY);
+        int movedTo = -1;
+
+        for (int[] cls : classes) {
+            if (!atPointOfInterest && !equidistant(cls, peasantX, peasantY)) {
+                // Köylü ara bir hücrede ve üyeler ona farklı uzaklıkta: takas simetri değil
+                continue;
+            }
+            // Üyeleri (tur sayısı azalan, köylünün olduğu önce, index artan) sırala.
+            // Sınıflar küçük olduğu için insertion sort yeterli.
+            int m = cls.length;
+            for (int k = 0; k < m; k++) {
+                int member = cls[k];
+                int pos = k;
+                while (pos > 0 && before(member, order[pos - 1], peasantOn)) {
+                    order[pos] = order[pos - 1];
+                    pos--;
+                }
+                order[pos] = member;
+            }
+            for (int k = 0; k < m; k++) {
+                sortedTrips[k] = trips[order[k]];
+                if (order[k] == peasantOn) {
+                    movedTo = cls[k];
+                }
+            }
+            for (int k = 0; k < m; k++) {
+                trips[cls[k]] = sortedTrips[k];
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            GameState.packRemaining(key, i, trips[i]);
+        }
+        if (movedTo >= 0) {
+            ResourceInfo target = world.resource(movedTo);
+            key[0] = (key[0] & ~0xFFFFFFFFL) | (target.x & 0xFFFFL) | ((target.y & 0xFFFFL) << 16);
+        }
+    }
+
+    private boolean equidistant(int[] cls, int x, int y) {
+        int first = distance(world.resource(cls[0]), x, y);
+        for (int k = 1; k < cls.length; k++) {
+            if (distance(world.resource(cls[k]), x, y) != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean before(int a, int b, int peasantOn) {
+        if (trips[a] != trips[b]) {
+            return trips[a] > trips[b];
+        }
+        if ((a == peasantOn) != (b == peasantOn)) {
+            return a == peasantOn;
+        }
+        return a < b;
+    }
+
+    /**
+     * 'key' state'inden üretilmiş aksiyon kodlarından gereksiz olmayanları
+     * 'codes' dizisinin başına toplar ve yeni sayıyı döndürür.
+     */
+    public int prune(long[] key, int[] codes, int count) {
+        if (GameState.unpackCarrying(key)) {
+            // Yük taşırken tek seçenek TownHall (Move veya Deposit), budanacak bir şey yok
+            return count;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int target = ActionCodec.resourceOf(codes[i]);
+            if (target < 0 || !isDominated(key, world.resource(target))) {
+                codes[kept++] = codes[i];
+            }
+        }
+        return kept;
+    }
+
+    private boolean isDominated(long[] key, ResourceInfo r) {
+        int missing = r.isGoldMine
+                ? requiredGold - GameState.unpackCollectedGold(key)
+                : requiredWood - GameState.unpackCollectedWood(key);
+        if (missing <= 0) {
+            // Hedefi karşılanmış tür (bkz. sınıf açıklaması, 2)
+            return true;
+        }
+        // Baskın bir düğüm kalan turların hepsine yetiyor mu (bkz. 3)
+        int tripsLeft = (missing + 99) / 100;
+        int peasantX = GameState.unpackPeasantX(key);
+        int peasantY = GameState.unpackPeasantY(key);
+        int toTarget = distance(r, peasantX, peasantY);
+        for (int a : dominators[r.index]) {
+            ResourceInfo dominator = world.resource(a);
+            if (GameState.unpackRemaining(key, a) / 100 >= tripsLeft
+                    && distance(dominator, peasantX, peasantY) <= toTarget) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,190 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import edu.cwru.sepia.agent.planner.WorldModel.TownHallInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TravelAwareHeuristic:
+ * Hareket maliyetini de hesaba katan, kabul edilebilir (admissible) ve tutarlı
+ * (consistent) heuristic.
+ *
+ * Fikir:
+ * - TownHall'dan başlayan bir tur (r düğümüne git, topla, bir TownHall'a dön,
+ *   bırak) hangi TownHall'lar olursa olsun en az
+ *   slot(r) = 2 * d(r, en yakın TownHall) + 2 tutar. Her düğüm (kalan / 100)
+ *   kadar tur verebilir.
+ * - k tur lazımsa alt sınır, o türün düğümlerinden kapasiteleri aşmadan seçilen
+ *   en ucuz k slotun toplamı S. Kapasiteler state'in KENDİ kalan miktarlarından
+ *   okunuyor (başlangıcınkinden değil), düğümler slot'a göre bir kere sıralı.
+ * - İlk tur köylünün konumundan başlıyor: r'yi ilk tur seçmek
+ *     d(p, r) + d(r, TownHall) + 2 - min(slot(r), son_t)
+ *   ekler (son_t: S'ye giren en pahalı t slotu; r'nin bir birimi ilk turda
+ *   harcanınca geri kalan turların en ucuzu tam olarak S - min(slot(r), son_t)).
+ *   Gerekli türden kapasitesi olan düğümlerin en küçüğü alınır.
+ * - Köylü yük taşıyorsa önce bir TownHall'a dönüp bırakmak zorunda; taşınan yük
+ *   bir turu karşılar. Hangi TownHall olduğu bilinmediği için
+ *     1 + min_H [ d(p, H) + (H'den boş elle yukarıdaki tahmin) ].
+ *
+ * Neden tutarlı (h(s) <= c(s, s') + h(s') her aksiyon için): mesafeler metrik
+ * (DistanceOracle), Move'lar üçgen eşitsizliğiyle; Harvest'te ilk tur terimi
+ * birebir S'den düşen slota eşit, taşıma halinin min_H'si de bunu bozmaz
+ * (d(r, H) >= d(r, en yakın)); Deposit'te ilk tur terimi negatif olamaz.
+ * Önceki sürüm S'yi başlangıç miktarlarından kurup ilk turda "son slotu"
+ * çıkarıyordu; kabul edilebilirdi ama tutarlı değildi ve kapalı düğümleri tekrar
+ * açmayan A* (AStarPlanner, AnytimeAStarPlanner'ın sınırı) optimal olmayan plan
+ * buluyordu.
+ *
+ * estimate() kaynak sayısıyla (taşırken TownHall x kaynak sayısıyla) doğrusal;
+ * sıralama ve slotlar prepare()'de. Gereken tur sayısı kalan kapasiteyi aşıyorsa
+ * hedefe ulaşılamaz; o zaman sonsuz döner.
+ */
+public class TravelAwareHeuristic implements Heuristic {
+
+    private static final int GOLD = 0;
+    private static final int WOOD = 1;
+
+    private WorldModel world;
+
+    // slot[i] = 2 * d(i. kaynak, en yakın TownHall) + 2
+    private int[] slot;
+
+    // nodesBySlot[t] = t türündeki kaynak index'leri, slot'a göre artan
+    private int[][] nodesBySlot;
+
+    // Tahmin başına tamponlar: düğüm başına kalan tur kapasitesi, S'ye giren son slot
+    private int[] capacity;
+    private final int[] lastSlot = new int[2];
+
+    @Override
+    public void prepare(GameState startState) {
+        this.world = startState.world;
+        int count = world.resourceCount();
+        this.slot = new int[count];
+        this.capacity = new int[count];
+
+        List<Integer> gold = new ArrayList<>();
+        List<Integer> wood = new ArrayList<>();
+        for (ResourceInfo r : world.resources()) {
+            slot[r.index] = 2 * world.distanceToTownHall(r) + 2;
+            (r.isGoldMine ? gold : wood).add(r.index);
+        }
+        gold.sort((a, b) -> Integer.compare(slot[a], slot[b]));
+        wood.sort((a, b) -> Integer.compare(slot[a], slot[b]));
+        nodesBySlot = new int[2][];
+        nodesBySlot[GOLD] = gold.stream().mapToInt(Integer::intValue).toArray();
+        nodesBySlot[WOOD] = wood.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public double estimate(GameState state) {
+        for (ResourceInfo r : world.resources()) {
+            capacity[r.index] = state.remaining(r) / 100;
+        }
+        return estimate(state.requiredGold - state.collectedGold,
+                state.requiredWood - state.collectedWood,
+                state.peasantX, state.peasantY,
+                state.peasantIsCarrying, state.peasantCarriesGold);
+    }
+
+    @Override
+    public double estimate(GameState start, long[] key) {
+        for (int i = 0; i < capacity.length; i++) {
+            capacity[i] = GameState.unpackRemaining(key, i) / 100;
+        }
+        return estimate(start.requiredGold - GameState.unpackCollectedGold(key),
+                start.requiredWood - GameState.unpackCollectedWood(key),
+                GameState.unpackPeasantX(key), GameState.unpackPeasantY(key),
+                GameState.unpackCarrying(key), GameState.unpackCarriesGold(key));
+    }
+
+    /**
+     * 'capacity' tamponu doldurulmuş olmalı.
+     */
+    private double estimate(int goldNeeded, int woodNeeded,
+                            int px, int py,
+                            boolean carrying, boolean carriesGold) {
+        int goldTrips = tripsNeeded(goldNeeded);
+        int woodTrips = tripsNeeded(woodNeeded);
+        if (goldTrips == 0 && woodTrips == 0) {
+            return 0;
+        }
+
+        if (carrying) {
+            // Taşınan yük bırakılınca bir turu karşılıyor
+            if (carriesGold && goldTrips > 0) {
+                goldTrips--;
+            } else if (!carriesGold && woodTrips > 0) {
+                woodTrips--;
+            }
+        }
+
+        double trips = cheapestTrips(GOLD, goldTrips) + cheapestTrips(WOOD, woodTrips);
+        if (Double.isInfinite(trips)) {
+            // Haritada bu kadar kaynak kalmamış
+            return Double.POSITIVE_INFINITY;
+        }
+        if (!carrying) {
+            return trips + firstTrip(px, py, goldTrips, woodTrips);
+        }
+        if (goldTrips == 0 && woodTrips == 0) {
+            return world.distanceToTownHall(px, py) + 1;
+        }
+
+        // Başka bir şey toplamadan önce elindekini bir TownHall'a bırakmak zorunda
+        double best = Double.POSITIVE_INFINITY;
+        for (TownHallInfo t : world.townHalls()) {
+            best = Math.min(best, world.distance(px, py, t.x, t.y)
+                    + firstTrip(t.x, t.y, goldTrips, woodTrips));
+        }
+        return 1 + trips + best;
+    }
+
+    /**
+     * t türündeki en ucuz 'trips' slotun toplamı (kapasitelere uyarak); lastSlot[t]'yi
+     * yazar. Kapasite yetmiyorsa sonsuz.
+     */
+    private double cheapestTrips(int type, int trips) {
+        int left = trips;
+        double total = 0;
+        for (int r : nodesBySlot[type]) {
+            if (left == 0) {
+                break;
+            }
+            int take = Math.min(capacity[r], left);
+            if (take > 0) {
+                total += (double) take * slot[r];
+                left -= take;
+                lastSlot[type] = slot[r];
+            }
+        }
+        return left > 0 ? Double.POSITIVE_INFINITY : total;
+    }
+
+    /**
+     * (x,y)'den başlayan ilk turun, TownHall'dan sayılan slotuna eklediği en az
+     * maliyet (bkz. sınıf açıklaması). cheapestTrips'ten sonra çağrılmalı.
+     */
+    private double firstTrip(int x, int y, int goldTrips, int woodTrips) {
+        if (goldTrips == 0 && woodTrips == 0) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (ResourceInfo r : world.resources()) {
+            int type = r.isGoldMine ? GOLD : WOOD;
+            if (capacity[r.index] == 0 || (type == GOLD ? goldTrips : woodTrips) == 0) {
+                continue;
+            }
+            double cost = world.distance(x, y, r.x, r.y) + world.distanceToTownHall(r) + 2
+                    - Math.min(slot[r.index], lastSlot[type]);
+            best = Math.min(best, cost);
+        }
+        return best;
+    }
+
+    private static int tripsNeeded(int needed) {
+        return needed <= 0 ? 0 : (needed + 99) / 100;
+    }
+}
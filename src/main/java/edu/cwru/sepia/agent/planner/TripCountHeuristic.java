@@ -0,0 +1,67 @@
+package edu.cwru.sepia.agent.planner;
+
+/**
+ * TripCountHeuristic: planlayıcının ilk (orijinal) heuristic'i.
+ *
+ * Amaç: Hâlâ toplanması gereken altın/odun miktarı için kaç "toplama turu"
+ * (harvest + deposit döngüsü) gerektiğini alt sınır olarak tahmin etmek.
+ *
+ * Neden güvenli? (admissible)
+ * - Hareket maliyetlerini (MoveAction) küçümsemiyoruz, hatta yok sayıyoruz.
+ *   Bu A* için iyidir, yani heuristic hedefe olan gerçek maliyeti asla aşmaz.
+ *
+ * - Her hasat/depolama döngüsünde 100 birim kaynak işleniyor
+ *   ve bu en az iki aksiyon demek:
+ *     HarvestAction (1 cost)
+ *     DepositAction (1 cost)
+ *   Yani bir tur ≈ 2 cost.
+ *
+ * Hareketi hiç saymadığı için zayıf; daha güçlüsü TravelAwareHeuristic.
+ */
+public class TripCountHeuristic implements Heuristic {
+
+    @Override
+    public double estimate(GameState state) {
+        return estimate(state.requiredGold - state.collectedGold,
+                state.requiredWood - state.collectedWood,
+                state.peasantIsCarrying);
+    }
+
+    @Override
+    public double estimate(GameState start, long[] key) {
+        return estimate(start.requiredGold - GameState.unpackCollectedGold(key),
+                start.requiredWood - GameState.unpackCollectedWood(key),
+                GameState.unpackCarrying(key));
+    }
+
+    private double estimate(int goldMissing, int woodMissing, boolean carrying) {
+        // Hedefe kalan miktarları hesapla
+        double goldNeeded = Math.max(0, goldMissing);
+        double woodNeeded = Math.max(0, woodMissing);
+
+        // Kaç "100-lük paket" daha lazım?
+        double goldTrips = Math.ceil(goldNeeded / 100.0);
+        double woodTrips = Math.ceil(woodNeeded / 100.0);
+
+        // Her trip kabaca:
+        //   HarvestAction (1)
+        //   DepositAction (1)
+        // => 2 maliyet
+        double baseHeuristic = (goldTrips + woodTrips) * 2.0;
+
+        // Ek küçük iyileştirme:
+        // Eğer köylü zaten yük taşıyorsa, muhtemelen sıradaki adım Deposit olacak,
+        // yani en azından Harvest'i yapmış durumda sayabiliriz. Bu biraz maliyeti düşürür.
+        if (carrying) {
+            // Tamamen aşırı agresif olmayalım, -1 yeter.
+            baseHeuristic = baseHeuristic - 1.0;
+        }
+
+        // Negatif dönmesin
+        if (baseHeuristic < 0) {
+            baseHeuristic = 0;
+        }
+
+        return baseHeuristic;
+    }
+}
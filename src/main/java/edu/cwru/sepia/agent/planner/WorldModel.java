@@ -0,0 +1,534 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.environment.model.state.ResourceNode;
+import edu.cwru.sepia.environment.model.state.State;
+import edu.cwru.sepia.environment.model.state.Unit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * WorldModel:
+ * Arama boyunca DEĞİŞMEYEN dünya bilgisi. Bir kere oluşturulur ve aynı
+ * aramadaki tüm GameState'ler tarafından paylaşılır.
+ *
+ * Şu an tuttukları:
+ * - Kaynak düğümlerinin statik bilgisi (x, y, tür, SEPIA id)
+ * - Her düğümün başlangıçtaki kaynak miktarı
+ * - Teslim noktaları (TownHall'lar; birden fazla olabilir) ve her kaynak için
+ *   en yakın TownHall ile ona olan mesafe (önceden hesaplanmış)
+ * - Harita biliniyorsa engelleri hesaba katan mesafeler (DistanceOracle);
+ *   bilinmiyorsa (eski sentetik dünyalar) Chebyshev
+ *
+ * State başına değişen kısım (kalan miktarlar) GameState içinde küçük bir
+ * int[] olarak duruyor; bu tablo hiçbir zaman kopyalanmaz.
+ *
+ * Değişmez: düğüm tükenip hücresi açılınca withExhausted() yeni bir WorldModel
+ * döndürür, ExecutionMonitor bir sonraki gözlemden itibaren onu kullanır (tur
+ * sınırında değiş tokuş). O an süren arama / arka plan iyileştirmesi eski
+ * dünyayla tutarlı şekilde biter; kilit gerekmiyor. (Tek istisna mesafe
+ * satırlarının tembel hesaplanması: dünyayı başka bir thread'e veren önce
+ * prepareDistances() çağırıyor.)
+ */
+public class WorldModel {
+
+    private final List<ResourceInfo> resources;
+    private final int[] initialAmounts;
+    private final List<TownHallInfo> townHalls;
+
+    // (x,y) -> kaynak index'i + 1, TownHall ise -(TownHall index'i + 1),
+    // 0 = ikisi de yok; gridWidth x gridHeight
+    private int[] pointGrid;
+    private int gridWidth;
+    private int gridHeight;
+
+    // Yol mesafeleri; null ise Chebyshev. İlgi noktaları önce TownHall'lar
+    // (0..T-1), sonra kaynaklar (T + i = i. kaynak).
+    private final DistanceOracle distances;
+
+    // Kaynak index'i -> en yakın TownHall'un index'i / ona mesafe
+    // (constructor'larda bir kere hesaplanır)
+    private int[] nearestTownHall;
+    private int[] townHallDistance;
+
+    /**
+     * Gerçek SEPIA durumundan dünya tablosunu çıkarır. Teslim noktaları oyuncu 0'ın
+     * altın ya da odun kabul eden binaları (TownHall'lar), id sırasıyla.
+     */
+    public WorldModel(State.StateView state) {
+        List<ResourceInfo> nodes = new ArrayList<>();
+        List<ResourceNode.ResourceView> views = state.getAllResourceNodes();
+        int[] amounts = new int[views.size()];
+        for (ResourceNode.ResourceView resource : views) {
+            boolean isGold = (resource.getType() == ResourceNode.Type.GOLD_MINE);
+            amounts[nodes.size()] = resource.getAmountRemaining();
+            nodes.add(new ResourceInfo(
+                    nodes.size(),
+                    resource.getXPosition(),
+                    resource.getYPosition(),
+                    isGold,
+                    resource.getID()
+            ));
+        }
+        this.resources = Collections.unmodifiableList(nodes);
+        this.initialAmounts = amounts;
+
+        List<Unit.UnitView> dropOffs = new ArrayList<>();
+        for (Unit.UnitView unit : state.getUnits(0)) {
+            if (unit.getTemplateView().canAcceptGold() || unit.getTemplateView().canAcceptWood()) {
+                dropOffs.add(unit);
+            }
+        }
+        dropOffs.sort((a, b) -> Integer.compare(a.getID(), b.getID()));
+        List<TownHallInfo> halls = new ArrayList<>();
+        for (Unit.UnitView unit : dropOffs) {
+            halls.add(new TownHallInfo(halls.size(), unit.getXPosition(), unit.getYPosition(), unit.getID()));
+        }
+        this.townHalls = checkTownHalls(halls);
+        indexPositions();
+
+        // Engeller: kaynak düğümleri ve hareket edemeyen birimler (TownHall, binalar).
+        // Köylüler sürekli yer değiştirdiği için engel sayılmıyor.
+        int width = state.getXExtent();
+        int height = state.getYExtent();
+        boolean[] blocked = new boolean[width * height];
+        for (ResourceInfo r : resources) {
+            blocked[r.y * width + r.x] = true;
+        }
+        for (Unit.UnitView unit : state.getAllUnits()) {
+            if (!unit.getTemplateView().canMove()) {
+                blocked[unit.getYPosition() * width + unit.getXPosition()] = true;
+            }
+        }
+        this.distances = createOracle(width, height, blocked);
+        computeNearestTownHalls();
+    }
+
+    /**
+     * Sentetik dünya (SEPIA runtime olmadan planlayıcıyı çalıştırmak için).
+     * resources.get(i).index == i olmalı; initialAmounts[i] i. düğümün miktarıdır.
+     * townHalls en az bir eleman, townHalls.get(i).index == i.
+     */
+    public WorldModel(List<ResourceInfo> resources, int[] initialAmounts, List<TownHallInfo> townHalls) {
+        if (resources.size() != initialAmounts.length) {
+            throw new IllegalArgumentException("resources and initialAmounts differ in length");
+        }
+        for (int i = 0; i < resources.size(); i++) {
+            if (resources.get(i).index != i) {
+                throw new IllegalArgumentException("resource at position " + i
+                        + " has index " + resources.get(i).index);
+            }
+        }
+        this.resources = Collections.unmodifiableList(new ArrayList<>(resources));
+        this.initialAmounts = initialAmounts.clone();
+        this.townHalls = checkTownHalls(townHalls);
+        indexPositions();
+        this.distances = null;
+        computeNearestTownHalls();
+    }
+
+    /**
+     * Sentetik dünya, haritasıyla: width x height grid, blocked[y * width + x] geçilemez.
+     * Kaynak hücreleri ve TownHall'lar, blocked'da işaretli olmasa da engel sayılır.
+     */
+    public WorldModel(List<ResourceInfo> resources, int[] initialAmounts, List<TownHallInfo> townHalls,
+                      int width, int height, boolean[] blocked) {
+        if (resources.size() != initialAmounts.length) {
+            throw new IllegalArgumentException("resources and initialAmounts differ in length");
+        }
+        if (blocked.length != width * height) {
+            throw new IllegalArgumentException("blocked grid does not match " + width + "x" + height);
+        }
+        for (int i = 0; i < resources.size(); i++) {
+            if (resources.get(i).index != i) {
+                throw new IllegalArgumentException("resource at position " + i
+                        + " has index " + resources.get(i).index);
+            }
+        }
+        this.resources = Collections.unmodifiableList(new ArrayList<>(resources));
+        this.initialAmounts = initialAmounts.clone();
+        this.townHalls = checkTownHalls(townHalls);
+        indexPositions();
+
+        boolean[] withNodes = blocked.clone();
+        for (ResourceInfo r : this.resources) {
+            withNodes[r.y * width + r.x] = true;
+        }
+        for (TownHallInfo t : this.townHalls) {
+            withNodes[t.y * width + t.x] = true;
+        }
+        this.distances = createOracle(width, height, withNodes);
+        computeNearestTownHalls();
+    }
+
+    private static List<TownHallInfo> checkTownHalls(List<TownHallInfo> townHalls) {
+        if (townHalls.isEmpty()) {
+            throw new IllegalArgumentException("world has no town hall to deposit at");
+        }
+        for (int i = 0; i < townHalls.size(); i++) {
+            if (townHalls.get(i).index != i) {
+                throw new IllegalArgumentException("town hall at position " + i
+                        + " has index " + townHalls.get(i).index);
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(townHalls));
+    }
+
+    private DistanceOracle createOracle(int width, int height, boolean[] blocked) {
+        int halls = townHalls.size();
+        int[] xs = new int[halls + resources.size()];
+        int[] ys = new int[halls + resources.size()];
+        for (TownHallInfo t : townHalls) {
+            xs[t.index] = t.x;
+            ys[t.index] = t.y;
+        }
+        for (ResourceInfo r : resources) {
+            xs[halls + r.index] = r.x;
+            ys[halls + r.index] = r.y;
+        }
+        return new DistanceOracle(width, height, blocked, xs, ys);
+    }
+
+    private void indexPositions() {
+        for (ResourceInfo r : resources) {
+            gridWidth = Math.max(gridWidth, r.x + 1);
+            gridHeight = Math.max(gridHeight, r.y + 1);
+        }
+        for (TownHallInfo t : townHalls) {
+            gridWidth = Math.max(gridWidth, t.x + 1);
+            gridHeight = Math.max(gridHeight, t.y + 1);
+        }
+        pointGrid = new int[gridWidth * gridHeight];
+        for (ResourceInfo r : resources) {
+            pointGrid[r.y * gridWidth + r.x] = r.index + 1;
+        }
+        for (TownHallInfo t : townHalls) {
+            pointGrid[t.y * gridWidth + t.x] = -(t.index + 1);
+        }
+    }
+
+    /**
+     * Her kaynak için en yakın TownHall (eşitlikte küçük index) ve ona mesafe.
+     */
+    private void computeNearestTownHalls() {
+        int[] nearest = new int[resources.size()];
+        int[] distance = new int[resources.size()];
+        for (ResourceInfo r : resources) {
+            int best = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (TownHallInfo t : townHalls) {
+                int d = distance(r.x, r.y, t.x, t.y);
+                if (d < bestDistance) {
+                    best = t.index;
+                    bestDistance = d;
+                }
+            }
+            nearest[r.index] = best;
+            distance[r.index] = bestDistance;
+        }
+        this.nearestTownHall = nearest;
+        this.townHallDistance = distance;
+    }
+
+    /**
+     * Tüm kaynak düğümleri (index sırasıyla, değiştirilemez).
+     */
+    public List<ResourceInfo> resources() {
+        return resources;
+    }
+
+    public int resourceCount() {
+        return resources.size();
+    }
+
+    public ResourceInfo resource(int index) {
+        return resources.get(index);
+    }
+
+    /**
+     * (x,y) hücresindeki kaynağın index'i, yoksa -1. O(1).
+     */
+    public int resourceIndexAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= gridWidth || y >= gridHeight) {
+            return -1;
+        }
+        int point = pointGrid[y * gridWidth + x];
+        return point > 0 ? point - 1 : -1;
+    }
+
+    /**
+     * Tüm TownHall'lar (teslim noktaları; index sırasıyla, değiştirilemez, en az bir tane).
+     */
+    public List<TownHallInfo> townHalls() {
+        return townHalls;
+    }
+
+    public int townHallCount() {
+        return townHalls.size();
+    }
+
+    public TownHallInfo townHall(int index) {
+        return townHalls.get(index);
+    }
+
+    /**
+     * Ana TownHall (index 0): yeni köylülerin üretildiği yer.
+     */
+    public TownHallInfo primaryTownHall() {
+        return townHalls.get(0);
+    }
+
+    /**
+     * (x,y) hücresindeki TownHall'un index'i, yoksa -1. O(1).
+     */
+    public int townHallIndexAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= gridWidth || y >= gridHeight) {
+            return -1;
+        }
+        int point = pointGrid[y * gridWidth + x];
+        return point < 0 ? -point - 1 : -1;
+    }
+
+    /**
+     * (x,y) bir TownHall'un hücresi mi (köylü orada teslim edebilir).
+     */
+    public boolean isTownHall(int x, int y) {
+        return townHallIndexAt(x, y) >= 0;
+    }
+
+    /**
+     * r'ye en yakın TownHall (önceden hesaplanmış).
+     */
+    public TownHallInfo nearestTownHall(ResourceInfo r) {
+        return townHalls.get(nearestTownHall[r.index]);
+    }
+
+    /**
+     * (x,y)'ye en yakın TownHall. (x,y) bir kaynak ya da TownHall ise tablo okuması,
+     * değilse TownHall başına bir mesafe sorgusu.
+     */
+    public TownHallInfo nearestTownHall(int x, int y) {
+        int hall = townHallIndexAt(x, y);
+        if (hall >= 0) {
+            return townHalls.get(hall);
+        }
+        int resource = resourceIndexAt(x, y);
+        if (resource >= 0) {
+            return townHalls.get(nearestTownHall[resource]);
+        }
+        TownHallInfo best = townHalls.get(0);
+        if (townHalls.size() == 1) {
+            return best;
+        }
+        int bestDistance = distance(x, y, best.x, best.y);
+        for (int i = 1; i < townHalls.size(); i++) {
+            TownHallInfo t = townHalls.get(i);
+            int d = distance(x, y, t.x, t.y);
+            if (d < bestDistance) {
+                best = t;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * (x1,y1) ile (x2,y2) arasındaki hareket süresi (tur). İki uçtan biri bir TownHall ya da
+     * bir kaynak düğümüyse O(1) tablo okuması; harita yoksa Chebyshev.
+     */
+    public int distance(int x1, int y1, int x2, int y2) {
+        if (distances == null) {
+            return GameState.chebyshev(x1, y1, x2, y2);
+        }
+        return distances.distance(x1, y1, x2, y2);
+    }
+
+    /**
+     * Mesafe tablosunun tüm satırlarını hazırlar; ardından distance() thread'ler
+     * arasında paylaşılabilir (bkz. DistanceOracle.computeAll). Harita yoksa bir şey yapmaz.
+     */
+    public void prepareDistances() {
+        if (distances != null) {
+            distances.computeAll();
+        }
+    }
+
+    /**
+     * Harita biliniyor mu (grid'e bakan katmanlar, ör. CooperativeScheduler, bunu ister).
+     */
+    public boolean hasMap() {
+        return distances != null;
+    }
+
+    /**
+     * Harita genişliği / yüksekliği; harita yoksa 0.
+     */
+    public int mapWidth() {
+        return distances == null ? 0 : distances.width();
+    }
+
+    public int mapHeight() {
+        return distances == null ? 0 : distances.height();
+    }
+
+    /**
+     * Köylü (x,y)'de durabilir mi: harita içinde ve engel, kaynak ya da TownHall değil.
+     * Harita yoksa sadece kaynak ve TownHall hücreleri dolu sayılır.
+     */
+    public boolean isPassable(int x, int y) {
+        if (distances != null) {
+            return !distances.isBlocked(x, y);
+        }
+        return resourceIndexAt(x, y) < 0 && !isTownHall(x, y);
+    }
+
+    /**
+     * d(r, en yakın TownHall): r'den dönüş turunun yarısı. Önceden hesaplanmış, O(1).
+     */
+    public int distanceToTownHall(ResourceInfo r) {
+        return townHallDistance[r.index];
+    }
+
+    /**
+     * (x,y)'den en yakın TownHall'a mesafe.
+     */
+    public int distanceToTownHall(int x, int y) {
+        TownHallInfo t = nearestTownHall(x, y);
+        return distance(x, y, t.x, t.y);
+    }
+
+    /**
+     * Dünyanın 64 bitlik özeti: düğümler (konum, tür, id), başlangıç miktarları ve
+     * harita. PlanCache anahtarına giriyor; aynı harita ve miktarlar aynı özeti verir.
+     */
+    public long fingerprint() {
+        long h = FINGERPRINT_SEED;
+        for (ResourceInfo r : resources) {
+            h = mix(h, r.x);
+            h = mix(h, r.y);
+            h = mix(h, r.isGoldMine ? 1 : 0);
+            h = mix(h, r.resourceID);
+            h = mix(h, initialAmounts[r.index]);
+        }
+        for (TownHallInfo t : townHalls) {
+            h = mix(h, t.x);
+            h = mix(h, t.y);
+        }
+        return distances == null ? h : mix(h, distances.fingerprint());
+    }
+
+    // FNV-1a (64 bit), int / long başına bir adım; kriptografik değil, çakışma
+    // ihtimali anahtarın geri kalanıyla (state, hedefler) birlikte ihmal edilebilir
+    static final long FINGERPRINT_SEED = 0xcbf29ce484222325L;
+
+    static long mix(long h, long value) {
+        return (h ^ value) * 0x100000001b3L;
+    }
+
+    /**
+     * Düğüm tükendi ve SEPIA onu haritadan kaldırdı: hücresi açık yeni bir dünya.
+     * Düğümler, TownHall'lar ve başlangıç miktarları paylaşılır; mesafeler ilk
+     * sorulduklarında yeniden hesaplanır, en yakın TownHall tablosu hemen. Harita
+     * yoksa (Chebyshev) hiçbir şey değişmiyor, bu dünya döner. Bu dünyayı okuyan
+     * aramalar etkilenmez.
+     */
+    public WorldModel withExhausted(int index) {
+        if (distances == null) {
+            return this;
+        }
+        ResourceInfo r = resource(index);
+        DistanceOracle opened = distances.withUnblocked(r.x, r.y);
+        return opened == distances ? this : new WorldModel(this, opened);
+    }
+
+    private WorldModel(WorldModel base, DistanceOracle distances) {
+        this.resources = base.resources;
+        this.initialAmounts = base.initialAmounts;
+        this.townHalls = base.townHalls;
+        this.pointGrid = base.pointGrid;
+        this.gridWidth = base.gridWidth;
+        this.gridHeight = base.gridHeight;
+        this.distances = distances;
+        computeNearestTownHalls();
+    }
+
+    /**
+     * Başlangıç miktarlarının bir kopyası (yeni bir GameState'in kalan vektörü olur).
+     */
+    int[] initialAmounts() {
+        return initialAmounts.clone();
+    }
+
+    /**
+     * ResourceInfo: Bir kaynak düğümünün (maden/orman) statik hali.
+     * Kalan miktar burada DEĞİL, GameState.remaining[index] içinde tutulur.
+     */
+    public static class ResourceInfo {
+        public final int index;
+        public final int x;
+        public final int y;
+        public final boolean isGoldMine;
+        public final int resourceID;
+
+        public ResourceInfo(int index, int x, int y, boolean isGoldMine, int resourceID) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.isGoldMine = isGoldMine;
+            this.resourceID = resourceID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ResourceInfo)) return false;
+            ResourceInfo that = (ResourceInfo) o;
+            return index == that.index &&
+                   x == that.x &&
+                   y == that.y &&
+                   isGoldMine == that.isGoldMine &&
+                   resourceID == that.resourceID;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(index, x, y, isGoldMine, resourceID);
+        }
+    }
+
+    /**
+     * TownHallInfo: Bir teslim noktasının (TownHall) statik hali.
+     * Köylü teslim için soyut olarak TownHall'un hücresine "gider" (kaynaklardaki gibi).
+     */
+    public static class TownHallInfo {
+        public final int index;
+        public final int x;
+        public final int y;
+        public final int unitID;
+
+        public TownHallInfo(int index, int x, int y, int unitID) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.unitID = unitID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TownHallInfo)) return false;
+            TownHallInfo that = (TownHallInfo) o;
+            return index == that.index &&
+                   x == that.x &&
+                   y == that.y &&
+                   unitID == that.unitID;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(index, x, y, unitID);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ActionCodec, GameState'in aksiyon üreticileriyle aynı aksiyon uzayını vermeli;
+ * birden fazla TownHall'da bu uzay her TownHall'a Move / RoundTrip içeriyor.
+ */
+public class ActionCodecTest {
+
+    private static final int SEEDS = 40;
+
+    private static final int PLAN_SEEDS = 300;
+
+    @Test
+    public void codesMatchGameStateGenerators() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            for (int halls = 1; halls <= 3; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                ActionCodec codec = new ActionCodec(start.world);
+                int width = start.keyWidth();
+                PackedStateSet seen = new PackedStateSet(width);
+                ArrayDeque<long[]> queue = new ArrayDeque<>();
+                seen.add(start.key());
+                queue.add(start.key().clone());
+                int[] codes = new int[codec.maxActions()];
+                long[] successor = new long[width];
+                while (!queue.isEmpty()) {
+                    long[] key = queue.poll();
+                    GameState state = GameState.fromKey(start, key);
+                    for (boolean macro : new boolean[]{false, true}) {
+                        List<StripsAction> actions = macro
+                                ? state.generateMacroActions() : state.generateApplicableActions();
+                        int count = codec.generate(key, macro, codes);
+                        String where = "seed " + seed + ", halls " + halls + ", macro=" + macro;
+                        assertEquals(where, actions.size(), count);
+                        for (int i = 0; i < count; i++) {
+                            StripsAction action = actions.get(i);
+                            assertEquals(where, codec.encode(action), codes[i]);
+                            assertEquals(where, action.getCost(), codec.cost(key, codes[i]), 0.0);
+                            codec.writeSuccessorKey(key, codes[i], successor);
+                            assertEquals(where, action.apply(state), GameState.fromKey(start, successor));
+                            if (seen.add(successor)) {
+                                queue.add(successor.clone());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void aStarIsAsCheapAsRegressionWithSeveralTownHalls() {
+        // İleri arama yükü sadece en yakın TownHall'a götürürken bazı dünyalarda
+        // regresyondan pahalı plan buluyordu (ör. seed 3, 2 TownHall: 74 yerine 72)
+        for (long seed = 1; seed <= PLAN_SEEDS; seed++) {
+            for (int halls = 2; halls <= 3; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                double regression = RandomWorlds.cost(start, new RegressionPlanner(false).findPlan(start));
+                String world = "seed " + seed + ", halls " + halls;
+                for (boolean macro : new boolean[]{false, true}) {
+                    assertEquals("A*(macro=" + macro + "), " + world, regression,
+                            RandomWorlds.cost(start, new AStarPlanner(macro).findPlan(start)), 0.0);
+                }
+            }
+        }
+    }
+}
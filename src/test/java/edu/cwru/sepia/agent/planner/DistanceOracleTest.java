@@ -0,0 +1,86 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ağaçlar (ilgi noktaları) BFS'te uç nokta: bir orman duvarının içinden geçilmez,
+ * mesafeler yine de simetrik ve üçgen eşitsizliği geçerli.
+ */
+public class DistanceOracleTest {
+
+    private static final int WIDTH = 14;
+    private static final int HEIGHT = 12;
+
+    // x = 6 ve 7 sütunlarında y = 0..10 ağaç duvarı (iki sıra); boşluk en altta, y = 11.
+    // İlgi noktası 0 TownHall (2,1), 1 maden (11,1), sonrakiler duvar ağaçları.
+    private static DistanceOracle forestWall() {
+        int trees = 2 * (HEIGHT - 1);
+        int[] xs = new int[2 + trees];
+        int[] ys = new int[2 + trees];
+        boolean[] blocked = new boolean[WIDTH * HEIGHT];
+        xs[0] = 2;
+        ys[0] = 1;
+        xs[1] = 11;
+        ys[1] = 1;
+        int p = 2;
+        for (int x = 6; x <= 7; x++) {
+            for (int y = 0; y < HEIGHT - 1; y++) {
+                xs[p] = x;
+                ys[p] = y;
+                p++;
+            }
+        }
+        for (int i = 0; i < xs.length; i++) {
+            blocked[ys[i] * WIDTH + xs[i]] = true;
+        }
+        return new DistanceOracle(WIDTH, HEIGHT, blocked, xs, ys);
+    }
+
+    @Test
+    public void walksAroundAForestWall() {
+        DistanceOracle oracle = forestWall();
+        // Duvarın içinden 9 olurdu; boşluktan (y = 11) dolaşmak gerekiyor. En kısası
+        // duvarın ucundaki (6,10) ağacında durmak: ona (5,9)'dan 9 adımda girilir,
+        // oradan (7,11) 1, (7,11) -> (10,2) 9, madene 1 = 20
+        assertEquals(9, GameState.chebyshev(2, 1, 11, 1));
+        assertEquals(20, oracle.distance(2, 1, 11, 1));
+        assertEquals(20, oracle.distance(11, 1, 2, 1));
+        // Boş bir hücreye de: (6,10) ağacına 9, (7,11) -> (10,1) 10 adım
+        assertEquals(20, oracle.distance(2, 1, 10, 1));
+        // Duvarın ağaçlarına sadece kendi taraflarından girilir
+        assertEquals(4, oracle.distance(2, 1, 6, 1));
+        assertEquals(20, oracle.distance(2, 1, 7, 1));
+    }
+
+    @Test
+    public void distancesAreAMetricOverPointsOfInterest() {
+        DistanceOracle oracle = forestWall();
+        int[][] points = new int[2 + 2 * (HEIGHT - 1)][];
+        points[0] = new int[]{2, 1};
+        points[1] = new int[]{11, 1};
+        int p = 2;
+        for (int x = 6; x <= 7; x++) {
+            for (int y = 0; y < HEIGHT - 1; y++) {
+                points[p++] = new int[]{x, y};
+            }
+        }
+        for (int[] a : points) {
+            for (int[] b : points) {
+                int ab = oracle.distance(a[0], a[1], b[0], b[1]);
+                assertEquals(oracle.distance(b[0], b[1], a[0], a[1]), ab);
+                for (int[] c : points) {
+                    assertTrue(ab <= oracle.distance(a[0], a[1], c[0], c[1])
+                            + oracle.distance(c[0], c[1], b[0], b[1]));
+                }
+                // Boş hücrelerden de
+                for (int y = 0; y < HEIGHT; y++) {
+                    int cell = oracle.distance(0, y, b[0], b[1]);
+                    assertTrue(cell <= oracle.distance(0, y, a[0], a[1]) + ab);
+                }
+            }
+        }
+    }
+}
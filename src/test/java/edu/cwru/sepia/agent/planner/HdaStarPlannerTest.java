@@ -0,0 +1,58 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sahip seçimi, worker'ların PackedStateMap slotlarıyla (hash'in alt bitleri) ilişkisiz olmalı.
+ */
+public class HdaStarPlannerTest {
+
+    private static final int KEYS = 1 << 16;
+
+    private static final int SLOTS = 1 << 10;
+
+    @Test
+    public void ownedKeysSpreadOverEveryTableSlot() {
+        Random random = new Random(1);
+        for (int threads = 2; threads <= 8; threads++) {
+            boolean[] used = new boolean[SLOTS];
+            int owned = 0;
+            int slots = 0;
+            long[] key = new long[3];
+            for (int i = 0; i < KEYS; i++) {
+                for (int j = 0; j < key.length; j++) {
+                    key[j] = random.nextLong();
+                }
+                int hash = PackedStateSet.hash(key, 0, key.length);
+                if (HdaStarPlanner.owner(hash, threads) != 0) {
+                    continue;
+                }
+                owned++;
+                if (!used[hash & (SLOTS - 1)]) {
+                    used[hash & (SLOTS - 1)] = true;
+                    slots++;
+                }
+            }
+            // Eski hash mod thread ile 4 thread'de worker 0 sadece SLOTS / 4 slota düşüyordu
+            assertEquals("threads " + threads, KEYS / threads, owned, KEYS / threads / 10);
+            assertTrue("threads " + threads + ": " + slots + " slots", slots > SLOTS * 9 / 10);
+        }
+    }
+
+    @Test
+    public void findsTheSamePlanCostAsAStar() {
+        for (long seed = 1; seed <= 100; seed++) {
+            for (int halls = 1; halls <= 2; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                assertEquals("seed " + seed + ", halls " + halls,
+                        RandomWorlds.cost(start, new AStarPlanner().findPlan(start)),
+                        RandomWorlds.cost(start, new HdaStarPlanner(4).findPlan(start)), 0.0);
+            }
+        }
+    }
+}
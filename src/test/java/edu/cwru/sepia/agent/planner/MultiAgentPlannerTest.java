@@ -0,0 +1,40 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.junit.Test;
+
+import java.util.Stack;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tek köylüde ortak arama AStarPlanner ile aynı aksiyon uzayında: makespan = plan maliyeti.
+ */
+public class MultiAgentPlannerTest {
+
+    private static final int SEEDS = 150;
+
+    @Test
+    public void singlePeasantCostsAsMuchAsAStarWithTwoTownHalls() {
+        // Yük sadece en yakın TownHall'a gidiyordu (ör. seed 3: 74 yerine 72)
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            GameState start = RandomWorlds.start(seed, 2);
+            GameStateMulti multi = new GameStateMulti(start.world, new int[]{start.peasantX},
+                    new int[]{start.peasantY}, start.requiredGold, start.requiredWood);
+            for (boolean macro : new boolean[]{false, true}) {
+                String where = "seed " + seed + ", macro=" + macro;
+                double expected = RandomWorlds.cost(start, new AStarPlanner(macro).findPlan(start));
+                assertEquals(where, expected, makespan(new MultiAgentPlanner(macro).findPlan(multi), where), 0.0);
+            }
+        }
+    }
+
+    private static double makespan(Stack<JointAction> plan, String where) {
+        assertNotNull(where, plan);
+        double cost = 0;
+        for (JointAction step : plan) {
+            cost += step.getCost();
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,107 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import edu.cwru.sepia.agent.planner.WorldModel.TownHallInfo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * RandomWorlds:
+ * Optimallik testleri için küçük, rastgele (seed'e göre hep aynı) dünyalar:
+ * 20x20 harita, hücrelerin ~%18'i engel, 1..3 TownHall, 2..4 kaynak (100..500),
+ * köylü boş bir hücrede. Hedefler küçük tutuluyor ki düz Dijkstra (h = 0)
+ * karşılaştırma için birkaç milisaniyede bitsin.
+ */
+final class RandomWorlds {
+
+    static final int SIZE = 20;
+
+    private RandomWorlds() {
+    }
+
+    static GameState start(long seed, int townHalls) {
+        Random random = new Random(seed);
+        boolean[] blocked = new boolean[SIZE * SIZE];
+        for (int cell = 0; cell < blocked.length; cell++) {
+            blocked[cell] = random.nextInt(100) < 18;
+        }
+        Set<Integer> used = new HashSet<>();
+
+        List<TownHallInfo> halls = new ArrayList<>();
+        for (int t = 0; t < townHalls; t++) {
+            int cell = freeCell(random, blocked, used);
+            halls.add(new TownHallInfo(t, cell % SIZE, cell / SIZE, t));
+        }
+
+        int count = 2 + random.nextInt(3);
+        List<ResourceInfo> resources = new ArrayList<>();
+        int[] amounts = new int[count];
+        int gold = 0;
+        int wood = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = freeCell(random, blocked, used);
+            boolean isGold = i % 2 == 0;
+            resources.add(new ResourceInfo(i, cell % SIZE, cell / SIZE, isGold, 100 + i));
+            amounts[i] = 100 * (1 + random.nextInt(5));
+            if (isGold) {
+                gold += amounts[i];
+            } else {
+                wood += amounts[i];
+            }
+        }
+        WorldModel world = new WorldModel(resources, amounts, halls, SIZE, SIZE, blocked);
+
+        int cell;
+        do {
+            cell = random.nextInt(SIZE * SIZE);
+        } while (blocked[cell] || used.contains(cell));
+        int requiredGold = 100 * random.nextInt(Math.min(gold, 500) / 100 + 1);
+        int requiredWood = 100 * random.nextInt(Math.min(wood, 500) / 100 + 1);
+        return new GameState(world, cell % SIZE, cell / SIZE, requiredGold, requiredWood);
+    }
+
+    /**
+     * Planı start'tan uygular; geçersizse ya da hedefe varmıyorsa -1, yoksa maliyeti.
+     */
+    static double cost(GameState start, Stack<StripsAction> plan) {
+        if (plan == null) {
+            return -1;
+        }
+        GameState state = start;
+        double cost = 0;
+        // Stack: ilk aksiyon en üstte
+        for (int i = plan.size() - 1; i >= 0; i--) {
+            StripsAction action = plan.get(i);
+            if (!action.arePreconditionsMet(state)) {
+                return -1;
+            }
+            cost += action.getCost();
+            state = action.apply(state);
+        }
+        return state.isGoal() ? cost : -1;
+    }
+
+    /**
+     * Heuristic'siz A* (Dijkstra): aynı aksiyon uzayında optimal maliyet.
+     */
+    static double uniformCost(GameState start, boolean macro) {
+        AStarPlanner planner = new AStarPlanner(macro);
+        planner.setHeuristic(state -> 0);
+        return cost(start, planner.findPlan(start));
+    }
+
+    private static int freeCell(Random random, boolean[] blocked, Set<Integer> used) {
+        int cell;
+        do {
+            cell = random.nextInt(SIZE * SIZE);
+        } while (used.contains(cell));
+        used.add(cell);
+        blocked[cell] = false;
+        return cell;
+    }
+}
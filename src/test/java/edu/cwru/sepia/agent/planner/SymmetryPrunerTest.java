@@ -0,0 +1,131 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import edu.cwru.sepia.agent.planner.WorldModel.TownHallInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Budama optimal maliyeti değiştirmemeli: budamalı A* budamasız A* kadar ucuz plan bulmalı.
+ */
+public class SymmetryPrunerTest {
+
+    private static final int SEEDS = 300;
+
+    @Test
+    public void threeNodeWorldKeepsOptimalCost() {
+        List<ResourceInfo> resources = Arrays.asList(
+                new ResourceInfo(0, 12, 17, false, 100),
+                new ResourceInfo(1, 5, 14, false, 101),
+                new ResourceInfo(2, 18, 2, true, 102));
+        WorldModel world = new WorldModel(resources, new int[]{300, 100, 200},
+                Arrays.asList(new TownHallInfo(0, 10, 10, 0)));
+        GameState start = new GameState(world, 18, 3, 0, 300);
+        for (boolean macro : new boolean[]{false, true}) {
+            assertEquals("macro=" + macro, planCost(start, macro, false), planCost(start, macro, true), 0.0);
+        }
+    }
+
+    // Kapasiteye bakmayan bir "daha yakın düğüm" kuralı burada yanılır: ör. seed 4, 2 TownHall, makrosuz 67 yerine 69
+    @Test
+    public void prunedPlansCostAsMuchAsUnprunedOnRandomMaps() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            for (int halls = 1; halls <= 3; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                for (boolean macro : new boolean[]{false, true}) {
+                    assertEquals("seed " + seed + ", halls " + halls + ", macro=" + macro,
+                            planCost(start, macro, false), planCost(start, macro, true), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pruningKeepsUniformCostSearchOptimalAndSmaller() {
+        // Heuristic'siz aramada baskınlık budaması çok daha fazla state'e dokunuyor
+        long unpruned = 0;
+        long pruned = 0;
+        for (long seed = 1; seed <= SEEDS / 3; seed++) {
+            for (int halls = 1; halls <= 3; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                for (boolean macro : new boolean[]{false, true}) {
+                    AStarPlanner plain = uniformCost(macro, false);
+                    AStarPlanner pruning = uniformCost(macro, true);
+                    assertEquals("seed " + seed + ", halls " + halls + ", macro=" + macro,
+                            RandomWorlds.cost(start, plain.findPlan(start)),
+                            RandomWorlds.cost(start, pruning.findPlan(start)), 0.0);
+                    unpruned += plain.getLastStats().expanded;
+                    pruned += pruning.getLastStats().expanded;
+                }
+            }
+        }
+        assertTrue(pruned + " vs " + unpruned + " expansions", pruned < unpruned);
+    }
+
+    @Test
+    public void prunedPlansCostAsMuchAsUnprunedOnMirroredWorlds() {
+        // Haritasız, TownHall'a göre ayna simetrik dünyalar: simetri sınıfları burada oluşuyor
+        int classes = 0;
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            GameState start = mirrored(seed);
+            classes += new SymmetryPruner(start).symmetryClassCount();
+            for (boolean macro : new boolean[]{false, true}) {
+                assertEquals("mirrored seed " + seed + ", macro=" + macro,
+                        planCost(start, macro, false), planCost(start, macro, true), 0.0);
+            }
+        }
+        assertTrue("no symmetric nodes were generated", classes > 0);
+    }
+
+    private static AStarPlanner uniformCost(boolean macro, boolean pruning) {
+        AStarPlanner planner = new AStarPlanner(macro);
+        planner.setUseSymmetryPruning(pruning);
+        planner.setHeuristic(state -> 0);
+        return planner;
+    }
+
+    private static double planCost(GameState start, boolean macro, boolean pruning) {
+        AStarPlanner planner = new AStarPlanner(macro);
+        planner.setUseSymmetryPruning(pruning);
+        return RandomWorlds.cost(start, planner.findPlan(start));
+    }
+
+    /**
+     * TownHall (10,10)'da; her kaynak çiftinin ikinci üyesi birincinin x = 10
+     * eksenine göre aynası, miktarlar farklı olabilir. Köylü eksen üzerinde.
+     */
+    private static GameState mirrored(long seed) {
+        Random random = new Random(seed);
+        List<ResourceInfo> resources = new ArrayList<>();
+        int pairs = 1 + random.nextInt(2);
+        int[] amounts = new int[2 * pairs];
+        int gold = 0;
+        int wood = 0;
+        for (int p = 0; p < pairs; p++) {
+            int dx = 1 + random.nextInt(8);
+            int y = random.nextInt(20);
+            boolean isGold = p % 2 == 0;
+            resources.add(new ResourceInfo(2 * p, 10 - dx, y, isGold, 100 + 2 * p));
+            resources.add(new ResourceInfo(2 * p + 1, 10 + dx, y, isGold, 101 + 2 * p));
+            for (int k = 2 * p; k <= 2 * p + 1; k++) {
+                amounts[k] = 100 * (1 + random.nextInt(3));
+                if (isGold) {
+                    gold += amounts[k];
+                } else {
+                    wood += amounts[k];
+                }
+            }
+        }
+        WorldModel world = new WorldModel(resources, amounts, Arrays.asList(new TownHallInfo(0, 10, 10, 0)));
+        int requiredGold = 100 * random.nextInt(Math.min(gold, 500) / 100 + 1);
+        int requiredWood = 100 * random.nextInt(Math.min(wood, 500) / 100 + 1);
+        return new GameState(world, 10, random.nextInt(20), requiredGold, requiredWood);
+    }
+}
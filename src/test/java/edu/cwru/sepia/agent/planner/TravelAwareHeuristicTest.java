@@ -0,0 +1,77 @@
+package edu.cwru.sepia.agent.planner;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TravelAwareHeuristic tutarlı olmalı: kapalı düğümleri tekrar açmayan A*
+ * (AStarPlanner) ve AnytimeAStarPlanner'ın "min f" sınırı buna dayanıyor.
+ */
+public class TravelAwareHeuristicTest {
+
+    private static final int SEEDS = 60;
+
+    // Eski (tutarsız) heuristic'le fark eden dünyalar seyrek: ~500'de 15
+    private static final int PLAN_SEEDS = 500;
+
+    @Test
+    public void heuristicIsConsistentOnEveryReachableEdge() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            for (int halls = 1; halls <= 3; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                TravelAwareHeuristic heuristic = new TravelAwareHeuristic();
+                heuristic.prepare(start);
+                ActionCodec codec = new ActionCodec(start.world);
+                int width = start.keyWidth();
+
+                PackedStateSet seen = new PackedStateSet(width);
+                ArrayDeque<long[]> queue = new ArrayDeque<>();
+                seen.add(start.key());
+                queue.add(start.key().clone());
+                int[] codes = new int[codec.maxActions()];
+                long[] successor = new long[width];
+                while (!queue.isEmpty()) {
+                    long[] key = queue.poll();
+                    double h = heuristic.estimate(start, key);
+                    if (start.isGoal(key)) {
+                        assertEquals("h at goal, seed " + seed, 0.0, h, 0.0);
+                    }
+                    for (boolean macro : new boolean[]{false, true}) {
+                        int count = codec.generate(key, macro, codes);
+                        for (int i = 0; i < count; i++) {
+                            codec.writeSuccessorKey(key, codes[i], successor);
+                            double next = heuristic.estimate(start, successor);
+                            assertTrue("inconsistent edge, seed " + seed + ", halls " + halls
+                                            + ": h=" + h + " > " + codec.cost(key, codes[i]) + " + " + next,
+                                    h <= codec.cost(key, codes[i]) + next);
+                            if (seen.add(successor)) {
+                                queue.add(successor.clone());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void aStarPlansCostAsMuchAsUniformCostSearch() {
+        for (long seed = 1; seed <= PLAN_SEEDS; seed++) {
+            for (int halls = 1; halls <= 3; halls++) {
+                GameState start = RandomWorlds.start(seed, halls);
+                String world = "seed " + seed + ", halls " + halls;
+                for (boolean macro : new boolean[]{false, true}) {
+                    double optimal = RandomWorlds.uniformCost(start, macro);
+                    assertEquals("A*(macro=" + macro + "), " + world, optimal,
+                            RandomWorlds.cost(start, new AStarPlanner(macro).findPlan(start)), 0.0);
+                    assertEquals("ARA*(macro=" + macro + "), " + world, optimal,
+                            RandomWorlds.cost(start, new AnytimeAStarPlanner(macro).findPlan(start)), 0.0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package edu.cwru.sepia.agent.planner;
+
+import edu.cwru.sepia.agent.planner.WorldModel.ResourceInfo;
+import edu.cwru.sepia.agent.planner.WorldModel.TownHallInfo;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * WorldModel değişmez: tükenen düğüm yeni bir dünyada açılır, eskisi (onu okuyan
+ * aramalar için) aynen kalır.
+ */
+public class WorldModelTest {
+
+    // 6x3 harita, x = 3 sütunu duvar; ortasında (3,1) bir orman
+    private static WorldModel walledWorld() {
+        boolean[] blocked = new boolean[6 * 3];
+        blocked[3] = true;
+        blocked[2 * 6 + 3] = true;
+        return new WorldModel(
+                Arrays.asList(new ResourceInfo(0, 3, 1, false, 100),
+                        new ResourceInfo(1, 5, 1, true, 101)),
+                new int[]{100, 300},
+                Arrays.asList(new TownHallInfo(0, 0, 1, 0)),
+                6, 3, blocked);
+    }
+
+    @Test
+    public void withExhaustedOpensTheCellInANewWorldOnly() {
+        WorldModel world = walledWorld();
+        long fingerprint = world.fingerprint();
+        int distance = world.distance(0, 1, 5, 1);
+
+        WorldModel opened = world.withExhausted(0);
+
+        assertFalse(world.isPassable(3, 1));
+        assertEquals(fingerprint, world.fingerprint());
+        assertTrue(opened.isPassable(3, 1));
+        assertNotEquals(fingerprint, opened.fingerprint());
+        // Düğümler ve mesafeler (ilgi noktalarından geçiliyordu) aynı
+        assertSame(world.resources(), opened.resources());
+        assertEquals(distance, opened.distance(0, 1, 5, 1));
+        assertEquals(distance, world.distance(0, 1, 5, 1));
+        // Hücre zaten açıksa yeni dünya gerekmez
+        assertSame(opened, opened.withExhausted(0));
+    }
+
+    @Test
+    public void monitorSwitchesToTheNewWorldWhenANodeRunsOut() {
+        WorldModel world = walledWorld();
+        GameState start = new GameState(world, 1, 1, 200, 0);
+        ExecutionMonitor monitor = new ExecutionMonitor(new AStarPlanner());
+        monitor.plan(start);
+
+        long[] key = start.key().clone();
+        GameState.packRemaining(key, 0, 0);
+        monitor.observe(GameState.fromKey(start, key));
+
+        assertTrue(monitor.getPlanEnd().world.isPassable(3, 1));
+        assertFalse(start.world.isPassable(3, 1));
+    }
+}